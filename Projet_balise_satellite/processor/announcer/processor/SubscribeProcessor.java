@@ -0,0 +1,177 @@
+package announcer.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Processeur d'annotations générant les dispatchers des méthodes @Subscribe.
+ *
+ * Pour chaque classe déclarant au moins une méthode annotée announcer.Subscribe, il génère
+ * dans le même package la classe NomDeLaClasse_Dispatcher (implémentation de announcer.Dispatcher)
+ * qui abonne chaque méthode par un ListenerMethod appelant directement la méthode :
+ *
+ * METHOD_0 = new ListenerMethod<Tracker, BaliseMoveEvent>() { ... listener.onBaliseMove(event); }
+ * bus.subscribe(BaliseMoveEvent.class, listener, METHOD_0, source)
+ *
+ * Announcer.registerAll(listener) retrouve ensuite cette classe par son nom.
+ *
+ * Compilation (voir la tâche « Compiler Satellite-Balise » de .vscode/tasks.json) :
+ * 1. javac -d processor-bin processor/announcer/processor/SubscribeProcessor.java
+ * 2. javac -processorpath processor-bin -processor announcer.processor.SubscribeProcessor ... (sources du projet)
+ *
+ * Ce processeur vit dans un dossier source séparé (processor/) car il doit être compilé
+ * avant les classes qu'il traite ; il ne dépend pas des classes du projet.
+ */
+@SupportedAnnotationTypes(SubscribeProcessor.SUBSCRIBE)
+public class SubscribeProcessor extends AbstractProcessor {
+	static final String SUBSCRIBE = "announcer.Subscribe";
+	private static final String EVENT = "announcer.AbstractEvent";
+	private static final String SUFFIX = "_Dispatcher";
+
+	private Elements elements;
+	private Types types;
+	private Filer filer;
+	private Messager messager;
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		elements = processingEnv.getElementUtils();
+		types = processingEnv.getTypeUtils();
+		filer = processingEnv.getFiler();
+		messager = processingEnv.getMessager();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement subscribe = elements.getTypeElement(SUBSCRIBE);
+		if (subscribe == null) return false;
+
+		// Méthodes @Subscribe regroupées par classe (ordre de déclaration conservé)
+		Map<TypeElement, List<ExecutableElement>> byClass = new LinkedHashMap<>();
+		for (Element e : roundEnv.getElementsAnnotatedWith(subscribe)) {
+			ExecutableElement method = (ExecutableElement) e;
+			if (isValid(method)) {
+				byClass.computeIfAbsent((TypeElement) method.getEnclosingElement(), k -> new ArrayList<>()).add(method);
+			}
+		}
+		for (Map.Entry<TypeElement, List<ExecutableElement>> entry : byClass.entrySet()) {
+			generate(entry.getKey(), entry.getValue());
+		}
+		return true;
+	}
+
+	/**
+	 * Vérifie qu'une méthode peut être appelée par le dispatcher généré (erreur de compilation sinon).
+	 */
+	private boolean isValid(ExecutableElement method) {
+		Set<Modifier> modifiers = method.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+			return error(method, "@Subscribe method must be neither private nor static");
+		}
+		if (method.getParameters().size() != 1 || method.getParameters().get(0).asType().getKind() != TypeKind.DECLARED) {
+			return error(method, "@Subscribe method must take exactly one event parameter");
+		}
+		// Sinon l'erreur n'apparaîtrait que dans le dispatcher généré (bus.subscribe(Class<E extends AbstractEvent>, ...))
+		TypeElement event = elements.getTypeElement(EVENT);
+		if (event != null && !types.isAssignable(types.erasure(method.getParameters().get(0).asType()), types.erasure(event.asType()))) {
+			return error(method, "@Subscribe method parameter must be a subtype of " + EVENT);
+		}
+		TypeElement owner = (TypeElement) method.getEnclosingElement();
+		if (owner.getKind() != ElementKind.CLASS || owner.getModifiers().contains(Modifier.PRIVATE)
+				|| (owner.getNestingKind() != NestingKind.TOP_LEVEL
+						&& !(owner.getNestingKind() == NestingKind.MEMBER && owner.getModifiers().contains(Modifier.STATIC)))) {
+			return error(method, "@Subscribe methods must be declared in a top-level or static nested, non-private class");
+		}
+		return true;
+	}
+
+	private boolean error(Element e, String message) {
+		messager.printMessage(Diagnostic.Kind.ERROR, message, e);
+		return false;
+	}
+
+	/**
+	 * Écrit la classe NomDeLaClasse_Dispatcher pour les méthodes d'une classe.
+	 */
+	private void generate(TypeElement owner, List<ExecutableElement> methods) {
+		PackageElement pkg = elements.getPackageOf(owner);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String binaryName = elements.getBinaryName(owner).toString();
+		// Nom attendu par Announcer.registerAll() : nom binaire + suffixe (ex: Outer$Inner_Dispatcher)
+		String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+		String listenerType = types.erasure(owner.asType()).toString();
+
+		try {
+			JavaFileObject file = filer.createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + simpleName, owner);
+			try (PrintWriter out = new PrintWriter(file.openWriter())) {
+				if (!packageName.isEmpty()) {
+					out.println("package " + packageName + ";");
+					out.println();
+				}
+				out.println("/**");
+				out.println(" * Dispatcher de " + owner.getSimpleName() + " généré par SubscribeProcessor à partir de ses méthodes @Subscribe.");
+				out.println(" * Ne pas modifier : régénéré à chaque compilation.");
+				out.println(" */");
+				out.println("public final class " + simpleName + " implements announcer.Dispatcher<" + listenerType + "> {");
+				// Un appel direct par méthode, partagé par toutes les instances du listener
+				for (int i = 0; i < methods.size(); i++) {
+					ExecutableElement m = methods.get(i);
+					TypeMirror eventType = types.erasure(m.getParameters().get(0).asType());
+					String invoker = "announcer.ListenerMethod<" + listenerType + ", " + eventType + ">";
+					out.println("\tprivate static final " + invoker + " METHOD_" + i + " = new " + invoker + "() {");
+					out.println("\t\t@Override");
+					out.println("\t\tprotected void invoke(" + listenerType + " listener, " + eventType + " event) {");
+					out.println("\t\t\tlistener." + m.getSimpleName() + "(event);");
+					out.println("\t\t}");
+					out.println("\t};");
+				}
+				out.println();
+				out.println("\t@Override");
+				out.println("\tpublic announcer.Subscription[] subscribe(announcer.Announcer bus, " + listenerType
+						+ " listener, announcer.EventSource source) {");
+				out.println("\t\treturn new announcer.Subscription[] {");
+				for (int i = 0; i < methods.size(); i++) {
+					TypeMirror eventType = types.erasure(methods.get(i).getParameters().get(0).asType());
+					out.println("\t\t\tbus.subscribe(" + eventType + ".class, listener, METHOD_" + i + ", source),");
+				}
+				out.println("\t\t};");
+				out.println("\t}");
+				out.println("}");
+			}
+		} catch (IOException e) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write " + simpleName + ": " + e.getMessage(), owner);
+		}
+	}
+}
@@ -14,6 +14,16 @@ public abstract class AbstractEvent extends EventObject {
 	
 	private static final long serialVersionUID = -3665126000236217922L;
 
+	/** Identifiant dense du type d'événement (0 = pas encore calculé), voir EventTypes */
+	private transient int typeId;
+
+	/** Tick de simulation à l'émission, -1 si l'événement n'est pas horodaté (voir EventLatency) */
+	private long tick = -1;
+	/** System.nanoTime() à l'émission, 0 si l'événement n'est pas horodaté (propre à la JVM : non sérialisé) */
+	private transient long emitNanos;
+	/** Tick transactionnel où l'instance est déjà en attente (jeton de TickBuffers), sinon autre valeur */
+	transient Object pendingTick;
+
 	/**
 	 * Constructeur de base pour créer un événement.
 	 * 
@@ -31,4 +41,76 @@ public abstract class AbstractEvent extends EventObject {
 	 * @param target Le listener qui doit recevoir l'événement
 	 */
 	public void sentTo(Object target) {}
+
+	/**
+	 * Retourne une version de l'événement utilisable après la fin de announce()
+	 * (livraison différée, voir ListenerBudget).
+	 * Par défaut l'événement lui-même ; les événements réutilisés par leur source
+	 * (ex: BaliseMoveEvent) redéfinissent cette méthode pour retourner une copie.
+	 * 
+	 * @return L'événement, ou une copie qui ne sera plus modifiée
+	 */
+	public AbstractEvent detach() {
+		return this;
+	}
+
+	/**
+	 * Horodate l'émission de l'événement (appelé par Announcer.announce() si EventLatency.ENABLED).
+	 * Un événement réutilisé par sa source est horodaté à nouveau à chaque émission.
+	 * 
+	 * @param tick Tick de simulation en cours
+	 */
+	public void stamp(long tick) {
+		this.tick = tick;
+		this.emitNanos = System.nanoTime();
+	}
+
+	/**
+	 * Date l'événement d'un tick connu, sans horodatage System.nanoTime() : getEmitNanos() reste 0
+	 * et les mesures de latence l'ignorent (ex: événement relu d'un journal, voir codec.EventRecord).
+	 *
+	 * @param tick Tick de simulation à l'émission d'origine
+	 */
+	public void setTick(long tick) {
+		this.tick = tick;
+	}
+
+	/**
+	 * Reprend l'horodatage d'un autre événement (copies détachées, voir detach()).
+	 * 
+	 * @param other L'événement copié
+	 */
+	protected void stampFrom(AbstractEvent other) {
+		this.tick = other.tick;
+		this.emitNanos = other.emitNanos;
+	}
+
+	/**
+	 * @return Tick de simulation à l'émission, -1 si l'événement n'est pas horodaté
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return System.nanoTime() à l'émission, 0 si l'événement n'est pas horodaté
+	 */
+	public long getEmitNanos() {
+		return emitNanos;
+	}
+
+	/**
+	 * Retourne l'identifiant dense du type concret de cet événement.
+	 * Calculé paresseusement puis mémorisé (il n'est pas sérialisé car propre à l'exécution).
+	 *
+	 * @return Index de ce type dans la table de diffusion de l'Announcer
+	 */
+	final int typeId() {
+		int id = typeId;
+		if (id == 0) {
+			id = EventTypes.idOf(getClass());
+			typeId = id;
+		}
+		return id;
+	}
 }
@@ -1,98 +1,872 @@
 package announcer;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Gestionnaire central du Pattern Observable (médiateur d'événements).
  * L'Announcer maintient un registre des listeners par type d'événement et distribue
  * les événements aux listeners enregistrés.
- * 
+ *
  * Principe : Les objets s'enregistrent pour recevoir des types d'événements spécifiques,
- * puis l'Announcer leur transmet automatiquement tous les événements de ce type.
- * 
+ * puis l'Announcer leur transmet automatiquement tous les événements de ce type
+ * et de ses sous-types. Un listener enregistré pour AbstractEvent, pour une classe mère
+ * ou pour une interface (ex: BaliseEvent) reçoit donc tous les événements concrets
+ * qui en héritent.
+ *
+ * Bus partagé : par défaut, toutes les balises et tous les satellites émettent sur le même
+ * Announcer (shared()). Un seul abonnement suffit alors pour observer toute la flotte.
+ * Pour n'observer qu'une entité, on s'abonne avec un filtre de source
+ * (register(listener, type, source)) : ces abonnements sont rangés dans la source elle-même
+ * (voir EventSource) et ne coûtent rien aux autres entités.
+ *
+ * Organisation interne : chaque type possède un identifiant entier dense (voir EventTypes)
+ * qui sert d'index dans les tables d'un Registry (listeners par type déclaré, et cache
+ * des listeners résolus par classe concrète). announce() se réduit ainsi à un ou deux
+ * accès tableau et une boucle, sans allocation.
+ *
+ * Concurrence : l'Announcer peut être utilisé depuis plusieurs threads à la fois
+ * (ex: vue enregistrée sur l'EDT pendant que la simulation diffuse, plusieurs threads de simulation).
+ * - announce() est sans verrou : il lit un instantané immuable (Registry) publié par une écriture volatile.
+ * - register()/unregister() sont sérialisés par un verrou et publient un nouvel instantané (copy-on-write).
+ * Une diffusion déjà commencée se termine avec l'instantané qu'elle a lu.
+ *
+ * Enregistrements faibles : registerWeak() ne retient pas le listener. Les entrées dont le
+ * listener a été libéré sont signalées par une ReferenceQueue, consultée (sans verrou) à chaque
+ * announce() ; la purge n'a donc lieu que lorsque le ramasse-miettes a effectivement libéré quelque chose.
+ *
+ * Désabonnement : chaque register() retourne une Subscription dont close() coûte O(1) :
+ * l'abonnement est marqué annulé (ignoré dès lors par announce()), et les abonnements annulés
+ * sont retirés des tableaux par lots, quand ils représentent une part suffisante du total.
+ *
+ * Abonnements typés : subscribe(type, consumer) livre l'événement directement à un Consumer,
+ * sans Double Dispatch ni conversion du listener.
+ *
+ * Abonnements filtrés : l'Announcer peut restreindre la livraison aux événements positionnés
+ * (LocatedEvent) situés dans une Region, ou aux sources satisfaisant un prédicat.
+ * Les régions sont indexées dans une grille à cellules fixes (RegionIndex) : un événement n'examine
+ * que les abonnements de la cellule qui contient sa position (et les rares régions trop étendues
+ * pour la grille), quel que soit le nombre total de régions.
+ *
+ * Abonnements fusionnés : subscribeConflated() livre via un Executor le dernier événement
+ * de chaque source ; un consommateur en retard saute les états intermédiaires.
+ * Réservé aux événements Conflatable (positions), jamais aux changements d'état ni aux synchronisations.
+ *
+ * Abonnement par annotations : registerAll(listener) abonne en un appel les méthodes @Subscribe
+ * du listener, grâce aux dispatchers générés à la compilation (appels directs, sans réflexion).
+ * Chaque méthode est livrée une fois par événement, même si plusieurs acceptent le même type.
+ *
+ * Mode transactionnel : entre beginTick() et endTick(), les événements sont mis en attente
+ * (un tampon par thread) puis livrés dans un ordre stable (tick, entité, séquence), même si
+ * le tick a été calculé sur plusieurs threads (voir TickBuffers).
+ *
+ * Mode interface graphique : registerOnFrame() collecte les événements d'un listener Swing pendant
+ * le tick et les lui livre par lots, un seul invokeLater() par image (voir FrameBatcher).
+ *
+ * Budget par listener : setListenerBudget() chronomètre les livraisons (par échantillonnage), signale les listeners
+ * trop lents et peut les basculer sur un Executor (quarantaine) pour protéger le tick de simulation.
+ *
  * @see AbstractEvent
+ * @see EventSource
+ * @see Subscription
  */
 public class Announcer {
-	/** Index des listeners enregistrés, organisé par type d'événement */
-	Map<Class<? extends AbstractEvent>, List<Object>> registrationIndex;
-	
+	/** Bus partagé par défaut par les balises et les satellites */
+	private static final Announcer SHARED = new Announcer();
+
+	/** Nombre minimal d'abonnements annulés avant de reconstruire les tableaux */
+	private static final int COMPACT_THRESHOLD = 32;
+
+	/** Propriétaire de l'emplacement des abonnements d'une source (voir EventSource) */
+	private static final AtomicReferenceFieldUpdater<EventSource, Announcer> SOURCE_OWNER =
+			AtomicReferenceFieldUpdater.newUpdater(EventSource.class, Announcer.class, "sourceAnnouncer");
+
+	/** Abonnements globaux (toutes sources), remplacés à chaque register/unregister */
+	private volatile Registry registry;
+
+	/** Abonnements par région, indexés spatialement (copy-on-write) */
+	private volatile RegionIndex regions = RegionIndex.EMPTY;
+
+	/** Sérialise les écritures (les lectures n'en ont pas besoin) */
+	private final Object writeLock = new Object();
+
+	/** File des listeners faibles libérés, créée au premier registerWeak() */
+	private volatile ReferenceQueue<Object> clearedListeners;
+
+	/** Budget de temps par listener, ou null si les listeners ne sont pas chronométrés */
+	private volatile ListenerBudget budget;
+
+	/** Tick ouvert par beginTick() (événements mis en attente), ou null : livraison immédiate */
+	private volatile TickBuffers openTick;
+	/** Tampons réutilisés d'un tick à l'autre (sous writeLock) */
+	private TickBuffers tickBuffers;
+	/** Tick de simulation en cours, pour l'horodatage des événements (voir EventLatency) */
+	private volatile long tick;
+
+	/** Abonnements annulés par close() mais encore présents dans les tableaux (sous writeLock) */
+	private final List<Subscription> cancelled = new ArrayList<>();
+	/** Nombre d'abonnements (globaux et par source) dans les tableaux (sous writeLock) */
+	private int subscriptionCount;
+	/**
+	 * Abonnements annulés rencontrés par announce() depuis le dernier compactage
+	 * (approximatif : incrémenté sans verrou par les threads qui diffusent)
+	 */
+	private int deadVisits;
+
 	/**
 	 * Constructeur créant un Announcer vide.
 	 */
 	public Announcer() {
-		registrationIndex = new HashMap<>();
+		registry = Registry.EMPTY;
 	}
-	
+
 	/**
-	 * Enregistre un listener pour recevoir un type d'événement spécifique.
-	 * 
+	 * @return Le bus partagé utilisé par défaut par les balises et les satellites
+	 */
+	public static Announcer shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Active la surveillance du temps passé dans chaque listener.
+	 *
+	 * Les livraisons sont alors chronométrées (une sur ListenerBudget.SAMPLE_INTERVAL par listener,
+	 * toutes pour un listener qui a déjà dépassé le budget) ; un listener qui dépasse le budget est signalé
+	 * par java.util.logging et dans sa Subscription (getOverrunCount()), et apparaît dans getSlowListeners().
+	 * Si quarantine n'est pas null, un listener qui a dépassé le budget strikes fois est ensuite
+	 * servi de façon asynchrone par cet Executor, pour protéger la durée du tick de simulation.
+	 *
+	 * Exemple : announcer.setListenerBudget(TimeUnit.MILLISECONDS.toNanos(2), 3, Executors.newSingleThreadExecutor())
+	 *
+	 * @param budgetNanos Durée maximale d'une livraison, en nanosecondes
+	 * @param strikes Nombre de dépassements avant la mise en quarantaine
+	 * @param quarantine Executor des listeners en quarantaine, ou null pour signaler seulement
+	 */
+	public void setListenerBudget(long budgetNanos, int strikes, Executor quarantine) {
+		setListenerBudget(budgetNanos, strikes, quarantine, ListenerBudget.LOG);
+	}
+
+	/**
+	 * Variante de setListenerBudget() dont les dépassements et mises en quarantaine sont signalés
+	 * à reporter (ex: affichage par l'application) au lieu de java.util.logging.
+	 *
+	 * @param budgetNanos Durée maximale d'une livraison, en nanosecondes
+	 * @param strikes Nombre de dépassements avant la mise en quarantaine
+	 * @param quarantine Executor des listeners en quarantaine, ou null pour signaler seulement
+	 * @param reporter Prévenu au premier dépassement de chaque listener et à sa mise en quarantaine
+	 */
+	public void setListenerBudget(long budgetNanos, int strikes, Executor quarantine, BudgetOverrunListener reporter) {
+		budget = new ListenerBudget(budgetNanos, strikes, quarantine, Objects.requireNonNull(reporter));
+	}
+
+	/**
+	 * Désactive la surveillance du temps des listeners. Les listeners déjà en quarantaine
+	 * sont de nouveau servis directement.
+	 */
+	public void clearListenerBudget() {
+		budget = null;
+	}
+
+	/**
+	 * @return Les abonnements ayant dépassé le budget actuel au moins une fois (vide sans budget)
+	 */
+	public List<Subscription> getSlowListeners() {
+		ListenerBudget b = budget;
+		return (b == null) ? Collections.emptyList() : Collections.unmodifiableList(b.slowSubscriptions);
+	}
+
+	/**
+	 * Enregistre un listener pour recevoir un type d'événement et tous ses sous-types,
+	 * quelle que soit leur source.
+	 *
 	 * Exemple : announcer.register(baliseView, BaliseMoveEvent.class)
 	 * → baliseView recevra tous les BaliseMoveEvent diffusés par cet announcer
-	 * 
+	 *
 	 * @param o Le listener à enregistrer (doit implémenter l'interface correspondant à l'événement)
-	 * @param eventClass Le type d'événement auquel s'abonner (ex: BaliseMoveEvent.class)
+	 * @param eventClass Le type d'événement auquel s'abonner : sous-classe de AbstractEvent
+	 *                   ou interface implémentée par des événements (ex: BaliseEvent.class)
+	 * @return L'abonnement, dont close() désabonne le listener
+	 */
+	public Subscription register(Object o, Class<?> eventClass) {
+		return add(new Subscription(this, o, o.getClass(), null), eventClass);
+	}
+
+	/**
+	 * Enregistre un listener pour les seuls événements émis par une source donnée.
+	 *
+	 * Exemple : announcer.register(baliseView, BaliseEvent.class, balise)
+	 * → baliseView ne reçoit que les événements de sa balise, même sur le bus partagé
+	 *
+	 * @param o Le listener à enregistrer
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param source La source (getSource() de l'événement) à observer
+	 * @return L'abonnement, dont close() désabonne le listener
+	 * @throws IllegalArgumentException si la source a déjà des abonnements sur un autre Announcer
+	 *         (voir EventSource ; de même pour les autres abonnements par source)
+	 */
+	public Subscription register(Object o, Class<?> eventClass, EventSource source) {
+		return add(new Subscription(this, o, o.getClass(), source), eventClass);
+	}
+
+	/**
+	 * Enregistre un listener par référence faible : l'Announcer ne l'empêche pas d'être libéré.
+	 *
+	 * À utiliser pour les vues dont la durée de vie est plus courte que celle du modèle observé
+	 * (ex: BaliseView retirée de l'affichage alors que la Balise continue d'émettre).
+	 * Une fois le listener libéré, il ne reçoit plus rien et son entrée est purgée automatiquement.
+	 * Attention : un listener qui n'est référencé nulle part ailleurs (ex: lambda) est libéré aussitôt.
+	 *
+	 * @param o Le listener à enregistrer
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @return L'abonnement, dont close() désabonne le listener
+	 */
+	public Subscription registerWeak(Object o, Class<?> eventClass) {
+		return registerWeak(o, eventClass, null);
+	}
+
+	/**
+	 * Enregistre par référence faible un listener des seuls événements d'une source donnée.
+	 *
+	 * @param o Le listener à enregistrer
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param source La source à observer (null : toutes les sources)
+	 * @return L'abonnement, dont close() désabonne le listener
+	 * @see #registerWeak(Object, Class)
+	 */
+	public Subscription registerWeak(Object o, Class<?> eventClass, EventSource source) {
+		checkEventType(eventClass);
+		synchronized (writeLock) {
+			WeakListener ref = new WeakListener(o, source, referenceQueue());
+			return add(new Subscription(this, ref, o.getClass(), source), eventClass);
+		}
+	}
+
+	/**
+	 * Abonne un Consumer typé à un type d'événement et à ses sous-types.
+	 * L'événement est passé tel quel au Consumer (pas de sentTo() ni de conversion du listener).
+	 *
+	 * Exemple : announcer.subscribe(BaliseMoveEvent.class, e -> trace(e.getX(), e.getY()))
+	 *
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param consumer Le traitement appelé pour chaque événement
+	 * @return L'abonnement, dont close() désabonne le Consumer
+	 */
+	public <E> Subscription subscribe(Class<E> eventClass, Consumer<? super E> consumer) {
+		return subscribe(eventClass, consumer, null);
+	}
+
+	/**
+	 * Abonne un Consumer typé aux seuls événements d'une source donnée.
+	 *
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param consumer Le traitement appelé pour chaque événement
+	 * @param source La source à observer (null : toutes les sources)
+	 * @return L'abonnement, dont close() désabonne le Consumer
+	 */
+	public <E> Subscription subscribe(Class<E> eventClass, Consumer<? super E> consumer, EventSource source) {
+		return add(new ConsumerSubscription<E>(this, consumer, source), eventClass);
+	}
+
+	/**
+	 * Enregistre un listener pour les événements positionnés (LocatedEvent) émis dans une région.
+	 * Les événements hors de la région ne lui sont pas transmis.
+	 *
+	 * Exemple : announcer.register(sectorView, BaliseMoveEvent.class, new Region(0, 300, 400, 300))
+	 *
+	 * @param o Le listener à enregistrer
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param region La zone à observer
+	 * @return L'abonnement, dont close() désabonne le listener
+	 */
+	public Subscription register(Object o, Class<?> eventClass, Region region) {
+		return addInRegion(new Subscription(this, o, o.getClass(), null), eventClass, region);
+	}
+
+	/**
+	 * Abonne un Consumer typé aux événements positionnés émis dans une région.
+	 *
+	 * Exemple : announcer.subscribe(BaliseMoveEvent.class, secteurNord, e -> compteur.increment())
+	 *
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param region La zone à observer
+	 * @param consumer Le traitement appelé pour chaque événement dans la zone
+	 * @return L'abonnement, dont close() désabonne le Consumer
 	 */
-	public void register(Object o, Class<? extends AbstractEvent> eventClass) {
-		// Récupérer la liste des listeners pour ce type d'événement
-		List<Object> l = registrationIndex.get(eventClass);
-		// Si aucun listener n'existe encore pour ce type, créer une nouvelle liste
-		if (l == null) {
-			l = new ArrayList<Object>();
-			registrationIndex.put(eventClass, l);
+	public <E extends LocatedEvent> Subscription subscribe(Class<E> eventClass, Region region, Consumer<? super E> consumer) {
+		return addInRegion(new ConsumerSubscription<E>(this, consumer, null), eventClass, region);
+	}
+
+	/**
+	 * Abonne un Consumer typé aux événements dont la source satisfait un prédicat.
+	 * Le prédicat est évalué par l'Announcer à chaque diffusion ; les sources d'un autre
+	 * type que sourceClass sont ignorées.
+	 *
+	 * Exemple : announcer.subscribe(BaliseMoveEvent.class, Balise.class,
+	 *                               b -> b.getState() == BaliseState.REMONTEE, e -> ...)
+	 *
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param sourceClass Le type de source attendu
+	 * @param sourceFilter Le prédicat que doit satisfaire la source
+	 * @param consumer Le traitement appelé pour chaque événement retenu
+	 * @return L'abonnement, dont close() désabonne le Consumer
+	 */
+	public <E, S> Subscription subscribe(Class<E> eventClass, Class<S> sourceClass, Predicate<? super S> sourceFilter, Consumer<? super E> consumer) {
+		return add(new FilteredSubscription<E, S>(this, consumer, sourceClass, sourceFilter), eventClass);
+	}
+
+	/**
+	 * Abonne une méthode de listener, appelée directement par un ListenerMethod.
+	 * Utilisé par les dispatchers générés pour les méthodes @Subscribe (voir registerAll()).
+	 *
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param listener Le listener, conservé par l'abonnement (unregister(listener, eventClass) le retire)
+	 * @param method L'appel de la méthode du listener
+	 * @param source La source à observer (null : toutes les sources)
+	 * @return L'abonnement, dont close() désabonne la méthode
+	 */
+	public <L, E> Subscription subscribe(Class<E> eventClass, L listener, ListenerMethod<L, E> method, EventSource source) {
+		return add(new MethodSubscription<L, E>(this, listener, method, source), eventClass);
+	}
+
+	/**
+	 * Abonne en un seul appel toutes les méthodes @Subscribe d'un listener
+	 * (et de ses classes mères), via les dispatchers générés à la compilation.
+	 *
+	 * Exemple : announcer.registerAll(listener)
+	 *
+	 * @param listener L'objet dont les méthodes @Subscribe recevront les événements
+	 * @return Les abonnements créés, un par méthode @Subscribe
+	 * @throws IllegalArgumentException si aucun dispatcher n'a été généré pour cette classe
+	 *         (aucune méthode @Subscribe, ou processeur d'annotations absent de la compilation)
+	 */
+	public List<Subscription> registerAll(Object listener) {
+		return registerAll(listener, null);
+	}
+
+	/**
+	 * Abonne toutes les méthodes @Subscribe d'un listener aux seuls événements d'une source.
+	 *
+	 * @param listener L'objet dont les méthodes @Subscribe recevront les événements
+	 * @param source La source à observer (null : toutes les sources)
+	 * @return Les abonnements créés, un par méthode @Subscribe
+	 * @see #registerAll(Object)
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public List<Subscription> registerAll(Object listener, EventSource source) {
+		Dispatcher<?>[] dispatchers = Dispatchers.of(listener.getClass());
+		if (dispatchers.length == 0) {
+			throw new IllegalArgumentException("No " + Dispatchers.SUFFIX + " generated for " + listener.getClass().getName()
+					+ " (no @Subscribe method, or annotation processor not run)");
+		}
+		List<Subscription> subscriptions = new ArrayList<>();
+		for (Dispatcher d : dispatchers) {
+			Collections.addAll(subscriptions, d.subscribe(this, listener, source));
 		}
-		// Ajouter le nouveau listener à la liste
-		l.add(o);
+		return subscriptions;
 	}
 
 	/**
-	 * Désenregistre un listener d'un type d'événement spécifique.
-	 * 
+	 * Abonne un Consumer en mode fusionné : seul le dernier événement de chaque source est conservé
+	 * jusqu'à ce que l'Executor l'exécute, les précédents non livrés sont abandonnés.
+	 *
+	 * Exemple : announcer.subscribeConflated(BaliseMoveEvent.class, SwingUtilities::invokeLater, view::onBaliseMove)
+	 * → la vue, sur l'EDT, ne redessine que la dernière position de chaque balise
+	 *
+	 * @param eventClass Type d'événement (doit implémenter Conflatable)
+	 * @param executor Exécute les livraisons (ex: EDT, pool de threads du consommateur)
+	 * @param consumer Le traitement appelé avec le dernier événement de chaque source
+	 * @return L'abonnement, avec ses compteurs d'événements livrés et fusionnés
+	 * @throws IllegalArgumentException si eventClass n'implémente pas Conflatable
+	 */
+	public <E extends Conflatable> ConflatingSubscription<E> subscribeConflated(Class<E> eventClass, Executor executor, Consumer<? super E> consumer) {
+		if (!Conflatable.class.isAssignableFrom(eventClass)) {
+			throw new IllegalArgumentException(eventClass.getName() + " is not Conflatable");
+		}
+		ConflatingSubscription<E> subscription = new ConflatingSubscription<>(this, consumer, executor);
+		add(subscription, eventClass);
+		return subscription;
+	}
+
+	/**
+	 * Enregistre un listener d'interface graphique : ses événements sont collectés pendant le tick
+	 * et livrés par le FrameBatcher à l'image suivante, sur le thread de l'interface (EDT pour
+	 * FrameBatcher.swing()). Les composants Swing ne sont ainsi jamais modifiés depuis le thread
+	 * de simulation.
+	 *
+	 * Exemple : announcer.registerOnFrame(baliseView, BaliseEvent.class, balise, frames)
+	 *
+	 * @param o Le listener à enregistrer
+	 * @param eventClass Le type d'événement auquel s'abonner
+	 * @param source La source à observer (null : toutes les sources)
+	 * @param frames Le regroupement par image, commun aux listeners d'une même fenêtre
+	 * @return L'abonnement, dont close() désabonne le listener (événements en attente compris)
+	 */
+	public Subscription registerOnFrame(Object o, Class<?> eventClass, EventSource source, FrameBatcher frames) {
+		return add(new FrameSubscription(this, o, source, frames), eventClass);
+	}
+
+	/**
+	 * Ajoute un abonnement à l'index des régions et publie le nouvel index.
+	 */
+	private Subscription addInRegion(Subscription subscription, Class<?> eventClass, Region region) {
+		checkEventType(eventClass);
+		synchronized (writeLock) {
+			regions = regions.with(new RegionIndex.Entry(subscription, eventClass, region));
+			subscriptionCount++;
+		}
+		return subscription;
+	}
+
+	/**
+	 * Ajoute un abonnement aux abonnements globaux ou à ceux de sa source,
+	 * et publie le nouvel instantané.
+	 */
+	private Subscription add(Subscription subscription, Class<?> eventClass) {
+		checkEventType(eventClass);
+		int id = EventTypes.idOf(eventClass);
+		synchronized (writeLock) {
+			EventSource source = subscription.source;
+			if (source == null) {
+				registry = registry.with(subscription, eventClass, id);
+			} else {
+				claim(source);
+				Registry r = source.sourceSubscriptions;
+				source.sourceSubscriptions = (r == null ? Registry.EMPTY : r).with(subscription, eventClass, id);
+			}
+			subscriptionCount++;
+		}
+		return subscription;
+	}
+
+	/**
+	 * Désenregistre un listener global d'un type d'événement spécifique.
+	 * Sans effet si le listener n'était pas enregistré pour ce type.
+	 * Fonctionne aussi pour un listener enregistré par registerWeak() ou avec une région.
+	 *
+	 * Pour un désabonnement en temps constant, préférer Subscription.close().
+	 *
+	 * @param o Le listener à désenregistrer
+	 * @param eventClass Le type d'événement dont se désabonner (le même que lors du register)
+	 */
+	public void unregister (Object o, Class<?> eventClass) {
+		int id = EventTypes.idOf(eventClass);
+		synchronized (writeLock) {
+			Registry r = registry;
+			registry = r.without(o, id);
+			RegionIndex index = regions;
+			regions = index.without(o, eventClass);
+			subscriptionCount -= r.size() - registry.size() + index.size() - regions.size();
+		}
+	}
+
+	/**
+	 * Désenregistre un listener abonné à une source donnée.
+	 * Sans effet s'il n'était pas enregistré pour ce type et cette source.
+	 *
 	 * @param o Le listener à désenregistrer
 	 * @param eventClass Le type d'événement dont se désabonner
+	 * @param source La source indiquée lors du register
+	 */
+	public void unregister(Object o, Class<?> eventClass, EventSource source) {
+		int id = EventTypes.idOf(eventClass);
+		synchronized (writeLock) {
+			Registry r = source.sourceSubscriptions;
+			if (r == null || source.sourceAnnouncer != this) return;
+			Registry updated = r.without(o, id);
+			subscriptionCount -= r.size() - updated.size();
+			setSourceSubscriptions(source, updated);
+		}
+	}
+
+	/**
+	 * Annule un abonnement (appelé par Subscription.close()).
+	 * L'abonnement est ignoré dès maintenant ; son retrait des tableaux est différé
+	 * et groupé avec les suivants, ce qui rend le coût amorti constant.
+	 * Les tableaux sont reconstruits dès que la moitié des abonnements est annulée, ou
+	 * quand announce() a parcouru autant d'abonnements annulés qu'il y a d'abonnements
+	 * (voir skipped()) : un abonnement annulé mais encore visité ne reste pas indéfiniment.
 	 */
-	public void unregister (Object o, Class<? extends AbstractEvent> eventClass) {
-		List<Object> l = registrationIndex.get(eventClass);
-		Iterator<Object> itor =  l.iterator();
-		while (itor.hasNext()) {
-			Object current = itor.next();
-			if (o == current) itor.remove();
+	void cancel(Subscription subscription) {
+		synchronized (writeLock) {
+			if (!subscription.cancel()) return;
+			cancelled.add(subscription);
+			int n = cancelled.size();
+			if (n >= COMPACT_THRESHOLD && 2 * n >= subscriptionCount) compactCancelled();
 		}
-		// Nettoie l'index si plus aucun listener pour ce type d'événement
-		if (l.isEmpty()) {
-			registrationIndex.remove(eventClass);
+	}
+
+	/**
+	 * Retire des tableaux tous les abonnements annulés en attente. Doit être appelé sous writeLock.
+	 */
+	private void compactCancelled() {
+		boolean global = false;
+		for (Subscription s : cancelled) {
+			EventSource source = s.source;
+			if (source == null) {
+				global = true;
+			} else if (source.sourceSubscriptions != null) {
+				purge(source);
+			}
 		}
+		cancelled.clear();
+		if (global) purgeGlobal();
 	}
-	
+
 	/**
-	 * Diffuse un événement à tous les listeners enregistrés pour son type (Pattern Observable).
-	 * 
-	 * Processus en 3 étapes :
-	 * 1. Récupérer la liste des listeners abonnés à ce type d'événement
-	 * 2. Copier la liste pour éviter les modifications concurrentes
-	 * 3. Appeler anEvent.sentTo(listener) pour chaque listener (Double Dispatch Pattern)
-	 * 
+	 * Diffuse un événement à tous les listeners enregistrés pour son type
+	 * ou l'un de ses super-types (Pattern Observable).
+	 *
+	 * Processus en 2 étapes :
+	 * 1. Récupérer les tableaux (mis en cache) des listeners concernés par cette classe d'événement :
+	 *    listeners globaux, puis listeners abonnés à la source de l'événement
+	 * 2. Appeler anEvent.sentTo(listener) pour chaque listener (Double Dispatch Pattern)
+	 * Si l'événement est positionné, les abonnements par région qui contiennent sa position
+	 * sont ensuite prévenus à leur tour.
+	 *
+	 * Les tableaux récupérés ne sont jamais modifiés (copy-on-write) : un listener peut donc
+	 * se désenregistrer pendant la diffusion sans copie préalable ni ConcurrentModificationException.
+	 *
 	 * Le Double Dispatch permet à l'événement de se transmettre lui-même au listener :
 	 * - announce() appelle event.sentTo(listener)
 	 * - sentTo() appelle listener.onSpecificEvent(this)
-	 * 
+	 *
+	 * Entre beginTick() et endTick(), l'événement est seulement mis en attente (mode transactionnel),
+	 * sauf s'il n'a alors aucun abonné : comme en livraison immédiate, un listener enregistré
+	 * après la publication ne le reçoit pas.
+	 *
 	 * @param anEvent L'événement à diffuser (ex: BaliseMoveEvent, SatelliteMoveEvent, etc.)
 	 */
 	public void announce(AbstractEvent anEvent) {
-		// Étape 1 : Identifier le type exact de l'événement (BaliseMoveEvent, etc.)
-		Class<?> eventClass = anEvent.getClass();
-		// Récupérer la liste des listeners enregistrés pour ce type
-		List<Object> l = registrationIndex.get(eventClass);
-		if (l == null) return; // Si aucun listener, ne rien faire (optimisation)
-		
-		// Étape 2 : Copier la liste dans un tableau pour éviter ConcurrentModificationException
-		// (au cas où un listener se désenregistrerait pendant la diffusion)
-		Object[] registered = l.toArray();
-		// Étape 3 : Transmettre l'événement à chaque listener via Double Dispatch
-		for (Object current : registered) {
-			anEvent.sentTo(current); // L'événement se transmet lui-même au listener
+		if (EventLatency.ENABLED) anEvent.stamp(tick); // ENABLED est constant : test supprimé par le JIT
+		publish(anEvent);
+	}
+
+	/**
+	 * Livre un événement déjà horodaté : immédiatement, ou à endTick() si un tick est ouvert.
+	 *
+	 * @param anEvent L'événement à diffuser
+	 */
+	final void publish(AbstractEvent anEvent) {
+		TickBuffers t = openTick;
+		if (t != null) {
+			// Sans abonné à la publication, la livraison ne préviendrait personne : rien à mettre en attente
+			if (AnnouncerStats.ENABLED || hasListeners(anEvent)) t.add(anEvent); // livré par endTick(), dans l'ordre (tick, entité, séquence)
+			return;
+		}
+		dispatch(anEvent);
+	}
+
+	/**
+	 * @return false si aucun abonnement (global, de la source ou par région) ne peut recevoir l'événement
+	 */
+	private boolean hasListeners(AbstractEvent anEvent) {
+		if (!regions.isEmpty() && anEvent instanceof LocatedEvent) return true;
+		int id = anEvent.typeId();
+		if (registry.listeners(anEvent, id).length > 0) return true;
+		Object source = anEvent.getSource();
+		if (!(source instanceof EventSource)) return false;
+		EventSource s = (EventSource) source;
+		Registry r = s.sourceSubscriptions;
+		return r != null && s.sourceAnnouncer == this && r.listeners(anEvent, id).length > 0;
+	}
+
+	/**
+	 * Diffuse immédiatement un événement aux listeners (voir announce()).
+	 *
+	 * @param anEvent L'événement à diffuser
+	 */
+	final void dispatch(AbstractEvent anEvent) {
+		// Purge amortie : uniquement si le ramasse-miettes a libéré un listener faible
+		ReferenceQueue<Object> queue = clearedListeners;
+		if (queue != null) {
+			Reference<?> cleared = queue.poll();
+			if (cleared != null) purgeCleared(queue, cleared);
+		}
+
+		// Étape 1 : Listeners résolus pour la classe concrète (accès par identifiant dense)
+		int id = anEvent.typeId();
+		Subscription[] global = registry.listeners(anEvent, id);
+		Subscription[] local = Registry.NO_LISTENERS;
+		Object source = anEvent.getSource();
+		if (source instanceof EventSource) {
+			EventSource s = (EventSource) source;
+			Registry r = s.sourceSubscriptions;
+			if (r != null && s.sourceAnnouncer == this) local = r.listeners(anEvent, id); // abonnements d'un autre Announcer ignorés
+		}
+
+		// Test d'interface (LocatedEvent) seulement s'il existe des abonnements par région
+		RegionIndex index = regions;
+		boolean located = !index.isEmpty() && anEvent instanceof LocatedEvent;
+
+		ListenerBudget b = budget;
+		if (AnnouncerStats.ENABLED || b != null) { // ENABLED est constant : test supprimé par le JIT
+			int fanOut = deliverMeasured(anEvent, global, b) + deliverMeasured(anEvent, local, b);
+			int dead = global.length + local.length - fanOut;
+			if (dead != 0) skipped(dead);
+			if (located) fanOut += deliverInRegions(anEvent, index, true, b);
+			if (AnnouncerStats.ENABLED) AnnouncerStats.recordAnnounce(id, anEvent.getClass(), fanOut);
+			return;
+		}
+		// Étape 2 : Transmettre l'événement à chaque listener via Double Dispatch
+		int dead = deliver(anEvent, global) + deliver(anEvent, local);
+		if (dead != 0) skipped(dead);
+		if (located) deliverInRegions(anEvent, index, false, null);
+	}
+
+	/**
+	 * Compte les abonnements annulés parcourus par announce() ; le travail perdu à les
+	 * parcourir atteint celui d'une reconstruction : les tableaux sont compactés.
+	 */
+	private void skipped(int dead) {
+		int visits = deadVisits + dead;
+		deadVisits = visits;
+		if (visits < Math.max(COMPACT_THRESHOLD, subscriptionCount)) return;
+		synchronized (writeLock) {
+			deadVisits = 0;
+			if (!cancelled.isEmpty()) compactCancelled();
+		}
+	}
+
+	/**
+	 * Ouvre un tick en mode transactionnel : jusqu'à endTick(), les événements publiés sont mis
+	 * en attente dans un tampon par thread au lieu d'être livrés. Les entités d'un même tick
+	 * peuvent ainsi être mises à jour en parallèle sans rendre l'ordre de livraison
+	 * (et donc les journaux et les rejeux) dépendant de l'ordonnancement des threads.
+	 *
+	 * Exemple :
+	 * announcer.beginTick(tick);
+	 * ... mise à jour des balises (éventuellement sur plusieurs threads)
+	 * announcer.endTick(); // après la fin de tous les threads
+	 *
+	 * @param tick Numéro du tick
+	 * @throws IllegalStateException si un tick est déjà ouvert
+	 */
+	public void beginTick(long tick) {
+		synchronized (writeLock) {
+			if (openTick != null) throw new IllegalStateException("Tick " + openTick.tick + " is still open");
+			if (tickBuffers == null) tickBuffers = new TickBuffers();
+			tickBuffers.open(tick);
+			openTick = tickBuffers;
+			this.tick = tick;
+		}
+	}
+
+	/**
+	 * Indique le tick de simulation en cours, reporté sur les événements horodatés (voir EventLatency).
+	 * beginTick() le met aussi à jour.
+	 *
+	 * @param tick Numéro du tick
+	 */
+	public void setTick(long tick) {
+		this.tick = tick;
+	}
+
+	/**
+	 * @return Tick de simulation en cours (0 tant que setTick() ou beginTick() n'a pas été appelé)
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Ferme le tick ouvert par beginTick() et livre ses événements dans un ordre stable :
+	 * par entité source (EventSource.getEntityId()), puis dans l'ordre d'émission.
+	 * Une position (Conflatable) publiée plusieurs fois dans le tick par la même instance
+	 * n'est livrée qu'une fois, avec sa dernière valeur (voir TickBuffers).
+	 * Les événements publiés par les listeners pendant cette livraison sont livrés immédiatement.
+	 *
+	 * À appeler une fois tous les threads publieurs terminés (join, invokeAll...).
+	 *
+	 * @return Nombre d'événements livrés
+	 * @throws IllegalStateException si aucun tick n'est ouvert
+	 */
+	public int endTick() {
+		TickBuffers t;
+		synchronized (writeLock) {
+			t = openTick;
+			if (t == null) throw new IllegalStateException("No open tick");
+			openTick = null;
+		}
+		return t.flush(this);
+	}
+
+	/**
+	 * Transmet un événement positionné aux abonnements dont la région contient sa position.
+	 * Seuls les abonnements de la cellule de la grille contenant le point (et ceux des régions
+	 * trop étendues pour la grille) sont examinés.
+	 *
+	 * @param anEvent L'événement (LocatedEvent)
+	 * @param index Index des régions lu par announce()
+	 * @param measured true pour mesurer chaque livraison (voir deliverMeasured())
+	 * @param b Budget de temps par listener, ou null
+	 * @return Nombre de listeners prévenus
+	 */
+	private static int deliverInRegions(AbstractEvent anEvent, RegionIndex index, boolean measured, ListenerBudget b) {
+		LocatedEvent located = (LocatedEvent) anEvent;
+		int x = located.getX(), y = located.getY();
+		int fanOut = 0;
+		for (RegionIndex.Entry e : index.candidates(x, y)) {
+			if (!e.region.contains(x, y) || !e.eventClass.isInstance(anEvent)) continue;
+			if (measured ? deliverMeasured(anEvent, e.subscription, b) : e.subscription.deliver(anEvent)) fanOut++;
+		}
+		for (RegionIndex.Entry e : index.large()) {
+			if (!e.region.contains(x, y) || !e.eventClass.isInstance(anEvent)) continue;
+			if (measured ? deliverMeasured(anEvent, e.subscription, b) : e.subscription.deliver(anEvent)) fanOut++;
+		}
+		return fanOut;
+	}
+
+	/**
+	 * Transmet l'événement à chaque abonnement encore actif d'un tableau résolu
+	 * (les abonnements annulés ou libérés sont ignorés, puis purgés plus tard).
+	 *
+	 * @return Nombre d'abonnements inactifs rencontrés
+	 */
+	private static int deliver(AbstractEvent anEvent, Subscription[] registered) {
+		int dead = 0;
+		for (Subscription current : registered) {
+			// L'événement se transmet lui-même au listener
+			if (!current.deliver(anEvent) && !current.isActive()) dead++;
+		}
+		return dead;
+	}
+
+	/**
+	 * Variante chronométrée de deliver() : même livraison, en mesurant le temps passé
+	 * dans chaque listener (voir AnnouncerStats et setListenerBudget()).
+	 * Les abonnements non prévenus sont inactifs : dispatch() les compte pour le compactage.
+	 *
+	 * @return Nombre de listeners prévenus
+	 */
+	private static int deliverMeasured(AbstractEvent anEvent, Subscription[] registered, ListenerBudget b) {
+		int fanOut = 0;
+		for (Subscription current : registered) {
+			if (deliverMeasured(anEvent, current, b)) fanOut++;
+		}
+		return fanOut;
+	}
+
+	/**
+	 * Livre l'événement à un abonnement en chronométrant le listener :
+	 * durée enregistrée dans AnnouncerStats, dépassement du budget signalé.
+	 * Sans AnnouncerStats, seules les livraisons échantillonnées sont chronométrées (voir ListenerBudget).
+	 * Un listener en quarantaine est confié à l'Executor du budget sans être attendu.
+	 *
+	 * @return true si le listener a été prévenu (ou sa livraison programmée)
+	 */
+	private static boolean deliverMeasured(AbstractEvent anEvent, Subscription s, ListenerBudget b) {
+		if (s.quarantined && b != null && b.quarantine != null) return b.deliverLater(s, anEvent);
+		if (!AnnouncerStats.ENABLED && !ListenerBudget.sample(s)) return s.deliver(anEvent); // b != null ici
+		long start = System.nanoTime();
+		if (!s.deliver(anEvent)) return false;
+		long elapsed = System.nanoTime() - start;
+		if (AnnouncerStats.ENABLED) AnnouncerStats.recordDelivery(s.listenerClass, elapsed);
+		if (b != null && elapsed > b.budgetNanos) b.overrun(s, elapsed);
+		return true;
+	}
+
+	/**
+	 * Réserve à cet Announcer l'emplacement des abonnements d'une source. Doit être appelé sous writeLock.
+	 *
+	 * @throws IllegalArgumentException si un autre Announcer y a déjà des abonnements
+	 */
+	private void claim(EventSource source) {
+		if (!SOURCE_OWNER.compareAndSet(source, null, this) && source.sourceAnnouncer != this) {
+			throw new IllegalArgumentException("source " + source + " already has subscriptions on another Announcer");
+		}
+	}
+
+	/**
+	 * Publie les abonnements d'une source ; s'il n'en reste aucun, l'emplacement est libéré
+	 * pour tout Announcer. Doit être appelé sous writeLock.
+	 */
+	private void setSourceSubscriptions(EventSource source, Registry r) {
+		if (r.isEmpty()) {
+			source.sourceSubscriptions = null;
+			SOURCE_OWNER.compareAndSet(source, this, null);
+		} else {
+			source.sourceSubscriptions = r;
+		}
+	}
+
+	/**
+	 * @return La file des listeners faibles libérés, créée au besoin. Doit être appelé sous writeLock.
+	 */
+	private ReferenceQueue<Object> referenceQueue() {
+		ReferenceQueue<Object> queue = clearedListeners;
+		if (queue == null) {
+			queue = new ReferenceQueue<>();
+			clearedListeners = queue;
+		}
+		return queue;
+	}
+
+	/**
+	 * Retire toutes les entrées faibles dont le listener a été libéré, dans les abonnements
+	 * globaux et dans ceux des sources concernées.
+	 *
+	 * @param queue File des références libérées (vidée entièrement)
+	 * @param first Référence déjà retirée de la file
+	 */
+	private void purgeCleared(ReferenceQueue<Object> queue, Reference<?> first) {
+		synchronized (writeLock) {
+			// Vider la file : une seule reconstruction par table suffit pour toutes les références déjà libérées
+			boolean global = false;
+			for (Reference<?> ref = first; ref != null; ref = queue.poll()) {
+				EventSource source = ((WeakListener) ref).source;
+				if (source == null) {
+					global = true;
+				} else if (source.sourceSubscriptions != null) {
+					purge(source);
+				}
+			}
+			if (global) purgeGlobal();
+		}
+	}
+
+	/**
+	 * Retire les abonnements inactifs des abonnements globaux et par région. Doit être appelé sous writeLock.
+	 */
+	private void purgeGlobal() {
+		Registry r = registry;
+		registry = r.purged();
+		RegionIndex index = regions;
+		regions = index.purged();
+		subscriptionCount -= r.size() - registry.size() + index.size() - regions.size();
+	}
+
+	/**
+	 * Retire les abonnements inactifs d'une source. Doit être appelé sous writeLock.
+	 */
+	private void purge(EventSource source) {
+		Registry r = source.sourceSubscriptions;
+		Registry updated = r.purged();
+		subscriptionCount -= r.size() - updated.size();
+		setSourceSubscriptions(source, updated);
+	}
+
+	/**
+	 * @return Nombre total d'abonnements globaux (inactifs mais pas encore purgés compris)
+	 */
+	int registrationCount() {
+		return registry.size();
+	}
+
+	/**
+	 * Vérifie qu'un type peut servir de clé d'abonnement.
+	 *
+	 * @throws IllegalArgumentException si ce n'est ni un AbstractEvent ni une interface
+	 */
+	private static void checkEventType(Class<?> eventClass) {
+		if (!eventClass.isInterface() && !AbstractEvent.class.isAssignableFrom(eventClass)) {
+			throw new IllegalArgumentException(eventClass.getName() + " is neither an AbstractEvent nor an interface");
 		}
 	}
 }
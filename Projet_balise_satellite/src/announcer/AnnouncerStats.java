@@ -0,0 +1,181 @@
+package announcer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instrumentation optionnelle de la diffusion des événements, toutes instances d'Announcer confondues.
+ *
+ * Mesures :
+ * - par classe d'événement : nombre d'announce() et nombre de livraisons (d'où le fan-out moyen)
+ * - par classe de listener : histogramme du temps passé dans sentTo() (LatencyHistogram)
+ *
+ * Activation au lancement : -Dannouncer.stats=true. ENABLED est une constante (static final) :
+ * désactivée, le JIT supprime entièrement le code de mesure de Announcer.announce().
+ * Activée, l'enregistrement est sans verrou et sans allocation (seule la première
+ * rencontre d'une nouvelle classe crée ses compteurs).
+ *
+ * Lecture à tout moment : getAnnounceCount(), getMeanFanOut(), getDispatchTime(), report().
+ *
+ * @see Announcer#announce(AbstractEvent)
+ */
+public final class AnnouncerStats {
+
+	/** Instrumentation active (lue une seule fois, au chargement de la classe) */
+	public static final boolean ENABLED = Boolean.getBoolean("announcer.stats");
+
+	/**
+	 * Compteurs d'une classe d'événement.
+	 */
+	private static final class EventCounters {
+		final Class<?> eventClass;
+		final AtomicLong announces = new AtomicLong();
+		final AtomicLong deliveries = new AtomicLong();
+
+		EventCounters(Class<?> eventClass) {
+			this.eventClass = eventClass;
+		}
+	}
+
+	/** Identifiants denses des classes de listener (index dans dispatchTimes) */
+	private static final AtomicInteger NEXT_LISTENER_ID = new AtomicInteger();
+	private static final ClassValue<Integer> LISTENER_IDS = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			return NEXT_LISTENER_ID.getAndIncrement();
+		}
+	};
+
+	/** Compteurs indexés par identifiant de type d'événement (voir EventTypes) */
+	private static volatile EventCounters[] eventCounters = new EventCounters[64];
+	/** Histogrammes indexés par identifiant de classe de listener */
+	private static volatile LatencyHistogram[] dispatchTimes = new LatencyHistogram[64];
+
+	private AnnouncerStats() {}
+
+	/**
+	 * Enregistre une diffusion (appelé par Announcer.announce()).
+	 *
+	 * @param typeId Identifiant dense de la classe de l'événement
+	 * @param eventClass Classe de l'événement
+	 * @param fanOut Nombre de listeners effectivement prévenus
+	 */
+	static void recordAnnounce(int typeId, Class<?> eventClass, int fanOut) {
+		EventCounters[] counters = eventCounters;
+		EventCounters c = (typeId < counters.length) ? counters[typeId] : null;
+		if (c == null) c = createEventCounters(typeId, eventClass);
+		c.announces.incrementAndGet();
+		c.deliveries.addAndGet(fanOut);
+	}
+
+	/**
+	 * Enregistre le temps passé à livrer un événement à un listener.
+	 *
+	 * @param listenerClass Classe du listener
+	 * @param nanos Durée de sentTo() en nanosecondes
+	 */
+	static void recordDelivery(Class<?> listenerClass, long nanos) {
+		int id = LISTENER_IDS.get(listenerClass);
+		LatencyHistogram[] histograms = dispatchTimes;
+		LatencyHistogram h = (id < histograms.length) ? histograms[id] : null;
+		if (h == null) h = createHistogram(id, listenerClass);
+		h.record(nanos);
+	}
+
+	private static synchronized EventCounters createEventCounters(int typeId, Class<?> eventClass) {
+		EventCounters[] counters = eventCounters;
+		if (typeId >= counters.length) counters = Arrays.copyOf(counters, Math.max(typeId + 1, counters.length * 2));
+		else counters = counters.clone();
+		if (counters[typeId] == null) counters[typeId] = new EventCounters(eventClass);
+		eventCounters = counters;
+		return counters[typeId];
+	}
+
+	private static synchronized LatencyHistogram createHistogram(int id, Class<?> listenerClass) {
+		LatencyHistogram[] histograms = dispatchTimes;
+		if (id >= histograms.length) histograms = Arrays.copyOf(histograms, Math.max(id + 1, histograms.length * 2));
+		else histograms = histograms.clone();
+		if (histograms[id] == null) histograms[id] = new LatencyHistogram(listenerClass.getName());
+		dispatchTimes = histograms;
+		return histograms[id];
+	}
+
+	private static EventCounters countersOf(Class<?> eventClass) {
+		int typeId = EventTypes.idOf(eventClass);
+		EventCounters[] counters = eventCounters;
+		return (typeId < counters.length) ? counters[typeId] : null;
+	}
+
+	/**
+	 * @param eventClass Classe concrète d'événement
+	 * @return Nombre d'announce() de cette classe depuis le démarrage (ou le dernier reset())
+	 */
+	public static long getAnnounceCount(Class<? extends AbstractEvent> eventClass) {
+		EventCounters c = countersOf(eventClass);
+		return c == null ? 0 : c.announces.get();
+	}
+
+	/**
+	 * @param eventClass Classe concrète d'événement
+	 * @return Nombre total de livraisons (somme des fan-out)
+	 */
+	public static long getDeliveryCount(Class<? extends AbstractEvent> eventClass) {
+		EventCounters c = countersOf(eventClass);
+		return c == null ? 0 : c.deliveries.get();
+	}
+
+	/**
+	 * @param eventClass Classe concrète d'événement
+	 * @return Nombre moyen de listeners prévenus par announce()
+	 */
+	public static double getMeanFanOut(Class<? extends AbstractEvent> eventClass) {
+		EventCounters c = countersOf(eventClass);
+		if (c == null) return 0;
+		long announces = c.announces.get();
+		return announces == 0 ? 0 : (double) c.deliveries.get() / announces;
+	}
+
+	/**
+	 * @param listenerClass Classe de listener (ex: BaliseView.class)
+	 * @return Histogramme des temps de livraison, ou null si aucune livraison mesurée
+	 */
+	public static LatencyHistogram getDispatchTime(Class<?> listenerClass) {
+		int id = LISTENER_IDS.get(listenerClass);
+		LatencyHistogram[] histograms = dispatchTimes;
+		return (id < histograms.length) ? histograms[id] : null;
+	}
+
+	/**
+	 * Remet tous les compteurs à zéro.
+	 */
+	public static synchronized void reset() {
+		for (EventCounters c : eventCounters) {
+			if (c == null) continue;
+			c.announces.set(0);
+			c.deliveries.set(0);
+		}
+		for (LatencyHistogram h : dispatchTimes) {
+			if (h != null) h.reset();
+		}
+	}
+
+	/**
+	 * @return Rapport lisible : événements triés par nombre d'announce(), puis temps de livraison par listener
+	 */
+	public static String report() {
+		StringBuilder sb = new StringBuilder("=== Announcer : événements ===\n");
+		EventCounters[] counters = eventCounters.clone();
+		Arrays.sort(counters, (a, b) -> Long.compare(b == null ? -1 : b.announces.get(), a == null ? -1 : a.announces.get()));
+		for (EventCounters c : counters) {
+			if (c == null) continue;
+			long announces = c.announces.get();
+			sb.append(String.format("%s : announce=%d livraisons=%d fan-out moyen=%.2f%n", c.eventClass.getSimpleName(),
+					announces, c.deliveries.get(), announces == 0 ? 0.0 : (double) c.deliveries.get() / announces));
+		}
+		sb.append("=== Announcer : temps de livraison par listener ===\n");
+		for (LatencyHistogram h : dispatchTimes) {
+			if (h != null) sb.append(h).append('\n');
+		}
+		return sb.toString();
+	}
+}
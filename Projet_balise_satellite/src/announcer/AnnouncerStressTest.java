@@ -0,0 +1,197 @@
+package announcer;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+class StressEvent extends AbstractEvent {
+	private static final long serialVersionUID = 1L;
+
+	public StressEvent(Object source) {
+		super(source);
+	}
+
+	@Override
+	public void sentTo(Object target) {
+		((AtomicLong) target).incrementAndGet();
+	}
+}
+
+/**
+ * Test de charge de l'Announcer : diffusions concurrentes pendant des register/unregister,
+ * et comparaison de débit avec l'ancienne implémentation (HashMap + toArray()).
+ */
+public class AnnouncerStressTest {
+
+	private static final int THREADS = 4;
+	private static final long DURATION_MS = 300;
+
+	/**
+	 * Ancienne implémentation de l'Announcer (HashMap de listes, copie à chaque diffusion),
+	 * rendue thread-safe par un verrou global pour pouvoir la comparer en concurrence.
+	 */
+	static class LegacyAnnouncer {
+		private final Map<Class<? extends AbstractEvent>, List<Object>> registrationIndex = new HashMap<>();
+
+		synchronized void register(Object o, Class<? extends AbstractEvent> eventClass) {
+			registrationIndex.computeIfAbsent(eventClass, k -> new ArrayList<>()).add(o);
+		}
+
+		void announce(AbstractEvent anEvent) {
+			Object[] registered;
+			synchronized (this) {
+				List<Object> l = registrationIndex.get(anEvent.getClass());
+				if (l == null) return;
+				registered = l.toArray();
+			}
+			for (Object current : registered) {
+				anEvent.sentTo(current);
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentRegisterAndAnnounce() throws InterruptedException {
+		Announcer announcer = new Announcer();
+		AtomicLong permanent = new AtomicLong();
+		announcer.register(permanent, StressEvent.class);
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		AtomicLong announced = new AtomicLong();
+		StressEvent event = new StressEvent(this);
+
+		// Un thread qui enregistre / désenregistre en continu (comme l'EDT qui crée des vues)
+		Thread registrar = new Thread(() -> {
+			try {
+				while (running.get()) {
+					AtomicLong transientListener = new AtomicLong();
+					announcer.register(transientListener, StressEvent.class);
+					announcer.register(transientListener, AbstractEvent.class);
+					announcer.unregister(transientListener, StressEvent.class);
+					announcer.unregister(transientListener, AbstractEvent.class);
+				}
+			} catch (Throwable t) {
+				failure.set(t);
+			}
+		});
+		Thread[] publishers = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			publishers[i] = new Thread(() -> {
+				try {
+					long n = 0;
+					while (running.get()) {
+						announcer.announce(event);
+						n++;
+					}
+					announced.addAndGet(n);
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			});
+		}
+		registrar.start();
+		for (Thread t : publishers) t.start();
+		Thread.sleep(DURATION_MS);
+		running.set(false);
+		registrar.join();
+		for (Thread t : publishers) t.join();
+
+		assertNull(failure.get());
+		// Le listener permanent n'a manqué (ni reçu en double) aucun événement
+		assertEquals(announced.get(), permanent.get());
+	}
+
+	@Test
+	public void testThroughputAgainstLegacy() throws InterruptedException {
+		Announcer announcer = new Announcer();
+		LegacyAnnouncer legacy = new LegacyAnnouncer();
+		for (int i = 0; i < 4; i++) {
+			announcer.register(new AtomicLong(), StressEvent.class);
+			legacy.register(new AtomicLong(), StressEvent.class);
+		}
+		StressEvent event = new StressEvent(this);
+
+		for (int threads = 1; threads <= THREADS; threads *= 2) {
+			long legacyOps = measure(threads, () -> legacy.announce(event));
+			long currentOps = measure(threads, () -> announcer.announce(event));
+			System.out.println("Announcer " + threads + " thread(s) : legacy " + (legacyOps * 1000 / DURATION_MS)
+					+ " ev/s, actuel " + (currentOps * 1000 / DURATION_MS) + " ev/s");
+			assertTrue(currentOps > 0 && legacyOps > 0);
+		}
+	}
+
+	@Test
+	public void testRegionIndexScaling() {
+		// Tableaux de bord par secteur : une grille de 64 x 64 secteurs sur l'océan
+		int sectors = 64, size = 800 / sectors + 1;
+		Announcer indexed = new Announcer();
+		Announcer filtering = new Announcer();
+		AtomicLong indexedHits = new AtomicLong(), filteringHits = new AtomicLong();
+		for (int i = 0; i < sectors; i++) {
+			for (int j = 0; j < sectors; j++) {
+				Region region = new Region(i * size, j * size, size, size);
+				indexed.subscribe(AnnouncerTest.PositionEvent.class, region, e -> indexedHits.incrementAndGet());
+				// Ancienne approche : chaque listener reçoit tout et filtre lui-même
+				filtering.subscribe(AnnouncerTest.PositionEvent.class, e -> {
+					if (region.contains(e.getX(), e.getY())) filteringHits.incrementAndGet();
+				});
+			}
+		}
+		AnnouncerTest.PositionEvent[] moves = new AnnouncerTest.PositionEvent[1024];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = new AnnouncerTest.PositionEvent(this, (i * 37) % 800, (i * 91) % 800);
+		}
+		long t0 = System.nanoTime();
+		for (AnnouncerTest.PositionEvent e : moves) indexed.announce(e);
+		long t1 = System.nanoTime();
+		for (AnnouncerTest.PositionEvent e : moves) filtering.announce(e);
+		long t2 = System.nanoTime();
+		System.out.println("Régions " + sectors * sectors + " abonnements : index " + (t1 - t0) / moves.length
+				+ " ns/ev, filtrage par listener " + (t2 - t1) / moves.length + " ns/ev");
+		// Chaque position appartient à exactement un secteur
+		assertEquals(moves.length, indexedHits.get());
+		assertEquals(moves.length, filteringHits.get());
+	}
+
+	/**
+	 * Lance la même action en boucle sur plusieurs threads pendant DURATION_MS.
+	 *
+	 * @return Nombre total d'exécutions
+	 */
+	private static long measure(int threads, Runnable action) throws InterruptedException {
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong total = new AtomicLong();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				long n = 0;
+				while (running.get()) {
+					action.run();
+					n++;
+				}
+				total.addAndGet(n);
+			});
+			workers[i].start();
+		}
+		start.countDown();
+		Thread.sleep(DURATION_MS);
+		running.set(false);
+		for (Thread t : workers) t.join();
+		return total.get();
+	}
+}
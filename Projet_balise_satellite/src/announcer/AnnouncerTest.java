@@ -1,8 +1,21 @@
 package announcer;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.junit.Test;
 
@@ -49,6 +62,80 @@ class Balise implements AnnouncerEventReceiver {
 	}
 }
 
+/** Listener à méthodes typées, abonné par registerAll() */
+class Tracker {
+	List<String> received = new ArrayList<String>();
+
+	void onMonEvent(MonEvent e) {
+		received.add("mon:" + e);
+	}
+
+	void onPosition(AnnouncerTest.PositionEvent e) {
+		received.add("position:" + e.getX());
+	}
+}
+
+/** Écrit à la main tel que SubscribeProcessor le générerait (les tests ne dépendent pas du processeur) */
+final class Tracker_Dispatcher implements Dispatcher<Tracker> {
+	private static final ListenerMethod<Tracker, MonEvent> METHOD_0 = new ListenerMethod<Tracker, MonEvent>() {
+		@Override
+		protected void invoke(Tracker listener, MonEvent event) {
+			listener.onMonEvent(event);
+		}
+	};
+	private static final ListenerMethod<Tracker, AnnouncerTest.PositionEvent> METHOD_1 = new ListenerMethod<Tracker, AnnouncerTest.PositionEvent>() {
+		@Override
+		protected void invoke(Tracker listener, AnnouncerTest.PositionEvent event) {
+			listener.onPosition(event);
+		}
+	};
+
+	@Override
+	public Subscription[] subscribe(Announcer bus, Tracker listener, EventSource source) {
+		return new Subscription[] {
+			bus.subscribe(MonEvent.class, listener, METHOD_0, source),
+			bus.subscribe(AnnouncerTest.PositionEvent.class, listener, METHOD_1, source),
+		};
+	}
+}
+
+/** Listener dont deux méthodes @Subscribe reçoivent les mêmes positions */
+class OverlappingTracker {
+	int positions;
+	int any;
+
+	void onPosition(AnnouncerTest.PositionEvent e) {
+		positions++;
+	}
+
+	void onAny(AbstractEvent e) {
+		any++;
+	}
+}
+
+final class OverlappingTracker_Dispatcher implements Dispatcher<OverlappingTracker> {
+	private static final ListenerMethod<OverlappingTracker, AnnouncerTest.PositionEvent> METHOD_0 = new ListenerMethod<OverlappingTracker, AnnouncerTest.PositionEvent>() {
+		@Override
+		protected void invoke(OverlappingTracker listener, AnnouncerTest.PositionEvent event) {
+			listener.onPosition(event);
+		}
+	};
+	private static final ListenerMethod<OverlappingTracker, AbstractEvent> METHOD_1 = new ListenerMethod<OverlappingTracker, AbstractEvent>() {
+		@Override
+		protected void invoke(OverlappingTracker listener, AbstractEvent event) {
+			listener.onAny(event);
+		}
+	};
+
+	@Override
+	public Subscription[] subscribe(Announcer bus, OverlappingTracker listener, EventSource source) {
+		return new Subscription[] {
+			bus.subscribe(AnnouncerTest.PositionEvent.class, listener, METHOD_0, source),
+			bus.subscribe(AbstractEvent.class, listener, METHOD_1, source),
+		};
+	}
+}
+
 public class AnnouncerTest {
 
 	public String toString() {
@@ -79,4 +166,1232 @@ public class AnnouncerTest {
 		assertTrue(Balise.log.get(0).equals("AnnouncerTest->MonEvent2"));
 	}
 
+	@Test
+	public void testUnregister() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		Balise b1 = new Balise();
+		Balise b2 = new Balise();
+		announcer.unregister(b1, MonEvent.class); // rien d'enregistré : sans effet
+		announcer.register(b1, MonEvent.class);
+		announcer.register(b2, MonEvent.class);
+		announcer.unregister(b1, MonEvent.class);
+		announcer.announce(new MonEvent(this));
+		assertTrue(Balise.log.size() == 1);
+		announcer.unregister(b2, MonEvent.class);
+		announcer.announce(new MonEvent(this));
+		assertTrue(Balise.log.size() == 1);
+	}
+
+	@Test
+	public void testSuperTypeRegistration() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		Balise b = new Balise();
+		announcer.register(b, MonEvent.class);
+		announcer.announce(new MonEvent2(this)); // sous-type : reçu
+		assertTrue(Balise.log.size() == 1);
+		assertTrue(Balise.log.get(0).equals("AnnouncerTest->MonEvent2"));
+
+		// Enregistré aussi pour AbstractEvent : reçu une seule fois
+		announcer.register(b, AbstractEvent.class);
+		announcer.announce(new MonEvent2(this));
+		assertTrue(Balise.log.size() == 2);
+
+		// Le cache est invalidé par unregister
+		announcer.unregister(b, MonEvent.class);
+		announcer.unregister(b, AbstractEvent.class);
+		announcer.announce(new MonEvent2(this));
+		assertTrue(Balise.log.size() == 2);
+	}
+
+	@Test
+	public void testRegistrationKeepsResolutionOrder() {
+		Announcer announcer = new Announcer();
+		List<String> order = new ArrayList<>();
+		AnnouncerEventReceiver a = e -> order.add("a");
+		AnnouncerEventReceiver b = e -> order.add("b");
+		AnnouncerEventReceiver c = e -> order.add("c");
+		MonEvent2 evt = new MonEvent2(this);
+
+		// Chaque enregistrement suit un announce() : le cache de résolution est repris ou recalculé
+		announcer.register(a, MonEvent.class);
+		announcer.announce(evt);
+		announcer.register(b, MonEvent.class);
+		announcer.announce(evt);
+		announcer.register(a, AbstractEvent.class); // doublon : toujours une seule livraison
+		announcer.announce(evt);
+		announcer.register(c, MonEvent2.class);     // type plus précis : livré en premier
+		announcer.announce(evt);
+		announcer.register(c, MonEvent.class);
+		announcer.announce(evt);
+		assertEquals(Arrays.asList("a", "a", "b", "a", "b", "c", "a", "b", "c", "a", "b"), order);
+
+		// Le type parent garde sa propre résolution
+		order.clear();
+		announcer.announce(new MonEvent(this));
+		assertEquals(Arrays.asList("a", "b", "c"), order);
+	}
+
+	@Test
+	public void testLatencyHistogram() {
+		LatencyHistogram h = new LatencyHistogram("test");
+		for (long nanos : new long[] { -5, 0, 1, 2, 3, 1000 }) {
+			h.record(nanos);
+		}
+		assertEquals(6, h.getCount());
+		assertEquals(1006 / 6.0, h.getMean(), 1e-9);
+		long[] buckets = h.getBuckets();
+		assertEquals(2, buckets[0]);  // durées négatives comptées comme nulles
+		assertEquals(1, buckets[1]);  // [1, 2[
+		assertEquals(2, buckets[2]);  // [2, 4[
+		assertEquals(1, buckets[10]); // [512, 1024[
+		assertEquals(0, h.getPercentile(0));
+		assertEquals(1, h.getPercentile(50));
+		assertEquals(3, h.getPercentile(80));
+		assertEquals(1023, h.getPercentile(100));
+		h.reset();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getPercentile(99));
+	}
+
+	/**
+	 * Mesures relevées par un Announcer chargé avec -Dannouncer.stats=true (voir testStatsEnabled()) :
+	 * announce() et livraisons de MonEvent et MonEvent2, durées mesurées pour le listener Balise.
+	 */
+	public static class StatsProbe implements Supplier<long[]> {
+		@Override
+		public long[] get() {
+			if (!AnnouncerStats.ENABLED) return null;
+			AnnouncerStats.reset();
+			Announcer announcer = new Announcer();
+			announcer.register(new Balise(), MonEvent.class);
+			announcer.register(new Balise(), MonEvent.class);
+			announcer.register(new Balise(), MonEvent2.class);
+			for (int i = 0; i < 3; i++) {
+				announcer.announce(new MonEvent(this));
+			}
+			announcer.announce(new MonEvent2(this));
+			LatencyHistogram h = AnnouncerStats.getDispatchTime(Balise.class);
+			return new long[] { AnnouncerStats.getAnnounceCount(MonEvent.class), AnnouncerStats.getDeliveryCount(MonEvent.class),
+					AnnouncerStats.getAnnounceCount(MonEvent2.class), AnnouncerStats.getDeliveryCount(MonEvent2.class),
+					h == null ? -1 : h.getCount(), AnnouncerStats.report().contains("MonEvent : announce=3 livraisons=6") ? 1 : 0 };
+		}
+	}
+
+	/**
+	 * Exécute une sonde dans un ClassLoader séparé pendant qu'une propriété système vaut "true".
+	 * Les constantes ENABLED sont lues au chargement de la classe : les classes du paquetage
+	 * sont donc rechargées.
+	 */
+	@SuppressWarnings("unchecked")
+	private static long[] probeWith(String property, Class<? extends Supplier<long[]>> probeClass) throws Exception {
+		String previous = System.setProperty(property, "true");
+		String[] path = System.getProperty("java.class.path").split(File.pathSeparator);
+		URL[] urls = new URL[path.length];
+		for (int i = 0; i < path.length; i++) {
+			urls[i] = new File(path[i]).toURI().toURL();
+		}
+		try (URLClassLoader loader = new URLClassLoader(urls, ClassLoader.getPlatformClassLoader())) {
+			Class<?> probe = loader.loadClass(probeClass.getName());
+			return ((Supplier<long[]>) probe.getDeclaredConstructor().newInstance()).get();
+		} finally {
+			if (previous == null) System.clearProperty(property);
+			else System.setProperty(property, previous);
+		}
+	}
+
+	@Test
+	public void testStatsEnabled() throws Exception {
+		long[] measured = probeWith("announcer.stats", StatsProbe.class);
+		assertNotNull(measured);
+		assertEquals(3, measured[0]);
+		assertEquals(6, measured[1]); // fan-out 2
+		assertEquals(1, measured[2]);
+		assertEquals(3, measured[3]); // sous-type : les deux listeners de MonEvent et celui de MonEvent2
+		assertEquals(9, measured[4]); // une durée par livraison au listener Balise
+		assertEquals(1, measured[5]);
+	}
+
+	/**
+	 * Mesures d'un PaintLatency chargé avec -Dannouncer.latency=true (voir testPaintLatency()) :
+	 * deux positions reçues entre deux dessins, la première émise 20 ms avant la seconde.
+	 */
+	public static class PaintProbe implements Supplier<long[]> {
+		@Override
+		public long[] get() {
+			if (!EventLatency.ENABLED) return null;
+			PaintLatency latency = new PaintLatency("PaintProbe");
+			PositionEvent older = new PositionEvent(this, 1, 0);
+			PositionEvent newer = new PositionEvent(this, 2, 0);
+			older.stamp(0);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			newer.stamp(0);
+			latency.delivered(older);
+			latency.delivered(newer);
+			latency.painted();
+			latency.painted(); // rien de nouveau à dessiner : pas de mesure
+			LatencyHistogram delivery = EventLatency.histogram("PaintProbe livraison");
+			LatencyHistogram paint = EventLatency.histogram("PaintProbe affichage");
+			return new long[] { delivery.getCount(), paint.getCount(), paint.getPercentile(100) };
+		}
+	}
+
+	@Test
+	public void testPaintLatency() throws Exception {
+		long[] measured = probeWith("announcer.latency", PaintProbe.class);
+		assertNotNull(measured);
+		assertEquals(2, measured[0]);
+		assertEquals(1, measured[1]);
+		// Mesuré depuis le plus ancien événement non dessiné, pas depuis le dernier reçu
+		assertTrue(measured[2] >= TimeUnit.MILLISECONDS.toNanos(20));
+	}
+
+	/** "Vue" de test occupant un peu de mémoire, pour rendre une fuite visible */
+	static class HeavyView implements AnnouncerEventReceiver {
+		final byte[] pixels = new byte[512];
+		static int received;
+
+		@Override
+		public void receive(AbstractEvent e) {
+			received++;
+		}
+	}
+
+	@Test
+	public void testWeakRegistrationChurn() throws InterruptedException {
+		Announcer announcer = new Announcer();
+		MonEvent evt = new MonEvent(this);
+		HeavyView kept = new HeavyView();
+		announcer.registerWeak(kept, MonEvent.class);
+
+		Runtime rt = Runtime.getRuntime();
+		System.gc();
+		long before = rt.totalMemory() - rt.freeMemory();
+
+		// 100 000 vues créées puis abandonnées, comme des BaliseView retirées de l'affichage
+		for (int i = 0; i < 100_000; i++) {
+			announcer.registerWeak(new HeavyView(), MonEvent.class);
+			announcer.announce(evt);
+		}
+
+		// Laisser le ramasse-miettes libérer les vues, puis announce() purge la table
+		for (int i = 0; i < 50 && announcer.registrationCount() > 1; i++) {
+			System.gc();
+			Thread.sleep(20);
+			announcer.announce(evt);
+		}
+		long after = rt.totalMemory() - rt.freeMemory();
+
+		assertTrue(announcer.registrationCount() == 1);
+		// Sans enregistrement faible, les vues retenues occuperaient plus de 50 Mo
+		assertTrue((after - before) < 16 * 1024 * 1024);
+
+		// La vue encore référencée reçoit toujours les événements
+		HeavyView.received = 0;
+		announcer.announce(evt);
+		assertTrue(HeavyView.received == 1);
+		announcer.unregister(kept, MonEvent.class);
+		assertTrue(announcer.registrationCount() == 0);
+	}
+
+	@Test
+	public void testAsync() {
+		Balise.log.clear();
+		AsyncAnnouncer announcer = new AsyncAnnouncer(8, 1, AsyncAnnouncer.WaitStrategy.BLOCKING, AsyncAnnouncer.OverflowPolicy.BLOCK);
+		announcer.register(new Balise(), MonEvent.class);
+		for (int i = 0; i < 1000; i++) {
+			announcer.announce(new MonEvent(this));
+		}
+		announcer.close(); // livre les événements restants
+		assertTrue(Balise.log.size() == 1000);
+		assertTrue(announcer.getPublishedCount() == 1000);
+		assertTrue(announcer.getDroppedCount() == 0);
+	}
+
+	@Test
+	public void testAsyncErrorHandler() {
+		AsyncAnnouncer announcer = new AsyncAnnouncer(8, 1, AsyncAnnouncer.WaitStrategy.BLOCKING, AsyncAnnouncer.OverflowPolicy.BLOCK);
+		List<RuntimeException> errors = Collections.synchronizedList(new ArrayList<>());
+		announcer.setErrorHandler(errors::add);
+		int[] received = new int[1];
+		announcer.subscribe(MonEvent.class, e -> {
+			if (received[0]++ % 2 == 0) throw new IllegalStateException("listener failure");
+		});
+		for (int i = 0; i < 100; i++) {
+			announcer.announce(new MonEvent(this));
+		}
+		announcer.close();
+		// Le thread de diffusion survit aux exceptions, chacune est transmise au gestionnaire
+		assertEquals(100, received[0]);
+		assertEquals(50, errors.size());
+		assertEquals("listener failure", errors.get(0).getMessage());
+	}
+
+	static class Source extends EventSource {
+		private final String name;
+
+		Source(String name) {
+			this.name = name;
+		}
+
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Test
+	public void testSourceFilter() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		Source s1 = new Source("s1");
+		Source s2 = new Source("s2");
+		announcer.register(new Balise(), MonEvent.class);     // toute la flotte
+		Balise onlyS1 = new Balise();
+		announcer.register(onlyS1, MonEvent.class, s1);       // uniquement s1
+		announcer.announce(new MonEvent(s1));
+		announcer.announce(new MonEvent2(s2));
+		assertEquals(3, Balise.log.size());
+		assertEquals("s1->MonEvent", Balise.log.get(0));
+		assertEquals("s1->MonEvent", Balise.log.get(1));
+		assertEquals("s2->MonEvent2", Balise.log.get(2));
+
+		// Le désabonnement libère l'emplacement de la source
+		announcer.unregister(onlyS1, MonEvent.class, s1);
+		assertNull(s1.sourceSubscriptions);
+		Balise.log.clear();
+		announcer.announce(new MonEvent(s1));
+		assertEquals(1, Balise.log.size());
+	}
+
+	@Test
+	public void testSourceOwnedByOneAnnouncer() {
+		Balise.log.clear();
+		Announcer a = new Announcer();
+		Announcer b = new Announcer();
+		Source s1 = new Source("s1");
+		Balise onB = new Balise();
+		b.register(onB, MonEvent.class, s1);
+
+		// La source émet sur a : les abonnements pris sur b ne sont pas livrés
+		a.announce(new MonEvent(s1));
+		assertTrue(Balise.log.isEmpty());
+		b.announce(new MonEvent(s1));
+		assertEquals(Arrays.asList("s1->MonEvent"), Balise.log);
+
+		// Un autre Announcer ne peut pas s'abonner à la source, ni y désabonner
+		try {
+			a.register(new Balise(), MonEvent.class, s1);
+			fail();
+		} catch (IllegalArgumentException expected) {
+			// ok
+		}
+		a.unregister(onB, MonEvent.class, s1);
+		assertNotNull(s1.sourceSubscriptions);
+
+		// Emplacement libéré : a peut s'y abonner
+		b.unregister(onB, MonEvent.class, s1);
+		assertNull(s1.sourceAnnouncer);
+		Balise.log.clear();
+		a.register(new Balise(), MonEvent.class, s1);
+		a.announce(new MonEvent(s1));
+		b.announce(new MonEvent(s1));
+		assertEquals(Arrays.asList("s1->MonEvent"), Balise.log);
+	}
+
+	@Test
+	public void testSubscriptionClose() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		Subscription kept = announcer.register(new Balise(), MonEvent.class);
+		List<Subscription> closed = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			closed.add(announcer.register(new Balise(), MonEvent.class));
+		}
+		for (Subscription s : closed) {
+			s.close();
+			s.close(); // sans effet
+			assertFalse(s.isActive());
+		}
+		// Les abonnements annulés ne reçoivent plus rien, avant même d'être retirés des tableaux
+		announcer.announce(new MonEvent(this));
+		assertEquals(1, Balise.log.size());
+		assertTrue(kept.isActive());
+		// Retrait groupé : il ne reste au plus qu'un lot en attente
+		assertTrue(announcer.registrationCount() < 1 + 32);
+
+		// unregister() désactive aussi la Subscription correspondante
+		Balise b = new Balise();
+		Subscription sb = announcer.register(b, MonEvent.class);
+		announcer.unregister(b, MonEvent.class);
+		assertFalse(sb.isActive());
+		assertTrue(kept.isActive());
+	}
+
+	@Test
+	public void testCancelledBelowHalfAreCompacted() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		List<Subscription> subscriptions = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			subscriptions.add(announcer.register(new Balise(), MonEvent.class));
+		}
+		announcer.announce(new MonEvent(this)); // tableau de diffusion résolu avec les 200 abonnements
+		// 40 % annulés : en dessous du seuil de reconstruction de close()
+		for (int i = 0; i < 80; i++) {
+			subscriptions.get(i).close();
+		}
+		assertEquals(200, announcer.registrationCount());
+		// announce() parcourt les abonnements annulés, puis les retire quand ce travail perdu atteint la taille du bus
+		for (int i = 0; i < 3; i++) {
+			announcer.announce(new MonEvent(this));
+		}
+		assertEquals(120, announcer.registrationCount());
+		assertEquals(200 + 3 * 120, Balise.log.size());
+	}
+
+	@Test
+	public void testCancelledAreCompactedUnderBudget() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		announcer.setListenerBudget(TimeUnit.SECONDS.toNanos(1), 3, null); // livraisons mesurées, comme dans l'application
+		List<Subscription> subscriptions = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			subscriptions.add(announcer.register(new Balise(), MonEvent.class));
+		}
+		announcer.announce(new MonEvent(this));
+		for (int i = 0; i < 80; i++) {
+			subscriptions.get(i).close();
+		}
+		for (int i = 0; i < 3; i++) {
+			announcer.announce(new MonEvent(this));
+		}
+		assertEquals(120, announcer.registrationCount());
+		assertEquals(200 + 3 * 120, Balise.log.size());
+	}
+
+	@Test
+	public void testClosedConsumerIsReleased() throws InterruptedException {
+		Announcer announcer = new Announcer();
+		int[] sizes = new int[1];
+		List<WeakReference<byte[]>> refs = new ArrayList<>();
+		Subscription s = announcer.subscribe(MonEvent.class, capturing(refs, sizes));
+		Subscription filtered = announcer.subscribe(MonEvent.class, Object.class, src -> true, capturing(refs, sizes));
+		announcer.announce(new MonEvent(this));
+		assertEquals(2048, sizes[0]);
+
+		// L'abonnement fermé mais encore référencé ne retient plus le Consumer ni ce qu'il capture
+		s.close();
+		filtered.close();
+		for (int i = 0; i < 50 && (refs.get(0).get() != null || refs.get(1).get() != null); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(refs.get(0).get());
+		assertNull(refs.get(1).get());
+		assertFalse(s.isActive());
+		assertFalse(filtered.isActive());
+	}
+
+	/** Consumer qui capture un tableau, dont seule refs garde une référence faible */
+	private static java.util.function.Consumer<MonEvent> capturing(List<WeakReference<byte[]>> refs, int[] sizes) {
+		byte[] captured = new byte[1024];
+		refs.add(new WeakReference<>(captured));
+		return e -> sizes[0] += captured.length;
+	}
+
+	@Test
+	public void testTypedConsumer() {
+		Announcer announcer = new Announcer();
+		List<String> received = new ArrayList<>();
+		Subscription s = announcer.subscribe(MonEvent.class, e -> received.add(e.toString()));
+		announcer.announce(new MonEvent(this));
+		announcer.announce(new MonEvent2(this)); // sous-type
+		assertEquals(2, received.size());
+		assertEquals("MonEvent2", received.get(1));
+		s.close();
+		announcer.announce(new MonEvent(this));
+		assertEquals(2, received.size());
+	}
+
+	static class PositionEvent extends AbstractEvent implements LocatedEvent, Conflatable {
+		private static final long serialVersionUID = 1L;
+		private final int x, y;
+
+		PositionEvent(Object source, int x, int y) {
+			super(source);
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public int getX() {
+			return x;
+		}
+
+		@Override
+		public int getY() {
+			return y;
+		}
+
+		@Override
+		public PositionEvent copy() {
+			PositionEvent copy = new PositionEvent(getSource(), x, y);
+			copy.stampFrom(this);
+			return copy;
+		}
+
+		@Override
+		public void sentTo(Object target) {
+			((AnnouncerEventReceiver) target).receive(this);
+		}
+
+		public String toString() {
+			return "Position(" + x + "," + y + ")";
+		}
+	}
+
+	@Test
+	public void testRegionSubscription() {
+		Announcer announcer = new Announcer();
+		List<String> west = new ArrayList<>();
+		List<String> east = new ArrayList<>();
+		announcer.subscribe(PositionEvent.class, new Region(0, 0, 400, 600), e -> west.add(e.getX() + "," + e.getY()));
+		Subscription s = announcer.subscribe(PositionEvent.class, new Region(400, 0, 400, 600), e -> east.add(e.getX() + "," + e.getY()));
+		announcer.announce(new PositionEvent(this, 10, 20));
+		announcer.announce(new PositionEvent(this, 399, 599));
+		announcer.announce(new PositionEvent(this, 400, 0));
+		announcer.announce(new PositionEvent(this, 900, 0)); // hors de toute région
+		assertEquals(2, west.size());
+		assertEquals("399,599", west.get(1));
+		assertEquals(1, east.size());
+		s.close();
+		announcer.announce(new PositionEvent(this, 500, 10));
+		assertEquals(1, east.size());
+	}
+
+	@Test
+	public void testRegionIndexCells() {
+		Random random = new Random(3);
+		Announcer announcer = new Announcer();
+		RegionIndex index = RegionIndex.EMPTY;
+		List<RegionIndex.Entry> all = new ArrayList<>();
+		// Une région immense (rangée à part) et 2000 petites, y compris en coordonnées négatives
+		Region ocean = new Region(-1_000_000, -1_000_000, 2_000_000, 2_000_000);
+		for (int i = 0; i < 2000; i++) {
+			Region region = (i == 0) ? ocean : new Region(random.nextInt(2000) - 1000, random.nextInt(2000) - 1000,
+					1 + random.nextInt(40), 1 + random.nextInt(40));
+			RegionIndex.Entry e = new RegionIndex.Entry(new Subscription(announcer, new Object(), Object.class, null),
+					PositionEvent.class, region);
+			all.add(e);
+			index = index.with(e);
+		}
+		assertEquals(2000, index.size());
+		assertEquals(1, index.large().length);
+
+		int maxCandidates = 0;
+		for (int i = 0; i < 5000; i++) {
+			int x = random.nextInt(2100) - 1050, y = random.nextInt(2100) - 1050;
+			Set<RegionIndex.Entry> found = Collections.newSetFromMap(new IdentityHashMap<>());
+			RegionIndex.Entry[] candidates = index.candidates(x, y);
+			maxCandidates = Math.max(maxCandidates, candidates.length);
+			for (RegionIndex.Entry e : candidates) {
+				if (e.region.contains(x, y)) found.add(e);
+			}
+			for (RegionIndex.Entry e : index.large()) {
+				if (e.region.contains(x, y)) found.add(e);
+			}
+			for (RegionIndex.Entry e : all) {
+				assertEquals(e.region.contains(x, y), found.contains(e));
+			}
+		}
+		// La région immense n'agrandit pas les cellules : chacune ne liste que quelques petites régions
+		assertTrue(maxCandidates < 20);
+
+		// Retrait : les autres régions restent indexées
+		all.get(1).subscription.cancel();
+		RegionIndex purged = index.purged();
+		assertEquals(1999, purged.size());
+		Region r = all.get(2).region;
+		assertTrue(Arrays.asList(purged.candidates(r.getX(), r.getY())).contains(all.get(2)));
+	}
+
+	@Test
+	public void testSourcePredicate() {
+		Announcer announcer = new Announcer();
+		List<Object> received = new ArrayList<>();
+		announcer.subscribe(MonEvent.class, Source.class, src -> src.toString().startsWith("nord"), received::add);
+		announcer.announce(new MonEvent(new Source("nord-1")));
+		announcer.announce(new MonEvent(new Source("sud-1")));
+		announcer.announce(new MonEvent(this)); // source d'un autre type
+		assertEquals(1, received.size());
+	}
+
+	@Test
+	public void testConflatedSubscription() {
+		Announcer announcer = new Announcer();
+		List<Runnable> tasks = new ArrayList<>(); // Executor manuel : le consommateur « est prêt » quand on exécute
+		List<String> received = new ArrayList<>();
+		ConflatingSubscription<PositionEvent> s = announcer.subscribeConflated(PositionEvent.class, tasks::add,
+				e -> received.add(e.getSource() + "@" + e.getX()));
+		Source a = new Source("a"), b = new Source("b");
+		for (int x = 0; x < 3; x++) {
+			announcer.announce(new PositionEvent(a, x, 0));
+		}
+		announcer.announce(new PositionEvent(b, 10, 0));
+		announcer.announce(new PositionEvent(b, 11, 0));
+		assertEquals(1, tasks.size()); // une seule livraison demandée
+		assertEquals(2, s.getPendingCount());
+		tasks.remove(0).run();
+		assertEquals(2, received.size());
+		assertTrue(received.contains("a@2"));
+		assertTrue(received.contains("b@11"));
+		assertEquals(3, s.getConflatedCount());
+		assertEquals(2, s.getDeliveredCount());
+
+		// Les événements non fusionnables sont refusés
+		try {
+			announcer.subscribeConflated(rawConflatable(MonEvent.class), tasks::add, e -> { });
+			fail();
+		} catch (IllegalArgumentException expected) {
+			// ok
+		}
+	}
+
+	@Test
+	public void testConflatedSurvivesFailures() {
+		Announcer announcer = new Announcer();
+		List<Runnable> tasks = new ArrayList<>();
+		boolean[] reject = { true };
+		List<String> received = new ArrayList<>();
+		ConflatingSubscription<PositionEvent> s = announcer.subscribeConflated(PositionEvent.class, task -> {
+			if (reject[0]) throw new RejectedExecutionException("saturated");
+			tasks.add(task);
+		}, e -> {
+			if (e.getX() < 0) throw new IllegalStateException("consumer failure");
+			received.add(e.getSource() + "@" + e.getX());
+		});
+		Source a = new Source("a"), b = new Source("b");
+
+		// Livraison refusée par l'Executor : la suivante est redemandée
+		try {
+			announcer.announce(new PositionEvent(a, 1, 0));
+			fail();
+		} catch (RejectedExecutionException expected) {
+			// ok
+		}
+		reject[0] = false;
+		announcer.announce(new PositionEvent(a, 2, 0));
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals(Arrays.asList("a@2"), received);
+
+		// Le Consumer lève une exception : l'autre source est livrée par une nouvelle livraison
+		announcer.announce(new PositionEvent(a, -1, 0));
+		announcer.announce(new PositionEvent(b, 3, 0));
+		try {
+			tasks.remove(0).run();
+			fail();
+		} catch (IllegalStateException expected) {
+			// ok
+		}
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+		assertTrue(received.contains("b@3"));
+		assertEquals(0, s.getPendingCount());
+
+		// Puis l'abonnement continue de livrer
+		announcer.announce(new PositionEvent(a, 4, 0));
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals("a@4", received.get(received.size() - 1));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Class<Conflatable> rawConflatable(Class<?> c) {
+		return (Class) c;
+	}
+
+	@Test
+	public void testListenerBudget() {
+		Announcer announcer = new Announcer();
+		List<Runnable> quarantine = new ArrayList<>();
+		List<String> reports = new ArrayList<>();
+		// 1 ms, quarantaine au 2e dépassement
+		announcer.setListenerBudget(1_000_000, 2, quarantine::add, new BudgetOverrunListener() {
+			@Override
+			public void onSlowListener(Subscription s, long nanos, long budgetNanos) {
+				assertTrue(nanos > budgetNanos);
+				reports.add("slow");
+			}
+
+			@Override
+			public void onQuarantine(Subscription s) {
+				reports.add("quarantine");
+			}
+		});
+		List<String> slowLog = new ArrayList<>();
+		Subscription slow = announcer.subscribe(MonEvent.class, e -> {
+			long end = System.nanoTime() + 3_000_000;
+			while (System.nanoTime() < end) {
+				continue; // listener trop lent (3 ms)
+			}
+			slowLog.add(e.toString());
+		});
+		Subscription fast = announcer.register(new Balise(), MonEvent.class);
+
+		for (int i = 0; i < 3; i++) {
+			announcer.announce(new MonEvent(this));
+		}
+		assertEquals(2, slow.getOverrunCount());
+		assertTrue(slow.isQuarantined());
+		assertFalse(fast.isQuarantined());
+		assertEquals(1, announcer.getSlowListeners().size());
+		assertEquals(Arrays.asList("slow", "quarantine"), reports); // signalés une seule fois chacun
+		// Le 3e événement n'a pas été livré sur le thread appelant mais confié à l'Executor
+		assertEquals(2, slowLog.size());
+		assertEquals(1, quarantine.size());
+		quarantine.get(0).run();
+		assertEquals(3, slowLog.size());
+	}
+
+	@Test
+	public void testListenerBudgetSampling() {
+		Announcer announcer = new Announcer();
+		announcer.setListenerBudget(1_000_000, 3, null, new BudgetOverrunListener() {
+			@Override
+			public void onSlowListener(Subscription s, long nanos, long budgetNanos) {
+				// compteurs vérifiés dans la Subscription
+			}
+
+			@Override
+			public void onQuarantine(Subscription s) {
+				fail("no quarantine without Executor");
+			}
+		});
+		int[] count = new int[1];
+		Subscription s = announcer.subscribe(MonEvent.class, e -> {
+			int n = ++count[0];
+			if (n != 2 && n != 1 + ListenerBudget.SAMPLE_INTERVAL) return;
+			long end = System.nanoTime() + 3_000_000;
+			while (System.nanoTime() < end) {
+				continue;
+			}
+		});
+		// La 2e livraison n'est pas échantillonnée : son dépassement passe inaperçu
+		for (int i = 0; i < ListenerBudget.SAMPLE_INTERVAL; i++) {
+			announcer.announce(new MonEvent(this));
+		}
+		assertEquals(0, s.getOverrunCount());
+		// La suivante est chronométrée, puis toutes les livraisons du listener signalé
+		announcer.announce(new MonEvent(this));
+		assertEquals(1, s.getOverrunCount());
+		assertEquals(1, announcer.getSlowListeners().size());
+	}
+
+	@Test
+	public void testRegisterAllOverlappingMethods() {
+		Announcer announcer = new Announcer();
+		OverlappingTracker tracker = new OverlappingTracker();
+		announcer.registerAll(tracker);
+		announcer.announce(new PositionEvent(new Source("s"), 1, 2));
+		announcer.announce(new MonEvent(this));
+		// Chaque méthode est appelée, même si toutes deux acceptent la position
+		assertEquals(1, tracker.positions);
+		assertEquals(2, tracker.any);
+
+		// Le même listener abonné deux fois n'est livré qu'une fois par méthode
+		announcer.registerAll(tracker);
+		announcer.announce(new PositionEvent(new Source("s"), 1, 2));
+		assertEquals(2, tracker.positions);
+		assertEquals(3, tracker.any);
+	}
+
+	@Test
+	public void testRegisterAll() {
+		Announcer announcer = new Announcer();
+		Source s1 = new Source("s1");
+		Tracker all = new Tracker();
+		Tracker onlyS1 = new Tracker() { }; // sous-classe : dispatcher hérité de Tracker
+		List<Subscription> subscriptions = announcer.registerAll(all);
+		assertEquals(2, subscriptions.size());
+		assertEquals(2, announcer.registerAll(onlyS1, s1).size());
+
+		announcer.announce(new MonEvent2(this));
+		announcer.announce(new PositionEvent(s1, 7, 0));
+		assertEquals(2, all.received.size());
+		assertEquals("mon:MonEvent2", all.received.get(0));
+		assertEquals("position:7", all.received.get(1));
+		assertEquals(1, onlyS1.received.size());
+
+		for (Subscription s : subscriptions) {
+			s.close();
+		}
+		announcer.announce(new MonEvent(this));
+		assertEquals(2, all.received.size());
+
+		// L'abonnement désigne le listener lui-même : unregister() le retrouve
+		Subscription position = announcer.registerAll(all).get(1);
+		announcer.unregister(all, PositionEvent.class);
+		assertFalse(position.isActive());
+
+		// Aucune méthode @Subscribe : pas de dispatcher
+		try {
+			announcer.registerAll(new Balise());
+			fail();
+		} catch (IllegalArgumentException expected) {
+			// ok
+		}
+	}
+
+	@Test
+	public void testFrameBatcher() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		List<Runnable> ui = new ArrayList<>();
+		FrameBatcher frames = new FrameBatcher(ui::add, Integer.MAX_VALUE); // pas de limite de fréquence
+		Source s1 = new Source("s1");
+		Source s2 = new Source("s2");
+		Subscription view = announcer.registerOnFrame(new Balise(), AbstractEvent.class, null, frames);
+
+		// Tick 1 : rien n'est livré pendant le tick
+		announcer.announce(new PositionEvent(s1, 1, 0));
+		announcer.announce(new MonEvent(s1));
+		announcer.announce(new PositionEvent(s2, 5, 0));
+		assertTrue(Balise.log.isEmpty());
+		frames.endTick();
+		assertEquals(1, ui.size()); // une seule tâche pour l'image
+
+		// Tick 2, avant que l'image ne soit livrée : il rejoint le même lot
+		announcer.announce(new PositionEvent(s1, 2, 0));
+		announcer.announce(new MonEvent2(s1));
+		frames.endTick();
+		assertEquals(1, ui.size());
+		assertTrue(Balise.log.isEmpty());
+		assertEquals(4, frames.getPendingCount()); // la position remplacée n'est plus en attente
+
+		ui.remove(0).run();
+		assertEquals(1, frames.getFrameCount());
+		// Seule la dernière position de s1 est livrée, à son rang d'émission (après MonEvent) ;
+		// MonEvent et MonEvent2 le sont tous deux
+		assertEquals(Arrays.asList("s1->MonEvent", "s2->Position(5,0)", "s1->Position(2,0)", "s1->MonEvent2"), Balise.log);
+		assertEquals(1, frames.getConflatedCount());
+		assertEquals(0, frames.getPendingCount());
+
+		// Un abonnement annulé avant l'image ne reçoit pas les événements déjà collectés
+		announcer.announce(new MonEvent(s2));
+		frames.endTick();
+		view.close();
+		while (!ui.isEmpty()) {
+			ui.remove(0).run();
+		}
+		assertEquals(4, Balise.log.size());
+		frames.endTick(); // tick vide : pas d'image
+		assertTrue(ui.isEmpty());
+	}
+
+	/** Position réutilisée par sa source, comme BaliseMoveEvent : copies comptées */
+	static class MovingPosition extends AbstractEvent implements Conflatable {
+		private static final long serialVersionUID = 1L;
+		static int copies;
+		int x;
+
+		MovingPosition(Object source, int x) {
+			super(source);
+			this.x = x;
+		}
+
+		@Override
+		public MovingPosition copy() {
+			copies++;
+			return new MovingPosition(getSource(), x);
+		}
+
+		@Override
+		public boolean copyInto(AbstractEvent copy) {
+			((MovingPosition) copy).x = x;
+			return true;
+		}
+
+		@Override
+		public AbstractEvent detach() {
+			return copy();
+		}
+
+		@Override
+		public void sentTo(Object target) {
+			((AnnouncerEventReceiver) target).receive(this);
+		}
+
+		public String toString() {
+			return "Moving(" + x + ")";
+		}
+	}
+
+	@Test
+	public void testFrameBatcherReusesPositionSlots() {
+		Balise.log.clear();
+		Announcer announcer = new Announcer();
+		List<Runnable> ui = new ArrayList<>();
+		FrameBatcher frames = new FrameBatcher(ui::add, Integer.MAX_VALUE);
+		Source s1 = new Source("s1");
+		MovingPosition move = new MovingPosition(s1, 0);
+		announcer.registerOnFrame(new AnnouncerEventReceiver() {
+			@Override
+			public void receive(AbstractEvent e) {
+				Balise.log.add(e.toString());
+				if (((MovingPosition) e).x == 1) {
+					// La simulation avance pendant que l'image est livrée : la copie livrée ne change pas
+					move.x = 2;
+					announcer.announce(move);
+					frames.endTick();
+					assertEquals("Moving(1)", e.toString());
+				}
+			}
+		}, MovingPosition.class, null, frames);
+		MovingPosition.copies = 0;
+
+		move.x = 1;
+		announcer.announce(move);
+		frames.endTick();
+		move.x = 3;
+		announcer.announce(move);
+		frames.endTick();
+		// Tick 1 puis tick 2 (même instance) : une seule valeur dans le lot
+		assertEquals(1, frames.getPendingCount());
+		ui.remove(0).run();
+		assertEquals(Arrays.asList("Moving(3)"), Balise.log);
+		assertEquals(1, MovingPosition.copies);
+
+		move.x = 1;
+		announcer.announce(move);
+		frames.endTick();
+		ui.remove(0).run(); // publie x = 2 pendant la livraison de x = 1
+		ui.remove(0).run();
+		assertEquals(Arrays.asList("Moving(3)", "Moving(1)", "Moving(2)"), Balise.log);
+		// Deux copies alternées, réutilisées ensuite à chaque image
+		assertEquals(2, MovingPosition.copies);
+		for (int x = 10; x < 20; x++) {
+			move.x = x;
+			announcer.announce(move);
+			frames.endTick();
+			ui.remove(0).run();
+		}
+		assertEquals(2, MovingPosition.copies);
+		assertEquals("Moving(19)", Balise.log.get(Balise.log.size() - 1));
+	}
+
+	/** Entité numérotée, comme une balise */
+	static class Entity extends EventSource {
+		private final int id;
+
+		Entity(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int getEntityId() {
+			return id;
+		}
+
+		public String toString() {
+			return "e" + id;
+		}
+	}
+
+	@Test
+	public void testTickOrder() throws InterruptedException {
+		Announcer announcer = new Announcer();
+		List<String> delivered = new ArrayList<>();
+		announcer.subscribe(MonEvent.class, e -> delivered.add(e.getSource() + ":" + e));
+		Entity[] entities = new Entity[40];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = new Entity(i);
+		}
+
+		// Plusieurs threads, chacun chargé d'une partie des entités : même ordre à chaque tick
+		List<String> expected = new ArrayList<>();
+		for (Entity e : entities) {
+			expected.add(e + ":MonEvent");
+			expected.add(e + ":MonEvent2");
+		}
+		for (int tick = 0; tick < 5; tick++) {
+			delivered.clear();
+			announcer.beginTick(tick);
+			Thread[] workers = new Thread[4];
+			for (int w = 0; w < workers.length; w++) {
+				int worker = w;
+				workers[w] = new Thread(() -> {
+					for (int i = entities.length - 1 - worker; i >= 0; i -= workers.length) {
+						announcer.announce(new MonEvent(entities[i]));
+						announcer.announce(new MonEvent2(entities[i]));
+					}
+				});
+				workers[w].start();
+			}
+			for (Thread t : workers) t.join();
+			assertTrue(delivered.isEmpty()); // rien n'est livré avant endTick()
+			assertEquals(80, announcer.endTick());
+			assertEquals(expected, delivered);
+		}
+
+		// Un seul thread, entités dans le désordre : triées aussi
+		delivered.clear();
+		announcer.beginTick(5);
+		announcer.announce(new MonEvent(entities[3]));
+		announcer.announce(new MonEvent(entities[1]));
+		announcer.announce(new MonEvent2(entities[3]));
+		announcer.endTick();
+		assertEquals("e1:MonEvent", delivered.get(0));
+		assertEquals("e3:MonEvent", delivered.get(1));
+		assertEquals("e3:MonEvent2", delivered.get(2));
+
+		// Hors tick : livraison immédiate
+		announcer.announce(new MonEvent(entities[0]));
+		assertEquals(4, delivered.size());
+		try {
+			announcer.endTick();
+			fail();
+		} catch (IllegalStateException expectedException) {
+			// ok
+		}
+	}
+
+	@Test
+	public void testTickScopedPositionsAreNotCopied() {
+		Announcer announcer = new Announcer();
+		List<String> delivered = new ArrayList<>();
+		announcer.subscribe(PositionEvent.class, e -> delivered.add(e.getSource() + "@" + e.getX()));
+		Entity e1 = new Entity(1), e2 = new Entity(2);
+		DetachedPosition p1 = new DetachedPosition(e1, 10, 0);
+		DetachedPosition.detached = 0;
+
+		announcer.beginTick(1);
+		announcer.announce(p1);
+		announcer.announce(new DetachedPosition(e2, 20, 0));
+		announcer.announce(p1); // même instance publiée deux fois : une seule livraison
+		assertEquals(2, announcer.endTick());
+		assertEquals(Arrays.asList("e1@10", "e2@20"), delivered);
+		assertEquals(0, DetachedPosition.detached); // l'instance en attente n'est pas copiée
+
+		// Tick suivant : l'instance est de nouveau mise en attente
+		announcer.beginTick(2);
+		announcer.announce(p1);
+		assertEquals(1, announcer.endTick());
+		assertEquals(3, delivered.size());
+	}
+
+	@Test
+	public void testEventStamp() {
+		PositionEvent e = new PositionEvent(this, 1, 2);
+		assertEquals(-1, e.getTick());
+		assertEquals(0, e.getEmitNanos());
+		e.stamp(7);
+		assertEquals(7, e.getTick());
+		assertTrue(e.getEmitNanos() != 0);
+		// Les copies détachées (livraison différée) gardent l'horodatage de l'émission
+		assertEquals(e.getEmitNanos(), e.detach().getEmitNanos());
+		assertEquals(7, e.detach().getTick());
+
+		LatencyHistogram h = EventLatency.histogram("AnnouncerTest livraison");
+		assertSame(h, EventLatency.histogram("AnnouncerTest livraison"));
+		assertTrue(EventLatency.getHistograms().contains(h));
+		EventLatency.recordSince(h, e.getEmitNanos());
+		EventLatency.recordSince(h, 0); // événement non horodaté : ignoré
+		assertEquals(1, h.getCount());
+
+		// Le tick courant de l'Announcer suit setTick() et beginTick()
+		Announcer announcer = new Announcer();
+		announcer.setTick(41);
+		assertEquals(41, announcer.getTick());
+		announcer.beginTick(42);
+		announcer.endTick();
+		assertEquals(42, announcer.getTick());
+	}
+
+	/** Subscriber Flow notant les positions reçues */
+	static class Collector implements Flow.Subscriber<PositionEvent> {
+		final List<String> received = Collections.synchronizedList(new ArrayList<>());
+		Flow.Subscription subscription;
+		boolean completed;
+		Throwable error;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(PositionEvent item) {
+			received.add(item.getSource() + "@" + item.getX());
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+
+	@Test
+	public void testFlowPublisher() throws InterruptedException {
+		Announcer announcer = new Announcer();
+		List<Runnable> tasks = new ArrayList<>(); // Executor manuel
+		Source a = new Source("a"), b = new Source("b");
+
+		// DROP : file de 2, pas de demande → le troisième est abandonné
+		EventPublisher<PositionEvent> drop = new EventPublisher<>(announcer, PositionEvent.class, null, 2,
+				EventPublisher.OverflowPolicy.DROP, tasks::add);
+		Collector c1 = new Collector();
+		drop.subscribe(c1);
+		for (int x = 0; x < 3; x++) {
+			announcer.announce(new PositionEvent(a, x, 0));
+		}
+		assertTrue(tasks.isEmpty()); // aucune demande : aucune livraison
+		assertEquals(1, drop.getDroppedCount());
+		c1.subscription.request(1);
+		tasks.remove(0).run();
+		assertEquals(Arrays.asList("a@0"), c1.received);
+		c1.subscription.request(Long.MAX_VALUE);
+		tasks.remove(0).run();
+		assertEquals(Arrays.asList("a@0", "a@1"), c1.received);
+		drop.close();
+		tasks.remove(0).run();
+		assertTrue(c1.completed);
+		assertEquals(0, drop.getSubscriberCount());
+
+		// CONFLATE : seule la dernière position de chaque source attend
+		EventPublisher<PositionEvent> conflate = new EventPublisher<>(announcer, PositionEvent.class, null, 2,
+				EventPublisher.OverflowPolicy.CONFLATE, tasks::add);
+		Collector c2 = new Collector();
+		conflate.subscribe(c2);
+		for (int x = 0; x < 3; x++) {
+			announcer.announce(new PositionEvent(a, x, 0));
+		}
+		announcer.announce(new PositionEvent(b, 10, 0));
+		announcer.announce(new PositionEvent(new Source("c"), 20, 0)); // file pleine, nouvelle source
+		c2.subscription.request(10);
+		tasks.remove(0).run();
+		assertEquals(Arrays.asList("a@2", "b@10"), c2.received);
+		assertEquals(2, conflate.getConflatedCount());
+		assertEquals(1, conflate.getDroppedCount());
+
+		// Demande invalide : onError() puis annulation
+		c2.subscription.request(0);
+		tasks.remove(0).run();
+		assertTrue(c2.error instanceof IllegalArgumentException);
+		assertEquals(0, conflate.getSubscriberCount());
+		announcer.announce(new PositionEvent(a, 3, 0));
+		assertTrue(tasks.isEmpty());
+
+		// BLOCK : announce() attend une place, aucune perte
+		EventPublisher<PositionEvent> block = new EventPublisher<>(announcer, PositionEvent.class, null, 1,
+				EventPublisher.OverflowPolicy.BLOCK, Runnable::run);
+		Collector c3 = new Collector();
+		block.subscribe(c3);
+		Thread producer = new Thread(() -> {
+			announcer.announce(new PositionEvent(a, 0, 0));
+			announcer.announce(new PositionEvent(a, 1, 0)); // file pleine : attend
+		});
+		producer.start();
+		while (block.getBlockedCount() == 0) {
+			Thread.sleep(1);
+		}
+		c3.subscription.request(2);
+		producer.join(5000);
+		assertFalse(producer.isAlive());
+		assertEquals(Arrays.asList("a@0", "a@1"), c3.received);
+		assertEquals(0, block.getDroppedCount());
+
+		// Annulation : plus aucune livraison
+		c3.subscription.cancel();
+		announcer.announce(new PositionEvent(a, 2, 0));
+		assertEquals(2, c3.received.size());
+		assertEquals(0, block.getSubscriberCount());
+	}
+
+	/** Position réutilisée par sa source : detach() en fait une copie, comptée */
+	static class DetachedPosition extends PositionEvent {
+		private static final long serialVersionUID = 1L;
+		static int detached;
+
+		DetachedPosition(Object source, int x, int y) {
+			super(source, x, y);
+		}
+
+		@Override
+		public AbstractEvent detach() {
+			detached++;
+			return copy();
+		}
+	}
+
+	@Test
+	public void testFlowPublisherCancelAndDrop() {
+		Announcer announcer = new Announcer();
+		List<Runnable> tasks = new ArrayList<>();
+		EventPublisher<PositionEvent> publisher = new EventPublisher<>(announcer, PositionEvent.class, null, 2,
+				EventPublisher.OverflowPolicy.DROP, tasks::add);
+		// Annulé dès onSubscribe() : jamais abonné à l'Announcer
+		Collector cancelling = new Collector() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				super.onSubscribe(subscription);
+				subscription.cancel();
+			}
+		};
+		publisher.subscribe(cancelling);
+		assertEquals(0, publisher.getSubscriberCount());
+		assertEquals(0, announcer.registrationCount());
+
+		// File pleine : les événements abandonnés ne sont pas copiés
+		Collector idle = new Collector();
+		publisher.subscribe(idle);
+		DetachedPosition.detached = 0;
+		Source a = new Source("a");
+		for (int x = 0; x < 1000; x++) {
+			announcer.announce(new DetachedPosition(a, x, 0));
+		}
+		assertEquals(2, DetachedPosition.detached);
+		assertEquals(998, publisher.getDroppedCount());
+		assertTrue(cancelling.received.isEmpty());
+		assertTrue(tasks.isEmpty());
+	}
+
+	@Test
+	public void testFlowPublisherErrorHandler() {
+		Announcer announcer = new Announcer();
+		EventPublisher<PositionEvent> publisher = new EventPublisher<>(announcer, PositionEvent.class, null, 4,
+				EventPublisher.OverflowPolicy.DROP, Runnable::run);
+		List<RuntimeException> errors = new ArrayList<>();
+		publisher.setErrorHandler(errors::add);
+		Collector failing = new Collector() {
+			@Override
+			public void onNext(PositionEvent item) {
+				super.onNext(item);
+				throw new IllegalStateException("boom");
+			}
+		};
+		publisher.subscribe(failing);
+		failing.subscription.request(10);
+		announcer.announce(new PositionEvent(new Source("a"), 1, 0));
+		announcer.announce(new PositionEvent(new Source("a"), 2, 0));
+
+		// Le Subscriber est annulé à sa première exception, qui est confiée au handler
+		assertEquals(Arrays.asList("a@1"), failing.received);
+		assertEquals(1, errors.size());
+		assertEquals("boom", errors.get(0).getMessage());
+		assertEquals(0, publisher.getSubscriberCount());
+		assertNull(failing.error);
+	}
+
 }
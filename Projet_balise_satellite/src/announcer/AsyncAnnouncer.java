@@ -0,0 +1,228 @@
+package announcer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Variante asynchrone de l'Announcer.
+ *
+ * announce() ne rappelle plus les listeners sur le thread appelant (thread de simulation) :
+ * l'événement est déposé dans une file circulaire préallouée, puis un ou plusieurs threads
+ * de diffusion la vident et appellent les listeners. Un listener lent (ex: BaliseView qui
+ * fait setBounds/revalidate/repaint) ne ralentit donc plus le tick de la simulation.
+ *
+ * Réglages :
+ * - capacity : taille de la file (puissance de 2)
+ * - dispatchThreads : nombre de threads de diffusion. Au-delà de 1, l'ordre de livraison
+ *   entre événements n'est plus garanti.
+ * - WaitStrategy : comment attendre quand la file est vide ou pleine (latence vs CPU)
+ * - OverflowPolicy : bloquer le producteur ou abandonner l'événement quand la file est pleine
+ *
+ * Compteurs : nombre d'événements publiés, abandonnés (DROP) et de publications ayant dû attendre (BLOCK).
+ * Les exceptions des listeners sont confiées à setErrorHandler() (par défaut : java.util.logging).
+ *
+ * Attention : l'événement est livré plus tard, son état doit donc rester valide jusque-là.
+ * Les événements réutilisés par leur source (BaliseMoveEvent, SatelliteMoveEvent) peuvent avoir
+ * été mis à jour entre-temps : publier une copie (copy()) si l'instantané exact compte.
+ *
+ * @see Announcer
+ */
+public class AsyncAnnouncer extends Announcer implements AutoCloseable {
+
+	/**
+	 * Stratégie d'attente des threads quand la file est vide (diffusion) ou pleine (publication).
+	 */
+	public enum WaitStrategy {
+		/** Endort le thread sur une condition : économe en CPU, latence de réveil plus élevée */
+		BLOCKING,
+		/** Cède puis dort brièvement : bon compromis par défaut */
+		SLEEPING,
+		/** Boucle active puis Thread.yield() : faible latence, consomme un cœur */
+		YIELDING,
+		/** Boucle active pure : latence minimale, monopolise un cœur */
+		BUSY_SPIN
+	}
+
+	/**
+	 * Comportement de announce() quand la file est pleine.
+	 */
+	public enum OverflowPolicy {
+		/** Le producteur attend qu'une case se libère (aucune perte) */
+		BLOCK,
+		/** L'événement est abandonné et compté (le tick n'est jamais ralenti) */
+		DROP
+	}
+
+	private final EventRingBuffer ring;
+	private final OverflowPolicy overflowPolicy;
+	private final Thread[] dispatchers;
+	private volatile boolean running = true;
+	private volatile Consumer<? super RuntimeException> errorHandler = AsyncAnnouncer::log;
+
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong blocked = new AtomicLong();
+
+	/**
+	 * Constructeur par défaut : file de 1024 événements, 1 thread de diffusion,
+	 * attente SLEEPING, producteur bloqué si la file est pleine.
+	 */
+	public AsyncAnnouncer() {
+		this(1024, 1, WaitStrategy.SLEEPING, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Constructeur complet.
+	 *
+	 * @param capacity Taille de la file (arrondie à la puissance de 2 supérieure)
+	 * @param dispatchThreads Nombre de threads de diffusion (au moins 1)
+	 * @param waitStrategy Stratégie d'attente des threads
+	 * @param overflowPolicy Comportement quand la file est pleine
+	 */
+	public AsyncAnnouncer(int capacity, int dispatchThreads, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		if (dispatchThreads < 1) throw new IllegalArgumentException("dispatchThreads must be positive: " + dispatchThreads);
+		this.ring = new EventRingBuffer(capacity, waitStrategy);
+		this.overflowPolicy = overflowPolicy;
+		this.dispatchers = new Thread[dispatchThreads];
+		for (int i = 0; i < dispatchThreads; i++) {
+			Thread t = new Thread(this::drainLoop, "announcer-dispatch-" + i);
+			t.setDaemon(true); // Comme le thread de simulation : se ferme avec l'application
+			dispatchers[i] = t;
+			t.start();
+		}
+	}
+
+	/**
+	 * Dépose l'événement dans la file ; il sera livré par un thread de diffusion.
+	 *
+	 * @param anEvent L'événement à diffuser
+	 * @throws IllegalStateException si l'Announcer a été fermé
+	 */
+	@Override
+	public void announce(AbstractEvent anEvent) {
+		if (!running) throw new IllegalStateException("AsyncAnnouncer is closed");
+		if (EventLatency.ENABLED) anEvent.stamp(getTick()); // horodaté à l'émission, pas à la diffusion
+		if (ring.offer(anEvent)) {
+			published.incrementAndGet();
+			// close() a pu voir la file vide avant ce dépôt : l'événement est alors livré ici
+			if (!running) drainRemaining();
+			return;
+		}
+		// File pleine
+		if (overflowPolicy == OverflowPolicy.DROP) {
+			dropped.incrementAndGet();
+			return;
+		}
+		blocked.incrementAndGet();
+		int spins = 0;
+		while (!ring.offer(anEvent)) {
+			if (!running) {
+				dropped.incrementAndGet();
+				return;
+			}
+			ring.await(spins++, false);
+		}
+		published.incrementAndGet();
+		if (!running) drainRemaining();
+	}
+
+	/**
+	 * Boucle des threads de diffusion : vide la file et livre chaque événement
+	 * aux listeners (diffusion synchrone héritée de Announcer).
+	 */
+	private void drainLoop() {
+		int spins = 0;
+		while (true) {
+			AbstractEvent e = ring.poll();
+			if (e != null) {
+				spins = 0;
+				deliver(e);
+			} else if (!running) {
+				return; // Arrêt demandé et file vidée
+			} else {
+				ring.await(spins++, true);
+			}
+		}
+	}
+
+	/**
+	 * Livre un événement ; un listener défaillant ne doit pas tuer le thread de diffusion.
+	 */
+	private void deliver(AbstractEvent e) {
+		try {
+			publish(e);
+		} catch (RuntimeException ex) {
+			errorHandler.accept(ex);
+		}
+	}
+
+	/**
+	 * Livre sur le thread appelant les événements restés en file après l'arrêt des threads de diffusion.
+	 */
+	private void drainRemaining() {
+		for (AbstractEvent e = ring.poll(); e != null; e = ring.poll()) {
+			deliver(e);
+		}
+	}
+
+	/**
+	 * Arrête la diffusion : les événements déjà en file sont livrés, puis les threads se terminent.
+	 * Les announce() ultérieurs lèvent IllegalStateException ; un announce() concurrent
+	 * dont l'événement est entré dans la file est livré quand même.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		ring.wakeUp();
+		for (Thread t : dispatchers) {
+			if (t == Thread.currentThread()) continue; // close() appelé depuis un listener
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		drainRemaining();
+	}
+
+	/**
+	 * Remplace le traitement des exceptions levées par les listeners (appelé sur le thread de diffusion).
+	 *
+	 * @param handler Reçoit chaque exception (ex: compteur, journal de l'application)
+	 */
+	public void setErrorHandler(Consumer<? super RuntimeException> handler) {
+		this.errorHandler = Objects.requireNonNull(handler);
+	}
+
+	private static void log(RuntimeException ex) {
+		Logger.getLogger(AsyncAnnouncer.class.getName()).log(Level.WARNING, "Listener failed", ex);
+	}
+
+	/** @return Capacité effective de la file */
+	public int getCapacity() {
+		return ring.capacity();
+	}
+
+	/** @return Nombre d'événements actuellement en attente de diffusion */
+	public int getPendingCount() {
+		return ring.size();
+	}
+
+	/** @return Nombre d'événements acceptés dans la file */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	/** @return Nombre d'événements abandonnés car la file était pleine */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/** @return Nombre de publications ayant dû attendre une case libre */
+	public long getBlockedCount() {
+		return blocked.get();
+	}
+}
@@ -0,0 +1,26 @@
+package announcer;
+
+/**
+ * Interface pour être prévenu des listeners qui dépassent le budget de temps de l'Announcer
+ * (voir Announcer.setListenerBudget()).
+ *
+ * Appelée sur le thread qui a appelé announce() : le traitement doit rester bref
+ * (compteur, journal, affichage différé).
+ */
+public interface BudgetOverrunListener {
+	/**
+	 * Premier dépassement du budget par un abonnement.
+	 *
+	 * @param subscription L'abonnement du listener lent
+	 * @param nanos Durée de la livraison
+	 * @param budgetNanos Budget de l'Announcer
+	 */
+	void onSlowListener(Subscription subscription, long nanos, long budgetNanos);
+
+	/**
+	 * L'abonnement est désormais servi par l'Executor de quarantaine.
+	 *
+	 * @param subscription L'abonnement mis en quarantaine
+	 */
+	void onQuarantine(Subscription subscription);
+}
@@ -0,0 +1,34 @@
+package announcer;
+
+/**
+ * Événement dont seule la dernière valeur compte pour une source donnée
+ * (ex: position d'une balise ou d'un satellite).
+ *
+ * Seuls ces événements peuvent être reçus par un abonnement fusionné
+ * (Announcer.subscribeConflated()) : quand le consommateur prend du retard, les états
+ * intermédiaires d'une même source sont remplacés par le plus récent au lieu de s'accumuler.
+ *
+ * Ne doivent PAS implémenter cette interface les événements dont chaque occurrence compte
+ * (changements d'état, début/fin de synchronisation) ni ceux qui ne décrivent qu'une partie
+ * de l'état (FleetMoveEvent ne contient que les entités qui ont bougé pendant le tick).
+ *
+ * @see Announcer#subscribeConflated(Class, java.util.concurrent.Executor, java.util.function.Consumer)
+ */
+public interface Conflatable {
+	/**
+	 * @return Une copie détachée de l'événement, conservée jusqu'à sa livraison
+	 *         (les événements de mouvement sont réutilisés par leur source)
+	 */
+	AbstractEvent copy();
+
+	/**
+	 * Recopie la valeur de l'événement dans une copie obtenue par copy(), sans allocation
+	 * (copie réutilisée d'une image à l'autre, voir FrameBatcher).
+	 *
+	 * @param copy Copie détachée d'un événement de la même source
+	 * @return false si copy ne peut pas être mise à jour : l'appelant refait une copie
+	 */
+	default boolean copyInto(AbstractEvent copy) {
+		return false;
+	}
+}
@@ -0,0 +1,108 @@
+package announcer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Abonnement fusionné créé par Announcer.subscribeConflated().
+ *
+ * announce() ne fait que déposer une copie de l'événement dans une case par source
+ * (la précédente, pas encore livrée, est écrasée), puis demande à l'Executor une
+ * livraison s'il n'y en a pas déjà une en attente. La livraison vide les cases et passe
+ * au Consumer le dernier événement de chaque source.
+ *
+ * Un consommateur lent (vue Swing, visualiseur distant) reçoit donc au plus un événement
+ * par source et par livraison, quel que soit le rythme de la simulation.
+ *
+ * Si le Consumer lève une exception, elle remonte à l'Executor et les événements restants
+ * sont confiés à une nouvelle livraison ; si l'Executor refuse la livraison, l'exception
+ * remonte à announce() et la suivante sera redemandée. L'abonnement continue de livrer.
+ *
+ * @param <E> Type d'événement attendu par le Consumer
+ */
+public final class ConflatingSubscription<E> extends Subscription {
+	private final Executor executor;
+
+	/** Dernier événement non livré de chaque source */
+	private final Map<Object, E> latest = new ConcurrentHashMap<>();
+	/** true si une livraison est demandée à l'Executor et pas encore terminée */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong conflated = new AtomicLong();
+
+	ConflatingSubscription(Announcer announcer, Consumer<? super E> consumer, Executor executor) {
+		super(announcer, consumer, consumer.getClass(), null); // Consumer libéré dès close(), comme ConsumerSubscription
+		this.executor = executor;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	boolean deliver(AbstractEvent anEvent) {
+		if (!isActive()) return false;
+		E snapshot = (E) ((Conflatable) anEvent).copy();
+		if (latest.put(anEvent.getSource(), snapshot) != null) {
+			conflated.incrementAndGet(); // l'état précédent n'a jamais été livré
+		}
+		if (scheduled.compareAndSet(false, true)) schedule();
+		return true;
+	}
+
+	/**
+	 * Demande une livraison à l'Executor (scheduled vient de passer à true).
+	 */
+	private void schedule() {
+		try {
+			executor.execute(this::drain);
+		} catch (RuntimeException ex) {
+			scheduled.set(false); // sinon plus aucune livraison ne serait jamais demandée
+			throw ex;
+		}
+	}
+
+	/**
+	 * Livre le dernier événement de chaque source (exécuté par l'Executor).
+	 */
+	@SuppressWarnings("unchecked")
+	private void drain() {
+		boolean completed = false;
+		try {
+			do {
+				for (Object source : latest.keySet()) {
+					E e = latest.remove(source);
+					Object consumer = target();
+					if (e == null || consumer == null) continue;
+					((Consumer<? super E>) consumer).accept(e);
+					delivered.incrementAndGet();
+				}
+				scheduled.set(false);
+				// Un événement déposé pendant la fin de la boucle n'a pas redemandé de livraison
+			} while (!latest.isEmpty() && scheduled.compareAndSet(false, true));
+			completed = true;
+		} finally {
+			if (!completed) {
+				// Exception du Consumer : les événements restants sont confiés à une nouvelle livraison
+				scheduled.set(false);
+				if (!latest.isEmpty() && isActive() && scheduled.compareAndSet(false, true)) schedule();
+			}
+		}
+	}
+
+	/** @return Nombre d'événements passés au Consumer */
+	public long getDeliveredCount() {
+		return delivered.get();
+	}
+
+	/** @return Nombre d'événements remplacés par un plus récent avant d'avoir été livrés */
+	public long getConflatedCount() {
+		return conflated.get();
+	}
+
+	/** @return Nombre de sources ayant un événement en attente de livraison */
+	public int getPendingCount() {
+		return latest.size();
+	}
+}
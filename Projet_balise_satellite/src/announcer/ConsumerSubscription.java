@@ -0,0 +1,26 @@
+package announcer;
+import java.util.function.Consumer;
+
+/**
+ * Abonnement typé créé par Announcer.subscribe() : l'événement est passé directement
+ * au Consumer, sans Double Dispatch (sentTo) ni conversion de type du listener.
+ *
+ * @param <E> Type d'événement attendu par le Consumer
+ */
+final class ConsumerSubscription<E> extends Subscription {
+
+	ConsumerSubscription(Announcer announcer, Consumer<? super E> consumer, EventSource source) {
+		// Le Consumer n'est référencé que par l'abonnement : libéré dès close()
+		super(announcer, consumer, consumer.getClass(), source);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	boolean deliver(AbstractEvent anEvent) {
+		Object consumer = target();
+		if (consumer == null) return false;
+		// Sûr : le Registry ne livre que des événements du type (ou sous-type) demandé
+		((Consumer<? super E>) consumer).accept((E) anEvent);
+		return true;
+	}
+}
@@ -0,0 +1,23 @@
+package announcer;
+
+/**
+ * Abonne les méthodes @Subscribe d'une classe de listener.
+ *
+ * Les implémentations sont générées à la compilation par le processeur d'annotations
+ * (classe NomDuListener_Dispatcher dans le même package) : chaque méthode @Subscribe
+ * devient un abonnement typé (Announcer.subscribe()) qui l'appelle directement.
+ *
+ * @param <T> Classe du listener
+ * @see Subscribe
+ */
+public interface Dispatcher<T> {
+	/**
+	 * Abonne toutes les méthodes @Subscribe déclarées par la classe du listener.
+	 *
+	 * @param announcer L'Announcer auquel s'abonner
+	 * @param listener L'instance dont les méthodes seront appelées
+	 * @param source Source à observer, ou null pour toutes les sources
+	 * @return Les abonnements créés (un par méthode)
+	 */
+	Subscription[] subscribe(Announcer announcer, T listener, EventSource source);
+}
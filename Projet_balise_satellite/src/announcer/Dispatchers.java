@@ -0,0 +1,52 @@
+package announcer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retrouve les dispatchers générés (voir Dispatcher) d'une classe de listener et de ses classes mères.
+ *
+ * La recherche (Class.forName puis instanciation) n'a lieu qu'une fois par classe de listener,
+ * le résultat est mémorisé : la diffusion elle-même n'utilise aucune réflexion.
+ */
+final class Dispatchers {
+	/** Suffixe des classes générées par le processeur d'annotations */
+	static final String SUFFIX = "_Dispatcher";
+
+	private static final Dispatcher<?>[] NONE = new Dispatcher<?>[0];
+
+	private static final ClassValue<Dispatcher<?>[]> DISPATCHERS = new ClassValue<Dispatcher<?>[]>() {
+		@Override
+		protected Dispatcher<?>[] computeValue(Class<?> listenerClass) {
+			List<Dispatcher<?>> found = new ArrayList<>();
+			for (Class<?> c = listenerClass; c != null && c != Object.class; c = c.getSuperclass()) {
+				Dispatcher<?> d = load(c);
+				if (d != null) found.add(d);
+			}
+			return found.isEmpty() ? NONE : found.toArray(NONE);
+		}
+	};
+
+	private Dispatchers() {
+	}
+
+	/**
+	 * @return Les dispatchers de la classe et de ses classes mères (vide si aucune méthode @Subscribe)
+	 */
+	static Dispatcher<?>[] of(Class<?> listenerClass) {
+		return DISPATCHERS.get(listenerClass);
+	}
+
+	private static Dispatcher<?> load(Class<?> c) {
+		Class<?> generated;
+		try {
+			generated = Class.forName(c.getName() + SUFFIX, true, c.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return null; // Pas de méthode @Subscribe dans cette classe
+		}
+		try {
+			return (Dispatcher<?>) generated.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalStateException("Invalid generated dispatcher " + generated.getName(), e);
+		}
+	}
+}
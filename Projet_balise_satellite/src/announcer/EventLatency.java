@@ -0,0 +1,89 @@
+package announcer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mesure de bout en bout du retard de l'affichage sur le modèle.
+ *
+ * Activée au lancement par -Dannouncer.latency=true : Announcer.announce() horodate alors chaque
+ * événement (tick de simulation et System.nanoTime(), voir AbstractEvent.stamp()). Les vues
+ * enregistrent ensuite, dans des histogrammes nommés, le temps écoulé depuis l'émission :
+ * - à la livraison de l'événement (ex: "BaliseView livraison")
+ * - au dessin suivant dans paintComponent() (ex: "BaliseView affichage")
+ * Les composants graphiques passent par PaintLatency, qui tient ces deux mesures.
+ *
+ * ENABLED est une constante : désactivée, l'horodatage et les mesures sont supprimés par le JIT.
+ *
+ * Lecture à tout moment : histogram(nom), getHistograms(), report() (affiché à la fermeture par MainStrategy).
+ *
+ * @see LatencyHistogram
+ */
+public final class EventLatency {
+
+	/** Mesure active (lue une seule fois, au chargement de la classe) */
+	public static final boolean ENABLED = Boolean.getBoolean("announcer.latency");
+
+	/** Histogrammes par nom, dans l'ordre de création */
+	private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+	private static final List<LatencyHistogram> ORDERED = new ArrayList<>();
+
+	private EventLatency() {}
+
+	/**
+	 * @param name Nom de la mesure (ex: "BaliseView affichage")
+	 * @return L'histogramme de ce nom, créé au premier appel
+	 */
+	public static LatencyHistogram histogram(String name) {
+		LatencyHistogram h = HISTOGRAMS.get(name);
+		return (h != null) ? h : create(name);
+	}
+
+	private static synchronized LatencyHistogram create(String name) {
+		LatencyHistogram h = HISTOGRAMS.get(name);
+		if (h == null) {
+			h = new LatencyHistogram(name);
+			HISTOGRAMS.put(name, h);
+			ORDERED.add(h);
+		}
+		return h;
+	}
+
+	/**
+	 * Enregistre le temps écoulé depuis l'émission d'un événement (ignoré s'il n'est pas horodaté).
+	 *
+	 * @param histogram L'histogramme de la mesure
+	 * @param emitNanos Horodatage de l'émission (AbstractEvent.getEmitNanos()), 0 si absent
+	 */
+	public static void recordSince(LatencyHistogram histogram, long emitNanos) {
+		if (emitNanos != 0) histogram.record(System.nanoTime() - emitNanos);
+	}
+
+	/**
+	 * @return Les histogrammes existants, dans l'ordre de création
+	 */
+	public static synchronized List<LatencyHistogram> getHistograms() {
+		return new ArrayList<>(ORDERED);
+	}
+
+	/**
+	 * Remet tous les histogrammes à zéro.
+	 */
+	public static void reset() {
+		for (LatencyHistogram h : getHistograms()) {
+			h.reset();
+		}
+	}
+
+	/**
+	 * @return Rapport lisible : une ligne par histogramme (nombre, moyenne, percentiles)
+	 */
+	public static String report() {
+		StringBuilder sb = new StringBuilder("=== Latence émission -> livraison / affichage ===\n");
+		for (LatencyHistogram h : getHistograms()) {
+			sb.append(h).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,390 @@
+package announcer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Expose un type d'événement d'un Announcer comme Flow.Publisher (Reactive Streams du JDK).
+ *
+ * Chaque Flow.Subscriber reçoit son propre abonnement à l'Announcer et sa propre file bornée.
+ * Les événements ne sont livrés (onNext) que dans la limite de la demande (request(n)), par
+ * l'Executor, jamais sur le thread qui appelle announce(). Quand la demande est épuisée
+ * et la file pleine, OverflowPolicy décide du sort des nouveaux événements.
+ *
+ * Les événements sont mis en file sous forme de copie détachée (AbstractEvent.detach()) :
+ * les événements de mouvement, réutilisés par leur source, restent valides. Un événement
+ * abandonné (file pleine, Subscriber annulé) n'est pas copié.
+ *
+ * close() désabonne l'adaptateur de l'Announcer ; chaque Subscriber reçoit onComplete()
+ * une fois sa file vidée.
+ *
+ * Un Subscriber dont onNext() lève une exception est annulé ; l'exception est confiée à
+ * setErrorHandler() (par défaut : java.util.logging).
+ *
+ * Exemple :
+ * EventPublisher<BaliseMoveEvent> moves = new EventPublisher<>(Announcer.shared(), BaliseMoveEvent.class,
+ *                                                              256, EventPublisher.OverflowPolicy.CONFLATE);
+ * moves.subscribe(etapeDeTraitement);
+ *
+ * @param <E> Type d'événement publié
+ */
+public final class EventPublisher<E extends AbstractEvent> implements Flow.Publisher<E>, AutoCloseable {
+
+	/**
+	 * Sort d'un événement quand la file d'un Subscriber est pleine (demande épuisée).
+	 */
+	public enum OverflowPolicy {
+		/** Le nouvel événement est abandonné et compté : announce() n'attend jamais */
+		DROP,
+		/**
+		 * Un événement Conflatable remplace celui, pas encore livré, de la même source
+		 * (seule la dernière position compte) ; les autres sont abandonnés comme avec DROP
+		 */
+		CONFLATE,
+		/** announce() attend qu'une place se libère (aucune perte, mais le tick peut ralentir) */
+		BLOCK
+	}
+
+	private final Announcer announcer;
+	private final Class<E> eventClass;
+	private final EventSource source;
+	private final int bufferSize;
+	private final OverflowPolicy policy;
+	private final Executor executor;
+
+	private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private volatile boolean closed;
+	private volatile Consumer<? super RuntimeException> errorHandler = EventPublisher::log;
+
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong conflated = new AtomicLong();
+	private final AtomicLong blocked = new AtomicLong();
+
+	/**
+	 * Publie tous les événements du type, livrés par le pool commun (ForkJoinPool.commonPool()).
+	 *
+	 * @param announcer L'Announcer observé
+	 * @param eventClass Le type d'événement publié (sous-types compris)
+	 * @param bufferSize Taille de la file de chaque Subscriber
+	 * @param policy Comportement quand une file est pleine
+	 */
+	public EventPublisher(Announcer announcer, Class<E> eventClass, int bufferSize, OverflowPolicy policy) {
+		this(announcer, eventClass, null, bufferSize, policy, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructeur complet.
+	 *
+	 * @param announcer L'Announcer observé
+	 * @param eventClass Le type d'événement publié (sous-types compris)
+	 * @param source La source observée (null : toutes les sources)
+	 * @param bufferSize Taille de la file de chaque Subscriber
+	 * @param policy Comportement quand une file est pleine
+	 * @param executor Exécute les livraisons aux Subscribers
+	 */
+	public EventPublisher(Announcer announcer, Class<E> eventClass, EventSource source, int bufferSize,
+			OverflowPolicy policy, Executor executor) {
+		if (bufferSize < 1) throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+		this.announcer = Objects.requireNonNull(announcer);
+		this.eventClass = Objects.requireNonNull(eventClass);
+		this.source = source;
+		this.bufferSize = bufferSize;
+		this.policy = Objects.requireNonNull(policy);
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super E> subscriber) {
+		Objects.requireNonNull(subscriber);
+		EventSubscription s = new EventSubscription(subscriber);
+		subscriber.onSubscribe(s);
+		if (s.isCancelled()) return; // cancel() dans onSubscribe() : jamais abonné
+		if (closed) {
+			s.complete();
+			return;
+		}
+		subscriptions.add(s);
+		// Abonnement à l'Announcer après onSubscribe() : aucun onNext() ne peut le précéder
+		s.registration = announcer.subscribe(eventClass, s::offer, source);
+		// cancel() ou close() concurrent, qui a pu lire registration avant son affectation
+		if (s.isCancelled()) s.unregister();
+		else if (closed) s.complete();
+	}
+
+	/**
+	 * Désabonne l'adaptateur de l'Announcer. Chaque Subscriber reçoit onComplete()
+	 * après les événements encore en file (dans la limite de sa demande).
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (EventSubscription s : subscriptions) {
+			s.complete();
+		}
+	}
+
+	/**
+	 * Remplace le traitement des exceptions levées par onNext() (appelé par l'Executor de livraison).
+	 *
+	 * @param handler Reçoit chaque exception (ex: compteur, journal de l'application)
+	 */
+	public void setErrorHandler(Consumer<? super RuntimeException> handler) {
+		this.errorHandler = Objects.requireNonNull(handler);
+	}
+
+	private static void log(RuntimeException ex) {
+		Logger.getLogger(EventPublisher.class.getName()).log(Level.WARNING, "Subscriber failed", ex);
+	}
+
+	/** @return Nombre de Subscribers abonnés (non annulés) */
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	/** @return Nombre d'événements passés à onNext(), tous Subscribers confondus */
+	public long getDeliveredCount() {
+		return delivered.get();
+	}
+
+	/** @return Nombre d'événements abandonnés faute de place (DROP, CONFLATE) */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/** @return Nombre d'événements remplacés par un plus récent de la même source (CONFLATE) */
+	public long getConflatedCount() {
+		return conflated.get();
+	}
+
+	/** @return Nombre d'announce() ayant dû attendre une place libre (BLOCK) */
+	public long getBlockedCount() {
+		return blocked.get();
+	}
+
+	/**
+	 * Abonnement d'un Subscriber : file bornée, demande, et livraison sérialisée par l'Executor.
+	 * L'état est protégé par this ; onNext()/onComplete()/onError() sont appelés hors verrou,
+	 * par une seule tâche de livraison à la fois.
+	 */
+	private final class EventSubscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super E> subscriber;
+		volatile Subscription registration;
+
+		/** File (DROP, BLOCK) */
+		private final ArrayDeque<E> queue;
+		/** File indexée par source (CONFLATE) : une clé unique pour les événements non fusionnables */
+		private final LinkedHashMap<Object, E> latest;
+
+		private long demand;
+		/** true si une tâche de livraison est demandée ou en cours */
+		private boolean draining;
+		private boolean cancelled;
+		/** close() : onComplete() après la file */
+		private boolean completing;
+		/** onComplete() ou onError() envoyé */
+		private boolean terminated;
+		private Throwable failure;
+
+		EventSubscription(Flow.Subscriber<? super E> subscriber) {
+			this.subscriber = subscriber;
+			boolean conflate = policy == OverflowPolicy.CONFLATE;
+			this.queue = conflate ? null : new ArrayDeque<>();
+			this.latest = conflate ? new LinkedHashMap<>() : null;
+		}
+
+		/**
+		 * Reçoit un événement de l'Announcer (thread de diffusion).
+		 * La copie détachée n'est faite que si l'événement entre dans la file.
+		 */
+		void offer(E anEvent) {
+			synchronized (this) {
+				if (cancelled || completing) return;
+				if (!enqueue(anEvent)) return;
+				if (demand == 0 || draining) return;
+				draining = true;
+			}
+			executor.execute(this::drain);
+		}
+
+		synchronized boolean isCancelled() {
+			return cancelled;
+		}
+
+		/** @return Copie détachée de l'événement, à mettre en file */
+		@SuppressWarnings("unchecked")
+		private E copy(E anEvent) {
+			return (E) anEvent.detach();
+		}
+
+		/** @return false si l'événement n'a pas été mis en file */
+		private boolean enqueue(E e) {
+			switch (policy) {
+			case CONFLATE:
+				if (e instanceof Conflatable) {
+					Object key = e.getSource();
+					if (latest.containsKey(key)) {
+						latest.put(key, copy(e)); // garde sa place dans la file
+						conflated.incrementAndGet();
+						return true;
+					}
+					if (latest.size() < bufferSize) {
+						latest.put(key, copy(e));
+						return true;
+					}
+				} else if (latest.size() < bufferSize) {
+					latest.put(new Object(), copy(e)); // jamais fusionné (changement d'état, synchronisation)
+					return true;
+				}
+				dropped.incrementAndGet();
+				return false;
+			case BLOCK:
+				if (queue.size() >= bufferSize) {
+					blocked.incrementAndGet();
+					while (queue.size() >= bufferSize && !cancelled && !completing) {
+						try {
+							wait();
+						} catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+							dropped.incrementAndGet();
+							return false;
+						}
+					}
+					if (cancelled || completing) return false;
+				}
+				queue.add(copy(e));
+				return true;
+			default: // DROP
+				if (queue.size() >= bufferSize) {
+					dropped.incrementAndGet();
+					return false;
+				}
+				queue.add(copy(e));
+				return true;
+			}
+		}
+
+		private boolean isEmpty() {
+			return queue != null ? queue.isEmpty() : latest.isEmpty();
+		}
+
+		private E poll() {
+			if (queue != null) {
+				E e = queue.poll();
+				notifyAll(); // place libre pour un producteur en attente (BLOCK)
+				return e;
+			}
+			Iterator<E> it = latest.values().iterator();
+			E e = it.next();
+			it.remove();
+			return e;
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				if (terminated || cancelled) return;
+				if (n <= 0) {
+					// Règle 3.9 de Reactive Streams : signalé par onError()
+					failure = new IllegalArgumentException("non-positive request: " + n);
+				} else {
+					demand += n;
+					if (demand < 0) demand = Long.MAX_VALUE; // demande illimitée
+				}
+				if (draining || (failure == null && isEmpty() && !completing)) return;
+				draining = true;
+			}
+			executor.execute(this::drain);
+		}
+
+		@Override
+		public void cancel() {
+			synchronized (this) {
+				if (cancelled) return;
+				cancelled = true;
+				if (queue != null) queue.clear();
+				else latest.clear();
+				notifyAll();
+			}
+			unregister();
+		}
+
+		/**
+		 * Fin de la publication (close()) : onComplete() une fois la file vidée.
+		 */
+		void complete() {
+			unregister();
+			synchronized (this) {
+				if (cancelled || completing) return;
+				completing = true;
+				notifyAll();
+				if (draining) return;
+				draining = true;
+			}
+			executor.execute(this::drain);
+		}
+
+		void unregister() {
+			Subscription r = registration;
+			if (r != null) r.close();
+			subscriptions.remove(this);
+		}
+
+		/**
+		 * Livre les événements en file tant qu'il y a de la demande (tâche de l'Executor).
+		 */
+		private void drain() {
+			while (true) {
+				E next = null;
+				Throwable error = null;
+				boolean done = false;
+				synchronized (this) {
+					if (failure != null && !terminated) {
+						terminated = true;
+						error = failure;
+					} else if (cancelled || terminated) {
+						draining = false;
+						return;
+					} else if (demand > 0 && !isEmpty()) {
+						next = poll();
+						if (demand != Long.MAX_VALUE) demand--;
+					} else if (completing && isEmpty()) {
+						terminated = true;
+						done = true;
+					} else {
+						draining = false;
+						return;
+					}
+				}
+				if (error != null) {
+					cancel();
+					subscriber.onError(error);
+					return;
+				}
+				if (done) {
+					subscriber.onComplete();
+					return;
+				}
+				try {
+					subscriber.onNext(next);
+					delivered.incrementAndGet();
+				} catch (RuntimeException ex) {
+					// Règle 2.13 : un Subscriber qui lève une exception est considéré comme annulé
+					cancel();
+					errorHandler.accept(ex);
+					return;
+				}
+			}
+		}
+	}
+}
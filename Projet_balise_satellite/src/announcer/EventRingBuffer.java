@@ -0,0 +1,171 @@
+package announcer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File circulaire bornée, préallouée, multi-producteurs / multi-consommateurs.
+ *
+ * Algorithme de D. Vyukov : chaque case porte un numéro de séquence qui indique
+ * si elle est libre pour le producteur de rang "pos" ou pleine pour le consommateur
+ * de rang "pos". Publication et consommation se font par CAS, sans verrou ni allocation.
+ * Le verrou n'est utilisé que par la stratégie d'attente BLOCKING, pour endormir
+ * les threads quand la file est vide (consommateurs) ou pleine (producteurs).
+ *
+ * @see AsyncAnnouncer
+ */
+final class EventRingBuffer {
+	/** Nombre d'itérations actives avant de céder le processeur (YIELDING) */
+	private static final int SPIN_TRIES = 100;
+	/** Durée de sommeil pour SLEEPING et délai de sécurité pour BLOCKING */
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final AbstractEvent[] items;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+	private final AsyncAnnouncer.WaitStrategy waitStrategy;
+
+	// Utilisés uniquement par la stratégie BLOCKING
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final AtomicInteger sleepers = new AtomicInteger();
+
+	/**
+	 * @param capacity Taille de la file (arrondie à la puissance de 2 supérieure)
+	 * @param waitStrategy Comportement des threads quand la file est vide ou pleine
+	 */
+	EventRingBuffer(int capacity, AsyncAnnouncer.WaitStrategy waitStrategy) {
+		if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) size <<= 1;
+		this.items = new AbstractEvent[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) sequences.set(i, i);
+		this.mask = size - 1;
+		this.waitStrategy = waitStrategy;
+	}
+
+	int capacity() {
+		return items.length;
+	}
+
+	/**
+	 * Tente d'ajouter un événement sans attendre.
+	 *
+	 * @return false si la file est pleine
+	 */
+	boolean offer(AbstractEvent e) {
+		long pos = tail.get();
+		while (true) {
+			int index = (int) pos & mask;
+			long dif = sequences.get(index) - pos;
+			if (dif == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					items[index] = e;
+					sequences.set(index, pos + 1); // publication (écriture volatile)
+					if (sleepers.get() > 0) wakeUp();
+					return true;
+				}
+				pos = tail.get();
+			} else if (dif < 0) {
+				return false; // case encore occupée par le tour précédent : file pleine
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Retire un événement sans attendre.
+	 *
+	 * @return L'événement le plus ancien, ou null si la file est vide
+	 */
+	AbstractEvent poll() {
+		long pos = head.get();
+		while (true) {
+			int index = (int) pos & mask;
+			long dif = sequences.get(index) - (pos + 1);
+			if (dif == 0) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					AbstractEvent e = items[index];
+					items[index] = null;
+					sequences.set(index, pos + mask + 1); // libère la case pour le tour suivant
+					if (sleepers.get() > 0) wakeUp();
+					return e;
+				}
+				pos = head.get();
+			} else if (dif < 0) {
+				return null;
+			} else {
+				pos = head.get();
+			}
+		}
+	}
+
+	boolean isEmpty() {
+		return head.get() >= tail.get();
+	}
+
+	int size() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	/**
+	 * Attend (selon la stratégie) que la situation change : de la place pour un producteur,
+	 * ou un événement pour un consommateur. Le code appelant reteste ensuite sa condition.
+	 *
+	 * @param spins Nombre de tentatives déjà effectuées par l'appelant
+	 * @param forData true pour un consommateur (file vide), false pour un producteur (file pleine)
+	 */
+	void await(int spins, boolean forData) {
+		switch (waitStrategy) {
+			case BUSY_SPIN:
+				Thread.onSpinWait();
+				break;
+			case YIELDING:
+				if (spins < SPIN_TRIES) Thread.onSpinWait();
+				else Thread.yield();
+				break;
+			case SLEEPING:
+				if (spins < SPIN_TRIES) Thread.yield();
+				else LockSupport.parkNanos(PARK_NANOS);
+				break;
+			case BLOCKING:
+				sleepers.incrementAndGet();
+				lock.lock();
+				try {
+					// Retester après s'être déclaré : un producteur/consommateur ayant agi entre-temps
+					// a soit été vu ici, soit vu sleepers > 0 et va nous réveiller.
+					if (forData ? isEmpty() : size() >= items.length) {
+						(forData ? notEmpty : notFull).awaitNanos(PARK_NANOS * 10);
+					}
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				} finally {
+					lock.unlock();
+					sleepers.decrementAndGet();
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Réveille tous les threads endormis (stratégie BLOCKING, ou arrêt de l'Announcer).
+	 */
+	void wakeUp() {
+		lock.lock();
+		try {
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
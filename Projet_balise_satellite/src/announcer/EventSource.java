@@ -0,0 +1,33 @@
+package announcer;
+
+/**
+ * Classe de base des objets qui émettent des événements sur un Announcer partagé (Balise, Satellite).
+ *
+ * Elle réserve à l'Announcer un emplacement pour les abonnements propres à cette source
+ * (Announcer.register(listener, type, source)) : un listener peut ainsi n'observer qu'une
+ * balise parmi toute la flotte, sans que chaque balise possède son propre Announcer.
+ * L'emplacement reste null (4 à 8 octets) tant que personne ne s'abonne à cette source,
+ * et les abonnements disparaissent avec elle.
+ *
+ * L'emplacement appartient à un seul Announcer à la fois (celui du premier abonnement) :
+ * un autre Announcer ne livre pas ces abonnements quand la source émet chez lui, et
+ * refuse de s'abonner à la source tant que l'emplacement n'est pas libéré.
+ *
+ * @see Announcer#register(Object, Class, EventSource)
+ */
+public abstract class EventSource {
+	/** Abonnements propres à cette source, géré exclusivement par l'Announcer (null si aucun) */
+	volatile Registry sourceSubscriptions;
+	/** Announcer propriétaire de sourceSubscriptions (null si aucun abonnement) */
+	volatile Announcer sourceAnnouncer;
+
+	/**
+	 * Identifiant de la source, qui fixe l'ordre de livraison de ses événements en mode
+	 * transactionnel (voir Announcer.beginTick()). Il doit être stable d'une exécution à l'autre.
+	 *
+	 * @return Identifiant numérique de l'entité, -1 par défaut
+	 */
+	public int getEntityId() {
+		return -1;
+	}
+}
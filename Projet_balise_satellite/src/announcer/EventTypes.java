@@ -0,0 +1,44 @@
+package announcer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Attribue un identifiant entier dense à chaque classe d'événement.
+ *
+ * Les identifiants commencent à 1 (0 signifie "pas encore calculé" dans AbstractEvent)
+ * et servent d'index direct dans la table de diffusion de l'Announcer,
+ * ce qui remplace la recherche dans une HashMap à chaque announce().
+ *
+ * @see Announcer
+ * @see AbstractEvent
+ */
+final class EventTypes {
+	/** Prochain identifiant libre */
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+	/** Cache classe -> identifiant, calculé une seule fois par classe */
+	private static final ClassValue<Integer> IDS = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			return NEXT_ID.getAndIncrement();
+		}
+	};
+
+	private EventTypes() {}
+
+	/**
+	 * Retourne l'identifiant dense associé à une classe d'événement.
+	 *
+	 * @param type La classe d'événement
+	 * @return Identifiant strictement positif, stable pour toute la durée de l'exécution
+	 */
+	static int idOf(Class<?> type) {
+		return IDS.get(type);
+	}
+
+	/**
+	 * @return Nombre d'identifiants attribués + 1 (taille suffisante pour indexer toutes les classes connues)
+	 */
+	static int capacity() {
+		return NEXT_ID.get();
+	}
+}
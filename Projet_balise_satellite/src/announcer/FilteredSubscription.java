@@ -0,0 +1,33 @@
+package announcer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Abonnement typé dont la source de l'événement doit satisfaire un prédicat,
+ * évalué par l'Announcer avant la livraison (ex: balises d'un certain état ou d'une certaine mission).
+ *
+ * @param <E> Type d'événement attendu par le Consumer
+ * @param <S> Type de source attendu par le prédicat
+ * @see Announcer#subscribe(Class, Class, Predicate, Consumer)
+ */
+final class FilteredSubscription<E, S> extends Subscription {
+	private final Class<S> sourceClass;
+	private final Predicate<? super S> sourceFilter;
+
+	FilteredSubscription(Announcer announcer, Consumer<? super E> consumer, Class<S> sourceClass, Predicate<? super S> sourceFilter) {
+		super(announcer, consumer, consumer.getClass(), null); // Consumer libéré dès close(), comme ConsumerSubscription
+		this.sourceClass = sourceClass;
+		this.sourceFilter = sourceFilter;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	boolean deliver(AbstractEvent anEvent) {
+		Object consumer = target();
+		if (consumer == null) return false;
+		Object source = anEvent.getSource();
+		if (!sourceClass.isInstance(source) || !sourceFilter.test(sourceClass.cast(source))) return false;
+		((Consumer<? super E>) consumer).accept((E) anEvent);
+		return true;
+	}
+}
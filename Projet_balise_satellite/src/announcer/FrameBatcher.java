@@ -0,0 +1,275 @@
+package announcer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+
+/**
+ * Regroupe par image les événements destinés à l'interface graphique (voir Announcer.registerOnFrame()).
+ *
+ * Pendant un tick, les événements reçus par les abonnements « frame » sont seulement collectés.
+ * endTick(), appelé par la boucle de simulation à la fin du tick, clôt le lot et demande une
+ * livraison à l'Executor de l'interface : avec swing(), un seul SwingUtilities.invokeLater()
+ * par image, où les listeners sont appelés dans l'ordre d'émission, sur l'EDT.
+ *
+ * Les images sont espacées d'au moins 1/maxFps seconde. Si la simulation va plus vite, les ticks
+ * suivants rejoignent le lot en attente : les événements fusionnables (Conflatable) d'une même
+ * source n'y gardent que leur dernière valeur (une seule mise en page par entité et par image),
+ * les autres (changements d'état, synchronisations) sont tous livrés. La valeur retenue prend
+ * la place de la plus récente dans l'ordre d'émission : un listener ne voit jamais une position
+ * avant un événement émis plus tôt.
+ *
+ * Les événements fusionnables ne sont pas copiés à chaque émission : chaque (abonnement, source)
+ * a un emplacement (Slot) réutilisé d'une image à l'autre, dont la copie est mise à jour sur place
+ * (Conflatable.copyInto()). Deux copies alternent, pour ne jamais modifier celle que l'image
+ * précédente est encore en train de livrer. Les autres événements sont collectés tels que
+ * AbstractEvent.detach() les rend.
+ *
+ * Exemple :
+ * FrameBatcher frames = FrameBatcher.swing(60);
+ * balise.registerBaliseEvents(baliseView, frames);
+ * ... boucle de simulation : déplacements, synchronisations, puis frames.endTick();
+ */
+public final class FrameBatcher {
+	/** Temporisation des images différées par la limite de fréquence (partagée, créée à la demande) */
+	private static volatile ScheduledExecutorService timer;
+
+	private final Executor uiExecutor;
+	private final long frameNanos;
+
+	private final Object lock = new Object();
+	/** Événements du tick en cours : Pending ou Slot (null : remplacé par un plus récent) */
+	private List<Object> open = new ArrayList<>();
+	/** Lot clos, en attente de la prochaine image (null : remplacé par un plus récent) */
+	private List<Object> ready = new ArrayList<>();
+	/** Nombre de cases null dans open et dans ready */
+	private int openReplaced, replaced;
+	/** true si une image est demandée et pas encore livrée */
+	private boolean scheduled;
+	private long lastFrameNanos;
+
+	private long frames;
+	private long delivered;
+	private long conflated;
+
+	/**
+	 * @param uiExecutor Exécute chaque image (une tâche par image, l'une après l'autre : ex. EDT)
+	 * @param maxFps Nombre maximal d'images par seconde
+	 */
+	public FrameBatcher(Executor uiExecutor, int maxFps) {
+		if (maxFps <= 0) throw new IllegalArgumentException("maxFps must be positive: " + maxFps);
+		this.uiExecutor = uiExecutor;
+		this.frameNanos = TimeUnit.SECONDS.toNanos(1) / maxFps;
+		this.lastFrameNanos = System.nanoTime() - frameNanos;
+	}
+
+	/**
+	 * @param maxFps Nombre maximal d'images par seconde
+	 * @return Un FrameBatcher livrant chaque image par SwingUtilities.invokeLater()
+	 */
+	public static FrameBatcher swing(int maxFps) {
+		return new FrameBatcher(SwingUtilities::invokeLater, maxFps);
+	}
+
+	/**
+	 * Collecte un événement du tick en cours (appelé par FrameSubscription).
+	 */
+	void add(FrameSubscription subscription, AbstractEvent anEvent) {
+		if (!(anEvent instanceof Conflatable)) {
+			Pending p = new Pending(subscription, anEvent.detach());
+			synchronized (lock) {
+				open.add(p);
+			}
+			return;
+		}
+		synchronized (lock) {
+			Slot slot = subscription.slots.get(anEvent.getSource());
+			if (slot == null) {
+				slot = new Slot(subscription);
+				subscription.slots.put(anEvent.getSource(), slot);
+			}
+			slot.store((Conflatable) anEvent);
+			if (slot.queued) {
+				// La valeur précédente n'a jamais été affichée : la nouvelle est livrée à son rang d'émission
+				if (slot.inOpen) {
+					open.set(slot.index, null);
+					openReplaced++;
+				} else {
+					ready.set(slot.index, null);
+					replaced++;
+				}
+				conflated++;
+			}
+			slot.queued = true;
+			slot.inOpen = true;
+			slot.index = open.size();
+			open.add(slot);
+		}
+	}
+
+	/**
+	 * Clôt le tick : ses événements seront livrés à la prochaine image, demandée ici
+	 * si aucune ne l'est déjà (immédiatement, ou après 1/maxFps seconde depuis la précédente).
+	 */
+	public void endTick() {
+		long delay;
+		synchronized (lock) {
+			if (open.isEmpty()) return;
+			for (Object o : open) {
+				if (o == null) continue;
+				if (o instanceof Slot) {
+					Slot slot = (Slot) o;
+					slot.inOpen = false;
+					slot.index = ready.size();
+				}
+				ready.add(o);
+			}
+			open.clear();
+			openReplaced = 0;
+			if (scheduled) return; // rejoint l'image déjà demandée
+			scheduled = true;
+			delay = lastFrameNanos + frameNanos - System.nanoTime();
+		}
+		if (delay <= 0) {
+			uiExecutor.execute(this::frame);
+		} else {
+			timer().schedule(() -> uiExecutor.execute(this::frame), delay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Livre le lot en attente (exécuté par l'Executor de l'interface).
+	 */
+	private void frame() {
+		List<Object> batch;
+		synchronized (lock) {
+			batch = ready;
+			ready = new ArrayList<>();
+			replaced = 0;
+			for (Object o : batch) {
+				if (o instanceof Slot) ((Slot) o).take();
+			}
+			scheduled = false;
+			lastFrameNanos = System.nanoTime();
+			frames++;
+		}
+		int count = 0;
+		for (Object o : batch) {
+			if (o == null) continue;
+			boolean sent;
+			if (o instanceof Slot) {
+				Slot slot = (Slot) o;
+				sent = slot.subscription.deliverNow(slot.copies[slot.delivering]);
+			} else {
+				Pending p = (Pending) o;
+				sent = p.subscription.deliverNow(p.event);
+			}
+			if (sent) count++;
+		}
+		synchronized (lock) {
+			delivered += count;
+			for (Object o : batch) {
+				if (!(o instanceof Slot)) continue;
+				Slot slot = (Slot) o;
+				slot.delivering = -1; // copie de nouveau modifiable
+				if (!slot.subscription.isActive()) slot.subscription.slots.clear();
+			}
+		}
+	}
+
+	private static ScheduledExecutorService timer() {
+		ScheduledExecutorService t = timer;
+		if (t == null) {
+			synchronized (FrameBatcher.class) {
+				t = timer;
+				if (t == null) {
+					t = Executors.newSingleThreadScheduledExecutor(r -> {
+						Thread thread = new Thread(r, "announcer-frame-timer");
+						thread.setDaemon(true);
+						return thread;
+					});
+					timer = t;
+				}
+			}
+		}
+		return t;
+	}
+
+	/** @return Nombre d'images livrées */
+	public long getFrameCount() {
+		synchronized (lock) {
+			return frames;
+		}
+	}
+
+	/** @return Nombre d'événements livrés aux listeners */
+	public long getDeliveredCount() {
+		synchronized (lock) {
+			return delivered;
+		}
+	}
+
+	/** @return Nombre d'événements remplacés par un plus récent avant d'avoir été affichés */
+	public long getConflatedCount() {
+		synchronized (lock) {
+			return conflated;
+		}
+	}
+
+	/** @return Nombre d'événements collectés, pas encore livrés */
+	public int getPendingCount() {
+		synchronized (lock) {
+			return open.size() - openReplaced + ready.size() - replaced;
+		}
+	}
+
+	/** Événement en attente pour un abonnement */
+	private static final class Pending {
+		final FrameSubscription subscription;
+		final AbstractEvent event;
+
+		Pending(FrameSubscription subscription, AbstractEvent event) {
+			this.subscription = subscription;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Dernière valeur d'un événement fusionnable pour un (abonnement, source), réutilisée
+	 * d'une image à l'autre. Protégé par le verrou du FrameBatcher, sauf la copie en cours
+	 * de livraison (copies[delivering]), lue par l'image sans le verrou et jamais modifiée.
+	 */
+	static final class Slot {
+		final FrameSubscription subscription;
+		/** Deux copies : l'une en attente, l'autre éventuellement en cours de livraison */
+		final AbstractEvent[] copies = new AbstractEvent[2];
+		/** Copie qui porte la dernière valeur */
+		int current;
+		/** Copie livrée par l'image en cours (-1 : aucune) */
+		int delivering = -1;
+		/** true si la valeur attend une image, dans open (inOpen) ou ready, à la case index */
+		boolean queued;
+		boolean inOpen;
+		int index;
+
+		Slot(FrameSubscription subscription) {
+			this.subscription = subscription;
+		}
+
+		/** Enregistre la dernière valeur, sans toucher à la copie en cours de livraison */
+		void store(Conflatable anEvent) {
+			if (current == delivering) current ^= 1;
+			AbstractEvent copy = copies[current];
+			if (copy == null || !anEvent.copyInto(copy)) copies[current] = anEvent.copy();
+		}
+
+		/** La valeur part avec l'image qui commence */
+		void take() {
+			queued = false;
+			delivering = current;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package announcer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Abonnement créé par Announcer.registerOnFrame() : announce() ne fait que confier l'événement
+ * au FrameBatcher, qui le livre au listener (par sentTo()) à la prochaine image, sur le thread
+ * de l'interface.
+ */
+final class FrameSubscription extends Subscription {
+	private final FrameBatcher frames;
+	/** Emplacement de la dernière position de chaque source (protégé par le FrameBatcher) */
+	final Map<Object, FrameBatcher.Slot> slots = new IdentityHashMap<>();
+
+	FrameSubscription(Announcer announcer, Object listener, EventSource source, FrameBatcher frames) {
+		super(announcer, listener, listener.getClass(), source);
+		this.frames = frames;
+	}
+
+	@Override
+	boolean deliver(AbstractEvent anEvent) {
+		if (!isActive()) return false;
+		frames.add(this, anEvent);
+		return true;
+	}
+
+	/**
+	 * Livre l'événement au listener (appelé par le FrameBatcher, à l'image suivante).
+	 *
+	 * @return false si l'abonnement a été annulé entre-temps
+	 */
+	boolean deliverNow(AbstractEvent anEvent) {
+		return super.deliver(anEvent);
+	}
+}
@@ -0,0 +1,105 @@
+package announcer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de durées (en nanosecondes) à classes logarithmiques.
+ *
+ * La classe i regroupe les durées de [2^(i-1), 2^i[ ns (classe 0 : durée nulle),
+ * ce qui couvre de la nanoseconde à plusieurs siècles en 64 compteurs.
+ * record() est sans verrou et sans allocation : il peut être appelé depuis le chemin critique.
+ * Les percentiles sont approchés par la borne supérieure de la classe concernée (précision ×2).
+ *
+ * @see AnnouncerStats
+ */
+public final class LatencyHistogram {
+	private static final int BUCKETS = 64;
+
+	private final String name;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLongArray totals = new AtomicLongArray(2); // [0] = nombre, [1] = somme (ns)
+
+	/**
+	 * @param name Nom affiché dans les rapports (ex: classe du listener)
+	 */
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Enregistre une durée.
+	 *
+	 * @param nanos Durée en nanosecondes (les valeurs négatives sont comptées comme nulles)
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+		totals.incrementAndGet(0);
+		totals.addAndGet(1, nanos);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/** @return Nombre de durées enregistrées */
+	public long getCount() {
+		return totals.get(0);
+	}
+
+	/** @return Durée moyenne en nanosecondes (0 si vide) */
+	public double getMean() {
+		long count = totals.get(0);
+		return count == 0 ? 0 : (double) totals.get(1) / count;
+	}
+
+	/**
+	 * Estime un percentile.
+	 *
+	 * @param p Percentile entre 0 et 100 (ex: 99)
+	 * @return Borne supérieure (ns) de la classe contenant ce percentile, 0 si vide
+	 */
+	public long getPercentile(double p) {
+		long count = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) return 0;
+		long rank = (long) Math.ceil(count * p / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= Math.max(rank, 1)) return upperBound(i);
+		}
+		return upperBound(BUCKETS - 1);
+	}
+
+	/**
+	 * @return Copie des compteurs par classe (indice i : durées < 2^i ns)
+	 */
+	public long[] getBuckets() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) copy[i] = buckets.get(i);
+		return copy;
+	}
+
+	/**
+	 * Remet l'histogramme à zéro (les enregistrements concurrents peuvent être partiellement conservés).
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+		totals.set(0, 0);
+		totals.set(1, 0);
+	}
+
+	private static long upperBound(int bucket) {
+		return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s : n=%d moy=%.0fns p50<=%dns p99<=%dns max<=%dns", name, getCount(), getMean(),
+				getPercentile(50), getPercentile(99), getPercentile(100));
+	}
+}
@@ -0,0 +1,105 @@
+package announcer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Budget de temps par listener, appliqué par l'Announcer (voir Announcer.setListenerBudget()).
+ *
+ * Les livraisons sont chronométrées par échantillonnage : une sur SAMPLE_INTERVAL pour chaque
+ * abonnement (la première comprise), et toutes dès que le listener a dépassé le budget une fois.
+ * Un listener régulièrement lent est donc repéré en quelques livraisons, sans payer deux
+ * appels à System.nanoTime() par listener et par événement ; un pic isolé entre deux mesures
+ * peut en revanche passer inaperçu. Si AnnouncerStats est actif, tout est chronométré.
+ *
+ * Un listener qui dépasse le budget est signalé
+ * (au BudgetOverrunListener au premier dépassement, puis compteurs dans sa Subscription).
+ * Si un Executor de quarantaine est fourni, un listener qui a dépassé le budget
+ * strikes fois est ensuite servi par cet Executor : le thread qui appelle announce()
+ * (thread de simulation) ne l'attend plus.
+ *
+ * En quarantaine, le listener reçoit une copie détachée de l'événement (AbstractEvent.detach()),
+ * puisque les événements de mouvement sont réutilisés par leur source. Un Executor à un seul
+ * thread conserve l'ordre des événements.
+ */
+final class ListenerBudget {
+	/** Signalement par défaut : java.util.logging, jamais directement sur la console */
+	static final BudgetOverrunListener LOG = new BudgetOverrunListener() {
+		private final Logger logger = Logger.getLogger(Announcer.class.getName());
+
+		@Override
+		public void onSlowListener(Subscription s, long nanos, long budgetNanos) {
+			logger.log(Level.WARNING, "Slow listener {0}: {1} µs (budget {2} µs)",
+					new Object[] { s.getListenerClass().getName(), nanos / 1000, budgetNanos / 1000 });
+		}
+
+		@Override
+		public void onQuarantine(Subscription s) {
+			logger.log(Level.WARNING, "Listener quarantined: {0}", s.getListenerClass().getName());
+		}
+	};
+
+	/** Une livraison chronométrée sur SAMPLE_INTERVAL (puissance de 2) tant que le listener respecte le budget */
+	static final int SAMPLE_INTERVAL = 8;
+
+	final long budgetNanos;
+	private final int strikes;
+	/** Executor des listeners en quarantaine, ou null (signalement seulement) */
+	final Executor quarantine;
+	private final BudgetOverrunListener reporter;
+
+	/** Abonnements ayant dépassé le budget au moins une fois (ordre du premier dépassement) */
+	final List<Subscription> slowSubscriptions = new CopyOnWriteArrayList<>();
+
+	ListenerBudget(long budgetNanos, int strikes, Executor quarantine, BudgetOverrunListener reporter) {
+		if (budgetNanos <= 0) throw new IllegalArgumentException("budget must be positive: " + budgetNanos);
+		if (strikes < 1) throw new IllegalArgumentException("strikes must be positive: " + strikes);
+		this.budgetNanos = budgetNanos;
+		this.strikes = strikes;
+		this.quarantine = quarantine;
+		this.reporter = reporter;
+	}
+
+	/**
+	 * @return true si cette livraison doit être chronométrée (voir SAMPLE_INTERVAL)
+	 */
+	static boolean sample(Subscription s) {
+		return s.overruns != 0 || (s.budgetDeliveries++ & (SAMPLE_INTERVAL - 1)) == 0;
+	}
+
+	/**
+	 * Enregistre un dépassement du budget et met le listener en quarantaine si nécessaire.
+	 */
+	void overrun(Subscription s, long nanos) {
+		boolean first;
+		boolean quarantined = false;
+		synchronized (s) {
+			first = s.overruns == 0;
+			s.overruns++;
+			if (nanos > s.maxOverrunNanos) s.maxOverrunNanos = nanos;
+			if (quarantine != null && !s.quarantined && s.overruns >= strikes) {
+				s.quarantined = true;
+				quarantined = true;
+			}
+		}
+		if (first) {
+			slowSubscriptions.add(s);
+			reporter.onSlowListener(s, nanos, budgetNanos);
+		}
+		if (quarantined) reporter.onQuarantine(s);
+	}
+
+	/**
+	 * Confie la livraison d'un listener en quarantaine à l'Executor.
+	 *
+	 * @return true si l'abonnement est encore actif (livraison programmée)
+	 */
+	boolean deliverLater(Subscription s, AbstractEvent anEvent) {
+		if (!s.isActive()) return false;
+		AbstractEvent detached = anEvent.detach();
+		quarantine.execute(() -> s.deliver(detached));
+		return true;
+	}
+}
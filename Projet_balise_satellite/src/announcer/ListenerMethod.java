@@ -0,0 +1,22 @@
+package announcer;
+
+/**
+ * Appel direct d'une méthode @Subscribe, implémenté par les dispatchers générés.
+ *
+ * Le listener est passé à chaque appel plutôt que capturé (comme le ferait un Consumer) :
+ * une seule instance par méthode suffit pour tous les listeners de la classe, et l'abonnement
+ * désigne le listener lui-même (unregister(listener, type) le retrouve).
+ *
+ * @param <L> Classe du listener
+ * @param <E> Type d'événement reçu par la méthode
+ * @see Dispatcher
+ */
+public abstract class ListenerMethod<L, E> {
+	/**
+	 * Appelle la méthode @Subscribe du listener.
+	 *
+	 * @param listener Le listener abonné
+	 * @param event L'événement diffusé
+	 */
+	protected abstract void invoke(L listener, E event);
+}
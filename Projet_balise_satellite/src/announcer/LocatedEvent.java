@@ -0,0 +1,17 @@
+package announcer;
+
+/**
+ * Événement portant une position (ex: BaliseMoveEvent, SatelliteMoveEvent).
+ *
+ * L'Announcer utilise cette position pour ne livrer l'événement qu'aux abonnements
+ * par région qui la contiennent (voir Announcer.subscribe(Class, Region, Consumer)).
+ *
+ * @see Region
+ */
+public interface LocatedEvent {
+	/** @return Position horizontale au moment de l'émission */
+	int getX();
+
+	/** @return Position verticale au moment de l'émission */
+	int getY();
+}
@@ -0,0 +1,34 @@
+package announcer;
+
+/**
+ * Abonnement d'une méthode @Subscribe créé par les dispatchers générés (voir Dispatcher).
+ *
+ * Contrairement à un Consumer, l'abonnement conserve le listener lui-même : unregister(listener, type)
+ * et l'instrumentation (AnnouncerStats, ListenerBudget) le désignent comme un abonnement par register().
+ *
+ * @param <L> Classe du listener
+ * @param <E> Type d'événement reçu par la méthode
+ */
+final class MethodSubscription<L, E> extends Subscription {
+	private final ListenerMethod<L, E> method;
+
+	MethodSubscription(Announcer announcer, L listener, ListenerMethod<L, E> method, EventSource source) {
+		super(announcer, listener, listener.getClass(), source);
+		this.method = method;
+	}
+
+	@Override
+	Object handler() {
+		return method;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	boolean deliver(AbstractEvent anEvent) {
+		Object listener = target();
+		if (listener == null) return false;
+		// Sûr : le dispatcher généré associe la méthode à la classe de son listener et de son paramètre
+		method.invoke((L) listener, (E) anEvent);
+		return true;
+	}
+}
@@ -0,0 +1,60 @@
+package announcer;
+
+/**
+ * Retard d'un composant graphique sur le modèle (-Dannouncer.latency=true), voir EventLatency.
+ *
+ * Deux mesures, partagées par tous les composants de même nom :
+ * - "nom livraison" : temps écoulé entre l'émission et la réception de chaque événement (delivered())
+ * - "nom affichage" : au dessin suivant (painted()), temps écoulé depuis l'émission du plus ancien
+ *   événement reçu et pas encore dessiné
+ *
+ * L'affichage est mesuré depuis le plus ancien événement non dessiné : c'est le retard maximal
+ * subi par ce qui apparaît à l'écran. Si plusieurs positions arrivent entre deux dessins,
+ * seule la plus récente est visible, mais les précédentes ont attendu au moins aussi longtemps.
+ *
+ * Exemple (dans une vue) :
+ * private final PaintLatency latency = new PaintLatency("BaliseView");
+ * onBaliseMove(event) { latency.delivered(event); ... repaint(); }
+ * paintComponent(g) { super.paintComponent(g); latency.painted(); }
+ *
+ * Désactivées (EventLatency.ENABLED est une constante), les mesures sont supprimées par le JIT.
+ * Les deux méthodes sont appelées sur le thread de l'interface graphique.
+ */
+public final class PaintLatency {
+	private final LatencyHistogram delivery;
+	private final LatencyHistogram paint;
+	/** Horodatage du plus ancien événement reçu et pas encore dessiné (0 : rien en attente) */
+	private volatile long pendingEmitNanos;
+
+	/**
+	 * @param name Nom du composant, préfixe des deux histogrammes (ex: "BaliseView")
+	 */
+	public PaintLatency(String name) {
+		this.delivery = EventLatency.histogram(name + " livraison");
+		this.paint = EventLatency.histogram(name + " affichage");
+	}
+
+	/**
+	 * Enregistre le retard d'un événement à sa réception ; il sera dessiné au prochain painted().
+	 *
+	 * @param event L'événement reçu
+	 */
+	public void delivered(AbstractEvent event) {
+		if (!EventLatency.ENABLED) return;
+		long emitNanos = event.getEmitNanos();
+		EventLatency.recordSince(delivery, emitNanos);
+		if (pendingEmitNanos == 0) pendingEmitNanos = emitNanos;
+	}
+
+	/**
+	 * Enregistre le retard de l'affichage (à appeler à la fin de paintComponent()).
+	 */
+	public void painted() {
+		if (!EventLatency.ENABLED) return;
+		long emitNanos = pendingEmitNanos;
+		if (emitNanos != 0) {
+			EventLatency.recordSince(paint, emitNanos);
+			pendingEmitNanos = 0;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package announcer;
+
+/**
+ * Zone rectangulaire (immuable) utilisée pour filtrer les événements positionnés.
+ * Les bornes sont incluses à gauche/en haut et exclues à droite/en bas,
+ * comme pour java.awt.Rectangle.
+ *
+ * Exemple : new Region(0, 300, 400, 300) → moitié gauche de l'océan
+ *
+ * @see LocatedEvent
+ */
+public final class Region {
+	private final int x, y, width, height;
+
+	/**
+	 * @param x Bord gauche
+	 * @param y Bord haut
+	 * @param width Largeur (strictement positive)
+	 * @param height Hauteur (strictement positive)
+	 */
+	public Region(int x, int y, int width, int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Empty region: " + width + "x" + height);
+		}
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * @return true si le point (px, py) est dans la région
+	 */
+	public boolean contains(int px, int py) {
+		// Calcul en long : pas de débordement pour les régions proches de Integer.MAX_VALUE
+		return px >= x && py >= y && px < (long) x + width && py < (long) y + height;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/** @return Bord droit (exclu) */
+	long maxX() {
+		return (long) x + width;
+	}
+
+	/** @return Bord bas (exclu) */
+	long maxY() {
+		return (long) y + height;
+	}
+
+	@Override
+	public String toString() {
+		return "Region[" + x + "," + y + " " + width + "x" + height + "]";
+	}
+}
@@ -0,0 +1,248 @@
+package announcer;
+import java.util.Arrays;
+
+/**
+ * Index spatial immuable des abonnements par région (copy-on-write, comme Registry).
+ *
+ * L'espace est découpé en cellules de taille fixe (16 pixels de côté), regroupées
+ * en tuiles de TILE_CELLS x TILE_CELLS cellules ; seules les tuiles occupées existent
+ * (table de hachage par coordonnées de tuile). Chaque cellule liste les abonnements dont
+ * la région la recouvre. Pour un événement en (x, y), seuls les abonnements de la cellule
+ * contenant ce point sont examinés, au lieu de tous les abonnements par région.
+ *
+ * Un ajout ne recopie que la table des tuiles et les tuiles et cellules recouvertes par la
+ * nouvelle région : enregistrer N petites régions ne coûte pas O(N²). Une région qui
+ * recouvre plus de MAX_CELLS cellules est rangée à part (large()) et examinée pour chaque
+ * événement, sans agrandir les cellules des autres.
+ *
+ * @see Announcer#subscribe(Class, Region, java.util.function.Consumer)
+ */
+final class RegionIndex {
+	/** Côté d'une cellule : 1 << CELL_SHIFT pixels */
+	private static final int CELL_SHIFT = 4;
+	/** Côté d'une tuile : 1 << TILE_SHIFT cellules */
+	private static final int TILE_SHIFT = 4;
+	private static final int TILE_CELLS = 1 << TILE_SHIFT;
+	private static final int TILE_MASK = TILE_CELLS - 1;
+	/** Au-delà, une région n'est pas répartie dans les cellules (voir large()) */
+	private static final int MAX_CELLS = 1024;
+
+	/** Abonnement par région */
+	static final class Entry {
+		final Subscription subscription;
+		final Class<?> eventClass;
+		final Region region;
+
+		Entry(Subscription subscription, Class<?> eventClass, Region region) {
+			this.subscription = subscription;
+			this.eventClass = eventClass;
+			this.region = region;
+		}
+	}
+
+	static final Entry[] NO_ENTRIES = new Entry[0];
+	static final RegionIndex EMPTY = new RegionIndex(NO_ENTRIES, 0, NO_ENTRIES, new long[0], new Entry[0][][], 0);
+
+	/** Tous les abonnements : seules les count premières cases sont utiles (réserve partagée, voir Registry) */
+	private final Entry[] entries;
+	private final int count;
+	/** Abonnements dont la région recouvre plus de MAX_CELLS cellules (tableau immuable) */
+	private final Entry[] large;
+
+	// Tuiles occupées (adressage ouvert) : clé = coordonnées de la tuile, tuile = cellules ligne par ligne
+	private final long[] tileKeys;
+	private final Entry[][][] tiles;
+	private final int tileCount;
+
+	private RegionIndex(Entry[] entries, int count, Entry[] large, long[] tileKeys, Entry[][][] tiles, int tileCount) {
+		this.entries = entries;
+		this.count = count;
+		this.large = large;
+		this.tileKeys = tileKeys;
+		this.tiles = tiles;
+		this.tileCount = tileCount;
+	}
+
+	boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Retourne les abonnements de la cellule contenant le point (chemin critique de announce()).
+	 * Les abonnements de large() sont à examiner en plus. La région et le type de chaque
+	 * candidat restent à vérifier.
+	 *
+	 * @return Tableau immuable, éventuellement vide
+	 */
+	Entry[] candidates(int x, int y) {
+		if (tileCount == 0) return NO_ENTRIES;
+		int cx = x >> CELL_SHIFT, cy = y >> CELL_SHIFT; // décalage arithmétique : arrondi vers -∞
+		Entry[][] tile = tile(cx >> TILE_SHIFT, cy >> TILE_SHIFT);
+		if (tile == null) return NO_ENTRIES;
+		Entry[] cell = tile[((cy & TILE_MASK) << TILE_SHIFT) | (cx & TILE_MASK)];
+		return (cell == null) ? NO_ENTRIES : cell;
+	}
+
+	/**
+	 * @return Abonnements à examiner pour tout événement (régions trop étendues pour la grille)
+	 */
+	Entry[] large() {
+		return large;
+	}
+
+	/**
+	 * @return Un nouvel index avec l'abonnement ajouté
+	 */
+	RegionIndex with(Entry entry) {
+		Entry[] all = entries;
+		if (!claim(all, count, entry)) {
+			all = new Entry[Math.max(4, 2 * count)];
+			System.arraycopy(entries, 0, all, 0, count);
+			all[count] = entry;
+		}
+
+		Region region = entry.region;
+		int c0 = cell(region.getX()), c1 = cell(region.maxX() - 1);
+		int r0 = cell(region.getY()), r1 = cell(region.maxY() - 1);
+		if (((long) c1 - c0 + 1) * ((long) r1 - r0 + 1) > MAX_CELLS) {
+			Entry[] l = Arrays.copyOf(large, large.length + 1);
+			l[large.length] = entry;
+			return new RegionIndex(all, count + 1, l, tileKeys, tiles, tileCount);
+		}
+
+		// Table des tuiles recopiée (agrandie au-delà d'un taux de remplissage de 1/2)
+		int touched = ((r1 >> TILE_SHIFT) - (r0 >> TILE_SHIFT) + 1) * ((c1 >> TILE_SHIFT) - (c0 >> TILE_SHIFT) + 1);
+		long[] keys;
+		Entry[][][] table;
+		if (2 * (tileCount + touched) > tiles.length) {
+			int capacity = Math.max(8, Integer.highestOneBit(4 * (tileCount + touched)));
+			keys = new long[capacity];
+			table = new Entry[capacity][][];
+			for (int i = 0; i < tiles.length; i++) {
+				if (tiles[i] != null) put(keys, table, tileKeys[i], tiles[i]);
+			}
+		} else {
+			keys = tileKeys.clone();
+			table = tiles.clone();
+		}
+		int added = 0;
+		for (int ty = r0 >> TILE_SHIFT; ty <= r1 >> TILE_SHIFT; ty++) {
+			for (int tx = c0 >> TILE_SHIFT; tx <= c1 >> TILE_SHIFT; tx++) {
+				// Tuile recopiée une fois, puis chaque cellule recouverte recopiée avec l'abonnement en plus
+				Entry[][] previous = find(keys, table, key(tx, ty));
+				Entry[][] tile = (previous == null) ? new Entry[TILE_CELLS * TILE_CELLS][] : previous.clone();
+				if (previous == null) added++;
+				int x0 = Math.max(c0, tx << TILE_SHIFT), x1 = Math.min(c1, (tx << TILE_SHIFT) | TILE_MASK);
+				int y0 = Math.max(r0, ty << TILE_SHIFT), y1 = Math.min(r1, (ty << TILE_SHIFT) | TILE_MASK);
+				for (int cy = y0; cy <= y1; cy++) {
+					for (int cx = x0; cx <= x1; cx++) {
+						int i = ((cy & TILE_MASK) << TILE_SHIFT) | (cx & TILE_MASK);
+						Entry[] cell = tile[i];
+						if (cell == null) {
+							tile[i] = new Entry[] { entry };
+						} else {
+							Entry[] grown = Arrays.copyOf(cell, cell.length + 1);
+							grown[cell.length] = entry;
+							tile[i] = grown;
+						}
+					}
+				}
+				put(keys, table, key(tx, ty), tile);
+			}
+		}
+		return new RegionIndex(all, count + 1, large, keys, table, tileCount + added);
+	}
+
+	/**
+	 * Les abonnements retirés sont annulés.
+	 *
+	 * @return Un nouvel index sans les abonnements du listener pour ce type, ou this s'il n'y en a pas
+	 */
+	RegionIndex without(Object o, Class<?> eventClass) {
+		Entry[] remaining = new Entry[count];
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			Entry e = entries[i];
+			if (e.eventClass == eventClass && e.subscription.target() == o) {
+				e.subscription.cancel();
+			} else {
+				remaining[kept++] = e;
+			}
+		}
+		return rebuilt(remaining, kept);
+	}
+
+	/**
+	 * @return Un nouvel index sans les abonnements inactifs, ou this s'il n'y en a aucun
+	 */
+	RegionIndex purged() {
+		Entry[] remaining = new Entry[count];
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (entries[i].subscription.isActive()) remaining[kept++] = entries[i];
+		}
+		return rebuilt(remaining, kept);
+	}
+
+	int size() {
+		return count;
+	}
+
+	private RegionIndex rebuilt(Entry[] remaining, int kept) {
+		if (kept == count) return this;
+		RegionIndex index = EMPTY;
+		for (int i = 0; i < kept; i++) {
+			index = index.with(remaining[i]);
+		}
+		return index;
+	}
+
+	/**
+	 * Écrit l'abonnement dans la première case de réserve si elle est encore libre
+	 * (les instantanés précédents ne lisent pas au-delà de leur propre count).
+	 */
+	private static boolean claim(Entry[] all, int n, Entry entry) {
+		if (n >= all.length) return false;
+		synchronized (all) {
+			if (all[n] != null) return false;
+			all[n] = entry;
+			return true;
+		}
+	}
+
+	/** @return Cellule (colonne ou ligne) contenant la coordonnée */
+	private static int cell(long coordinate) {
+		return (int) (coordinate >> CELL_SHIFT);
+	}
+
+	private static long key(int tx, int ty) {
+		return ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+	}
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private Entry[][] tile(int tx, int ty) {
+		return find(tileKeys, tiles, key(tx, ty));
+	}
+
+	private static Entry[][] find(long[] keys, Entry[][][] table, long key) {
+		int mask = table.length - 1;
+		for (int i = slot(key, mask); table[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) return table[i];
+		}
+		return null;
+	}
+
+	private static void put(long[] keys, Entry[][][] table, long key, Entry[][] tile) {
+		int mask = table.length - 1;
+		int i = slot(key, mask);
+		while (table[i] != null && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		table[i] = tile;
+	}
+}
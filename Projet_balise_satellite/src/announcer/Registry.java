@@ -0,0 +1,315 @@
+package announcer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Instantané immuable d'un ensemble d'abonnements, accompagné de son propre cache de résolution.
+ *
+ * - registrations[typeId] : abonnements enregistrés pour ce type déclaré, ou null ; seules les
+ *   counts[typeId] premières cases sont utiles, la suite est une réserve pour les ajouts suivants
+ * - resolved[typeId] : abonnements à prévenir pour cette classe concrète d'événement, calculées une fois
+ *   en parcourant sa hiérarchie, null = pas encore calculé
+ *
+ * Toute modification produit un nouveau Registry (copy-on-write) : un cache calculé à partir
+ * d'un ancien instantané reste attaché à celui-ci et ne peut jamais être vu après un changement.
+ * Un ajout écrit dans la réserve du tableau, partagé avec l'instantané précédent qui ne lit pas
+ * au-delà de son propre nombre d'abonnements : enregistrer N listeners coûte O(N) et non O(N²).
+ *
+ * @see Announcer
+ */
+final class Registry {
+	/** Table partagée vide */
+	static final Subscription[][] EMPTY_TABLE = new Subscription[0][];
+	/** Résolution vide (aucun listener pour cette classe concrète) */
+	static final Subscription[] NO_LISTENERS = new Subscription[0];
+	/** Instantané vide, partagé par tous les Announcer et sources sans abonnement */
+	static final Registry EMPTY = new Registry(EMPTY_TABLE, new int[0]);
+
+	/** Abonnements par type déclaré à l'enregistrement (cases utiles immuables) */
+	final Subscription[][] registrations;
+	/** Nombre de cases utiles de chaque tableau de registrations */
+	private final int[] counts;
+	/** Cache par classe concrète d'événement (tableaux immuables) */
+	private volatile Subscription[][] resolved = EMPTY_TABLE;
+	/** Classe concrète de chaque entrée du cache, pour le reporter dans l'instantané suivant (voir with()) */
+	private volatile Class<?>[] resolvedTypes = new Class<?>[0];
+
+	private Registry(Subscription[][] registrations, int[] counts) {
+		this.registrations = registrations;
+		this.counts = counts;
+	}
+
+	boolean isEmpty() {
+		return registrations.length == 0;
+	}
+
+	/**
+	 * Retourne les entrées à prévenir pour un événement (chemin critique de announce()).
+	 *
+	 * @param anEvent L'événement diffusé
+	 * @param id Identifiant dense de sa classe
+	 * @return Tableau immuable, éventuellement vide
+	 */
+	Subscription[] listeners(AbstractEvent anEvent, int id) {
+		Subscription[][] cache = resolved;
+		Subscription[] l = (id < cache.length) ? cache[id] : null;
+		if (l != null) return l;
+		if (registrations.length == 0) return NO_LISTENERS; // EMPTY n'a jamais de cache
+		return resolve(anEvent.getClass(), id);
+	}
+
+	/**
+	 * Le cache du nouvel instantané reprend celui de l'ancien quand l'ajout se déduit sans
+	 * nouvelle résolution, ce qui évite de parcourir toute la hiérarchie (et tous les
+	 * abonnements) au premier announce() qui suit chaque enregistrement.
+	 *
+	 * @param type Le type déclaré à l'enregistrement
+	 * @return Un nouvel instantané avec l'abonnement ajouté pour le type id
+	 */
+	Registry with(Subscription entry, Class<?> type, int id) {
+		int length = Math.max(registrations.length, Math.max(id + 1, EventTypes.capacity()));
+		Subscription[][] table = Arrays.copyOf(registrations, length);
+		int[] sizes = Arrays.copyOf(counts, length);
+		Subscription[] l = table[id];
+		int n = sizes[id];
+		if (l == null || !claim(l, n, entry)) {
+			// Réserve pleine, ou déjà prise par un autre instantané dérivé du même : capacité doublée
+			Subscription[] grown = new Subscription[Math.max(1, 2 * n)];
+			if (n > 0) System.arraycopy(l, 0, grown, 0, n);
+			grown[n] = entry;
+			table[id] = grown;
+		}
+		sizes[id] = n + 1;
+		Registry next = new Registry(table, sizes);
+		next.inherit(this, entry, type, l, n);
+		return next;
+	}
+
+	/**
+	 * Reprend le cache de l'instantané précédent. Une classe qui ne dérive pas de type garde
+	 * sa résolution ; une résolution égale, dans l'ordre, aux n abonnements de type (les autres
+	 * types n'apportant que des doublons) reçoit l'abonnement ajouté à la fin, exactement comme
+	 * la calculerait resolve(). Les autres entrées seront recalculées à la demande.
+	 */
+	private void inherit(Registry previous, Subscription entry, Class<?> type, Subscription[] l, int n) {
+		Subscription[][] cache = previous.resolved;
+		Class<?>[] types = previous.resolvedTypes;
+		int length = Math.min(cache.length, types.length);
+		if (length == 0) return;
+		Subscription[][] carried = new Subscription[length][];
+		Class<?>[] carriedTypes = new Class<?>[length];
+		for (int k = 0; k < length; k++) {
+			Subscription[] r = cache[k];
+			Class<?> c = types[k];
+			if (r == null || c == null) continue;
+			if (type.isAssignableFrom(c)) r = appended(r, l, n, entry);
+			if (r == null) continue;
+			carried[k] = r;
+			carriedTypes[k] = c;
+		}
+		resolvedTypes = carriedTypes;
+		resolved = carried;
+	}
+
+	/**
+	 * @return La résolution r avec entry à la fin, r si son listener y figure déjà,
+	 *         ou null si r ne se réduit pas aux n premiers abonnements de l (à recalculer)
+	 */
+	private static Subscription[] appended(Subscription[] r, Subscription[] l, int n, Subscription entry) {
+		Object target = entry.target();
+		if (r.length != n || target == null) return null;
+		boolean present = false;
+		for (int i = 0; i < n; i++) {
+			if (r[i] != l[i]) return null;
+			if (r[i].target() == target) present = true;
+		}
+		if (present) return r;
+		Subscription[] result = Arrays.copyOf(r, n + 1);
+		result[n] = entry;
+		return result;
+	}
+
+	/**
+	 * Écrit l'abonnement dans la première case de réserve du tableau si elle est encore libre.
+	 */
+	private static boolean claim(Subscription[] l, int n, Subscription entry) {
+		if (n >= l.length) return false;
+		synchronized (l) {
+			if (l[n] != null) return false;
+			l[n] = entry;
+			return true;
+		}
+	}
+
+	/**
+	 * Les abonnements retirés sont annulés (leur Subscription devient inactive).
+	 *
+	 * @return Un nouvel instantané sans le listener (toutes ses occurrences, fortes ou faibles)
+	 *         pour le type id, EMPTY s'il n'y a plus rien, ou this si le listener était absent
+	 */
+	Registry without(Object o, int id) {
+		if (id >= registrations.length || registrations[id] == null) return this;
+		Subscription[] l = registrations[id];
+		int n = counts[id];
+		Subscription[] remaining = new Subscription[n];
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			Subscription entry = l[i];
+			if (o != entry.target()) {
+				remaining[count++] = entry;
+			} else {
+				entry.cancel();
+			}
+		}
+		if (count == n) return this;
+		// Libère la case si plus aucun listener pour ce type d'événement
+		Subscription[][] table = registrations.clone();
+		int[] sizes = counts.clone();
+		table[id] = (count == 0) ? null : Arrays.copyOf(remaining, count);
+		sizes[id] = count;
+		return compact(table, sizes);
+	}
+
+	/**
+	 * @return Un nouvel instantané sans les abonnements inactifs (annulés, ou dont le listener
+	 *         faible a été libéré), ou this s'il n'y en a aucun
+	 */
+	Registry purged() {
+		Subscription[][] table = null;
+		int[] sizes = null;
+		for (int id = 0; id < registrations.length; id++) {
+			Subscription[] l = registrations[id];
+			if (l == null) continue;
+			int n = counts[id];
+			int alive = 0;
+			for (int i = 0; i < n; i++) {
+				if (l[i].isActive()) alive++;
+			}
+			if (alive == n) continue;
+			if (table == null) {
+				table = registrations.clone();
+				sizes = counts.clone();
+			}
+			Subscription[] remaining = new Subscription[alive];
+			int count = 0;
+			for (int i = 0; i < n; i++) {
+				if (l[i].isActive()) remaining[count++] = l[i];
+			}
+			table[id] = (alive == 0) ? null : remaining;
+			sizes[id] = alive;
+		}
+		return (table == null) ? this : compact(table, sizes);
+	}
+
+	/**
+	 * @return Nombre total d'abonnements (inactifs mais pas encore purgés compris)
+	 */
+	int size() {
+		int count = 0;
+		for (int n : counts) {
+			count += n;
+		}
+		return count;
+	}
+
+	/**
+	 * Remplace une table sans aucune entrée par l'instantané partagé EMPTY (libère la mémoire).
+	 */
+	private static Registry compact(Subscription[][] table, int[] sizes) {
+		for (Subscription[] l : table) {
+			if (l != null) return new Registry(table, sizes);
+		}
+		return EMPTY;
+	}
+
+	/**
+	 * Calcule et met en cache les abonnements à prévenir pour une classe concrète d'événement :
+	 * celles de la classe elle-même, puis de ses classes mères jusqu'à AbstractEvent,
+	 * puis de toutes les interfaces implémentées. Un listener enregistré pour plusieurs
+	 * de ces types n'est retenu qu'une fois par méthode appelée (voir Subscription.handler()) :
+	 * une fois pour sentTo(), une fois pour chacune de ses méthodes @Subscribe.
+	 *
+	 * Peut être appelé en parallèle par plusieurs threads : au pire un même type est résolu
+	 * deux fois, ou une entrée du cache est perdue et recalculée plus tard (sans incidence).
+	 *
+	 * @param eventClass Classe concrète de l'événement
+	 * @param id Identifiant dense de cette classe
+	 * @return Tableau immuable des abonnements (éventuellement vide)
+	 */
+	private Subscription[] resolve(Class<?> eventClass, int id) {
+		List<Subscription> result = new ArrayList<>();
+		Set<Delivery> seen = new HashSet<>();
+
+		// Parcours de la hiérarchie : classes d'abord (de la plus précise à AbstractEvent), puis interfaces
+		ArrayDeque<Class<?>> interfaces = new ArrayDeque<>();
+		Set<Class<?>> visited = new HashSet<>();
+		for (Class<?> c = eventClass; c != null && AbstractEvent.class.isAssignableFrom(c); c = c.getSuperclass()) {
+			collect(c, seen, result);
+			interfaces.addAll(Arrays.asList(c.getInterfaces()));
+		}
+		while (!interfaces.isEmpty()) {
+			Class<?> i = interfaces.poll();
+			if (!visited.add(i)) continue;
+			collect(i, seen, result);
+			interfaces.addAll(Arrays.asList(i.getInterfaces()));
+		}
+		Subscription[] listeners = result.isEmpty() ? NO_LISTENERS : result.toArray(new Subscription[0]);
+
+		// Mise en cache (la table est remplacée, jamais modifiée une fois publiée)
+		int length = Math.max(id + 1, EventTypes.capacity());
+		Class<?>[] types = resolvedTypes;
+		types = Arrays.copyOf(types, Math.max(types.length, length));
+		types[id] = eventClass;
+		resolvedTypes = types; // avant resolved : une entrée du cache a toujours sa classe
+		Subscription[][] cache = resolved;
+		cache = Arrays.copyOf(cache, Math.max(cache.length, length));
+		cache[id] = listeners;
+		resolved = cache;
+		return listeners;
+	}
+
+	/**
+	 * Ajoute à result les abonnements actifs pour le type donné dont le couple (listener, méthode)
+	 * n'a pas encore été vu.
+	 */
+	private void collect(Class<?> type, Set<Delivery> seen, List<Subscription> result) {
+		int typeId = EventTypes.idOf(type);
+		if (typeId >= registrations.length || registrations[typeId] == null) return;
+		Subscription[] l = registrations[typeId];
+		for (int i = 0, n = counts[typeId]; i < n; i++) {
+			Subscription entry = l[i];
+			Object target = entry.target();
+			if (target != null && seen.add(new Delivery(target, entry.handler()))) result.add(entry); // l'abonnement faible reste faible
+		}
+	}
+
+	/**
+	 * Livraison d'un listener par une méthode donnée, comparée par identité
+	 * (un listener peut redéfinir equals()).
+	 */
+	private static final class Delivery {
+		private final Object target;
+		private final Object handler;
+
+		Delivery(Object target, Object handler) {
+			this.target = target;
+			this.handler = handler;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Delivery)) return false;
+			Delivery other = (Delivery) o;
+			return target == other.target && handler == other.handler;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(target) + System.identityHashCode(handler);
+		}
+	}
+}
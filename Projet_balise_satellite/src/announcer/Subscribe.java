@@ -0,0 +1,27 @@
+package announcer;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque une méthode de listener à abonner automatiquement par Announcer.registerAll().
+ *
+ * La méthode doit être non privée, non statique, et prendre un seul paramètre :
+ * le type d'événement auquel elle s'abonne (ex: onBaliseMove(BaliseMoveEvent event)).
+ *
+ * À la compilation, le processeur d'annotations (announcer.processor.SubscribeProcessor,
+ * dossier processor/) génère pour chaque classe concernée un dispatcher
+ * (NomDeLaClasse_Dispatcher) qui appelle ces méthodes directement, sans réflexion.
+ * L'intérêt est de ne pas implémenter d'interface de listener ni d'abonner chaque type
+ * à la main ; la diffusion n'est pas plus rapide qu'avec sentTo() (voir bench.DispatchBenchmark).
+ *
+ * @see Dispatcher
+ * @see Announcer#registerAll(Object)
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+}
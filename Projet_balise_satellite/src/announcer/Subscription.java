@@ -0,0 +1,115 @@
+package announcer;
+
+/**
+ * Abonnement retourné par Announcer.register(), registerWeak() et subscribe().
+ *
+ * close() désabonne le listener en temps constant : l'abonnement est marqué annulé
+ * (il ne reçoit plus rien dès le retour de close()), puis l'Announcer le retire
+ * de ses tableaux de diffusion plus tard, en une seule reconstruction pour tous
+ * les abonnements annulés entre-temps.
+ *
+ * Exemple :
+ * Subscription s = announcer.subscribe(BaliseMoveEvent.class, e -> trace(e.getX(), e.getY()));
+ * ...
+ * s.close();
+ *
+ * @see Announcer
+ */
+public class Subscription implements AutoCloseable {
+	private final Announcer announcer;
+	/** Source filtrée, ou null pour un abonnement global */
+	final EventSource source;
+	/** Classe du listener, pour l'instrumentation (voir AnnouncerStats) */
+	final Class<?> listenerClass;
+	/** Listener (ou WeakListener), null une fois l'abonnement annulé */
+	private volatile Object listener;
+
+	// Dépassements du budget de temps (voir ListenerBudget), protégés par this
+	int overruns;
+	long maxOverrunNanos;
+	/** true si les livraisons passent par l'Executor de quarantaine */
+	volatile boolean quarantined;
+	/** Livraisons reçues sous budget, pour l'échantillonnage du chronométrage (sans verrou : approximatif) */
+	int budgetDeliveries;
+
+	Subscription(Announcer announcer, Object listener, Class<?> listenerClass, EventSource source) {
+		this.announcer = announcer;
+		this.listener = listener;
+		this.listenerClass = listenerClass;
+		this.source = source;
+	}
+
+	/**
+	 * @return Le listener, ou null si l'abonnement est annulé ou si le listener faible a été libéré
+	 */
+	Object target() {
+		return WeakListener.target(listener);
+	}
+
+	/**
+	 * @return La méthode appelée sur le listener, ou null pour sentTo() : deux abonnements d'un même
+	 *         listener avec la même méthode ne sont livrés qu'une fois par événement (voir Registry)
+	 */
+	Object handler() {
+		return null;
+	}
+
+	/**
+	 * Transmet l'événement au listener (Double Dispatch via sentTo()).
+	 *
+	 * @return false si l'abonnement n'est plus actif (rien n'a été transmis)
+	 */
+	boolean deliver(AbstractEvent anEvent) {
+		Object target = target();
+		if (target == null) return false;
+		anEvent.sentTo(target);
+		return true;
+	}
+
+	/**
+	 * Marque l'abonnement comme annulé, sans le retirer des tableaux de diffusion.
+	 *
+	 * @return false s'il l'était déjà
+	 */
+	boolean cancel() {
+		if (listener == null) return false;
+		listener = null; // libère aussi le listener immédiatement
+		return true;
+	}
+
+	/**
+	 * @return true tant que l'abonnement reçoit les événements
+	 *         (ni annulé, ni listener faible libéré par le ramasse-miettes)
+	 */
+	public boolean isActive() {
+		return target() != null;
+	}
+
+	/** @return Classe du listener (ou du Consumer) abonné */
+	public Class<?> getListenerClass() {
+		return listenerClass;
+	}
+
+	/** @return Nombre de livraisons ayant dépassé le budget de l'Announcer */
+	public synchronized int getOverrunCount() {
+		return overruns;
+	}
+
+	/** @return Durée de la plus lente livraison hors budget, en nanosecondes (0 si aucune) */
+	public synchronized long getMaxOverrunNanos() {
+		return maxOverrunNanos;
+	}
+
+	/** @return true si le listener a été mis en quarantaine (livraison asynchrone) */
+	public boolean isQuarantined() {
+		return quarantined;
+	}
+
+	/**
+	 * Désabonne le listener. Sans effet si c'est déjà fait.
+	 */
+	@Override
+	public void close() {
+		announcer.cancel(this);
+	}
+}
@@ -0,0 +1,199 @@
+package announcer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tampons d'un tick en mode transactionnel (voir Announcer.beginTick() et endTick()).
+ *
+ * Chaque thread qui publie pendant le tick écrit dans son propre tampon, sans synchronisation.
+ * À la fin du tick, flush() livre les événements de tous les tampons dans un ordre stable :
+ * (tick, identifiant de l'entité source, séquence d'émission), quels que soient le nombre de
+ * threads et leur ordonnancement. Deux sources de classes différentes ayant le même identifiant
+ * (balise 0 et satellite 0) sont départagées par le nom de leur classe.
+ *
+ * Cas d'un seul thread : si un seul tampon a servi et que ses événements sont déjà dans l'ordre,
+ * ils sont livrés tels quels, sans tri ni copie.
+ *
+ * Aucune copie n'est faite pour les positions (Conflatable) : l'instance que la source réutilise
+ * à chaque tick sert elle-même d'emplacement. Si elle est publiée une seconde fois dans le même
+ * tick, elle est déjà en attente et porte la dernière position ; elle n'est livrée qu'une fois,
+ * à la place de sa première publication (seule la dernière position compte). Les autres
+ * événements sont mis en attente tels que detach() les rend (eux-mêmes s'ils ne sont pas réutilisés).
+ * bench.TickBufferBenchmark compare le coût de la mise en attente à la livraison immédiate.
+ *
+ * Les événements d'une même entité doivent être publiés par un seul thread pendant un tick
+ * (la séquence n'ordonne que les événements d'un même tampon).
+ */
+final class TickBuffers {
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** Ordre de livraison des événements de plusieurs tampons (le tick est commun) */
+	private static final Comparator<Entry> ORDER = (a, b) -> {
+		int c = Integer.compare(a.entityId, b.entityId);
+		if (c != 0) return c;
+		c = compareKind(a.event, b.event);
+		if (c != 0) return c;
+		return Integer.compare(a.sequence, b.sequence);
+	};
+
+	long tick;
+	/** Jeton du tick ouvert, marqué sur les positions en attente (AbstractEvent.pendingTick) */
+	private Object token;
+
+	/** Tampon du premier thread publieur, trouvé sans ThreadLocal */
+	private Buffer first;
+	private final ThreadLocal<Buffer> perThread = new ThreadLocal<>();
+	/** Tous les tampons créés, réutilisés de tick en tick */
+	private final List<Buffer> buffers = new ArrayList<>();
+
+	/**
+	 * Prépare les tampons pour un nouveau tick (Announcer.beginTick()).
+	 */
+	void open(long tick) {
+		this.tick = tick;
+		token = new Object();
+	}
+
+	/**
+	 * Met l'événement en attente dans le tampon du thread appelant.
+	 */
+	void add(AbstractEvent anEvent) {
+		AbstractEvent pending;
+		if (anEvent instanceof Conflatable) {
+			if (anEvent.pendingTick == token) return; // déjà en attente, avec la dernière position
+			anEvent.pendingTick = token;
+			pending = anEvent;
+		} else {
+			pending = anEvent.detach();
+		}
+		Buffer b = first;
+		if (b == null || b.owner != Thread.currentThread()) b = bufferOfCurrentThread();
+		b.add(pending);
+	}
+
+	private Buffer bufferOfCurrentThread() {
+		Buffer b = perThread.get();
+		if (b == null) {
+			b = new Buffer(Thread.currentThread());
+			perThread.set(b);
+			synchronized (buffers) {
+				buffers.add(b);
+				if (first == null) first = b;
+			}
+		}
+		return b;
+	}
+
+	/**
+	 * Livre les événements du tick dans l'ordre (tick, entité, séquence) puis vide les tampons.
+	 * Appelé après la fin des threads publieurs (Announcer.endTick()).
+	 *
+	 * @return Nombre d'événements livrés
+	 */
+	int flush(Announcer announcer) {
+		Buffer only = null;
+		int used = 0, total = 0;
+		synchronized (buffers) {
+			for (Buffer b : buffers) {
+				if (b.size == 0) continue;
+				only = b;
+				used++;
+				total += b.size;
+			}
+		}
+		if (used == 0) return 0;
+		if (used == 1 && only.sorted) {
+			// Cas courant (un seul thread) : déjà dans l'ordre
+			for (int i = 0; i < only.size; i++) {
+				announcer.dispatch(only.events[i]);
+			}
+			only.clear();
+			return total;
+		}
+
+		Entry[] entries = new Entry[total];
+		int n = 0;
+		synchronized (buffers) {
+			for (Buffer b : buffers) {
+				for (int i = 0; i < b.size; i++) {
+					entries[n++] = new Entry(b.events[i], b.entityIds[i], i);
+				}
+			}
+		}
+		Arrays.sort(entries, ORDER); // tri stable : égalité complète → ordre des tampons
+		for (Buffer b : buffersSnapshot()) b.clear();
+		for (Entry e : entries) {
+			announcer.dispatch(e.event);
+		}
+		return total;
+	}
+
+	private List<Buffer> buffersSnapshot() {
+		synchronized (buffers) {
+			return new ArrayList<>(buffers);
+		}
+	}
+
+	/**
+	 * @return Identifiant de l'entité qui a émis l'événement (-1 si la source n'est pas une EventSource)
+	 */
+	static int entityIdOf(AbstractEvent anEvent) {
+		Object source = anEvent.getSource();
+		return (source instanceof EventSource) ? ((EventSource) source).getEntityId() : -1;
+	}
+
+	private static int compareKind(AbstractEvent a, AbstractEvent b) {
+		Class<?> ka = a.getSource().getClass(), kb = b.getSource().getClass();
+		return (ka == kb) ? 0 : ka.getName().compareTo(kb.getName());
+	}
+
+	/** Tampon d'un thread publieur */
+	private static final class Buffer {
+		final Thread owner;
+		AbstractEvent[] events = new AbstractEvent[INITIAL_CAPACITY];
+		int[] entityIds = new int[INITIAL_CAPACITY];
+		int size;
+		/** true tant que les événements sont dans l'ordre de livraison */
+		boolean sorted = true;
+
+		Buffer(Thread owner) {
+			this.owner = owner;
+		}
+
+		void add(AbstractEvent anEvent) {
+			if (size == events.length) {
+				events = Arrays.copyOf(events, size * 2);
+				entityIds = Arrays.copyOf(entityIds, size * 2);
+			}
+			int id = entityIdOf(anEvent);
+			if (sorted && size > 0) {
+				int previous = entityIds[size - 1];
+				sorted = previous < id || (previous == id && compareKind(events[size - 1], anEvent) <= 0);
+			}
+			events[size] = anEvent;
+			entityIds[size] = id;
+			size++;
+		}
+
+		void clear() {
+			Arrays.fill(events, 0, size, null);
+			size = 0;
+			sorted = true;
+		}
+	}
+
+	/** Événement en attente, avec sa clé de tri */
+	private static final class Entry {
+		final AbstractEvent event;
+		final int entityId;
+		final int sequence;
+
+		Entry(AbstractEvent event, int entityId, int sequence) {
+			this.event = event;
+			this.entityId = entityId;
+			this.sequence = sequence;
+		}
+	}
+}
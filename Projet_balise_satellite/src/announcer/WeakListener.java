@@ -0,0 +1,34 @@
+package announcer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Enregistrement faible d'un listener dans l'Announcer.
+ *
+ * L'Announcer ne retient pas le listener : quand celui-ci n'est plus référencé ailleurs
+ * (ex: BaliseView retirée du NiSpace), le ramasse-miettes le libère et la référence est
+ * déposée dans la ReferenceQueue de l'Announcer, qui purge l'entrée lors d'un prochain announce().
+ *
+ * @see Announcer#registerWeak(Object, Class)
+ * @see Subscription
+ */
+final class WeakListener extends WeakReference<Object> {
+
+	/** Source dont les abonnements contiennent cette entrée, ou null pour un abonnement global */
+	final EventSource source;
+
+	WeakListener(Object listener, EventSource source, ReferenceQueue<Object> queue) {
+		super(listener, queue);
+		this.source = source;
+	}
+
+	/**
+	 * Retourne le listener réel porté par un abonnement.
+	 *
+	 * @param entry Listener lui-même (abonnement fort), WeakListener, ou null (abonnement annulé)
+	 * @return Le listener, ou null s'il a été libéré par le ramasse-miettes (ou si l'abonnement est annulé)
+	 */
+	static Object target(Object entry) {
+		return (entry instanceof WeakListener) ? ((WeakListener) entry).get() : entry;
+	}
+}
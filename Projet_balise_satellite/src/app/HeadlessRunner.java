@@ -0,0 +1,58 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import announcer.Announcer;
+import balise.Balise;
+import simulation.Scenario;
+import simulation.SimulationEngine;
+import simulation.SimulationStats;
+
+/**
+ * Simulation sans fenêtre, au plus vite : aucune vue, aucune pause entre deux ticks.
+ *
+ * Construit un Scenario (fichier texte ou scénario de MainStrategy à 1000 balises),
+ * exécute ses ticks puis affiche le débit (ticks/s) et le bilan SimulationStats.
+ * Avec -Dsimulation.fastForward=true, les ticks sont exécutés en mode événementiel
+ * (SimulationEngine.fastForward() : même résultat, sans les ticks où rien ne change d'état).
+ * Avec -Dsimulation.parallelism=N, chaque tick est calculé sur N threads (SimulationEngine.setForkJoinPool()).
+ *
+ * Usage : java [-Dsimulation.fastForward=true] [-Dsimulation.parallelism=N] app.HeadlessRunner [fichier de scénario | -] [ticks]
+ */
+public class HeadlessRunner {
+
+	public static void main(String[] args) throws IOException {
+		Scenario scenario = (args.length > 0 && !args[0].equals("-"))
+				? Scenario.read(Paths.get(args[0])) : Scenario.defaultScenario();
+		if (args.length > 1) scenario.setTicks(Long.parseLong(args[1]));
+
+		// Ni traces console ni abonnés graphiques : seul le bilan écoute le bus
+		Balise.setConsoleTraces(false);
+		Announcer announcer = new Announcer();
+		SimulationEngine engine = scenario.build(announcer);
+		SimulationStats stats = new SimulationStats(engine, announcer);
+		int parallelism = Integer.getInteger("simulation.parallelism", 0);
+		ForkJoinPool pool = (parallelism > 0) ? new ForkJoinPool(parallelism) : null;
+		engine.setForkJoinPool(pool);
+		System.out.printf("%,d balises, %,d satellites, %,d ticks (graine %d)%n", engine.getBalises().size(),
+				engine.getSatellites().size(), scenario.getTicks(), scenario.getSeed());
+
+		long start = System.nanoTime();
+		if (Boolean.getBoolean("simulation.fastForward")) {
+			engine.fastForward(scenario.getTicks());
+		} else {
+			for (long tick = 0, ticks = scenario.getTicks(); tick < ticks; tick++) {
+				engine.step();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%,d ticks en %.2f s : %,.0f ticks/s (%,.0f balises-ticks/s)%n", engine.getTick(), seconds,
+				engine.getTick() / seconds, engine.getTick() * (double) engine.getBalises().size() / seconds);
+		System.out.print(stats.report());
+		stats.close();
+		if (pool != null) pool.shutdown();
+	}
+}
@@ -3,20 +3,40 @@ package app;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.event.ActionEvent;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
 import javax.swing.JPanel;
+import javax.swing.KeyStroke;
+import javax.swing.Timer;
 
+import announcer.Announcer;
+import announcer.AnnouncerStats;
+import announcer.BudgetOverrunListener;
+import announcer.EventLatency;
+import announcer.FrameBatcher;
+import announcer.Subscription;
 import balise.Balise;
-import balise.BaliseState;
 import balise.BaliseView;
+import balise.SynchronisationEndEvent;
+import balise.SynchronisationStartEvent;
+import journal.EventJournal;
 import method.LinearMethod;
 import method.StaticMethod;
 import method.SinusoidalMethod;
 import method.VerticalMethod;
 import satellite.Satellite;
 import satellite.SatelliteView;
+import simulation.SimulationClock;
+import simulation.SimulationEngine;
 import src.nicellipse.component.NiSpace;
 
 /**
@@ -41,31 +61,37 @@ public class MainStrategy {
 		List<Satellite> satellites = new ArrayList<>();
 		List<SatelliteView> satelliteViews = new ArrayList<>();
 		
+		// Les vues reçoivent leurs événements sur l'EDT, par lots d'une image (60 images/s au plus)
+		FrameBatcher frames = FrameBatcher.swing(60);
+
 		// Panel pour dessiner les lignes de synchronisation
 		SynchronisationLinePanel syncLinePanel = new SynchronisationLinePanel();
 		syncLinePanel.setBounds(0, 0, 800, 600);
 		syncLinePanel.setLayout(null);
+		// Un seul abonnement sur le bus partagé couvre les synchronisations de toutes les balises
+		Announcer.shared().registerOnFrame(syncLinePanel, SynchronisationStartEvent.class, null, frames);
+		Announcer.shared().registerOnFrame(syncLinePanel, SynchronisationEndEvent.class, null, frames);
 
 		// ==================== SATELLITES - Dans l'espace (zone blanche) ====================
 		
 		Satellite s1 = new Satellite(100, 50, 1);
 		s1.setScreenWidth(800);  // Configurer la largeur de l'écran
 		SatelliteView sv1 = new SatelliteView(s1);
-		s1.registerMoveEvent(sv1);
+		s1.registerMoveEvent(sv1, frames);
 		satellites.add(s1);
 		satelliteViews.add(sv1);
 
 		Satellite s2 = new Satellite(400, 100, -1);
 		s2.setScreenWidth(800);  // Configurer la largeur de l'écran
 		SatelliteView sv2 = new SatelliteView(s2);
-		s2.registerMoveEvent(sv2);
+		s2.registerMoveEvent(sv2, frames);
 		satellites.add(s2);
 		satelliteViews.add(sv2);
 
 		Satellite s3 = new Satellite(650, 150, 1);
 		s3.setScreenWidth(800);  // Configurer la largeur de l'écran
 		SatelliteView sv3 = new SatelliteView(s3);
-		s3.registerMoveEvent(sv3);
+		s3.registerMoveEvent(sv3, frames);
 		satellites.add(s3);
 		satelliteViews.add(sv3);
 
@@ -95,11 +121,7 @@ public class MainStrategy {
 		Balise b1 = new Balise(100, OCEAN_START_Y + 200, 1, "Balise_Linear"); // Y=500 (profondeur)
 		BaliseView bv1 = new BaliseView(b1);
 		b1.setMovingMethod(new LinearMethod(2));
-		b1.registerMoveEvent(bv1);
-		b1.registerSynchronisationStartEvent(bv1); // Enregistrer pour changement de couleur
-		b1.registerSynchronisationEndEvent(bv1);
-		b1.registerSynchronisationStartEvent(syncLinePanel); // Enregistrer pour dessiner la ligne
-		b1.registerSynchronisationEndEvent(syncLinePanel);
+		b1.registerBaliseEvents(bv1, frames); // Mouvement + synchronisation en un seul abonnement
 		balises.add(b1);
 		baliseViews.add(bv1);
 		
@@ -107,11 +129,7 @@ public class MainStrategy {
 		Balise b2 = new Balise(300, OCEAN_START_Y + 220, 0, "Balise_Static"); // Y=520 (profondeur)
 		BaliseView bv2 = new BaliseView(b2);
 		b2.setMovingMethod(new StaticMethod(300, OCEAN_START_Y + 220)); // Profondeur fixe
-		b2.registerMoveEvent(bv2);
-		b2.registerSynchronisationStartEvent(bv2);
-		b2.registerSynchronisationEndEvent(bv2);
-		b2.registerSynchronisationStartEvent(syncLinePanel);
-		b2.registerSynchronisationEndEvent(syncLinePanel);
+		b2.registerBaliseEvents(bv2, frames);
 		balises.add(b2);
 		baliseViews.add(bv2);
 
@@ -119,11 +137,7 @@ public class MainStrategy {
 		Balise b3 = new Balise(450, OCEAN_START_Y + 180, 1, "Balise_Sinusoidal"); // Y=480 (profondeur)
 		BaliseView bv3 = new BaliseView(b3);
 		b3.setMovingMethod(new SinusoidalMethod(2, 40, 2)); // Ondule en profondeur
-		b3.registerMoveEvent(bv3);
-		b3.registerSynchronisationStartEvent(bv3);
-		b3.registerSynchronisationEndEvent(bv3);
-		b3.registerSynchronisationStartEvent(syncLinePanel);
-		b3.registerSynchronisationEndEvent(syncLinePanel);
+		b3.registerBaliseEvents(bv3, frames);
 		balises.add(b3);
 		baliseViews.add(bv3);
 
@@ -132,11 +146,7 @@ public class MainStrategy {
 		BaliseView bv4 = new BaliseView(b4);
 		// Yo-yo entre profondeur moyenne (450) et grande profondeur (550)
 		b4.setMovingMethod(new VerticalMethod(2, OCEAN_START_Y + 150, OCEAN_START_Y + 250));
-		b4.registerMoveEvent(bv4);
-		b4.registerSynchronisationStartEvent(bv4);
-		b4.registerSynchronisationEndEvent(bv4);
-		b4.registerSynchronisationStartEvent(syncLinePanel);
-		b4.registerSynchronisationEndEvent(syncLinePanel);
+		b4.registerBaliseEvents(bv4, frames);
 		balises.add(b4);
 		baliseViews.add(bv4);
 
@@ -161,68 +171,122 @@ public class MainStrategy {
 		// 4. Ajouter le panel de lignes de synchronisation (par-dessus tout)
 		space.add(syncLinePanel);
 
+		// Moteur de simulation (sans interface) : sa flotte publie un FleetMoveEvent groupé par tick
+		// (engine.getFleet().registerFleetMoveEvent(...))
+		SimulationEngine engine = new SimulationEngine();
+		balises.forEach(engine::addBalise);
+		engine.addSatellite(s1, 3);
+		engine.addSatellite(s2, 2);
+		engine.addSatellite(s3, 2);
+
 		// Forcer un revalidate/repaint après l'ajout initial des composants
 		space.revalidate();
 		space.repaint();
 
 		space.openInWindow();
 
-		// ==================== Boucle de simulation (dans un thread séparé) ====================
-		
-		Thread simulationThread = new Thread(() -> {
-			while (true) {
-
-				// Déplacer les balises (dans l'océan)
-				for (Balise balise : balises) {
-					balise.move();
+		// Journal des événements (-Djournal.dir=répertoire) : relisible après coup avec journal.JournalReader
+		String journalDir = System.getProperty("journal.dir");
+		EventJournal journal = (journalDir != null) ? new EventJournal(Paths.get(journalDir)) : null;
+		if (journal != null) {
+			journal.attach(Announcer.shared());
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					journal.close();
+				} catch (IOException e) {
+					e.printStackTrace();
 				}
+			}));
+		}
 
-				// Déplacer les satellites (dans l'espace)
-				s1.move(3);
-				s2.move(2);
-				s3.move(2);
-				
-				// ==================== DÉTECTION ET SYNCHRONISATION ====================
-				// Pour chaque balise en attente (REMONTEE), vérifier les satellites disponibles
-				for (Balise balise : balises) {
-					if (balise.getState() == BaliseState.REMONTEE) {
-						// Tenter la synchronisation avec chaque satellite
-						for (Satellite satellite : satellites) {
-							if (balise.trySynchronize(satellite)) {
-								// Synchronisation réussie !
-								System.out.println("✅ SYNCHRONISATION: " + balise.getId() + 
-								                   " <-> " + satellite.getId());
-								break;  // Une balise ne se synchronise qu'avec un seul satellite à la fois
-							}
-						}
-					}
-					// Afficher le changement d'état pour debug
-					if (balise.isSynchronizing()) {
-						System.out.println("🔄 TRANSFERT: " + balise.getId() + 
-						                   " -> " + balise.getCurrentSatellite().getId() + 
-						                   " (Mémoire restante: " + balise.getMemory() + ")");
-					}
+		// Traces console des synchronisations et des transferts
+		Announcer.shared().subscribe(SynchronisationStartEvent.class, e -> {
+			System.out.println("✅ SYNCHRONISATION: " + e.getBalise().getId() + " <-> " + e.getSatellite().getId());
+		});
+		engine.addTickListener(() -> {
+			for (Balise balise : balises) {
+				if (balise.isSynchronizing()) {
+					System.out.println("🔄 TRANSFERT: " + balise.getId() + 
+					                   " -> " + balise.getCurrentSatellite().getId() + 
+					                   " (Mémoire restante: " + balise.getMemory() + ")");
 				}
-				
-				// Les positions visuelles sont mises à jour automatiquement via les événements
-				// (onBaliseMove et onSatelliteMove)
-				
-				// Forcer repaint du conteneur
-				space.repaint();
-				
-				// Redessiner le panel de lignes pour mettre à jour les positions
-				syncLinePanel.repaint();
+			}
+		});
+		// Fin du tick : les événements des vues partent en un seul lot vers l'EDT
+		engine.addTickListener(frames::endTick);
+		// et ceux du journal sont validés ensemble
+		if (journal != null) engine.addTickListener(journal::commit);
 
-				try {
-					Thread.sleep(30);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
+		// ==================== Horloge de simulation et affichage ====================
+		
+		// Pas fixe de 30 ms simulées par tick ; -Dsimulation.speed=4 accélère (0.1 au minimum),
+		// -Dsimulation.lag=skip abandonne les ticks en retard au lieu de les rattraper
+		SimulationClock.LagPolicy lag = "skip".equalsIgnoreCase(System.getProperty("simulation.lag"))
+				? SimulationClock.LagPolicy.SKIP : SimulationClock.LagPolicy.CATCH_UP;
+		SimulationClock clock = new SimulationClock(engine, 30, TimeUnit.MILLISECONDS, lag);
+		clock.setSpeed(Double.parseDouble(System.getProperty("simulation.speed", "1")));
+		// Touches + et - : vitesse x2 / ÷2, * : sans limite, 1 : temps réel
+		bindSpeedKey(space, '+', clock, () -> Math.min(clock.getSpeed() * 2, 1024));
+		bindSpeedKey(space, '-', clock, () -> Math.max(clock.getSpeed() / 2, SimulationClock.MIN_SPEED));
+		bindSpeedKey(space, '*', clock, () -> SimulationClock.UNBOUNDED);
+		bindSpeedKey(space, '1', clock, () -> 1.0);
+
+		// L'affichage suit son propre rythme (60 images/s), indépendant de celui de la simulation
+		Timer renderTimer = new Timer(1000 / 60, e -> {
+			space.repaint();
+			// Redessiner le panel de lignes pour mettre à jour les positions
+			syncLinePanel.repaint();
+		});
+		
+		// Budget de 2 ms par listener sur le bus partagé : les listeners lents sont signalés,
+		// et servis par un thread à part (quarantaine) avec -Dannouncer.quarantine=true
+		Executor quarantine = null;
+		if (Boolean.getBoolean("announcer.quarantine")) {
+			quarantine = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "announcer-quarantine");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		Announcer.shared().setListenerBudget(TimeUnit.MILLISECONDS.toNanos(2), 3, quarantine, new BudgetOverrunListener() {
+			@Override
+			public void onSlowListener(Subscription s, long nanos, long budgetNanos) {
+				System.out.println("⚠️  Listener lent : " + s.getListenerClass().getName() + " (" + nanos / 1000
+						+ " µs, budget " + budgetNanos / 1000 + " µs)");
+			}
+
+			@Override
+			public void onQuarantine(Subscription s) {
+				System.out.println("⚠️  Listener mis en quarantaine (livraison asynchrone) : " + s.getListenerClass().getName());
 			}
 		});
+
+		// Instrumentation des événements (-Dannouncer.stats=true) : rapport affiché à la fermeture
+		if (AnnouncerStats.ENABLED) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(AnnouncerStats.report())));
+		}
+		// Retard de l'affichage sur le modèle (-Dannouncer.latency=true) : histogrammes affichés à la fermeture
+		if (EventLatency.ENABLED) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(EventLatency.report())));
+		}
 		
-		simulationThread.setDaemon(true);  // Le thread se ferme avec l'application
-		simulationThread.start();  // Lancer la simulation
+		renderTimer.start();
+		clock.start();  // Lancer la simulation (thread démon : se ferme avec l'application)
+	}
+
+	/**
+	 * Associe une touche de la fenêtre à un changement de vitesse de la simulation.
+	 */
+	private static void bindSpeedKey(JComponent component, char key, SimulationClock clock, DoubleSupplier speed) {
+		String name = "speed" + key;
+		component.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(key), name);
+		component.getActionMap().put(name, new AbstractAction() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				clock.setSpeed(speed.getAsDouble());
+				System.out.println("⏱ VITESSE: " + (clock.getSpeed() == SimulationClock.UNBOUNDED ? "illimitée" : "x" + clock.getSpeed()));
+			}
+		});
 	}
 }
 
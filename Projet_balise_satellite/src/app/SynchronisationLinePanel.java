@@ -1,5 +1,6 @@
 package app;
 
+import announcer.PaintLatency;
 import balise.Balise;
 import balise.SynchronisationEndEvent;
 import balise.SynchronisationListener;
@@ -32,6 +33,9 @@ public class SynchronisationLinePanel extends JPanel implements SynchronisationL
     
     // Map pour stocker les paires balise-satellite en synchronisation
     private Map<String, SyncPair> activeSynchronisations = new HashMap<>();
+
+    // Retard du panel sur le modèle (-Dannouncer.latency=true)
+    private final PaintLatency latency = new PaintLatency("SynchronisationLinePanel");
     
     /**
      * Constructeur créant un panel transparent sans layout.
@@ -55,6 +59,7 @@ public class SynchronisationLinePanel extends JPanel implements SynchronisationL
         
         // Enregistrer la paire en synchronisation
         activeSynchronisations.put(key, new SyncPair(balise, satellite));
+        latency.delivered(event);
         
         System.out.println(" Ligne de synchro: " + balise.getId() + " <-> " + satellite.getId());
         repaint(); // Redessiner le panel
@@ -74,6 +79,7 @@ public class SynchronisationLinePanel extends JPanel implements SynchronisationL
         
         // Retirer la paire de la map
         activeSynchronisations.remove(key);
+        latency.delivered(event);
         
         System.out.println(" Fin ligne de synchro: " + balise.getId() + " <-> " + satellite.getId());
         repaint(); // Redessiner le panel
@@ -103,6 +109,8 @@ public class SynchronisationLinePanel extends JPanel implements SynchronisationL
             
             g2d.drawLine(baliseX, baliseY, satelliteX, satelliteY);
         }
+
+        latency.painted();
     }
     
     /**
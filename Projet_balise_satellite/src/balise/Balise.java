@@ -1,6 +1,13 @@
 package balise;
 
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import announcer.Announcer;
+import announcer.EventSource;
+import announcer.FrameBatcher;
+import announcer.Subscription;
 import method.*;
 import satellite.Satellite;
 
@@ -18,15 +25,19 @@ import satellite.Satellite;
  * - BaliseStateChangeEvent : à chaque changement d'état
  * - SynchronisationStartEvent/EndEvent : début/fin de synchronisation
  * 
+ * Par défaut, toutes les balises émettent sur le bus partagé (Announcer.shared()) :
+ * les méthodes register*() abonnent le listener aux seuls événements de cette balise.
+ * 
  * @see BaliseState
  * @see MovingMethod
  * @see Announcer
  */
-public class Balise {
+public class Balise extends EventSource {
     private int x, y;
     private int direction;
     private String id;                          // Identificateur unique de la balise
-    Announcer announcer;
+    private final int entityId;                 // Identifiant numérique dense (tableaux, tris, encodage)
+    private final Announcer announcer;          // Bus sur lequel la balise émet (partagé par défaut)
     private method.MovingMethod movingMethod;
     
     // Dimensions de la balise
@@ -47,7 +58,21 @@ public class Balise {
     // Gestion de la synchronisation
     private Satellite currentSatellite;         // Satellite actuellement en synchronisation
     private int transferSpeed;                  // Vitesse de transfert (données par move())
-    private static final int SYNC_TOLERANCE = 10; // Tolérance horizontale pour la synchro (pixels)
+    public static final int SYNC_TOLERANCE = 10; // Tolérance horizontale pour la synchro (pixels)
+
+    // Bornes imposées par setX() / setY() (calcul direct des positions, voir method.PredictableMethod)
+    public static final int MAX_X = SCREEN_WIDTH - BALISE_SIZE;
+    public static final int MIN_Y = SURFACE_Y;
+    public static final int MAX_Y = OCEAN_BOTTOM - BALISE_SIZE;
+
+    // Compteur des identifiants numériques attribués aux balises (0, 1, 2, ...)
+    private static final AtomicInteger NEXT_ENTITY_ID = new AtomicInteger();
+
+    // Traces console du cycle de vie (désactivables : simulations sans affichage, grandes flottes)
+    private static volatile boolean consoleTraces = true;
+
+    // Événement de mouvement réutilisé à chaque move() : aucune allocation par tick
+    private final BaliseMoveEvent moveEvent;
 
     /**
      * Constructeur simple de la balise
@@ -56,21 +81,7 @@ public class Balise {
      * @param direction Direction du mouvement (1 ou -1)
      */
     public Balise(int x, int y, int direction) {
-        this.x = x;
-        this.y = y;
-        this.direction = direction;
-        this.id = "Balise_" + Math.abs(x + y + System.nanoTime());
-        this.announcer = new Announcer();
-        this.state = BaliseState.COLLECTE;      // État initial : collecte
-        this.memory = 0;                        // Mémoire initialement vide
-        // Variabilité : chaque balise a des caractéristiques différentes
-        this.maxMemory = 150 + (int)(Math.random() * 150);     // Capacité entre 150 et 300
-        this.collectSpeed = 1 + (int)(Math.random() * 3);      // Vitesse entre 1 et 3 (plus lent)
-        this.riseSpeed = 1 + (int)(Math.random() * 3);         // Vitesse de remontée entre 1 et 3
-        this.descentSpeed = 1 + (int)(Math.random() * 2);      // Vitesse de descente entre 1 et 2 (lente)
-        this.transferSpeed = 5 + (int)(Math.random() * 10);    // Vitesse de transfert entre 5 et 14
-        this.initialY = y;                      // Mémoriser la profondeur initiale
-        this.currentSatellite = null;           // Pas de satellite en cours
+        this(x, y, direction, "Balise_" + Math.abs(x + y + System.nanoTime()));
     }
 
     /**
@@ -81,21 +92,50 @@ public class Balise {
      * @param id Identificateur unique
      */
     public Balise(int x, int y, int direction, String id) {
+        this(x, y, direction, id, Announcer.shared());
+    }
+
+    /**
+     * Constructeur complet avec choix du bus d'événements
+     * (ex: Announcer dédié pour isoler une simulation ou un test).
+     * @param x Position horizontale initiale
+     * @param y Position verticale initiale (profondeur)
+     * @param direction Direction du mouvement
+     * @param id Identificateur unique
+     * @param announcer Bus sur lequel la balise émet ses événements
+     */
+    public Balise(int x, int y, int direction, String id, Announcer announcer) {
+        this(x, y, direction, id, announcer, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Constructeur complet avec choix du générateur aléatoire des caractéristiques
+     * (mémoire, vitesses) : un Random initialisé avec une graine rend la simulation reproductible.
+     * @param x Position horizontale initiale
+     * @param y Position verticale initiale (profondeur)
+     * @param direction Direction du mouvement
+     * @param id Identificateur unique
+     * @param announcer Bus sur lequel la balise émet ses événements
+     * @param random Générateur des caractéristiques de la balise
+     */
+    public Balise(int x, int y, int direction, String id, Announcer announcer, Random random) {
         this.x = x;
         this.y = y;
         this.direction = direction;
         this.id = id;
-        this.announcer = new Announcer();
+        this.entityId = NEXT_ENTITY_ID.getAndIncrement();
+        this.announcer = announcer;
         this.state = BaliseState.COLLECTE;      // État initial : collecte
         this.memory = 0;                        // Mémoire initialement vide
         // Variabilité : chaque balise a des caractéristiques différentes
-        this.maxMemory = 150 + (int)(Math.random() * 150);     // Capacité entre 150 et 300
-        this.collectSpeed = 1 + (int)(Math.random() * 3);      // Vitesse entre 1 et 3 (plus lent)
-        this.riseSpeed = 1 + (int)(Math.random() * 3);         // Vitesse de remontée entre 1 et 3
-        this.descentSpeed = 1 + (int)(Math.random() * 2);      // Vitesse de descente entre 1 et 2 (lente)
-        this.transferSpeed = 5 + (int)(Math.random() * 10);    // Vitesse de transfert entre 5 et 14
+        this.maxMemory = 150 + random.nextInt(150);     // Capacité entre 150 et 300
+        this.collectSpeed = 1 + random.nextInt(3);      // Vitesse entre 1 et 3 (plus lent)
+        this.riseSpeed = 1 + random.nextInt(3);         // Vitesse de remontée entre 1 et 3
+        this.descentSpeed = 1 + random.nextInt(2);      // Vitesse de descente entre 1 et 2 (lente)
+        this.transferSpeed = 5 + random.nextInt(10);    // Vitesse de transfert entre 5 et 14
         this.initialY = y;                      // Mémoriser la profondeur initiale
         this.currentSatellite = null;           // Pas de satellite en cours
+        this.moveEvent = new BaliseMoveEvent(this);
     }
 
     /**
@@ -117,7 +157,7 @@ public class Balise {
      * - SYNCHRONISATION : Transfère les données vers le satellite
      * - DESCENTE : Redescend vers la profondeur initiale
      * 
-     * Émet un BaliseMoveEvent à la fin de chaque cycle.
+     * Émet un BaliseMoveEvent à la fin de chaque cycle (toujours la même instance, mise à jour).
      */
     public void move() {
         // Machine à états : comportement différent selon l'état actuel (Pattern État)
@@ -172,8 +212,9 @@ public class Balise {
             }
         }
         // 📢 Pattern Observable : Émettre un événement de mouvement à chaque cycle
-        // Notifie les vues pour qu'elles se rafraîchissent
-        announcer.announce(new BaliseMoveEvent(this));
+        // Notifie les vues pour qu'elles se rafraîchissent (instance réutilisée, voir BaliseMoveEvent)
+        moveEvent.update(x, y);
+        announcer.announce(moveEvent);
     }
     
     /**
@@ -197,9 +238,11 @@ public class Balise {
             
             // 🔍 DEBUG: Afficher les positions pour tracer les alignements
             int distance = Math.abs(satellite.getX() - this.x);
-            System.out.println("🔗 SYNCHRO DÉTECTÉE: " + this.id + 
-                             " (X=" + this.x + ") <-> " + satellite.getId() + 
-                             " (X=" + satellite.getX() + ") Distance=" + distance + " pixels");
+            if (consoleTraces) {
+                System.out.println("🔗 SYNCHRO DÉTECTÉE: " + this.id + 
+                                 " (X=" + this.x + ") <-> " + satellite.getId() + 
+                                 " (X=" + satellite.getX() + ") Distance=" + distance + " pixels");
+            }
             
             // Démarrer le transfert de données
             startSynchronisation(satellite);
@@ -239,40 +282,87 @@ public class Balise {
         setState(BaliseState.DESCENTE);
     }
 
+    /**
+     * Enregistre un listener pour tous les événements de la balise (interface BaliseEvent) :
+     * mouvement, changement d'état, début et fin de synchronisation.
+     * Chaque événement n'est transmis que si le listener implémente l'interface correspondante.
+     * 
+     * @param o L'objet listener (BaliseListener, BaliseStateListener et/ou SynchronisationListener)
+     * @return L'abonnement, dont close() désabonne le listener
+     */
+    public Subscription registerBaliseEvents(Object o) {
+        return this.announcer.register(o, BaliseEvent.class, this);
+    }
+
+    /**
+     * Enregistre une vue pour tous les événements de la balise, livrés par lots sur le thread
+     * de l'interface (une fois par image, voir Announcer.registerOnFrame()).
+     * 
+     * @param o La vue (BaliseListener, BaliseStateListener et/ou SynchronisationListener)
+     * @param frames Le regroupement par image de la fenêtre
+     * @return L'abonnement, dont close() désabonne la vue
+     */
+    public Subscription registerBaliseEvents(Object o, FrameBatcher frames) {
+        return this.announcer.registerOnFrame(o, BaliseEvent.class, this, frames);
+    }
+
+    /**
+     * Enregistre un listener par référence faible : la balise ne l'empêche pas d'être libéré
+     * (ex: BaliseView retirée du NiSpace alors que la balise continue sa mission).
+     * 
+     * @param o L'objet listener
+     * @param eventClass Le type d'événement (ex: BaliseEvent.class, BaliseMoveEvent.class)
+     * @return L'abonnement, dont close() désabonne le listener
+     */
+    public Subscription registerWeak(Object o, Class<?> eventClass) {
+        return this.announcer.registerWeak(o, eventClass, this);
+    }
+
     /**
      * Enregistre un listener pour les événements de mouvement.
      * 
      * @param o L'objet listener (doit implémenter BaliseListener)
+     * @return L'abonnement, dont close() désabonne le listener
      */
-    public void registerMoveEvent(Object o) {
-        this.announcer.register(o, BaliseMoveEvent.class);
+    public Subscription registerMoveEvent(Object o) {
+        return this.announcer.register(o, BaliseMoveEvent.class, this);
     }
     
     /**
      * Enregistre un listener pour les événements de début de synchronisation.
      * 
      * @param o L'objet listener (doit implémenter SynchronisationListener)
+     * @return L'abonnement, dont close() désabonne le listener
      */
-    public void registerSynchronisationStartEvent(Object o) {
-        this.announcer.register(o, SynchronisationStartEvent.class);
+    public Subscription registerSynchronisationStartEvent(Object o) {
+        return this.announcer.register(o, SynchronisationStartEvent.class, this);
     }
     
     /**
      * Enregistre un listener pour les événements de fin de synchronisation.
      * 
      * @param o L'objet listener (doit implémenter SynchronisationListener)
+     * @return L'abonnement, dont close() désabonne le listener
      */
-    public void registerSynchronisationEndEvent(Object o) {
-        this.announcer.register(o, SynchronisationEndEvent.class);
+    public Subscription registerSynchronisationEndEvent(Object o) {
+        return this.announcer.register(o, SynchronisationEndEvent.class, this);
     }
     
     /**
      * Enregistre un listener pour les événements de changement d'état.
      * 
      * @param o L'objet listener (doit implémenter BaliseStateListener)
+     * @return L'abonnement, dont close() désabonne le listener
      */
-    public void registerStateChangeEvent(Object o) {
-        this.announcer.register(o, BaliseStateChangeEvent.class);
+    public Subscription registerStateChangeEvent(Object o) {
+        return this.announcer.register(o, BaliseStateChangeEvent.class, this);
+    }
+
+    /**
+     * @return Le bus sur lequel la balise émet (pour s'abonner à toute la flotte en une fois)
+     */
+    public Announcer getAnnouncer() {
+        return announcer;
     }
 
     /**
@@ -366,6 +456,14 @@ public class Balise {
         this.id = id;
     }
 
+    /**
+     * @return Identifiant numérique unique de la balise, attribué à la création (ordre croissant)
+     */
+    @Override
+    public int getEntityId() {
+        return entityId;
+    }
+
     public BaliseState getState() {
         return state;
     }
@@ -381,26 +479,38 @@ public class Balise {
             this.state = newState;
             
             // Messages console pour suivre le cycle
-            switch (newState) {
-                case COLLECTE:
-                    System.out.println("🔵 " + id + " : DESCENTE terminée → Début COLLECTE (profondeur: " + y + ")");
-                    break;
-                case REMONTEE:
-                    System.out.println("⬆️  " + id + " : Mémoire PLEINE (" + memory + "/" + maxMemory + ") → REMONTÉE vers surface");
-                    break;
-                case SYNCHRONISATION:
-                    System.out.println("🔄 " + id + " : À la surface → Début SYNCHRONISATION");
-                    break;
-                case DESCENTE:
-                    System.out.println("⬇️  " + id + " : Synchronisation terminée → DESCENTE vers profondeur " + initialY);
-                    break;
+            if (consoleTraces) {
+                switch (newState) {
+                    case COLLECTE:
+                        System.out.println("🔵 " + id + " : DESCENTE terminée → Début COLLECTE (profondeur: " + y + ")");
+                        break;
+                    case REMONTEE:
+                        System.out.println("⬆️  " + id + " : Mémoire PLEINE (" + memory + "/" + maxMemory + ") → REMONTÉE vers surface");
+                        break;
+                    case SYNCHRONISATION:
+                        System.out.println("🔄 " + id + " : À la surface → Début SYNCHRONISATION");
+                        break;
+                    case DESCENTE:
+                        System.out.println("⬇️  " + id + " : Synchronisation terminée → DESCENTE vers profondeur " + initialY);
+                        break;
+                }
             }
             
             // Émettre un événement de changement d'état
-            announcer.announce(new BaliseStateChangeEvent(this));
+            announcer.announce(new BaliseStateChangeEvent(this, newState));
         }
     }
 
+    /**
+     * Active ou désactive les traces console du cycle de vie de toutes les balises
+     * (changements d'état, synchronisations détectées). Actives par défaut.
+     * 
+     * @param enabled false pour une simulation silencieuse (ex: HeadlessRunner)
+     */
+    public static void setConsoleTraces(boolean enabled) {
+        consoleTraces = enabled;
+    }
+
     public int getMemory() {
         return memory;
     }
@@ -416,6 +526,29 @@ public class Balise {
     public void setMaxMemory(int maxMemory) {
         this.maxMemory = maxMemory;
     }
+
+    public int getCollectSpeed() {
+        return collectSpeed;
+    }
+
+    public int getRiseSpeed() {
+        return riseSpeed;
+    }
+
+    public int getDescentSpeed() {
+        return descentSpeed;
+    }
+
+    public int getTransferSpeed() {
+        return transferSpeed;
+    }
+
+    /**
+     * @return Profondeur à laquelle la balise redescend après chaque synchronisation
+     */
+    public int getInitialY() {
+        return initialY;
+    }
     
     public Satellite getCurrentSatellite() {
         return currentSatellite;
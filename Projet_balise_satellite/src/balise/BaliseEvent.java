@@ -0,0 +1,21 @@
+package balise;
+
+/**
+ * Interface commune à tous les événements émis par une balise.
+ * 
+ * Permet de s'abonner en une seule fois à tous les événements d'une balise
+ * (mouvement, changement d'état, début/fin de synchronisation) :
+ * l'Announcer livre à un listener enregistré pour BaliseEvent.class
+ * tous les événements qui implémentent cette interface.
+ * 
+ * Chaque événement ne prévient que les listeners qui implémentent l'interface
+ * correspondante (BaliseListener, BaliseStateListener, SynchronisationListener).
+ * 
+ * @see Balise#registerBaliseEvents(Object)
+ */
+public interface BaliseEvent {
+    /**
+     * @return La balise à l'origine de l'événement
+     */
+    Balise getBalise();
+}
@@ -1,26 +1,115 @@
 package balise;
 
 import announcer.AbstractEvent;
+import announcer.Conflatable;
+import announcer.LocatedEvent;
 
 /**
  * Événement déclenché lorsqu'une balise se déplace.
  * Cet événement est émis à chaque itération de la boucle d'animation (30ms)
  * pour notifier les observateurs (notamment BaliseView) du changement de position.
  * 
+ * L'événement transporte la position (x, y) de la balise au moment de l'émission
+ * (LocatedEvent : l'Announcer peut le filtrer par région).
+ * 
+ * Important : pour ne rien allouer à chaque tick, chaque Balise réutilise toujours
+ * la même instance de BaliseMoveEvent et ne fait que mettre à jour sa position.
+ * L'événement n'est donc valide que pendant l'appel à onBaliseMove().
+ * Un listener qui veut le conserver au-delà (file, historique, autre thread)
+ * doit en garder une copie via {@link #copy()}.
+ * 
  * @see BaliseListener
  * @see Balise#move()
  */
-public class BaliseMoveEvent extends AbstractEvent {
+public class BaliseMoveEvent extends AbstractEvent implements BaliseEvent, LocatedEvent, Conflatable {
 
     private static final long serialVersionUID = 1L;
 
+    /** Position de la balise au moment de l'émission */
+    private int x, y;
+
     /**
      * Constructeur créant un événement de mouvement de balise.
+     * La position est initialisée à partir de la balise source.
      * 
      * @param source La balise qui s'est déplacée
      */
     public BaliseMoveEvent(Object source) {
         super(source);
+        if (source instanceof Balise) {
+            Balise balise = (Balise) source;
+            this.x = balise.getX();
+            this.y = balise.getY();
+        }
+    }
+
+    /**
+     * Constructeur avec une position explicite (ex: événement relu d'un journal, voir codec.EventRecord).
+     * 
+     * @param source La balise qui s'est déplacée
+     * @param x Position X au moment de l'émission
+     * @param y Position Y au moment de l'émission
+     */
+    public BaliseMoveEvent(Object source, int x, int y) {
+        super(source);
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Met à jour la position transportée avant une nouvelle émission (réutilisation de l'instance).
+     * 
+     * @param x Nouvelle position X
+     * @param y Nouvelle position Y
+     */
+    void update(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Crée une copie détachée de l'événement, qui ne sera plus modifiée par la balise.
+     * À utiliser par les listeners qui conservent l'événement après onBaliseMove().
+     * 
+     * @return Une nouvelle instance avec la même source et la même position
+     */
+    @Override
+    public BaliseMoveEvent copy() {
+        BaliseMoveEvent copy = new BaliseMoveEvent(getSource(), x, y);
+        copy.stampFrom(this);
+        return copy;
+    }
+
+    @Override
+    public boolean copyInto(AbstractEvent copy) {
+        if (getClass() != BaliseMoveEvent.class || copy.getClass() != BaliseMoveEvent.class) return false; // sous-classe : autres champs
+        BaliseMoveEvent target = (BaliseMoveEvent) copy;
+        target.update(x, y);
+        target.stampFrom(this);
+        return true;
+    }
+
+    /**
+     * L'instance est réutilisée par sa source : une livraison différée reçoit une copie.
+     */
+    @Override
+    public BaliseMoveEvent detach() {
+        return copy();
+    }
+
+    @Override
+    public Balise getBalise() {
+        return (Balise) getSource();
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
     }
 
     /**
@@ -30,6 +119,8 @@ public class BaliseMoveEvent extends AbstractEvent {
      */
     @Override
     public void sentTo(Object target) {
-        ((BaliseListener) target).onBaliseMove(this);
+        if (target instanceof BaliseListener) {
+            ((BaliseListener) target).onBaliseMove(this);
+        }
     }
 }
@@ -5,14 +5,36 @@ import announcer.AbstractEvent;
 /**
  * Événement déclenché quand l'état d'une balise change
  * (COLLECTE -> REMONTEE ou vice versa)
+ *
+ * Le nouvel état est relevé à la création : un listener (ou un journal) qui traite
+ * l'événement plus tard lit l'état de ce changement, pas celui de la balise à cet instant.
  */
-public class BaliseStateChangeEvent extends AbstractEvent {
+public class BaliseStateChangeEvent extends AbstractEvent implements BaliseEvent {
 
-	public BaliseStateChangeEvent(Object source) {
-		super(source);
+	private static final long serialVersionUID = 1L;
+
+	private final BaliseState state;
+
+	/**
+	 * @param balise La balise qui a changé d'état
+	 * @param state Son nouvel état
+	 */
+	public BaliseStateChangeEvent(Balise balise, BaliseState state) {
+		super(balise);
+		this.state = state;
 	}
 
-	private static final long serialVersionUID = 1L;
+	@Override
+	public Balise getBalise() {
+		return (Balise) getSource();
+	}
+
+	/**
+	 * @return Nouvel état de la balise, au moment du changement
+	 */
+	public BaliseState getState() {
+		return state;
+	}
 
 	@Override
 	public void sentTo(Object target) {
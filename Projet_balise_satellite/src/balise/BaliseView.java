@@ -1,10 +1,12 @@
 package balise;
 
+import java.awt.Graphics;
 import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
 import javax.imageio.ImageIO;
 
+import announcer.PaintLatency;
 import src.nicellipse.component.NiImage;
 
 /**
@@ -28,6 +30,9 @@ public class BaliseView extends NiImage implements BaliseListener, Synchronisati
     private static final int ICON_WIDTH = 50;
     private static final int ICON_HEIGHT = 50;
 
+    // Retard de la vue sur le modèle (-Dannouncer.latency=true)
+    private final PaintLatency latency = new PaintLatency("BaliseView");
+
     public Balise getBalise() {
         return this.balise;
     }
@@ -79,12 +84,13 @@ public class BaliseView extends NiImage implements BaliseListener, Synchronisati
      */
     @Override
     public void onBaliseMove(BaliseMoveEvent event) {
-        Balise source = (Balise) event.getSource();
-        int x = source.getX();
-        int y = source.getY();
+        // Position transportée par l'événement (instantané pris lors de l'émission)
+        int x = event.getX();
+        int y = event.getY();
+        latency.delivered(event);
         // Mettre à jour la position de l'image
         this.setBounds(x, y, ICON_WIDTH, ICON_HEIGHT);
-        this.revalidate();
+        // Parent sans layout manager : setBounds() suffit, pas de revalidate() (mise en page)
         this.repaint();
     }
 
@@ -110,5 +116,14 @@ public class BaliseView extends NiImage implements BaliseListener, Synchronisati
         System.out.println("Vue: " + balise.getId() + " termine la synchronisation");
     }
 
+    /**
+     * Dessine la balise, puis enregistre le retard de l'affichage (voir PaintLatency).
+     * 
+     * @param g Le contexte graphique
+     */
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        latency.painted();
+    }
 }
-
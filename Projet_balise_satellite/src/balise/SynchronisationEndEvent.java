@@ -6,7 +6,7 @@ import satellite.Satellite;
 /**
  * Événement déclenché lorsqu'une balise termine la synchronisation avec un satellite
  */
-public class SynchronisationEndEvent extends AbstractEvent {
+public class SynchronisationEndEvent extends AbstractEvent implements BaliseEvent {
     private final Satellite satellite;
     
     public SynchronisationEndEvent(Balise balise, Satellite satellite) {
@@ -14,6 +14,7 @@ public class SynchronisationEndEvent extends AbstractEvent {
         this.satellite = satellite;
     }
     
+    @Override
     public Balise getBalise() {
         return (Balise) getSource();
     }
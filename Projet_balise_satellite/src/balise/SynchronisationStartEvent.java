@@ -6,7 +6,7 @@ import satellite.Satellite;
 /**
  * Événement déclenché lorsqu'une balise commence la synchronisation avec un satellite
  */
-public class SynchronisationStartEvent extends AbstractEvent {
+public class SynchronisationStartEvent extends AbstractEvent implements BaliseEvent {
     private final Satellite satellite;
     
     public SynchronisationStartEvent(Balise balise, Satellite satellite) {
@@ -14,6 +14,7 @@ public class SynchronisationStartEvent extends AbstractEvent {
         this.satellite = satellite;
     }
     
+    @Override
     public Balise getBalise() {
         return (Balise) getSource();
     }
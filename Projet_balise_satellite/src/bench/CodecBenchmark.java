@@ -0,0 +1,132 @@
+package bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import announcer.AbstractEvent;
+import announcer.Announcer;
+import balise.Balise;
+import balise.BaliseMoveEvent;
+import balise.BaliseStateChangeEvent;
+import balise.SynchronisationEndEvent;
+import balise.SynchronisationStartEvent;
+import codec.EventCodec;
+import codec.EventRecord;
+import satellite.Satellite;
+import satellite.SatelliteMoveEvent;
+
+/**
+ * Comparaison de EventCodec avec la sérialisation Java (ObjectOutputStream / ObjectInputStream).
+ *
+ * Chaque événement est encodé puis décodé seul, comme un message de journal ou de réseau
+ * (un flux Object*Stream par événement). Mesures : temps par aller-retour, octets par événement,
+ * octets alloués par événement (ThreadMXBean de HotSpot).
+ *
+ * La sérialisation Java ne sait pas écrire les synchronisations (Satellite n'est pas Serializable) :
+ * la comparaison porte sur les déplacements et changements d'état ; EventCodec est aussi mesuré
+ * sur le mélange complet.
+ *
+ * Usage : java bench.CodecBenchmark [nombre d'événements par tour, 1 000 000 par défaut]
+ */
+public class CodecBenchmark {
+	private static final int ROUNDS = 5;
+	/** Résultats des décodages, pour que le JIT ne les supprime pas */
+	static volatile long sink;
+
+	public static void main(String[] args) throws Exception {
+		int count = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+		Announcer announcer = new Announcer();
+		Balise balise = new Balise(420, 470, 1, "Balise_bench", announcer);
+		Satellite satellite = new Satellite(300, 60, 1, "Satellite_bench", announcer);
+		BaliseMoveEvent baliseMove = new BaliseMoveEvent(balise, 421, 468);
+		SatelliteMoveEvent satelliteMove = new SatelliteMoveEvent(satellite, 302, 60);
+		baliseMove.stamp(123_456);
+		satelliteMove.stamp(123_456);
+		// 8 événements : une répartition proche de la simulation (surtout des déplacements)
+		AbstractEvent[] serializable = {
+			baliseMove, satelliteMove, baliseMove, satelliteMove,
+			baliseMove, baliseMove, new BaliseStateChangeEvent(balise, balise.getState()), baliseMove,
+		};
+		AbstractEvent[] all = serializable.clone();
+		all[3] = new SynchronisationStartEvent(balise, satellite);
+		all[7] = new SynchronisationEndEvent(balise, satellite);
+
+		try {
+			javaRoundTrip(new ByteArrayOutputStream(), all[3]);
+		} catch (NotSerializableException e) {
+			System.out.println("Sérialisation Java d'une synchronisation impossible : " + e.getMessage());
+		}
+
+		System.out.println("Aller-retour de " + count + " événements par tour");
+		for (int round = 1; round <= ROUNDS; round++) {
+			System.out.println("Tour " + round);
+			measureCodec("  EventCodec, déplacements/états   ", serializable, count);
+			measureCodec("  EventCodec, avec synchronisations", all, count);
+			measureJava("  ObjectOutputStream, déplacements/états", serializable, count / 10);
+		}
+	}
+
+	private static void measureCodec(String label, AbstractEvent[] events, int count) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(EventCodec.MAX_RECORD_SIZE);
+		EventRecord record = new EventRecord();
+		long bytes = 0, check = 0;
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			buffer.clear();
+			bytes += EventCodec.encode(events[i & 7], buffer);
+			buffer.flip();
+			check += EventCodec.decode(buffer, record).getEntityId();
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = allocatedBytes() - allocatedBefore;
+		report(label, count, elapsed, bytes, allocated, check);
+	}
+
+	private static void measureJava(String label, AbstractEvent[] events, int count) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+		long bytes = 0, check = 0;
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			out.reset();
+			AbstractEvent copy = javaRoundTrip(out, events[i & 7]);
+			bytes += out.size();
+			check += copy.getTick();
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = allocatedBytes() - allocatedBefore;
+		report(label, count, elapsed, bytes, allocated, check);
+	}
+
+	private static AbstractEvent javaRoundTrip(ByteArrayOutputStream out, AbstractEvent event) throws IOException, ClassNotFoundException {
+		try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+			oos.writeObject(event);
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			return (AbstractEvent) ois.readObject();
+		}
+	}
+
+	private static void report(String label, int count, long elapsed, long bytes, long allocated, long check) {
+		System.out.printf("%s : %8.1f ns/événement, %6.1f octets/événement, %8.1f octets alloués/événement%n",
+				label, elapsed / (double) count, bytes / (double) count,
+				allocated < 0 ? Double.NaN : allocated / (double) count);
+		sink += check;
+	}
+
+	/** @return Octets alloués par le thread courant, -1 si la JVM ne le mesure pas */
+	private static long allocatedBytes() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
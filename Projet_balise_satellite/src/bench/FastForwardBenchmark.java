@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.Arrays;
+
+import announcer.Announcer;
+import balise.Balise;
+import simulation.Scenario;
+import simulation.SimulationEngine;
+
+/**
+ * Mode tick par tick (SimulationEngine.step()) contre mode événementiel (SimulationEngine.fastForward())
+ * sur le même scénario : durée, et vérification que l'état final est identique.
+ *
+ * Usage : java bench.FastForwardBenchmark [balises, 10 000 par défaut] [satellites, 3 par défaut] [ticks, 20 000 par défaut]
+ */
+public class FastForwardBenchmark {
+
+	public static void main(String[] args) {
+		int balises = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+		int satellites = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+		int ticks = (args.length > 2) ? Integer.parseInt(args[2]) : 20_000;
+		int perMethod = balises / 4;
+		Scenario scenario = new Scenario(Arrays.asList(
+				"seed 1",
+				"satellite ? 80 1 3 x" + satellites,
+				"balise ? ? 1 linear 2 x" + perMethod,
+				"balise ? ? 0 static x" + perMethod,
+				"balise ? 480 1 sinusoidal 2 40 2 x" + perMethod,
+				"balise ? ? 1 vertical 2 450 550 x" + perMethod));
+		Balise.setConsoleTraces(false);
+		System.out.printf("%,d balises, %d satellites, %,d ticks%n", perMethod * 4, satellites, ticks);
+
+		SimulationEngine tickByTick = scenario.build(new Announcer());
+		long start = System.nanoTime();
+		tickByTick.step(ticks);
+		double stepSeconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("step()        : %.2f s (%,.0f ticks/s), %,d synchronisations%n", stepSeconds,
+				ticks / stepSeconds, tickByTick.getSynchronisationCount());
+
+		SimulationEngine events = scenario.build(new Announcer());
+		start = System.nanoTime();
+		events.fastForward(ticks);
+		double fastSeconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("fastForward() : %.2f s (%,.0f ticks/s), %,d synchronisations, x%.1f%n", fastSeconds,
+				ticks / fastSeconds, events.getSynchronisationCount(), stepSeconds / fastSeconds);
+
+		boolean same = tickByTick.getSynchronisationCount() == events.getSynchronisationCount();
+		for (int i = 0; same && i < tickByTick.getBalises().size(); i++) {
+			same = tickByTick.getBalises().get(i).toString().equals(events.getBalises().get(i).toString());
+		}
+		System.out.println("État final identique : " + same);
+	}
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import announcer.Announcer;
+import balise.Balise;
+import balise.BaliseListener;
+import balise.BaliseMoveEvent;
+
+/**
+ * Comparaison de l'empreinte mémoire d'une flotte de balises :
+ * - un Announcer dédié par balise (ancienne organisation)
+ * - toutes les balises sur le bus partagé (Announcer.shared())
+ *
+ * Chaque configuration est mesurée sans listener, puis avec un listener par balise
+ * (abonnement filtré sur la source). La mesure est approximative (différence de
+ * mémoire utilisée après ramasse-miettes) mais suffit à comparer les ordres de grandeur.
+ *
+ * Usage : java -Xmx2g bench.FleetFootprintBenchmark [nombre de balises, 1000000 par défaut]
+ */
+public class FleetFootprintBenchmark {
+
+	/** Listener minimal : seul le coût de l'abonnement est mesuré */
+	private static final class NoOpListener implements BaliseListener {
+		@Override
+		public void onBaliseMove(BaliseMoveEvent event) {
+		}
+	}
+
+	public static void main(String[] args) {
+		int count = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+		System.out.println("Empreinte de " + count + " balises (octets par balise)");
+		report("Announcer dédié, sans listener  ", count, true, false);
+		report("Bus partagé,     sans listener  ", count, false, false);
+		report("Announcer dédié, 1 listener     ", count, true, true);
+		report("Bus partagé,     1 listener     ", count, false, true);
+	}
+
+	private static void report(String label, int count, boolean dedicated, boolean withListener) {
+		long before = usedMemory();
+		Balise[] fleet = new Balise[count];
+		Object[] listeners = withListener ? new Object[count] : null;
+		long arrays = usedMemory() - before; // Tableaux de référence, exclus de la mesure
+
+		for (int i = 0; i < count; i++) {
+			Announcer announcer = dedicated ? new Announcer() : Announcer.shared();
+			fleet[i] = new Balise(i % 800, 500, 1, "Balise_" + i, announcer);
+			if (withListener) {
+				listeners[i] = new NoOpListener();
+				fleet[i].registerMoveEvent(listeners[i]);
+			}
+		}
+		long bytes = usedMemory() - before - arrays;
+		// Listeners et identifiants textuels sont identiques dans les deux configurations
+		System.out.println(label + " : " + (bytes / count));
+
+		// Garder la flotte vivante jusqu'à la mesure, puis la libérer pour la suivante
+		if (fleet[count - 1] == null || (withListener && listeners[count - 1] == null)) {
+			throw new AssertionError();
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+}
@@ -0,0 +1,112 @@
+package bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import announcer.Announcer;
+import announcer.EventPublisher;
+import announcer.EventPublisher.OverflowPolicy;
+import balise.Balise;
+import balise.BaliseMoveEvent;
+
+/**
+ * Débit de l'adaptateur Flow.Publisher (EventPublisher) selon la politique de débordement :
+ * - consommateur rapide : demande illimitée, ne fait rien de l'événement
+ * - consommateur lent : demande un événement à la fois et travaille environ 2 µs par événement
+ *
+ * Pour chaque cas : débit côté announce() (le thread de simulation), puis événements livrés,
+ * abandonnés, fusionnés, et nombre d'attentes de announce() (BLOCK).
+ *
+ * Usage : java bench.FlowPublisherBenchmark [nombre d'événements, 2 000 000 par défaut] [taille de file, 1024 par défaut]
+ */
+public class FlowPublisherBenchmark {
+	private static final int BALISES = 1000;
+
+	/** Subscriber de mesure : rapide (demande illimitée) ou lent (un à la fois, travail simulé) */
+	static class BenchSubscriber implements Flow.Subscriber<BaliseMoveEvent> {
+		final boolean slow;
+		final CountDownLatch done = new CountDownLatch(1);
+		Flow.Subscription subscription;
+		long received;
+
+		BenchSubscriber(boolean slow) {
+			this.slow = slow;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(slow ? 1 : Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(BaliseMoveEvent item) {
+			received++;
+			if (slow) {
+				long end = System.nanoTime() + 2_000;
+				while (System.nanoTime() < end) {
+					Thread.onSpinWait();
+				}
+				subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			throwable.printStackTrace();
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			done.countDown();
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int events = (args.length > 0) ? Integer.parseInt(args[0]) : 2_000_000;
+		int bufferSize = (args.length > 1) ? Integer.parseInt(args[1]) : 1024;
+		Announcer announcer = new Announcer();
+		BaliseMoveEvent[] moves = new BaliseMoveEvent[BALISES];
+		for (int i = 0; i < BALISES; i++) {
+			moves[i] = new BaliseMoveEvent(new Balise(i, 200, 1, "Balise_bench_" + i, announcer));
+		}
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		System.out.println(events + " déplacements de " + BALISES + " balises, file de " + bufferSize);
+		for (boolean slow : new boolean[] { false, true }) {
+			// Le consommateur lent limite BLOCK à son propre débit : moins d'événements
+			int count = (slow) ? events / 20 : events;
+			for (OverflowPolicy policy : OverflowPolicy.values()) {
+				run(announcer, moves, executor, count, bufferSize, policy, slow); // chauffe
+				run(announcer, moves, executor, count, bufferSize, policy, slow);
+			}
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	private static void run(Announcer announcer, BaliseMoveEvent[] moves, ExecutorService executor, int count,
+			int bufferSize, OverflowPolicy policy, boolean slow) throws InterruptedException {
+		EventPublisher<BaliseMoveEvent> publisher = new EventPublisher<>(announcer, BaliseMoveEvent.class, null,
+				bufferSize, policy, executor);
+		BenchSubscriber subscriber = new BenchSubscriber(slow);
+		publisher.subscribe(subscriber);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			announcer.announce(moves[i % BALISES]);
+		}
+		long produced = System.nanoTime() - start;
+		publisher.close();
+		subscriber.done.await();
+		long total = System.nanoTime() - start;
+
+		System.out.printf("%-8s %-6s announce %,12.0f ev/s | livrés %,10d en %6.1f ms | abandonnés %,10d | fusionnés %,10d | attentes %,8d%n",
+				policy, slow ? "lent" : "rapide", count * 1e9 / produced, publisher.getDeliveredCount(), total / 1e6,
+				publisher.getDroppedCount(), publisher.getConflatedCount(), publisher.getBlockedCount());
+	}
+}
@@ -0,0 +1,121 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import announcer.AbstractEvent;
+import announcer.Announcer;
+import announcer.Subscription;
+import balise.Balise;
+import balise.BaliseMoveEvent;
+import balise.BaliseStateChangeEvent;
+import codec.EventRecord;
+import journal.EventJournal;
+import journal.JournalReader;
+
+/**
+ * Coût du journal (EventJournal) pour une flotte de 100 000 balises.
+ *
+ * Chaque tick diffuse un déplacement par balise et un changement d'état pour 1 % d'entre elles,
+ * puis valide le tick (commit()). On compare la durée d'un tick sans journal et avec journal,
+ * puis on relit le journal avec JournalReader.
+ *
+ * Les ticks sont rythmés comme par SimulationClock (un tick tous les 30 ms par défaut) : le thread
+ * d'écriture du journal travaille entre deux ticks. Avec un pas de 0, les ticks s'enchaînent sans
+ * attente ; sur une machine à un seul cœur, la durée mesurée inclut alors le travail du thread
+ * d'écriture, qui n'a pas d'autre moment pour s'exécuter.
+ *
+ * Usage : java bench.JournalBenchmark [balises, 100 000 par défaut] [ticks, 300 par défaut] [pas en ms, 30 par défaut]
+ */
+public class JournalBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int count = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+		int ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 300;
+		long stepNanos = TimeUnit.MILLISECONDS.toNanos((args.length > 2) ? Integer.parseInt(args[2]) : 30);
+		Announcer announcer = new Announcer();
+		AbstractEvent[] moves = new AbstractEvent[count];
+		AbstractEvent[] states = new AbstractEvent[count / 100];
+		for (int i = 0; i < count; i++) {
+			Balise balise = new Balise(i % 800, 300 + i % 300, 1, "Balise_" + i, announcer);
+			moves[i] = new BaliseMoveEvent(balise, balise.getX(), balise.getY());
+			if (i % 100 == 0) states[i / 100] = new BaliseStateChangeEvent(balise, balise.getState());
+		}
+
+		System.out.println(count + " balises, " + ticks + " ticks, pas de " + stepNanos / 1_000_000 + " ms");
+		report("Sans journal", run(announcer, moves, states, ticks, stepNanos, null));
+
+		Path directory = Files.createTempDirectory("journal-bench");
+		try {
+			EventJournal journal = new EventJournal(directory);
+			Subscription s = journal.attach(announcer);
+			long[] withJournal = run(announcer, moves, states, ticks, stepNanos, journal);
+			s.close();
+			journal.close();
+			report("Avec journal", withJournal);
+			System.out.printf("Journal : %,d événements, %d segments, %,d octets, %d attentes du thread d'écriture%n",
+					journal.getEventCount(), journal.getSegmentCount(), size(directory), journal.getWaitCount());
+
+			long start = System.nanoTime();
+			EventRecord record = new EventRecord();
+			long read = 0;
+			try (JournalReader reader = new JournalReader(directory)) {
+				while (reader.next(record)) {
+					read++;
+				}
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("Relecture : %,d événements en %.2f s (%,.0f ev/s)%n", read, seconds, read / seconds);
+		} finally {
+			try (Stream<Path> files = Files.walk(directory)) {
+				files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	/**
+	 * @return Durée de chaque tick mesuré (ns), après une chauffe d'un tiers des ticks
+	 */
+	private static long[] run(Announcer announcer, AbstractEvent[] moves, AbstractEvent[] states, int ticks,
+			long stepNanos, EventJournal journal) {
+		int warmup = ticks / 3;
+		long[] durations = new long[ticks - warmup];
+		long next = System.nanoTime();
+		for (int tick = 0; tick < ticks; tick++) {
+			if (stepNanos > 0) {
+				next += stepNanos;
+				LockSupport.parkNanos(next - System.nanoTime());
+			}
+			long start = System.nanoTime();
+			announcer.setTick(tick);
+			for (AbstractEvent move : moves) {
+				announcer.announce(move);
+			}
+			for (AbstractEvent state : states) {
+				announcer.announce(state);
+			}
+			if (journal != null) journal.commit();
+			if (tick >= warmup) durations[tick - warmup] = System.nanoTime() - start;
+		}
+		return durations;
+	}
+
+	private static void report(String label, long[] durations) {
+		long[] sorted = durations.clone();
+		Arrays.sort(sorted);
+		System.out.printf("%s : médiane %.2f ms/tick, p99 %.2f ms, max %.2f ms%n", label,
+				sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6, sorted[sorted.length - 1] / 1e6);
+	}
+
+	private static long size(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.mapToLong(p -> p.toFile().length()).sum();
+		}
+	}
+}
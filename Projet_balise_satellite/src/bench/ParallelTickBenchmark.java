@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import announcer.Announcer;
+import balise.Balise;
+import satellite.Satellite;
+import simulation.Scenario;
+import simulation.SimulationEngine;
+
+/**
+ * Passage à l'échelle du mode parallèle de SimulationEngine (setForkJoinPool()) : durée d'un tick
+ * pour 1 à N threads, comparée au mode séquentiel, et vérification que l'état final ne dépend pas
+ * du nombre de threads.
+ *
+ * Usage : java bench.ParallelTickBenchmark [balises, 200 000 par défaut] [ticks, 200 par défaut]
+ *         [threads max, nombre de cœurs par défaut]
+ */
+public class ParallelTickBenchmark {
+
+	public static void main(String[] args) {
+		int balises = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+		int ticks = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+		int maxThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int perMethod = balises / 4;
+		Scenario scenario = new Scenario(Arrays.asList(
+				"seed 1",
+				"satellite ? 80 1 3 x20",
+				"balise ? ? 1 linear 2 x" + perMethod,
+				"balise ? ? 0 static x" + perMethod,
+				"balise ? 480 1 sinusoidal 2 40 2 x" + perMethod,
+				"balise ? ? 1 vertical 2 450 550 x" + perMethod));
+		Balise.setConsoleTraces(false);
+		System.out.printf("%,d balises, 20 satellites, %d ticks, %d cœur(s)%n", perMethod * 4, ticks,
+				Runtime.getRuntime().availableProcessors());
+
+		double sequential = run(scenario, null, ticks, "séquentiel", 0);
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			run(scenario, pool, ticks, threads + " thread(s)", sequential);
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @return Durée moyenne d'un tick (ms), après une chauffe d'un quart des ticks
+	 */
+	private static double run(Scenario scenario, ForkJoinPool pool, int ticks, String label, double reference) {
+		SimulationEngine engine = scenario.build(new Announcer());
+		engine.setForkJoinPool(pool);
+		engine.step(ticks / 4);
+		long start = System.nanoTime();
+		engine.step(ticks - ticks / 4);
+		double perTick = (System.nanoTime() - start) / 1e6 / (ticks - ticks / 4);
+		System.out.printf("%-12s : %.2f ms/tick%s, %,d synchronisations, empreinte %08x%n", label, perTick,
+				(reference > 0) ? String.format(" (x%.2f)", reference / perTick) : "", engine.getSynchronisationCount(),
+				fingerprint(engine));
+		return perTick;
+	}
+
+	/** Empreinte de l'état final : identique quel que soit le nombre de threads */
+	private static int fingerprint(SimulationEngine engine) {
+		int hash = 1;
+		for (Balise b : engine.getBalises()) {
+			hash = 31 * hash + b.getX();
+			hash = 31 * hash + b.getY();
+			hash = 31 * hash + b.getMemory();
+			hash = 31 * hash + b.getState().ordinal();
+		}
+		for (Satellite s : engine.getSatellites()) {
+			hash = 31 * hash + s.getDataReceived();
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import announcer.Announcer;
+import balise.Balise;
+import balise.BaliseListener;
+import balise.BaliseMoveEvent;
+
+/**
+ * Coût du mode transactionnel de l'Announcer (beginTick() / endTick()) comparé à la livraison
+ * immédiate, sur un seul thread : chaque balise publie son déplacement une fois par tick,
+ * en réutilisant son instance de BaliseMoveEvent comme dans la simulation.
+ *
+ * Chaque tour publie tous les déplacements des deux façons ; le meilleur tour de chaque mode
+ * est affiché (insensible aux pauses du ramasse-miettes et à la compilation).
+ *
+ * Usage : java bench.TickBufferBenchmark [balises, 1024 par défaut] [tours, 5000 par défaut]
+ */
+public class TickBufferBenchmark {
+	/** Déplacements reçus, pour que le JIT ne supprime pas les livraisons */
+	static volatile long sink;
+
+	private static final class CountingListener implements BaliseListener {
+		long checksum;
+
+		@Override
+		public void onBaliseMove(BaliseMoveEvent event) {
+			checksum += event.getX();
+		}
+	}
+
+	public static void main(String[] args) {
+		int count = (args.length > 0) ? Integer.parseInt(args[0]) : 1024;
+		int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 5000;
+		Balise.setConsoleTraces(false);
+		Announcer announcer = new Announcer();
+		CountingListener listener = new CountingListener();
+		announcer.register(listener, BaliseMoveEvent.class);
+		BaliseMoveEvent[] moves = new BaliseMoveEvent[count];
+		for (int i = 0; i < count; i++) {
+			moves[i] = new BaliseMoveEvent(new Balise(i % 800, 400, 1, "Balise_bench" + i, announcer), i, 0);
+		}
+
+		long inline = Long.MAX_VALUE, buffered = Long.MAX_VALUE;
+		for (int round = 0; round < rounds; round++) {
+			long t0 = System.nanoTime();
+			for (BaliseMoveEvent e : moves) announcer.announce(e);
+			long t1 = System.nanoTime();
+			announcer.beginTick(round);
+			for (BaliseMoveEvent e : moves) announcer.announce(e);
+			announcer.endTick();
+			long t2 = System.nanoTime();
+			inline = Math.min(inline, t1 - t0);
+			buffered = Math.min(buffered, t2 - t1);
+		}
+		sink = listener.checksum;
+		System.out.printf("%d balises, meilleur tour sur %d : immédiat %.1f ns/ev, transactionnel %.1f ns/ev (x%.2f)%n",
+				count, rounds, (double) inline / count, (double) buffered / count, (double) buffered / inline);
+	}
+}
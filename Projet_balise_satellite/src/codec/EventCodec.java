@@ -0,0 +1,333 @@
+package codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import announcer.AbstractEvent;
+import balise.BaliseMoveEvent;
+import balise.BaliseState;
+import balise.BaliseStateChangeEvent;
+import balise.SynchronisationEndEvent;
+import balise.SynchronisationStartEvent;
+import satellite.SatelliteMoveEvent;
+
+/**
+ * Encodage binaire compact des événements de la simulation, sans allocation.
+ *
+ * La sérialisation Java des événements (AbstractEvent hérite de EventObject) écrit les descripteurs
+ * de classes et, pour les synchronisations, les objets Balise et Satellite entiers. Ici chaque
+ * événement devient un enregistrement de quelques octets, où les entités sont désignées par
+ * leur identifiant (EventSource.getEntityId()) :
+ *
+ *   type (1 octet) | tick + 1 (varint) | entité source (varint) | champs du type
+ *
+ *   BALISE_MOVE, SATELLITE_MOVE   x, y (varint zigzag)
+ *   BALISE_STATE_CHANGE           nouvel état de la balise (1 octet, ordinal de BaliseState)
+ *   SYNCHRONISATION_START / END   satellite (varint)
+ *
+ * Les varints sont au format LEB128 (7 bits par octet, bit de poids fort = octet suivant) ;
+ * le zigzag code les petites valeurs négatives sur peu d'octets.
+ *
+ * encode() écrit dans un ByteBuffer fourni, decode() remplit un EventRecord réutilisé :
+ * aucun objet n'est créé par événement. capture() relève les champs d'un événement dans un
+ * EventRecord, pour l'encoder plus tard sur un autre thread (encode(EventRecord, ByteBuffer)).
+ *
+ * Exemple :
+ * ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+ * EventCodec.encode(moveEvent, buffer);
+ * ...
+ * buffer.flip();
+ * EventRecord record = new EventRecord();
+ * while (buffer.hasRemaining()) {
+ *     EventCodec.decode(buffer, record);
+ * }
+ */
+public final class EventCodec {
+
+	/** Taille maximale d'un enregistrement : type, tick, entité et deux champs varint */
+	public static final int MAX_RECORD_SIZE = 1 + 10 + 5 + 5 + 5;
+
+	/** BaliseState.values() copie le tableau à chaque appel */
+	private static final BaliseState[] STATES = BaliseState.values();
+
+	private EventCodec() {}
+
+	/**
+	 * @param anEvent Un événement
+	 * @return true si encode() sait l'encoder
+	 */
+	public static boolean supports(AbstractEvent anEvent) {
+		return kindOf(anEvent) != 0;
+	}
+
+	/**
+	 * Encode un événement à la position courante du tampon.
+	 *
+	 * @param anEvent L'événement (BaliseMoveEvent, BaliseStateChangeEvent, SynchronisationStartEvent,
+	 *                SynchronisationEndEvent ou SatelliteMoveEvent)
+	 * @param out Tampon de destination, avec au moins MAX_RECORD_SIZE octets libres
+	 * @return Nombre d'octets écrits
+	 * @throws IllegalArgumentException Si le type d'événement n'est pas encodable
+	 * @throws BufferOverflowException S'il reste moins de MAX_RECORD_SIZE octets (rien n'est écrit)
+	 */
+	public static int encode(AbstractEvent anEvent, ByteBuffer out) {
+		return encode(anEvent, anEvent.getTick(), out);
+	}
+
+	/**
+	 * Encode un événement avec un tick fourni par l'appelant (ex: événement non horodaté,
+	 * daté par le tick courant de l'Announcer, voir journal.EventJournal).
+	 *
+	 * @param anEvent L'événement (voir encode(AbstractEvent, ByteBuffer))
+	 * @param tick Tick enregistré (-1 : inconnu)
+	 * @param out Tampon de destination, avec au moins MAX_RECORD_SIZE octets libres
+	 * @return Nombre d'octets écrits
+	 */
+	public static int encode(AbstractEvent anEvent, long tick, ByteBuffer out) {
+		byte kind = kindOf(anEvent);
+		if (kind == 0) throw new IllegalArgumentException("unsupported event: " + anEvent.getClass().getName());
+		if (out.remaining() < MAX_RECORD_SIZE) throw new BufferOverflowException();
+		int start = out.position();
+		out.put(kind);
+		putVarLong(out, tick + 1);
+		switch (kind) {
+		case EventRecord.BALISE_MOVE: {
+			BaliseMoveEvent e = (BaliseMoveEvent) anEvent;
+			putVarInt(out, e.getBalise().getEntityId());
+			putVarInt(out, zigzag(e.getX()));
+			putVarInt(out, zigzag(e.getY()));
+			break;
+		}
+		case EventRecord.SATELLITE_MOVE: {
+			SatelliteMoveEvent e = (SatelliteMoveEvent) anEvent;
+			putVarInt(out, e.getSatellite().getEntityId());
+			putVarInt(out, zigzag(e.getX()));
+			putVarInt(out, zigzag(e.getY()));
+			break;
+		}
+		case EventRecord.BALISE_STATE_CHANGE: {
+			BaliseStateChangeEvent e = (BaliseStateChangeEvent) anEvent;
+			putVarInt(out, e.getBalise().getEntityId());
+			out.put((byte) e.getState().ordinal()); // état relevé à la création de l'événement
+			break;
+		}
+		case EventRecord.SYNCHRONISATION_START: {
+			SynchronisationStartEvent e = (SynchronisationStartEvent) anEvent;
+			putVarInt(out, e.getBalise().getEntityId());
+			putVarInt(out, e.getSatellite().getEntityId());
+			break;
+		}
+		default: {
+			SynchronisationEndEvent e = (SynchronisationEndEvent) anEvent;
+			putVarInt(out, e.getBalise().getEntityId());
+			putVarInt(out, e.getSatellite().getEntityId());
+			break;
+		}
+		}
+		return out.position() - start;
+	}
+
+	/**
+	 * Relève les champs d'un événement dans un EventRecord réutilisé, sans l'encoder
+	 * (ex: relevé sur le thread de simulation, encodé plus tard par encode(EventRecord, ByteBuffer),
+	 * voir journal.EventJournal).
+	 *
+	 * @param anEvent Un événement
+	 * @param tick Tick enregistré (-1 : inconnu)
+	 * @param into Enregistrement réutilisé
+	 * @return false si le type d'événement n'est pas encodable (into n'est pas modifié)
+	 */
+	public static boolean capture(AbstractEvent anEvent, long tick, EventRecord into) {
+		byte kind = kindOf(anEvent);
+		switch (kind) {
+		case EventRecord.BALISE_MOVE: {
+			BaliseMoveEvent e = (BaliseMoveEvent) anEvent;
+			into.entityId = e.getBalise().getEntityId();
+			into.x = e.getX();
+			into.y = e.getY();
+			break;
+		}
+		case EventRecord.SATELLITE_MOVE: {
+			SatelliteMoveEvent e = (SatelliteMoveEvent) anEvent;
+			into.entityId = e.getSatellite().getEntityId();
+			into.x = e.getX();
+			into.y = e.getY();
+			break;
+		}
+		case EventRecord.BALISE_STATE_CHANGE: {
+			BaliseStateChangeEvent e = (BaliseStateChangeEvent) anEvent;
+			into.entityId = e.getBalise().getEntityId();
+			into.state = e.getState();
+			break;
+		}
+		case EventRecord.SYNCHRONISATION_START: {
+			SynchronisationStartEvent e = (SynchronisationStartEvent) anEvent;
+			into.entityId = e.getBalise().getEntityId();
+			into.satelliteId = e.getSatellite().getEntityId();
+			break;
+		}
+		case EventRecord.SYNCHRONISATION_END: {
+			SynchronisationEndEvent e = (SynchronisationEndEvent) anEvent;
+			into.entityId = e.getBalise().getEntityId();
+			into.satelliteId = e.getSatellite().getEntityId();
+			break;
+		}
+		default:
+			return false;
+		}
+		into.kind = kind;
+		into.tick = tick;
+		return true;
+	}
+
+	/**
+	 * Encode un enregistrement (décodé par decode() ou relevé par capture()) à la position courante du tampon.
+	 *
+	 * @param record L'enregistrement
+	 * @param out Tampon de destination, avec au moins MAX_RECORD_SIZE octets libres
+	 * @return Nombre d'octets écrits
+	 * @throws IllegalStateException Si l'enregistrement est vide
+	 * @throws BufferOverflowException S'il reste moins de MAX_RECORD_SIZE octets (rien n'est écrit)
+	 */
+	public static int encode(EventRecord record, ByteBuffer out) {
+		byte kind = record.kind;
+		if (kind == 0) throw new IllegalStateException("empty record");
+		if (out.remaining() < MAX_RECORD_SIZE) throw new BufferOverflowException();
+		int start = out.position();
+		out.put(kind);
+		putVarLong(out, record.tick + 1);
+		putVarInt(out, record.entityId);
+		switch (kind) {
+		case EventRecord.BALISE_MOVE:
+		case EventRecord.SATELLITE_MOVE:
+			putVarInt(out, zigzag(record.x));
+			putVarInt(out, zigzag(record.y));
+			break;
+		case EventRecord.BALISE_STATE_CHANGE:
+			out.put((byte) record.state.ordinal());
+			break;
+		default:
+			putVarInt(out, record.satelliteId);
+			break;
+		}
+		return out.position() - start;
+	}
+
+	/**
+	 * Décode l'enregistrement à la position courante du tampon.
+	 * En cas d'exception, la position du tampon est inchangée.
+	 *
+	 * @param in Tampon source
+	 * @param into Enregistrement réutilisé, rempli par le décodage
+	 * @return into
+	 * @throws BufferUnderflowException Si l'enregistrement est incomplet
+	 * @throws IllegalStateException Si le type ou l'état lu est inconnu, ou un varint trop long (données corrompues)
+	 */
+	public static EventRecord decode(ByteBuffer in, EventRecord into) {
+		int start = in.position();
+		try {
+			byte kind = in.get();
+			into.tick = getVarLong(in) - 1;
+			into.entityId = getVarInt(in);
+			switch (kind) {
+			case EventRecord.BALISE_MOVE:
+			case EventRecord.SATELLITE_MOVE:
+				into.x = unzigzag(getVarInt(in));
+				into.y = unzigzag(getVarInt(in));
+				break;
+			case EventRecord.BALISE_STATE_CHANGE: {
+				int ordinal = in.get();
+				if (ordinal < 0 || ordinal >= STATES.length) {
+					throw new IllegalStateException("unknown balise state " + ordinal + " at " + start);
+				}
+				into.state = STATES[ordinal];
+				break;
+			}
+			case EventRecord.SYNCHRONISATION_START:
+			case EventRecord.SYNCHRONISATION_END:
+				into.satelliteId = getVarInt(in);
+				break;
+			default:
+				throw new IllegalStateException("unknown event kind " + kind + " at " + start);
+			}
+			into.kind = kind;
+			return into;
+		} catch (BufferUnderflowException | IllegalStateException ex) {
+			in.position(start);
+			throw ex;
+		}
+	}
+
+	private static byte kindOf(AbstractEvent anEvent) {
+		// Déplacements en premier : l'immense majorité des événements
+		if (anEvent instanceof BaliseMoveEvent) return EventRecord.BALISE_MOVE;
+		if (anEvent instanceof SatelliteMoveEvent) return EventRecord.SATELLITE_MOVE;
+		if (anEvent instanceof BaliseStateChangeEvent) return EventRecord.BALISE_STATE_CHANGE;
+		if (anEvent instanceof SynchronisationStartEvent) return EventRecord.SYNCHRONISATION_START;
+		if (anEvent instanceof SynchronisationEndEvent) return EventRecord.SYNCHRONISATION_END;
+		return 0;
+	}
+
+	/**
+	 * Écrit un entier non signé en varint (1 à 5 octets).
+	 */
+	public static void putVarInt(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * Écrit un long non signé en varint (1 à 10 octets).
+	 */
+	public static void putVarLong(ByteBuffer out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * Lit un entier écrit par putVarInt().
+	 *
+	 * @throws IllegalStateException Si le varint dépasse 5 octets (données corrompues)
+	 */
+	public static int getVarInt(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalStateException("malformed varint");
+	}
+
+	/**
+	 * Lit un long écrit par putVarLong().
+	 *
+	 * @throws IllegalStateException Si le varint dépasse 10 octets (données corrompues)
+	 */
+	public static long getVarLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalStateException("malformed varlong");
+	}
+
+	/** @return value codé en zigzag (0, -1, 1, -2, ... → 0, 1, 2, 3, ...) */
+	public static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/** @return Inverse de zigzag() */
+	public static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
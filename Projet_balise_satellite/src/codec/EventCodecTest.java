@@ -0,0 +1,193 @@
+package codec;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import announcer.AbstractEvent;
+import announcer.Announcer;
+import balise.Balise;
+import balise.BaliseMoveEvent;
+import balise.BaliseState;
+import balise.BaliseStateChangeEvent;
+import balise.SynchronisationEndEvent;
+import balise.SynchronisationStartEvent;
+import satellite.Satellite;
+import satellite.SatelliteMoveEvent;
+
+public class EventCodecTest {
+	private final Announcer announcer = new Announcer();
+	private final Balise balise = new Balise(120, 450, 1, "Balise_codec", announcer);
+	private final Satellite satellite = new Satellite(300, 50, 1, "Satellite_codec", announcer);
+
+	@Test
+	public void testRoundTrip() {
+		BaliseMoveEvent move = new BaliseMoveEvent(balise, 121, -3);
+		move.stamp(42);
+		AbstractEvent[] events = {
+			move,
+			new SatelliteMoveEvent(satellite, 301, 50),
+			new BaliseStateChangeEvent(balise, BaliseState.REMONTEE),
+			new SynchronisationStartEvent(balise, satellite),
+			new SynchronisationEndEvent(balise, satellite),
+		};
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		for (AbstractEvent e : events) {
+			assertTrue(EventCodec.supports(e));
+			int size = EventCodec.encode(e, buffer);
+			assertTrue(size <= 12); // petits identifiants et coordonnées : quelques octets
+		}
+		assertEquals(BaliseState.COLLECTE, balise.getState()); // l'état encodé est celui de l'événement
+		buffer.flip();
+
+		EventRecord r = new EventRecord();
+		EventCodec.decode(buffer, r);
+		assertEquals(EventRecord.BALISE_MOVE, r.getKind());
+		assertEquals(42, r.getTick());
+		assertEquals(balise.getEntityId(), r.getEntityId());
+		assertEquals(121, r.getX());
+		assertEquals(-3, r.getY());
+		BaliseMoveEvent rebuilt = (BaliseMoveEvent) r.toEvent(id -> balise, id -> satellite);
+		assertSame(balise, rebuilt.getBalise());
+		assertEquals(121, rebuilt.getX());
+		assertEquals(42, rebuilt.getTick());
+		assertEquals(0, rebuilt.getEmitNanos()); // instant d'émission inconnu : pas de latence mesurée
+
+		assertSame(r, EventCodec.decode(buffer, r)); // même instance, champs remplacés
+		assertEquals(EventRecord.SATELLITE_MOVE, r.getKind());
+		assertEquals(-1, r.getTick()); // non horodaté
+		assertEquals(satellite.getEntityId(), r.getEntityId());
+		assertEquals(301, r.getX());
+
+		EventCodec.decode(buffer, r);
+		assertEquals(EventRecord.BALISE_STATE_CHANGE, r.getKind());
+		assertEquals(BaliseState.REMONTEE, r.getState());
+		assertEquals(BaliseState.REMONTEE, ((BaliseStateChangeEvent) r.toEvent(id -> balise, id -> satellite)).getState());
+
+		EventCodec.decode(buffer, r);
+		assertEquals(EventRecord.SYNCHRONISATION_START, r.getKind());
+		assertEquals(satellite.getEntityId(), r.getSatelliteId());
+		SynchronisationStartEvent start = (SynchronisationStartEvent) r.toEvent(id -> balise, id -> satellite);
+		assertSame(satellite, start.getSatellite());
+
+		EventCodec.decode(buffer, r);
+		assertEquals(EventRecord.SYNCHRONISATION_END, r.getKind());
+		assertFalse(buffer.hasRemaining());
+	}
+
+	@Test
+	public void testVarIntsAndTruncation() {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		int[] values = { 0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int v : values) {
+			EventCodec.putVarInt(buffer, EventCodec.zigzag(v));
+		}
+		EventCodec.putVarLong(buffer, Long.MAX_VALUE);
+		buffer.flip();
+		assertEquals(0, buffer.get(0)); // zigzag(0) tient sur un octet nul
+		for (int v : values) {
+			assertEquals(v, EventCodec.unzigzag(EventCodec.getVarInt(buffer)));
+		}
+		assertEquals(Long.MAX_VALUE, EventCodec.getVarLong(buffer));
+
+		// Enregistrement incomplet : exception, position inchangée
+		ByteBuffer record = ByteBuffer.allocate(64);
+		int size = EventCodec.encode(new BaliseMoveEvent(balise, 700, 580), record);
+		record.flip();
+		record.limit(size - 1);
+		try {
+			EventCodec.decode(record, new EventRecord());
+			fail();
+		} catch (BufferUnderflowException expected) {
+			assertEquals(0, record.position());
+		}
+
+		// État corrompu : IllegalStateException, position inchangée
+		ByteBuffer corrupt = ByteBuffer.allocate(64);
+		int stateSize = EventCodec.encode(new BaliseStateChangeEvent(balise, BaliseState.COLLECTE), corrupt);
+		corrupt.put(stateSize - 1, (byte) 99);
+		corrupt.flip();
+		try {
+			EventCodec.decode(corrupt, new EventRecord());
+			fail();
+		} catch (IllegalStateException expected) {
+			assertEquals(0, corrupt.position());
+		}
+
+		try {
+			EventCodec.encode(new UnknownEvent(this), record);
+			fail();
+		} catch (IllegalArgumentException expected) {
+			// ok
+		}
+	}
+
+	@Test
+	public void testCaptureThenEncode() {
+		AbstractEvent[] events = {
+			new BaliseMoveEvent(balise, 121, -3),
+			new SatelliteMoveEvent(satellite, 301, 50),
+			new BaliseStateChangeEvent(balise, BaliseState.REMONTEE),
+			new SynchronisationStartEvent(balise, satellite),
+			new SynchronisationEndEvent(balise, satellite),
+		};
+		// Relevé puis encodé plus tard : mêmes octets que l'encodage direct
+		ByteBuffer direct = ByteBuffer.allocate(1024);
+		ByteBuffer captured = ByteBuffer.allocate(1024);
+		EventRecord r = new EventRecord();
+		for (AbstractEvent e : events) {
+			EventCodec.encode(e, 7, direct);
+			assertTrue(EventCodec.capture(e, 7, r));
+			EventCodec.encode(r, captured);
+		}
+		assertEquals(direct.flip(), captured.flip());
+
+		assertFalse(EventCodec.capture(new UnknownEvent(this), 8, r));
+		assertEquals(EventRecord.SYNCHRONISATION_END, r.getKind()); // inchangé
+		assertEquals(7, r.getTick());
+		try {
+			EventCodec.encode(new EventRecord(), captured.clear());
+			fail();
+		} catch (IllegalStateException expected) {
+			// ok
+		}
+	}
+
+	static class UnknownEvent extends AbstractEvent {
+		private static final long serialVersionUID = 1L;
+
+		UnknownEvent(Object source) {
+			super(source);
+		}
+	}
+
+	@Test
+	public void testNoAllocation() {
+		com.sun.management.ThreadMXBean threads;
+		try {
+			threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		} catch (ClassCastException unsupported) {
+			return; // mesure indisponible sur cette JVM
+		}
+		BaliseMoveEvent move = new BaliseMoveEvent(balise, 10, 20);
+		SynchronisationStartEvent sync = new SynchronisationStartEvent(balise, satellite);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+		EventRecord r = new EventRecord();
+		long thread = Thread.currentThread().getId();
+		for (int round = 0; round < 2; round++) {
+			// Premier tour : chauffe (chargement des classes)
+			long before = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < 100_000; i++) {
+				buffer.clear();
+				EventCodec.encode((i & 1) == 0 ? move : sync, buffer);
+				buffer.flip();
+				EventCodec.decode(buffer, r);
+			}
+			long allocated = threads.getThreadAllocatedBytes(thread) - before;
+			if (round == 1) assertTrue("allocated " + allocated, allocated < 4096);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package codec;
+
+import java.util.function.IntFunction;
+
+import announcer.AbstractEvent;
+import balise.Balise;
+import balise.BaliseMoveEvent;
+import balise.BaliseState;
+import balise.BaliseStateChangeEvent;
+import balise.SynchronisationEndEvent;
+import balise.SynchronisationStartEvent;
+import satellite.Satellite;
+import satellite.SatelliteMoveEvent;
+
+/**
+ * Événement décodé par EventCodec, sous forme de champs à plat.
+ *
+ * Une même instance est réutilisée d'un décodage à l'autre : decode() ne fait qu'écrire ses champs,
+ * sans allocation. Les entités sont désignées par leur identifiant (EventSource.getEntityId()) ;
+ * toEvent() reconstruit si besoin un véritable événement à partir des entités de la simulation.
+ *
+ * Seuls les champs du type décodé (getKind()) sont significatifs.
+ */
+public final class EventRecord {
+	/** Types d'événements encodés (premier octet de chaque enregistrement) */
+	public static final byte BALISE_MOVE = 1;
+	public static final byte BALISE_STATE_CHANGE = 2;
+	public static final byte SYNCHRONISATION_START = 3;
+	public static final byte SYNCHRONISATION_END = 4;
+	public static final byte SATELLITE_MOVE = 5;
+
+	byte kind;
+	long tick;
+	int entityId;
+	int x, y;
+	BaliseState state;
+	int satelliteId;
+
+	/** @return Type de l'événement (BALISE_MOVE, ..., SATELLITE_MOVE) */
+	public byte getKind() {
+		return kind;
+	}
+
+	/** @return Tick de simulation à l'émission, -1 si l'événement n'était pas horodaté */
+	public long getTick() {
+		return tick;
+	}
+
+	/** @return Identifiant de l'entité source (balise, ou satellite pour SATELLITE_MOVE) */
+	public int getEntityId() {
+		return entityId;
+	}
+
+	/** @return Position X (BALISE_MOVE, SATELLITE_MOVE) */
+	public int getX() {
+		return x;
+	}
+
+	/** @return Position Y (BALISE_MOVE, SATELLITE_MOVE) */
+	public int getY() {
+		return y;
+	}
+
+	/** @return Nouvel état de la balise (BALISE_STATE_CHANGE) */
+	public BaliseState getState() {
+		return state;
+	}
+
+	/** @return Identifiant du satellite (SYNCHRONISATION_START, SYNCHRONISATION_END) */
+	public int getSatelliteId() {
+		return satelliteId;
+	}
+
+	/**
+	 * Reconstruit l'événement (allocation) à partir des entités de la simulation.
+	 * Seul le tick d'origine est repris : getEmitNanos() vaut 0 (instant propre à la JVM qui a émis).
+	 *
+	 * @param balises Balise d'un identifiant
+	 * @param satellites Satellite d'un identifiant
+	 * @return Un nouvel événement, avec le tick d'origine
+	 */
+	public AbstractEvent toEvent(IntFunction<Balise> balises, IntFunction<Satellite> satellites) {
+		AbstractEvent event;
+		switch (kind) {
+		case BALISE_MOVE:
+			event = new BaliseMoveEvent(balises.apply(entityId), x, y);
+			break;
+		case BALISE_STATE_CHANGE:
+			event = new BaliseStateChangeEvent(balises.apply(entityId), state);
+			break;
+		case SYNCHRONISATION_START:
+			event = new SynchronisationStartEvent(balises.apply(entityId), satellites.apply(satelliteId));
+			break;
+		case SYNCHRONISATION_END:
+			event = new SynchronisationEndEvent(balises.apply(entityId), satellites.apply(satelliteId));
+			break;
+		case SATELLITE_MOVE:
+			event = new SatelliteMoveEvent(satellites.apply(entityId), x, y);
+			break;
+		default:
+			throw new IllegalStateException("no event decoded");
+		}
+		if (tick >= 0) event.setTick(tick);
+		return event;
+	}
+
+	@Override
+	public String toString() {
+		switch (kind) {
+		case BALISE_MOVE:
+			return "BaliseMove[tick=" + tick + ", balise=" + entityId + ", x=" + x + ", y=" + y + "]";
+		case BALISE_STATE_CHANGE:
+			return "BaliseStateChange[tick=" + tick + ", balise=" + entityId + ", state=" + state + "]";
+		case SYNCHRONISATION_START:
+			return "SynchronisationStart[tick=" + tick + ", balise=" + entityId + ", satellite=" + satelliteId + "]";
+		case SYNCHRONISATION_END:
+			return "SynchronisationEnd[tick=" + tick + ", balise=" + entityId + ", satellite=" + satelliteId + "]";
+		case SATELLITE_MOVE:
+			return "SatelliteMove[tick=" + tick + ", satellite=" + entityId + ", x=" + x + ", y=" + y + "]";
+		default:
+			return "EventRecord[vide]";
+		}
+	}
+}
@@ -0,0 +1,420 @@
+package journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import announcer.AbstractEvent;
+import announcer.Announcer;
+import announcer.Subscription;
+import codec.EventCodec;
+import codec.EventRecord;
+
+/**
+ * Journal des événements de la simulation, en ajout seul, dans des segments projetés en mémoire.
+ *
+ * attach() abonne le journal à un Announcer : les champs de chaque événement encodable (voir
+ * EventCodec : déplacements, changements d'état, synchronisations) sont relevés dans un lot
+ * d'EventRecord préalloués (Chunk), sans allocation, encodage ni appel système.
+ *
+ * Écriture en arrière-plan : commit(), appelé par la boucle de simulation à la fin de chaque tick,
+ * confie les lots du tick à un thread d'écriture unique et reprend un lot libre. Ce thread encode
+ * les enregistrements dans le segment courant, publie dans l'en-tête du segment la fin de chaque
+ * tick validé, et change de segment quand le courant est plein (scellé, puis création, projection
+ * et pré-chargement du suivant) : le thread de simulation n'attend jamais un changement de segment.
+ * Il n'attend que si le thread d'écriture a MAX_CHUNKS lots de retard (disque durablement plus
+ * lent que la simulation, voir getWaitCount()).
+ *
+ * Un tick validé est donc visible des lecteurs peu après commit() ; flush() attend qu'il soit écrit.
+ * Après un arrêt brutal du programme, le journal se relit jusqu'au dernier tick écrit et validé
+ * (les pages projetées sont écrites sur disque par le système ; force() pour les y envoyer immédiatement).
+ *
+ * Un journal qui s'ouvre sur un répertoire existant scelle les segments présents et continue
+ * après le dernier.
+ * Relecture : JournalReader.
+ *
+ * Si le segment suivant n'a pas pu être créé (disque plein, répertoire supprimé...), le journal
+ * se désactive : l'erreur est confiée à setErrorHandler() (par défaut : java.util.logging),
+ * les ticks déjà écrits restent lisibles et les événements suivants sont ignorés.
+ * announce() n'est jamais interrompu par le journal.
+ *
+ * Exemple :
+ * EventJournal journal = new EventJournal(Paths.get("journal"));
+ * journal.attach(Announcer.shared());
+ * ... boucle de simulation : déplacements, synchronisations, puis journal.commit();
+ */
+public final class EventJournal implements AutoCloseable {
+	/** Taille par défaut d'un segment : 64 Mo (environ 8 millions de déplacements) */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+	/** Nombre d'événements d'un lot */
+	static final int CHUNK_RECORDS = 16384;
+	/** Nombre maximal de lots en attente d'écriture (un million d'événements) avant que la simulation n'attende */
+	static final int MAX_CHUNKS = 64;
+
+	private final Path directory;
+	private final int segmentSize;
+
+	// Côté simulation (protégé par this)
+	/** Lot en cours de remplissage */
+	private Chunk open;
+	private int allocatedChunks;
+	private boolean closed;
+	private long events;
+	private long commits;
+	private long waits;
+	/** Lots pleins du tick en cours, confiés ensemble au thread d'écriture par commit() */
+	private final ArrayDeque<Chunk> filled = new ArrayDeque<>();
+	/** Lots confiés au thread d'écriture */
+	private long submitted;
+
+	/** Lots à écrire, dans l'ordre (STOP : fin du thread d'écriture) */
+	private final ArrayBlockingQueue<Chunk> pending = new ArrayBlockingQueue<>(MAX_CHUNKS + 1);
+	/** Lots écrits, à réutiliser */
+	private final ArrayBlockingQueue<Chunk> free = new ArrayBlockingQueue<>(MAX_CHUNKS);
+	private final Thread writer;
+
+	// Côté écriture (thread d'écriture ; segmentLock pour force())
+	private final Object segmentLock = new Object();
+	private Segment current;
+	private int nextIndex;
+	private volatile int segments = 1;
+	/** Lots traités par le thread d'écriture (attendu par flush(), sous progress) */
+	private long written;
+	private final Object progress = new Object();
+
+	/** Erreur qui a désactivé le journal, ou null */
+	private volatile RuntimeException failure;
+	private volatile Consumer<? super RuntimeException> errorHandler = EventJournal::log;
+
+	/**
+	 * @param directory Répertoire des segments (créé si besoin)
+	 */
+	public EventJournal(Path directory) throws IOException {
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * @param directory Répertoire des segments (créé si besoin)
+	 * @param segmentSize Taille de chaque fichier segment, en octets
+	 */
+	public EventJournal(Path directory, int segmentSize) throws IOException {
+		if (segmentSize < Segment.HEADER_SIZE + EventCodec.MAX_RECORD_SIZE) {
+			throw new IllegalArgumentException("segmentSize too small: " + segmentSize);
+		}
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(directory);
+		List<Integer> existing = Segment.indexes(directory);
+		for (int index : existing) {
+			Segment.sealExisting(directory, index);
+		}
+		this.nextIndex = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+		this.current = Segment.create(directory, nextIndex++, segmentSize);
+		this.open = new Chunk();
+		this.allocatedChunks = 1;
+		this.writer = new Thread(this::writeChunks, "journal-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Abonne le journal à tous les événements de l'Announcer. Un événement non horodaté
+	 * (voir AbstractEvent.stamp()) est daté par le tick courant de l'Announcer.
+	 *
+	 * @param announcer Le bus observé
+	 * @return L'abonnement, dont close() arrête la journalisation
+	 */
+	public Subscription attach(Announcer announcer) {
+		return announcer.subscribe(AbstractEvent.class, e -> {
+			if (EventCodec.supports(e)) {
+				long tick = e.getTick();
+				write(e, (tick >= 0) ? tick : announcer.getTick());
+			}
+		});
+	}
+
+	/**
+	 * Événement reçu de l'Announcer : ignoré si le journal est déjà fermé (arrêt du programme)
+	 * ou désactivé.
+	 */
+	private synchronized void write(AbstractEvent anEvent, long tick) {
+		if (closed || failure != null) return;
+		capture(anEvent, tick);
+	}
+
+	/**
+	 * Écrit un événement dans le journal (visible par les lecteurs après le prochain commit(),
+	 * une fois écrit par le thread d'écriture : voir flush()).
+	 *
+	 * @param anEvent L'événement, de l'un des types encodés par EventCodec
+	 * @param tick Tick enregistré avec l'événement
+	 * @throws IllegalArgumentException Si le type d'événement n'est pas encodable
+	 * @throws IllegalStateException Si le journal est fermé ou désactivé (voir getFailure())
+	 */
+	public synchronized void append(AbstractEvent anEvent, long tick) {
+		if (closed) throw new IllegalStateException("journal closed");
+		RuntimeException f = failure;
+		if (f != null) throw new IllegalStateException("journal disabled", f);
+		if (!EventCodec.supports(anEvent)) {
+			throw new IllegalArgumentException("unsupported event: " + anEvent.getClass().getName());
+		}
+		capture(anEvent, tick);
+	}
+
+	/** Doit être appelé sous le verrou du journal, pour un événement encodable */
+	private void capture(AbstractEvent anEvent, long tick) {
+		if (open.size == CHUNK_RECORDS) submit(false); // tick plus grand qu'un lot
+		EventCodec.capture(anEvent, tick, open.records[open.size++]);
+		events++;
+	}
+
+	/**
+	 * Valide les événements écrits depuis le dernier appel (fin de tick) : leur lot est confié
+	 * au thread d'écriture, qui publiera leur fin dans l'en-tête du segment.
+	 */
+	public synchronized void commit() {
+		if (closed || failure != null) return;
+		submit(true);
+		commits++;
+	}
+
+	/**
+	 * Ferme le lot ouvert et en reprend un libre. Doit être appelé sous le verrou du journal.
+	 *
+	 * @param commit true pour valider, après écriture, tout ce qui précède la fin du lot : les lots
+	 *               du tick sont alors confiés au thread d'écriture. Sinon (tick plus grand qu'un lot),
+	 *               le lot attend la fin du tick, pour que le thread d'écriture ne prenne pas
+	 *               le processeur à la simulation au milieu d'un tick.
+	 */
+	private void submit(boolean commit) {
+		Chunk chunk = open;
+		chunk.commit = commit;
+		filled.add(chunk);
+		if (commit) handOff();
+		open = takeFree();
+	}
+
+	/** Confie les lots pleins au thread d'écriture. Doit être appelé sous le verrou du journal. */
+	private void handOff() {
+		for (Chunk chunk; (chunk = filled.poll()) != null; ) {
+			pending.add(chunk); // jamais plein : au plus MAX_CHUNKS lots, plus STOP
+			submitted++;
+		}
+	}
+
+	/**
+	 * @return Un lot vide : écrit et rendu, ou nouveau tant que le retard reste sous MAX_CHUNKS
+	 */
+	private Chunk takeFree() {
+		Chunk chunk = free.poll();
+		if (chunk == null && allocatedChunks < MAX_CHUNKS) {
+			allocatedChunks++;
+			return new Chunk();
+		}
+		if (chunk == null) {
+			// Le thread d'écriture a MAX_CHUNKS lots de retard : le tick attend le disque
+			waits++;
+			handOff(); // tick de plus de MAX_CHUNKS lots : le thread d'écriture doit avancer sans attendre commit()
+			try {
+				chunk = free.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				disable(new IllegalStateException("interrupted while waiting for the journal writer", e));
+				return new Chunk();
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Attend que le thread d'écriture ait écrit tous les ticks validés jusqu'ici
+	 * (ex: avant de relire le journal pendant son écriture).
+	 */
+	public void flush() {
+		long target;
+		synchronized (this) {
+			target = submitted;
+		}
+		synchronized (progress) {
+			while (written < target) {
+				try {
+					progress.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Envoie sur disque les pages du segment courant, après flush() (appel système : hors de la boucle de simulation).
+	 */
+	public void force() {
+		flush();
+		synchronized (segmentLock) {
+			current.buffer.force();
+		}
+	}
+
+	/**
+	 * Valide les derniers événements, attend leur écriture, les envoie sur disque et arrête le thread d'écriture.
+	 * Le segment courant reste non scellé : un journal rouvert sur le répertoire écrit dans un nouveau segment.
+	 * Un journal désactivé ne valide pas les événements du tick interrompu.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) return;
+			if (failure == null) submit(true);
+			closed = true;
+			pending.add(Chunk.STOP);
+		}
+		boolean interrupted = false;
+		while (writer.isAlive()) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+		synchronized (segmentLock) {
+			current.buffer.force();
+		}
+	}
+
+	/**
+	 * Boucle du thread d'écriture : encode chaque lot dans les segments, dans l'ordre.
+	 */
+	private void writeChunks() {
+		while (true) {
+			Chunk chunk;
+			try {
+				chunk = pending.take();
+			} catch (InterruptedException e) {
+				continue; // seul close() arrête ce thread, par STOP
+			}
+			if (chunk == Chunk.STOP) return;
+			if (failure == null) {
+				try {
+					synchronized (segmentLock) {
+						copy(chunk);
+					}
+				} catch (IOException | RuntimeException ex) {
+					disable((ex instanceof IOException) ? new UncheckedIOException((IOException) ex)
+							: (RuntimeException) ex);
+				}
+			}
+			chunk.size = 0;
+			free.add(chunk);
+			synchronized (progress) {
+				written++;
+				progress.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Encode un lot dans le segment courant, en changeant de segment si besoin.
+	 * Doit être appelé par le thread d'écriture, sous segmentLock.
+	 */
+	private void copy(Chunk chunk) throws IOException {
+		EventRecord[] records = chunk.records;
+		for (int i = 0, n = chunk.size; i < n; i++) {
+			if (current.buffer.remaining() < EventCodec.MAX_RECORD_SIZE) roll();
+			EventCodec.encode(records[i], current.buffer);
+		}
+		if (chunk.commit) current.commit();
+	}
+
+	/**
+	 * Scelle le segment plein et passe au suivant (thread d'écriture). En cas d'échec, le segment
+	 * plein reste lisible jusqu'au dernier tick validé.
+	 */
+	private void roll() throws IOException {
+		Segment following = Segment.create(directory, nextIndex++, segmentSize);
+		current.seal();
+		current = following;
+		segments++;
+	}
+
+	private void disable(RuntimeException ex) {
+		failure = ex;
+		errorHandler.accept(ex);
+	}
+
+	/**
+	 * Remplace le traitement de l'erreur qui désactive le journal (appelé une seule fois,
+	 * en général sur le thread d'écriture).
+	 *
+	 * @param handler Reçoit l'erreur (ex: alerte de l'application)
+	 */
+	public void setErrorHandler(Consumer<? super RuntimeException> handler) {
+		this.errorHandler = Objects.requireNonNull(handler);
+	}
+
+	private static void log(RuntimeException ex) {
+		Logger.getLogger(EventJournal.class.getName()).log(Level.WARNING, "Journal disabled", ex);
+	}
+
+	/** @return Erreur qui a désactivé le journal, ou null s'il fonctionne */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+	/** @return Répertoire des segments */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/** @return Nombre d'événements écrits */
+	public synchronized long getEventCount() {
+		return events;
+	}
+
+	/** @return Nombre de validations (ticks) */
+	public synchronized long getCommitCount() {
+		return commits;
+	}
+
+	/** @return Nombre de fois où la simulation a dû attendre le thread d'écriture (retard de MAX_CHUNKS lots) */
+	public synchronized long getWaitCount() {
+		return waits;
+	}
+
+	/** @return Nombre de segments écrits par ce journal (tenu par le thread d'écriture) */
+	public int getSegmentCount() {
+		return segments;
+	}
+
+	/** Lot d'événements relevés d'un tick (ou d'une partie d'un tick trop grand) */
+	private static final class Chunk {
+		/** Marque de fin du thread d'écriture */
+		static final Chunk STOP = new Chunk(0);
+
+		final EventRecord[] records;
+		int size;
+		/** true si la fin du lot termine un tick validé */
+		boolean commit;
+
+		Chunk() {
+			this(CHUNK_RECORDS);
+		}
+
+		private Chunk(int capacity) {
+			records = new EventRecord[capacity];
+			for (int i = 0; i < capacity; i++) {
+				records[i] = new EventRecord();
+			}
+		}
+	}
+}
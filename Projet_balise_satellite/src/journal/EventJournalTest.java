@@ -0,0 +1,148 @@
+package journal;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import announcer.Announcer;
+import announcer.Subscription;
+import balise.Balise;
+import balise.BaliseMoveEvent;
+import balise.SynchronisationStartEvent;
+import codec.EventRecord;
+import satellite.Satellite;
+
+public class EventJournalTest {
+
+	@Test
+	public void testAppendCommitAndRead() throws IOException {
+		Path directory = Files.createTempDirectory("journal-test");
+		try {
+			Announcer announcer = new Announcer();
+			Balise balise = new Balise(100, 400, 1, "Balise_journal", announcer);
+			Satellite satellite = new Satellite(100, 50, 1, "Satellite_journal", announcer);
+			// Segments minuscules : une dizaine d'enregistrements chacun
+			EventJournal journal = new EventJournal(directory, 160);
+			Subscription s = journal.attach(announcer);
+			for (int tick = 0; tick < 3; tick++) {
+				announcer.setTick(tick);
+				for (int x = 0; x < 10; x++) {
+					announcer.announce(new BaliseMoveEvent(balise, tick * 100 + x, 400));
+				}
+				journal.commit();
+			}
+			announcer.announce(new SynchronisationStartEvent(balise, satellite));
+			announcer.announce(new MonEvenement(this)); // non encodable : ignoré
+			assertEquals(31, journal.getEventCount());
+			journal.flush(); // ticks validés écrits par le thread d'écriture
+			assertTrue(journal.getSegmentCount() >= 2);
+
+			// Le dernier événement n'est pas encore validé
+			EventRecord r = new EventRecord();
+			JournalReader reader = new JournalReader(directory);
+			for (int i = 0; i < 30; i++) {
+				assertTrue(reader.next(r));
+				assertEquals(EventRecord.BALISE_MOVE, r.getKind());
+				assertEquals(i / 10, r.getTick());
+				assertEquals((i / 10) * 100 + i % 10, r.getX());
+				assertEquals(balise.getEntityId(), r.getEntityId());
+			}
+			assertFalse(reader.next(r));
+
+			// Validé : le lecteur le retrouve à l'appel suivant
+			journal.commit();
+			journal.flush();
+			assertTrue(reader.next(r));
+			assertEquals(EventRecord.SYNCHRONISATION_START, r.getKind());
+			assertEquals(satellite.getEntityId(), r.getSatelliteId());
+			assertFalse(reader.next(r));
+			s.close();
+			journal.close();
+
+			// Un nouveau journal continue après les segments existants
+			try (EventJournal reopened = new EventJournal(directory, 160)) {
+				reopened.append(new BaliseMoveEvent(balise, 7, 8), 3);
+				reopened.commit();
+			}
+			assertTrue(reader.next(r));
+			assertEquals(3, r.getTick());
+			assertEquals(7, r.getX());
+			assertFalse(reader.next(r));
+			assertEquals(32, reader.getEventCount());
+			reader.close();
+		} finally {
+			try (Stream<Path> files = Files.walk(directory)) {
+				files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	@Test
+	public void testRollFailureDisablesJournal() throws IOException {
+		Path directory = Files.createTempDirectory("journal-test");
+		try {
+			Announcer announcer = new Announcer();
+			Balise balise = new Balise(100, 400, 1, "Balise_journal", announcer);
+			EventJournal journal = new EventJournal(directory, 160);
+			List<RuntimeException> errors = new ArrayList<>();
+			journal.setErrorHandler(errors::add);
+			journal.attach(announcer);
+			// Le troisième segment ne peut pas être créé : un répertoire occupe déjà son nom
+			Files.createDirectory(Segment.path(directory, 2));
+
+			for (int tick = 0; tick < 10; tick++) {
+				announcer.setTick(tick);
+				for (int x = 0; x < 10; x++) {
+					announcer.announce(new BaliseMoveEvent(balise, x, 400)); // ne lève jamais d'exception
+				}
+				journal.commit();
+			}
+			journal.flush(); // l'erreur est signalée par le thread d'écriture
+			assertEquals(1, errors.size());
+			assertTrue(errors.get(0) instanceof UncheckedIOException);
+			assertSame(errors.get(0), journal.getFailure());
+			assertEquals(2, journal.getSegmentCount());
+			long written = journal.getEventCount();
+			announcer.announce(new BaliseMoveEvent(balise, 0, 400));
+			assertEquals(written, journal.getEventCount());
+			try {
+				journal.append(new BaliseMoveEvent(balise, 0, 400), 10);
+				fail();
+			} catch (IllegalStateException expected) {
+				// ok
+			}
+			journal.close();
+
+			// Les ticks validés avant la panne restent lisibles
+			EventRecord r = new EventRecord();
+			long read = 0;
+			try (JournalReader reader = new JournalReader(directory)) {
+				while (reader.next(r)) {
+					read++;
+				}
+			}
+			assertTrue(read > 0 && read % 10 == 0);
+			assertTrue(read < written);
+		} finally {
+			try (Stream<Path> files = Files.walk(directory)) {
+				files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	static class MonEvenement extends announcer.AbstractEvent {
+		private static final long serialVersionUID = 1L;
+
+		MonEvenement(Object source) {
+			super(source);
+		}
+	}
+}
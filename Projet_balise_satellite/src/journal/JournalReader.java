@@ -0,0 +1,82 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import codec.EventCodec;
+import codec.EventRecord;
+
+/**
+ * Relecture séquentielle d'un journal d'événements (voir EventJournal), segment après segment.
+ *
+ * Seuls les événements validés (commit()) sont lus. Le lecteur peut suivre un journal en cours
+ * d'écriture : quand next() retourne false, un appel ultérieur retrouve les ticks validés depuis.
+ *
+ * Exemple :
+ * EventRecord record = new EventRecord();
+ * try (JournalReader reader = new JournalReader(Paths.get("journal"))) {
+ *     while (reader.next(record)) {
+ *         if (record.getKind() == EventRecord.SYNCHRONISATION_START) ...
+ *     }
+ * }
+ */
+public final class JournalReader implements AutoCloseable {
+	private final Path directory;
+	private Segment segment;
+	private int index;
+	private long events;
+
+	/**
+	 * @param directory Répertoire des segments
+	 * @throws IOException Si le premier segment n'est pas un segment de journal
+	 */
+	public JournalReader(Path directory) throws IOException {
+		this.directory = directory;
+		List<Integer> indexes = Segment.indexes(directory);
+		this.index = indexes.isEmpty() ? 0 : indexes.get(0);
+		if (!indexes.isEmpty()) segment = Segment.open(directory, index);
+	}
+
+	/**
+	 * Lit l'événement suivant.
+	 *
+	 * @param into Enregistrement réutilisé, rempli par la lecture
+	 * @return false s'il n'y a pas (encore) d'événement validé à lire
+	 * @throws IOException Si un segment ne peut être ouvert
+	 */
+	public boolean next(EventRecord into) throws IOException {
+		while (true) {
+			if (segment == null) {
+				if (!Files.exists(Segment.path(directory, index))) return false;
+				segment = Segment.open(directory, index);
+			}
+			if (segment.buffer.position() < segment.committed()) {
+				EventCodec.decode(segment.buffer, into);
+				events++;
+				return true;
+			}
+			// Fin du segment : on ne passe au suivant que s'il est scellé (sinon, tick en cours d'écriture)
+			if (!segment.sealed()) return false;
+			if (segment.buffer.position() < segment.committed()) continue; // validés juste avant le scellement
+			segment = null;
+			index++;
+		}
+	}
+
+	/** @return Nombre d'événements lus */
+	public long getEventCount() {
+		return events;
+	}
+
+	/** @return Numéro du segment en cours de lecture */
+	public int getSegmentIndex() {
+		return index;
+	}
+
+	@Override
+	public void close() {
+		segment = null; // la projection est libérée par le ramasse-miettes
+	}
+}
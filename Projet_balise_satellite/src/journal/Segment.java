@@ -0,0 +1,135 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fichier segment du journal, projeté en mémoire.
+ *
+ * En-tête (HEADER_SIZE octets), puis les enregistrements EventCodec les uns à la suite des autres :
+ *
+ *   MAGIC (8 octets) | fin des enregistrements validés (8 octets) | scellé (1 octet) | réservé
+ *
+ * Les enregistrements au-delà de la fin validée (tick en cours, arrêt brutal) sont ignorés à la lecture.
+ * Un segment scellé est complet : le lecteur passe au suivant.
+ */
+final class Segment {
+	/** "BALJRNL1" */
+	static final long MAGIC = 0x42414C4A524E4C31L;
+	static final int COMMITTED_OFFSET = 8;
+	static final int SEALED_OFFSET = 16;
+	static final int HEADER_SIZE = 32;
+
+	private static final String PREFIX = "journal-";
+	private static final String SUFFIX = ".seg";
+	private static final int PAGE_SIZE = 4096;
+
+	final int index;
+	final MappedByteBuffer buffer;
+
+	private Segment(int index, MappedByteBuffer buffer) {
+		this.index = index;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Crée le segment et touche chacune de ses pages, pour que l'écriture des événements
+	 * ne subisse pas les défauts de page (appelé par le thread d'écriture du journal).
+	 */
+	static Segment create(Path directory, int index, int size) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path(directory, index), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // la projection survit au canal
+		}
+		for (int i = HEADER_SIZE; i < size; i += PAGE_SIZE) {
+			buffer.put(i, (byte) 0);
+		}
+		buffer.putLong(0, MAGIC);
+		buffer.putLong(COMMITTED_OFFSET, HEADER_SIZE);
+		buffer.position(HEADER_SIZE);
+		return new Segment(index, buffer);
+	}
+
+	/**
+	 * Ouvre un segment existant en lecture.
+	 *
+	 * @throws IOException Si le fichier n'est pas un segment de journal
+	 */
+	static Segment open(Path directory, int index) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path(directory, index), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+			throw new IOException("not a journal segment: " + path(directory, index));
+		}
+		buffer.position(HEADER_SIZE);
+		return new Segment(index, buffer);
+	}
+
+	/**
+	 * Scelle un segment laissé par un journal précédent (fermé ou arrêté brutalement),
+	 * pour que la lecture continue vers les segments écrits ensuite.
+	 */
+	static void sealExisting(Path directory, int index) throws IOException {
+		try (FileChannel channel = FileChannel.open(path(directory, index), StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			if (channel.size() < HEADER_SIZE) return;
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			if (header.getLong(0) == MAGIC) header.put(SEALED_OFFSET, (byte) 1);
+		}
+	}
+
+	/** Valide les enregistrements écrits jusqu'ici */
+	void commit() {
+		buffer.putLong(COMMITTED_OFFSET, buffer.position());
+	}
+
+	/** Valide tout et marque le segment comme complet */
+	void seal() {
+		commit();
+		buffer.put(SEALED_OFFSET, (byte) 1);
+	}
+
+	/** @return Fin des enregistrements validés (relue à chaque appel : le journal peut être en cours d'écriture) */
+	int committed() {
+		return (int) buffer.getLong(COMMITTED_OFFSET);
+	}
+
+	boolean sealed() {
+		return buffer.get(SEALED_OFFSET) != 0;
+	}
+
+	static Path path(Path directory, int index) {
+		return directory.resolve(String.format("%s%06d%s", PREFIX, index, SUFFIX));
+	}
+
+	/**
+	 * @return Numéros des segments du répertoire, dans l'ordre
+	 */
+	static List<Integer> indexes(Path directory) throws IOException {
+		List<Integer> indexes = new ArrayList<>();
+		if (!Files.isDirectory(directory)) return indexes;
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(p -> p.getFileName().toString())
+				.filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+				.forEach(n -> {
+					try {
+						indexes.add(Integer.parseInt(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+					} catch (NumberFormatException ignored) {
+						// autre fichier
+					}
+				});
+		}
+		indexes.sort(null);
+		return indexes;
+	}
+}
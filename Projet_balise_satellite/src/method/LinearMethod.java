@@ -15,8 +15,9 @@ import balise.Balise;
  * si (bord atteint) alors direction = -direction
  * 
  * @see MovingMethod
+ * @see PredictableMethod
  */
-public class LinearMethod implements MovingMethod {
+public class LinearMethod implements PredictableMethod {
     /** Vitesse de déplacement horizontal en pixels par itération */
     private int gap;
 
@@ -38,4 +39,47 @@ public class LinearMethod implements MovingMethod {
         // Calcul nouvelle position X = position actuelle + (direction * vitesse)
         balise.setX(balise.getX() + balise.getDirection() * gap);
     }
+
+    /**
+     * Applique plusieurs déplacements d'un coup : seuls les rebonds sont calculés un par un.
+     * 
+     * @param balise La balise à déplacer
+     * @param moves Nombre de déplacements
+     */
+    @Override
+    public void advance(Balise balise, long moves) {
+        advanceX(balise, gap, moves);
+    }
+
+    /**
+     * Équivaut à moves appels à balise.setX(balise.getX() + balise.getDirection() * gap)
+     * (rebond sur les bords : position bornée, direction inversée).
+     */
+    static void advanceX(Balise balise, int gap, long moves) {
+        // Position initiale hors de l'écran : le premier déplacement la ramène au bord
+        while (moves > 0 && (balise.getX() < 0 || balise.getX() > Balise.MAX_X)) {
+            balise.setX(balise.getX() + balise.getDirection() * gap);
+            moves--;
+        }
+        int x = balise.getX();
+        int direction = balise.getDirection();
+        int step = direction * gap;
+        if (step == 0) return;
+        while (moves > 0) {
+            // Déplacements sans atteindre le bord vers lequel la balise se dirige
+            long free = (step > 0) ? (Balise.MAX_X - x) / step : x / -step;
+            if (moves <= free) {
+                x += (int) (step * moves);
+                moves = 0;
+            } else {
+                // Le déplacement suivant dépasse le bord : position bornée, direction inversée
+                x = (step > 0) ? Balise.MAX_X : 0;
+                direction = -direction;
+                step = -step;
+                moves -= free + 1;
+            }
+        }
+        balise.setLocation(x, balise.getY());
+        balise.setDirection(direction);
+    }
 }
@@ -0,0 +1,26 @@
+package method;
+
+import balise.Balise;
+
+/**
+ * Stratégie de mouvement dont l'effet de plusieurs déplacements se calcule d'un coup.
+ *
+ * Utilisée par le mode événementiel du moteur (SimulationEngine.fastForward()) : une balise en
+ * COLLECTE n'est mise à jour qu'au moment où elle change d'état, quel que soit le nombre de ticks
+ * écoulés depuis. Une stratégie qui n'implémente pas cette interface reste utilisable dans ce mode :
+ * ses déplacements sont alors rejoués un par un.
+ *
+ * @see MovingMethod
+ */
+public interface PredictableMethod extends MovingMethod {
+    /**
+     * Applique plusieurs déplacements d'un coup.
+     *
+     * <p>Le résultat (position, direction de la balise, état de la stratégie) doit être
+     * exactement celui de moves appels successifs à move(balise).
+     *
+     * @param balise La balise à déplacer
+     * @param moves Nombre de déplacements (0 : aucun effet)
+     */
+    void advance(Balise balise, long moves);
+}
@@ -6,7 +6,7 @@ import balise.Balise;
  * Stratégie de mouvement sinusoïdal pour une balise.
  * La balise se déplace horizontalement (X) en suivant une courbe sinusoïdale verticale (Y).
  */
-public class SinusoidalMethod implements MovingMethod {
+public class SinusoidalMethod implements PredictableMethod {
     private int horizontalStep;  // Déplacement horizontal par itération
     private int amplitude;        // Amplitude de l'oscillation verticale
     private int frequency;        // Fréquence de l'oscillation
@@ -49,6 +49,25 @@ public class SinusoidalMethod implements MovingMethod {
         timeStep++;
     }
 
+    /**
+     * Applique plusieurs déplacements d'un coup : rebonds horizontaux calculés un par un,
+     * Y déduit directement du dernier pas de temps.
+     */
+    @Override
+    public void advance(Balise balise, long moves) {
+        if (moves <= 0) return;
+        LinearMethod.advanceX(balise, horizontalStep, moves);
+        if (initialY == null) {
+            initialY = balise.getY();
+        }
+        // Seul le dernier déplacement compte pour Y (même calcul que move(), même débordement de int)
+        timeStep += (int) (moves - 1);
+        double angle = 2 * Math.PI * frequency * timeStep / 100.0;
+        int yOffset = (int) (amplitude * Math.sin(angle));
+        balise.setY(initialY + yOffset);
+        timeStep++;
+    }
+
     public int getHorizontalStep() {
         return horizontalStep;
     }
@@ -9,7 +9,7 @@ import balise.Balise;
  * 
  * @see MovingMethod
  */
-public class StaticMethod implements MovingMethod {
+public class StaticMethod implements PredictableMethod {
     /** Position X fixe de la balise */
     private int x;
     
@@ -39,5 +39,20 @@ public class StaticMethod implements MovingMethod {
         balise.setX(x);
         balise.setY(y);
     }
-    
+
+    /**
+     * Applique plusieurs déplacements d'un coup : la position est la même après un ou plusieurs appels.
+     * 
+     * @param balise La balise à positionner
+     * @param moves Nombre de déplacements
+     */
+    @Override
+    public void advance(Balise balise, long moves) {
+        if (moves <= 0) return;
+        move(balise);
+        // Position fixe hors de l'écran : chaque setX() borne la position et inverse la direction
+        if (balise.getX() != x && (moves - 1) % 2 == 1) {
+            balise.setDirection(-balise.getDirection());
+        }
+    }
 }
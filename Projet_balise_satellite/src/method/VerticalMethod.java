@@ -6,7 +6,7 @@ import balise.Balise;
  * Stratégie de mouvement vertical pour une balise.
  * La balise se déplace uniquement en profondeur (Y), soit en descendant, soit en remontant.
  */
-public class VerticalMethod implements MovingMethod {
+public class VerticalMethod implements PredictableMethod {
     private int verticalStep;  // Pas du déplacement vertical
     private int maxDepth;      // Profondeur maximale (limite inférieure)
     private int minDepth;      // Profondeur minimale (limite supérieure)
@@ -61,6 +61,39 @@ public class VerticalMethod implements MovingMethod {
         balise.setY(newY);
     }
 
+    /**
+     * Applique plusieurs déplacements d'un coup : seuls les rebonds entre minDepth et maxDepth
+     * sont calculés un par un.
+     * 
+     * <p>Hors de ce cas (pas de rebond, limites hors de l'océan, balise hors des limites),
+     * les déplacements sont rejoués un par un jusqu'à y revenir.
+     */
+    @Override
+    public void advance(Balise balise, long moves) {
+        boolean bounces = changeDirectionAtLimits && verticalStep > 0 && minDepth < maxDepth
+                && minDepth >= Balise.MIN_Y && maxDepth <= Balise.MAX_Y;
+        while (moves > 0 && (!bounces || balise.getY() < minDepth || balise.getY() > maxDepth)) {
+            move(balise);
+            moves--;
+        }
+        if (moves == 0) return;
+        int y = balise.getY();
+        while (moves > 0) {
+            // Déplacements jusqu'à la limite vers laquelle la balise se dirige (atteinte comprise)
+            int distance = (direction > 0) ? maxDepth - y : y - minDepth;
+            long toLimit = Math.max(1, (distance + verticalStep - 1) / verticalStep);
+            if (moves < toLimit) {
+                y += (int) (direction * verticalStep * moves);
+                moves = 0;
+            } else {
+                y = (direction > 0) ? maxDepth : minDepth;
+                direction = -direction;
+                moves -= toLimit;
+            }
+        }
+        balise.setY(y);
+    }
+
     public int getVerticalStep() {
         return verticalStep;
     }
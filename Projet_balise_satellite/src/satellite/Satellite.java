@@ -1,40 +1,56 @@
 package satellite;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import announcer.Announcer;
+import announcer.EventSource;
+import announcer.FrameBatcher;
+import announcer.Subscription;
 
 /**
  * Classe représentant un satellite en orbite.
  * Un satellite se déplace horizontalement et peut se synchroniser avec des balises.
+ * Par défaut, il émet sur le bus partagé (Announcer.shared()) ; registerMoveEvent()
+ * abonne le listener aux seuls mouvements de ce satellite.
  */
-public class Satellite {
+public class Satellite extends EventSource {
+	// Compteur des identifiants numériques attribués aux satellites (0, 1, 2, ...)
+	private static final AtomicInteger NEXT_ENTITY_ID = new AtomicInteger();
+
 	private int x, y;
 	private int direction;
 	private String id;                    // Identifiant unique du satellite
+	private final int entityId;           // Identifiant numérique dense (tableaux, tris, encodage)
 	private boolean disponible;           // Indique si le satellite peut recevoir des données
 	private int dataReceived;             // Quantité de données reçues
 	private int screenWidth;              // Largeur de l'écran pour la boucle
-	Announcer announcer;
+	private final Announcer announcer;    // Bus sur lequel le satellite émet (partagé par défaut)
+	private final SatelliteMoveEvent moveEvent; // Réutilisé à chaque move() : aucune allocation par tick
 	
 	public Satellite(int x, int y, int direction) {
-		this.x = x;
-		this.y = y;
-		this.direction = direction;
-		this.id = "Satellite_" + Math.abs(x + y + System.nanoTime());
-		this.disponible = true;           // Initialement disponible
-		this.dataReceived = 0;
-		this.screenWidth = 800;           // Valeur par défaut
-		this.announcer = new Announcer();
+		this(x, y, direction, "Satellite_" + Math.abs(x + y + System.nanoTime()));
 	}
 	
 	public Satellite(int x, int y, int direction, String id) {
+		this(x, y, direction, id, Announcer.shared());
+	}
+	
+	/**
+	 * Constructeur avec choix du bus d'événements (ex: Announcer dédié à un test).
+	 * 
+	 * @param announcer Bus sur lequel le satellite émet ses événements
+	 */
+	public Satellite(int x, int y, int direction, String id, Announcer announcer) {
 		this.x = x;
 		this.y = y;
 		this.direction = direction;
 		this.id = id;
-		this.disponible = true;
+		this.disponible = true;           // Initialement disponible
 		this.dataReceived = 0;
 		this.screenWidth = 800;           // Valeur par défaut
-		this.announcer = new Announcer();
+		this.entityId = NEXT_ENTITY_ID.getAndIncrement();
+		this.announcer = announcer;
+		this.moveEvent = new SatelliteMoveEvent(this);
 	}
 	
 	/**
@@ -44,6 +60,10 @@ public class Satellite {
 	public void setScreenWidth(int width) {
 		this.screenWidth = width;
 	}
+
+	public int getScreenWidth() {
+		return screenWidth;
+	}
 	
 	/**
 	 * Déplace le satellite horizontalement avec gestion de la boucle infinie (wrap-around).
@@ -52,26 +72,69 @@ public class Satellite {
 	 * @param gap Distance de déplacement en pixels (multipliée par la direction)
 	 */
 	public void move(int gap) {
+		this.x = nextX(gap);
+		
+		// Pattern Observable : Émettre un événement de mouvement
+		// Notifie les vues (SatelliteView) pour qu'elles se rafraîchissent (instance réutilisée)
+		moveEvent.update(x, y);
+		announcer.announce(moveEvent);
+	}
+
+	/**
+	 * Position horizontale qu'aurait le satellite après move(gap), sans le déplacer
+	 * (ex: positions du tick connues avant de déplacer les satellites, voir SimulationEngine).
+	 * 
+	 * @param gap Distance de déplacement en pixels (multipliée par la direction)
+	 * @return La nouvelle position X
+	 */
+	public int nextX(int gap) {
 		// Calculer la nouvelle position : direction = 1 (droite) ou -1 (gauche)
-		this.x = this.x + (direction * gap);
+		int next = this.x + (direction * gap);
 		
 		// Gestion du wrap-around : créer un effet de boucle infinie
 		// Si le satellite sort à droite → réapparaît à gauche
-		if (this.x > screenWidth) {
-			this.x = 0;
+		if (next > screenWidth) {
+			return 0;
 		} 
 		// Si le satellite sort à gauche → réapparaît à droite
-		else if (this.x < 0) {
-			this.x = screenWidth;
+		if (next < 0) {
+			return screenWidth;
 		}
-		
-		// Pattern Observable : Émettre un événement de mouvement
-		// Notifie les vues (SatelliteView) pour qu'elles se rafraîchissent
-		announcer.announce(new SatelliteMoveEvent(this));
+		return next;
+	}
+
+	public Subscription registerMoveEvent(Object o) {
+		return this.announcer.register(o, SatelliteMoveEvent.class, this);
+	}
+
+	/**
+	 * Enregistre une vue pour les mouvements du satellite, livrés par lots sur le thread
+	 * de l'interface (une fois par image, voir Announcer.registerOnFrame()).
+	 * 
+	 * @param o La vue (doit implémenter SatelliteListener)
+	 * @param frames Le regroupement par image de la fenêtre
+	 * @return L'abonnement, dont close() désabonne la vue
+	 */
+	public Subscription registerMoveEvent(Object o, FrameBatcher frames) {
+		return this.announcer.registerOnFrame(o, SatelliteMoveEvent.class, this, frames);
+	}
+
+	/**
+	 * Enregistre un listener de mouvement par référence faible :
+	 * le satellite ne l'empêche pas d'être libéré (ex: SatelliteView retirée de l'affichage).
+	 * 
+	 * @param o L'objet listener (doit implémenter SatelliteListener)
+	 * @return L'abonnement, dont close() désabonne le listener
+	 */
+	public Subscription registerWeakMoveEvent(Object o) {
+		return this.announcer.registerWeak(o, SatelliteMoveEvent.class, this);
 	}
 
-	public void registerMoveEvent(Object o) {
-		this.announcer.register(o, SatelliteMoveEvent.class);
+	/**
+	 * @return Le bus sur lequel le satellite émet (pour s'abonner à tous les satellites en une fois)
+	 */
+	public Announcer getAnnouncer() {
+		return announcer;
 	}
 	
 	/**
@@ -132,6 +195,14 @@ public class Satellite {
 		this.id = id;
 	}
 
+	/**
+	 * @return Identifiant numérique unique du satellite, attribué à la création (ordre croissant)
+	 */
+	@Override
+	public int getEntityId() {
+		return entityId;
+	}
+
 	public boolean isDisponible() {
 		return disponible;
 	}
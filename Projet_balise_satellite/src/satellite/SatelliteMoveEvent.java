@@ -1,23 +1,101 @@
 package satellite;
 
 import announcer.AbstractEvent;
+import announcer.Conflatable;
+import announcer.LocatedEvent;
 
 /**
  * Événement déclenché lorsqu'un satellite se déplace.
  * Cet événement est émis à chaque itération de la boucle d'animation (30ms)
  * pour notifier les observateurs (notamment SatelliteView) du changement de position.
+ * 
+ * Comme pour BaliseMoveEvent, chaque Satellite réutilise la même instance à chaque tick :
+ * l'événement n'est valide que pendant onSatelliteMove(), utiliser {@link #copy()} pour le conserver.
  */
-public class SatelliteMoveEvent extends AbstractEvent{
+public class SatelliteMoveEvent extends AbstractEvent implements LocatedEvent, Conflatable {
 
 	private static final long serialVersionUID = 1L;
 	
+	/** Position du satellite au moment de l'émission */
+	private int x, y;
+	
 	/**
 	 * Constructeur créant un événement de mouvement de satellite.
+	 * La position est initialisée à partir du satellite source.
 	 * 
 	 * @param source Le satellite qui s'est déplacé
 	 */
 	public SatelliteMoveEvent(Object source) {
 		super(source);
+		if (source instanceof Satellite) {
+			Satellite satellite = (Satellite) source;
+			this.x = satellite.getX();
+			this.y = satellite.getY();
+		}
+	}
+
+	/**
+	 * Constructeur avec une position explicite (ex: événement relu d'un journal, voir codec.EventRecord).
+	 * 
+	 * @param source Le satellite qui s'est déplacé
+	 * @param x Position X au moment de l'émission
+	 * @param y Position Y au moment de l'émission
+	 */
+	public SatelliteMoveEvent(Object source, int x, int y) {
+		super(source);
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Met à jour la position transportée avant une nouvelle émission (réutilisation de l'instance).
+	 */
+	void update(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Crée une copie détachée de l'événement, qui ne sera plus modifiée par le satellite.
+	 * 
+	 * @return Une nouvelle instance avec la même source et la même position
+	 */
+	@Override
+	public SatelliteMoveEvent copy() {
+		SatelliteMoveEvent copy = new SatelliteMoveEvent(getSource(), x, y);
+		copy.stampFrom(this);
+		return copy;
+	}
+
+	@Override
+	public boolean copyInto(AbstractEvent copy) {
+		if (getClass() != SatelliteMoveEvent.class || copy.getClass() != SatelliteMoveEvent.class) return false; // sous-classe : autres champs
+		SatelliteMoveEvent target = (SatelliteMoveEvent) copy;
+		target.update(x, y);
+		target.stampFrom(this);
+		return true;
+	}
+
+	/**
+	 * L'instance est réutilisée par sa source : une livraison différée reçoit une copie.
+	 */
+	@Override
+	public SatelliteMoveEvent detach() {
+		return copy();
+	}
+
+	public Satellite getSatellite() {
+		return (Satellite) getSource();
+	}
+
+	@Override
+	public int getX() {
+		return x;
+	}
+
+	@Override
+	public int getY() {
+		return y;
 	}
 
 	/**
@@ -27,6 +105,8 @@ public class SatelliteMoveEvent extends AbstractEvent{
 	 */
 	@Override
 	public void sentTo(Object target) {
-		((SatelliteListener) target).onSatelliteMove(this);
+		if (target instanceof SatelliteListener) {
+			((SatelliteListener) target).onSatelliteMove(this);
+		}
 	}
 }
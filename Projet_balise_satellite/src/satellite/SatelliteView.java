@@ -1,5 +1,6 @@
 package satellite;
 
+import java.awt.Graphics;
 import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
@@ -8,6 +9,7 @@ import javax.imageio.ImageIO;
 import balise.SynchronisationEndEvent;
 import balise.SynchronisationListener;
 import balise.SynchronisationStartEvent;
+import announcer.PaintLatency;
 import src.nicellipse.component.NiImage;
 
 /**
@@ -32,6 +34,9 @@ public class SatelliteView extends NiImage implements SatelliteListener, Synchro
 	private static final int ICON_WIDTH = 45;
 	private static final int ICON_HEIGHT = 45;
 
+	// Retard de la vue sur le modèle (-Dannouncer.latency=true)
+	private final PaintLatency latency = new PaintLatency("SatelliteView");
+
 	public Satellite getSatellite() {
 		return this.satellite;
 	}
@@ -83,12 +88,13 @@ public class SatelliteView extends NiImage implements SatelliteListener, Synchro
 	 */
 	@Override
 	public void onSatelliteMove(SatelliteMoveEvent event) {
-		Satellite source = (Satellite) event.getSource();
-		int x = source.getX();
-		int y = source.getY();
+		// Position transportée par l'événement (instantané pris lors de l'émission)
+		int x = event.getX();
+		int y = event.getY();
+		latency.delivered(event);
 		// Mettre à jour la position de l'image
 		this.setBounds(x, y, ICON_WIDTH, ICON_HEIGHT);
-		this.revalidate();
+		// Parent sans layout manager : setBounds() suffit, pas de revalidate() (mise en page)
 		this.repaint();
 	}
 
@@ -113,5 +119,15 @@ public class SatelliteView extends NiImage implements SatelliteListener, Synchro
 	public void onSynchronisationEnd(SynchronisationEndEvent event) {
 		System.out.println(" Vue Satellite: " + satellite.getId() + " termine la synchronisation");
 	}
-}
 
+	/**
+	 * Dessine le satellite, puis enregistre le retard de l'affichage (voir PaintLatency).
+	 * 
+	 * @param g Le contexte graphique
+	 */
+	@Override
+	public void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		latency.painted();
+	}
+}
@@ -0,0 +1,385 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import balise.Balise;
+import balise.BaliseState;
+import method.MovingMethod;
+import method.PredictableMethod;
+import satellite.Satellite;
+
+/**
+ * Mode événementiel du moteur (SimulationEngine.fastForward()) : au lieu de déplacer chaque balise à
+ * chaque tick, on calcule le tick de son prochain changement d'état et on saute directement d'une
+ * échéance à la suivante (TimingWheel).
+ *
+ * Échéances d'une balise, d'après sa vitesse de la phase en cours :
+ * - COLLECTE : mémoire pleine (collectSpeed par tick) -> REMONTEE
+ * - REMONTEE : arrivée à la surface (riseSpeed par tick) -> attente d'un satellite
+ * - SYNCHRONISATION : mémoire vide (transferSpeed par tick) -> DESCENTE, satellite libéré
+ * - DESCENTE : profondeur initiale atteinte (descentSpeed par tick) -> COLLECTE
+ * Échéance d'un satellite libre : prochain passage au-dessus d'une balise en attente (Orbit).
+ *
+ * Entre deux échéances, une balise n'est pas touchée : elle est mise à jour (position, mémoire,
+ * données transmises) d'un seul coup juste avant son échéance, puis son tick d'échéance est exécuté
+ * par Balise.move() et Balise.trySynchronize() comme en mode tick par tick. Le résultat est identique,
+ * y compris l'ordre des synchronisations au sein d'un tick (balises puis satellites dans l'ordre
+ * d'ajout). Seuls les BaliseMoveEvent, SatelliteMoveEvent et FleetMoveEvent des ticks sautés ne
+ * sont pas émis.
+ */
+final class FastForward {
+	/** Ticks suivis pas à pas avant de chercher le prochain passage abscisse par abscisse */
+	private static final int SCAN_TICKS = 32;
+
+	private final SimulationEngine engine;
+	private final List<Balise> balises;
+	private final List<Satellite> satellites;
+	private final Map<Satellite, Integer> satelliteIndex = new IdentityHashMap<>();
+	private final Orbit[] orbits;
+	private final TimingWheel wheel;
+	/** Identifiant dans l'échéancier du satellite j : satelliteIds + j */
+	private final int satelliteIds;
+
+	/** Tick jusqu'auquel chaque balise est à jour */
+	private final long[] anchor;
+
+	/** Balises en attente à la surface, chaînées par abscisse (cellule x - xOrigin) */
+	private int xOrigin;
+	private int[] waitingHeads;
+	private final int[] waitingNext, waitingPrev;
+	private final boolean[] waiting;
+	private int waitingCount;
+
+	// Tampons d'un tick
+	private final int[] due;
+	private int dueCount;
+	private final int[] arrivals;
+	private int arrivalCount;
+	private final boolean[] satelliteDue;
+	private final int[] candidates;
+	private final boolean[] candidate;
+
+	FastForward(SimulationEngine engine) {
+		this.engine = engine;
+		this.balises = engine.getBalises();
+		this.satellites = engine.getSatellites();
+		int n = balises.size(), s = satellites.size();
+		long now = engine.getTick();
+		this.satelliteIds = n;
+		this.wheel = new TimingWheel(n + s, now);
+		this.orbits = new Orbit[s];
+		this.anchor = new long[n];
+		this.waitingNext = new int[n];
+		this.waitingPrev = new int[n];
+		this.waiting = new boolean[n];
+		this.due = new int[n];
+		this.arrivals = new int[n];
+		this.candidates = new int[n];
+		this.candidate = new boolean[n];
+		this.satelliteDue = new boolean[s];
+
+		int minX = 0, maxX = Balise.MAX_X;
+		for (Balise b : balises) {
+			minX = Math.min(minX, b.getX());
+			maxX = Math.max(maxX, b.getX());
+		}
+		xOrigin = minX;
+		waitingHeads = new int[maxX - minX + 1];
+		Arrays.fill(waitingHeads, -1);
+
+		for (int j = 0; j < s; j++) {
+			satelliteIndex.put(satellites.get(j), j);
+			orbits[j] = new Orbit(satellites.get(j), engine.getSatelliteSpeed(j), now);
+		}
+		for (int i = 0; i < n; i++) {
+			anchor[i] = now;
+			Balise b = balises.get(i);
+			if (b.getState() == BaliseState.REMONTEE && b.getY() == Balise.MIN_Y) {
+				// Déjà à la surface : la synchronisation de ce tick a déjà eu lieu
+				addWaiting(i);
+			} else {
+				scheduleNext(i, now);
+			}
+		}
+		for (int j = 0; j < s; j++) {
+			if (satellites.get(j).isDisponible()) schedulePass(j, now + 1);
+		}
+	}
+
+	/**
+	 * Exécute les ticks jusqu'à end, puis met à jour toutes les entités.
+	 */
+	void run(long end) {
+		long tick;
+		while ((tick = wheel.nextTick(end)) != TimingWheel.NONE) {
+			runTick(tick);
+		}
+		for (int i = 0; i < balises.size(); i++) {
+			catchUp(i, end);
+		}
+		for (int j = 0; j < satellites.size(); j++) {
+			satellites.get(j).setX(orbits[j].x(end));
+		}
+		engine.getFleet().skipTo(end);
+	}
+
+	private void runTick(long tick) {
+		// Horodatage des événements comme en mode tick par tick (getTick() pendant le tick = tick - 1)
+		engine.getFleet().skipTo(tick - 1);
+		dueCount = 0;
+		arrivalCount = 0;
+		boolean synchronise = false;
+		for (int id = wheel.poll(); id >= 0; id = wheel.poll()) {
+			if (id < satelliteIds) {
+				due[dueCount++] = id;
+			} else {
+				satelliteDue[id - satelliteIds] = true;
+				synchronise = true;
+			}
+		}
+
+		// 1. Déplacements : uniquement les balises dont la phase se termine, dans l'ordre d'ajout
+		Arrays.sort(due, 0, dueCount);
+		for (int d = 0; d < dueCount; d++) {
+			int i = due[d];
+			Balise balise = balises.get(i);
+			if (balise.getState() == BaliseState.REMONTEE) {
+				// Arrivée à la surface
+				catchUp(i, tick);
+				addWaiting(i);
+				arrivals[arrivalCount++] = i;
+				synchronise = true;
+				continue;
+			}
+			Satellite satellite = balise.getCurrentSatellite();
+			catchUp(i, tick - 1);
+			balise.move();
+			anchor[i] = tick;
+			if (satellite != null && balise.getCurrentSatellite() == null) {
+				// Fin de transfert : le satellite est de nouveau libre pour la synchronisation de ce tick
+				satelliteDue[satelliteIndex.get(satellite)] = true;
+				synchronise = true;
+			}
+			if (balise.getState() == BaliseState.REMONTEE && balise.getY() == Balise.MIN_Y) {
+				addWaiting(i);
+				arrivals[arrivalCount++] = i;
+				synchronise = true;
+			} else {
+				scheduleNext(i, tick);
+			}
+		}
+
+		// 2. Satellites : positions du tick (trySynchronize() les lit)
+		for (int j = 0; j < satellites.size(); j++) {
+			satellites.get(j).setX(orbits[j].x(tick));
+		}
+
+		// 3. Synchronisations, puis prochains passages des satellites restés libres
+		if (!synchronise) return;
+		synchronise(tick);
+		for (int j = 0; j < satellites.size(); j++) {
+			if (!satellites.get(j).isDisponible()) {
+				wheel.cancel(satelliteIds + j);
+			} else if (satelliteDue[j]) {
+				schedulePass(j, tick + 1);
+			} else {
+				for (int a = 0; a < arrivalCount; a++) {
+					int i = arrivals[a];
+					if (waiting[i]) schedulePassOver(j, balises.get(i).getX(), tick + 1);
+				}
+			}
+			satelliteDue[j] = false;
+		}
+	}
+
+	/**
+	 * Phase de synchronisation d'un tick : seules les balises en attente sous un satellite libre
+	 * peuvent se synchroniser, essayées dans l'ordre d'ajout comme dans SimulationEngine.
+	 */
+	private void synchronise(long tick) {
+		int count = 0;
+		for (int j = 0; j < satellites.size(); j++) {
+			if (!satellites.get(j).isDisponible()) continue;
+			int x = orbits[j].x(tick);
+			int from = Math.max(x - Balise.SYNC_TOLERANCE - xOrigin, 0);
+			int to = Math.min(x + Balise.SYNC_TOLERANCE - xOrigin, waitingHeads.length - 1);
+			for (int cell = from; cell <= to; cell++) {
+				for (int i = waitingHeads[cell]; i >= 0; i = waitingNext[i]) {
+					if (!candidate[i]) {
+						candidate[i] = true;
+						candidates[count++] = i;
+					}
+				}
+			}
+		}
+		Arrays.sort(candidates, 0, count);
+		for (int c = 0; c < count; c++) {
+			int i = candidates[c];
+			candidate[i] = false;
+			Balise balise = balises.get(i);
+			for (int j = 0; j < satellites.size(); j++) {
+				if (balise.trySynchronize(satellites.get(j))) {
+					engine.countSynchronisation();
+					removeWaiting(i);
+					// En attente, la balise n'a pas changé : elle est à jour
+					anchor[i] = tick;
+					scheduleNext(i, tick);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Programme la prochaine échéance d'une balise à jour au tick donné (déplacement du tick compris).
+	 */
+	private void scheduleNext(int i, long tick) {
+		Balise b = balises.get(i);
+		long next;
+		switch (b.getState()) {
+		case COLLECTE:
+			int missing = b.getMaxMemory() - b.getMemory();
+			next = tick + ((missing <= 0) ? 1 : ceilDiv(missing, b.getCollectSpeed()));
+			break;
+		case REMONTEE:
+			int height = b.getY() - Balise.MIN_Y;
+			if (height <= 0) {
+				next = tick + 1;
+			} else {
+				// La remontée peut dépasser la surface : la balise y est ramenée au déplacement suivant
+				long moves = ceilDiv(height, b.getRiseSpeed());
+				next = tick + moves + ((height % b.getRiseSpeed() == 0) ? 0 : 1);
+			}
+			break;
+		case SYNCHRONISATION:
+			// Mémoire vide : transfert jamais terminé (comme en mode tick par tick)
+			if (b.getMemory() <= 0) return;
+			next = tick + ceilDiv(b.getMemory(), b.getTransferSpeed());
+			break;
+		default:
+			int depth = b.getInitialY() - b.getY();
+			next = tick + ((depth <= 0) ? 1 : ceilDiv(depth, b.getDescentSpeed()));
+			break;
+		}
+		wheel.schedule(i, next);
+	}
+
+	/**
+	 * Met une balise à jour au tick donné, sans changement d'état (l'échéance n'est pas encore atteinte).
+	 */
+	private void catchUp(int i, long tick) {
+		long moves = tick - anchor[i];
+		if (moves <= 0) return;
+		anchor[i] = tick;
+		Balise b = balises.get(i);
+		switch (b.getState()) {
+		case COLLECTE:
+			MovingMethod method = b.getMovingMethod();
+			if (method instanceof PredictableMethod) {
+				((PredictableMethod) method).advance(b, moves);
+			} else if (method != null) {
+				for (long m = 0; m < moves; m++) {
+					method.move(b);
+				}
+			}
+			b.setMemory((int) (b.getMemory() + moves * b.getCollectSpeed()));
+			break;
+		case REMONTEE:
+			int height = b.getY() - Balise.MIN_Y;
+			long toSurface = (height <= 0) ? 0 : ceilDiv(height, b.getRiseSpeed());
+			int y = (moves > toSurface) ? Balise.MIN_Y : (int) (b.getY() - moves * b.getRiseSpeed());
+			b.setLocation(b.getX(), y);
+			break;
+		case SYNCHRONISATION:
+			if (b.getMemory() <= 0) break;
+			int amount = (int) (moves * b.getTransferSpeed());
+			b.setMemory(b.getMemory() - amount);
+			b.getCurrentSatellite().receiveData(amount);
+			break;
+		default:
+			b.setLocation(b.getX(), (int) (b.getY() + moves * b.getDescentSpeed()));
+			break;
+		}
+	}
+
+	/** Programme le prochain passage d'un satellite libre au-dessus d'une balise en attente. */
+	private void schedulePass(int j, long from) {
+		wheel.cancel(satelliteIds + j);
+		if (waitingCount == 0) return;
+		Orbit orbit = orbits[j];
+		// Balises nombreuses : le satellite passe vite au-dessus de l'une d'elles, on suit sa route
+		for (long tick = from; tick < from + SCAN_TICKS; tick++) {
+			int x = orbit.x(tick);
+			int lo = Math.max(x - Balise.SYNC_TOLERANCE - xOrigin, 0);
+			int hi = Math.min(x + Balise.SYNC_TOLERANCE - xOrigin, waitingHeads.length - 1);
+			for (int cell = lo; cell <= hi; cell++) {
+				if (waitingHeads[cell] >= 0) {
+					wheel.schedule(satelliteIds + j, tick);
+					return;
+				}
+			}
+		}
+		// Sinon, premier passage au-dessus de chaque abscisse occupée
+		long best = Long.MAX_VALUE;
+		for (int cell = 0; cell < waitingHeads.length; cell++) {
+			if (waitingHeads[cell] < 0) continue;
+			int x = cell + xOrigin;
+			best = Math.min(best, orbit.nextPass(from, x - Balise.SYNC_TOLERANCE, x + Balise.SYNC_TOLERANCE));
+		}
+		if (best != Long.MAX_VALUE) wheel.schedule(satelliteIds + j, best);
+	}
+
+	/** Avance le prochain passage d'un satellite libre si une nouvelle balise est sur sa route plus tôt. */
+	private void schedulePassOver(int j, int x, long from) {
+		long pass = orbits[j].nextPass(from, x - Balise.SYNC_TOLERANCE, x + Balise.SYNC_TOLERANCE);
+		if (pass == Long.MAX_VALUE) return;
+		long scheduled = wheel.scheduledTick(satelliteIds + j);
+		if (scheduled == TimingWheel.NONE || pass < scheduled) wheel.schedule(satelliteIds + j, pass);
+	}
+
+	private void addWaiting(int i) {
+		int cell = cell(balises.get(i).getX());
+		int head = waitingHeads[cell];
+		waitingNext[i] = head;
+		waitingPrev[i] = -1;
+		if (head >= 0) waitingPrev[head] = i;
+		waitingHeads[cell] = i;
+		waiting[i] = true;
+		waitingCount++;
+	}
+
+	private void removeWaiting(int i) {
+		if (waitingPrev[i] >= 0) {
+			waitingNext[waitingPrev[i]] = waitingNext[i];
+		} else {
+			waitingHeads[cell(balises.get(i).getX())] = waitingNext[i];
+		}
+		if (waitingNext[i] >= 0) waitingPrev[waitingNext[i]] = waitingPrev[i];
+		waiting[i] = false;
+		waitingCount--;
+	}
+
+	/** Cellule d'une abscisse, en agrandissant la table si une stratégie a placé la balise hors de l'écran */
+	private int cell(int x) {
+		if (x < xOrigin) {
+			int shift = xOrigin - x;
+			int[] heads = new int[waitingHeads.length + shift];
+			Arrays.fill(heads, 0, shift, -1);
+			System.arraycopy(waitingHeads, 0, heads, shift, waitingHeads.length);
+			waitingHeads = heads;
+			xOrigin = x;
+		} else if (x - xOrigin >= waitingHeads.length) {
+			int length = waitingHeads.length;
+			waitingHeads = Arrays.copyOf(waitingHeads, x - xOrigin + 1);
+			Arrays.fill(waitingHeads, length, waitingHeads.length, -1);
+		}
+		return x - xOrigin;
+	}
+
+	private static long ceilDiv(long a, long b) {
+		return (a + b - 1) / b;
+	}
+}
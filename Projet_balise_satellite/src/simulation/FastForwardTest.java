@@ -0,0 +1,108 @@
+package simulation;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import announcer.Announcer;
+import balise.Balise;
+import satellite.Satellite;
+
+public class FastForwardTest {
+
+	/** Toutes les stratégies, satellites dans les deux sens dont un parti hors de l'écran */
+	private static final List<String> SCENARIO = Arrays.asList(
+			"seed 11",
+			"satellite 100 50 1 3",
+			"satellite 400 100 -1 2",
+			"satellite 900 150 -1 5",
+			"balise ? ? 1 linear 2 x40",
+			"balise ? ? -1 linear 7 x10",
+			"balise ? 520 0 static x20",
+			"balise 850 520 1 static",
+			"balise ? 480 1 sinusoidal 2 40 2 x20",
+			"balise ? ? 1 vertical 2 450 550 x20",
+			"balise ? ? 1 vertical 3 200 700 x5");
+
+	@Test
+	public void testSameResultAsTickByTick() {
+		Balise.setConsoleTraces(false);
+		try {
+			Scenario scenario = new Scenario(SCENARIO);
+			SimulationEngine ticks = scenario.build(new Announcer());
+			SimulationEngine events = scenario.build(new Announcer());
+
+			ticks.step(20_000);
+			events.fastForward(20_000);
+			assertSameState(ticks, events);
+			assertTrue(events.getSynchronisationCount() > 100);
+
+			// Les deux modes s'enchaînent
+			ticks.step(3_000);
+			events.step(1_000);
+			events.fastForward(1);
+			events.fastForward(1_999);
+			assertSameState(ticks, events);
+		} finally {
+			Balise.setConsoleTraces(true);
+		}
+	}
+
+	private static void assertSameState(SimulationEngine expected, SimulationEngine actual) {
+		assertEquals(expected.getTick(), actual.getTick());
+		assertEquals(expected.getSynchronisationCount(), actual.getSynchronisationCount());
+		for (int i = 0; i < expected.getBalises().size(); i++) {
+			Balise e = expected.getBalises().get(i), a = actual.getBalises().get(i);
+			String id = e.getId();
+			assertEquals(id, e.getState(), a.getState());
+			assertEquals(id, e.getX(), a.getX());
+			assertEquals(id, e.getY(), a.getY());
+			assertEquals(id, e.getDirection(), a.getDirection());
+			assertEquals(id, e.getMemory(), a.getMemory());
+			Satellite es = e.getCurrentSatellite(), as = a.getCurrentSatellite();
+			assertEquals(id, es == null ? null : es.getId(), as == null ? null : as.getId());
+		}
+		for (int j = 0; j < expected.getSatellites().size(); j++) {
+			Satellite e = expected.getSatellites().get(j), a = actual.getSatellites().get(j);
+			assertEquals(e.getId(), e.getX(), a.getX());
+			assertEquals(e.getId(), e.getDataReceived(), a.getDataReceived());
+			assertEquals(e.getId(), e.isDisponible(), a.isDisponible());
+		}
+	}
+
+	@Test
+	public void testTimingWheel() {
+		Random random = new Random(5);
+		int n = 2000;
+		long[] ticks = new long[n];
+		TimingWheel wheel = new TimingWheel(n, 100);
+		for (int id = 0; id < n; id++) {
+			// Échéances proches, lointaines (niveaux supérieurs) et au-delà de 2^32 ticks (débordement)
+			ticks[id] = 100 + ((id % 3 == 0) ? random.nextInt(300) : (id % 3 == 1) ? random.nextInt(1 << 26)
+					: (1L << 33) + random.nextInt(1000));
+			wheel.schedule(id, ticks[id]);
+		}
+		wheel.cancel(7);
+		wheel.schedule(8, 5000);
+		ticks[8] = 5000;
+
+		long last = 100, end = (1L << 33) + 500;
+		int polled = 0;
+		for (long tick = wheel.nextTick(end); tick != TimingWheel.NONE; tick = wheel.nextTick(end)) {
+			assertTrue(tick >= last);
+			last = tick;
+			for (int id = wheel.poll(); id >= 0; id = wheel.poll()) {
+				assertTrue(id != 7);
+				assertEquals(ticks[id], tick);
+				polled++;
+			}
+		}
+		assertEquals(end, wheel.now());
+		long remaining = Arrays.stream(ticks).filter(t -> t > end).count();
+		assertEquals(remaining, wheel.size());
+		assertEquals(n - 1 - remaining, polled);
+	}
+}
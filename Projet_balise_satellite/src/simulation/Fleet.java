@@ -0,0 +1,141 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import announcer.Announcer;
+import announcer.EventSource;
+import announcer.Subscription;
+import balise.Balise;
+import satellite.Satellite;
+
+/**
+ * Ensemble des balises et satellites d'une simulation.
+ * 
+ * À la fin de chaque tick, publishMoves() émet un unique FleetMoveEvent regroupant
+ * les positions de toutes les entités qui ont bougé depuis le tick précédent.
+ * Les événements individuels (BaliseMoveEvent, SatelliteMoveEvent) restent émis
+ * par chaque entité pour les listeners existants.
+ * 
+ * @see FleetMoveEvent
+ */
+public class Fleet extends EventSource {
+	private final List<Balise> balises = new ArrayList<>();
+	private final List<Satellite> satellites = new ArrayList<>();
+	private final Announcer announcer;
+
+	// Événement réutilisé à chaque tick
+	private final FleetMoveEvent moveEvent = new FleetMoveEvent(this);
+
+	// Dernières positions publiées (indexées comme les listes), pour ne publier que ce qui a bougé
+	private int[] lastBaliseX = new int[0], lastBaliseY = new int[0];
+	private int[] lastSatelliteX = new int[0], lastSatelliteY = new int[0];
+	private int publishedBalises, publishedSatellites;
+
+	private long tick;
+
+	/**
+	 * Flotte publiant sur le bus partagé (Announcer.shared()).
+	 */
+	public Fleet() {
+		this(Announcer.shared());
+	}
+
+	/**
+	 * @param announcer Bus sur lequel la flotte publie ses FleetMoveEvent (ex: Announcer dédié à un test)
+	 */
+	public Fleet(Announcer announcer) {
+		this.announcer = announcer;
+	}
+
+	public void addBalise(Balise balise) {
+		balises.add(balise);
+	}
+
+	public void addSatellite(Satellite satellite) {
+		satellites.add(satellite);
+	}
+
+	/** @return Les balises de la flotte (non modifiable) */
+	public List<Balise> getBalises() {
+		return Collections.unmodifiableList(balises);
+	}
+
+	/** @return Les satellites de la flotte (non modifiable) */
+	public List<Satellite> getSatellites() {
+		return Collections.unmodifiableList(satellites);
+	}
+
+	/**
+	 * Enregistre un listener pour le FleetMoveEvent émis à chaque tick.
+	 * 
+	 * @param o L'objet listener (doit implémenter FleetMoveListener)
+	 * @return L'abonnement, dont close() désabonne le listener
+	 */
+	public Subscription registerFleetMoveEvent(Object o) {
+		return announcer.register(o, FleetMoveEvent.class, this);
+	}
+
+	/**
+	 * @return Nombre de FleetMoveEvent publiés (numéro du prochain tick)
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Avance le compteur de ticks sans publier (ticks sautés par SimulationEngine.fastForward()) :
+	 * la publication suivante reprend les positions qui ont changé depuis la dernière.
+	 */
+	void skipTo(long tick) {
+		this.tick = tick;
+		announcer.setTick(tick);
+	}
+
+	/**
+	 * Publie le FleetMoveEvent du tick qui vient de s'écouler, puis passe au tick suivant.
+	 * À appeler une fois par tick, après avoir déplacé toutes les entités.
+	 * Une entité ajoutée depuis le dernier appel est toujours incluse.
+	 */
+	public void publishMoves() {
+		int nb = balises.size();
+		int ns = satellites.size();
+		moveEvent.reset(tick, nb, ns);
+		if (lastBaliseX.length < nb) {
+			lastBaliseX = Arrays.copyOf(lastBaliseX, nb);
+			lastBaliseY = Arrays.copyOf(lastBaliseY, nb);
+		}
+		if (lastSatelliteX.length < ns) {
+			lastSatelliteX = Arrays.copyOf(lastSatelliteX, ns);
+			lastSatelliteY = Arrays.copyOf(lastSatelliteY, ns);
+		}
+
+		for (int i = 0; i < nb; i++) {
+			Balise b = balises.get(i);
+			int x = b.getX(), y = b.getY();
+			if (i >= publishedBalises || x != lastBaliseX[i] || y != lastBaliseY[i]) {
+				moveEvent.addBalise(b.getEntityId(), x, y);
+				lastBaliseX[i] = x;
+				lastBaliseY[i] = y;
+			}
+		}
+		for (int i = 0; i < ns; i++) {
+			Satellite s = satellites.get(i);
+			int x = s.getX(), y = s.getY();
+			if (i >= publishedSatellites || x != lastSatelliteX[i] || y != lastSatelliteY[i]) {
+				moveEvent.addSatellite(s.getEntityId(), x, y);
+				lastSatelliteX[i] = x;
+				lastSatelliteY[i] = y;
+			}
+		}
+		publishedBalises = nb;
+		publishedSatellites = ns;
+		tick++;
+
+		announcer.announce(moveEvent);
+		// Les événements émis à partir d'ici appartiennent au tick suivant (horodatage, voir EventLatency)
+		announcer.setTick(tick);
+	}
+}
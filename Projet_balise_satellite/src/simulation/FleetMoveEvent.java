@@ -0,0 +1,163 @@
+package simulation;
+
+import java.util.Arrays;
+
+import announcer.AbstractEvent;
+
+/**
+ * Événement groupé émis une fois par tick pour toute la flotte.
+ * 
+ * Remplace, pour les consommateurs qui le souhaitent, les N BaliseMoveEvent et M SatelliteMoveEvent
+ * du tick par un seul événement : les identifiants numériques (getEntityId()) et les positions
+ * des entités qui ont bougé sont rangés dans des tableaux primitifs parallèles.
+ * Seules les cases [0, getBaliseCount()[ et [0, getSatelliteCount()[ sont significatives.
+ * 
+ * Comme les événements de mouvement individuels, l'instance et ses tableaux sont réutilisés
+ * à chaque tick par la Fleet : utiliser {@link #copy()} pour conserver un tick.
+ * 
+ * @see FleetMoveListener
+ * @see Fleet
+ */
+public class FleetMoveEvent extends AbstractEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private long tick;
+
+	private int baliseCount;
+	private int[] baliseIds = new int[0];
+	private int[] baliseX = new int[0];
+	private int[] baliseY = new int[0];
+
+	private int satelliteCount;
+	private int[] satelliteIds = new int[0];
+	private int[] satelliteX = new int[0];
+	private int[] satelliteY = new int[0];
+
+	/**
+	 * @param source La flotte émettrice
+	 */
+	public FleetMoveEvent(Object source) {
+		super(source);
+	}
+
+	/**
+	 * Prépare l'événement pour un nouveau tick (les tableaux sont conservés et agrandis si besoin).
+	 */
+	void reset(long tick, int maxBalises, int maxSatellites) {
+		this.tick = tick;
+		this.baliseCount = 0;
+		this.satelliteCount = 0;
+		if (baliseIds.length < maxBalises) {
+			baliseIds = new int[maxBalises];
+			baliseX = new int[maxBalises];
+			baliseY = new int[maxBalises];
+		}
+		if (satelliteIds.length < maxSatellites) {
+			satelliteIds = new int[maxSatellites];
+			satelliteX = new int[maxSatellites];
+			satelliteY = new int[maxSatellites];
+		}
+	}
+
+	void addBalise(int entityId, int x, int y) {
+		baliseIds[baliseCount] = entityId;
+		baliseX[baliseCount] = x;
+		baliseY[baliseCount] = y;
+		baliseCount++;
+	}
+
+	void addSatellite(int entityId, int x, int y) {
+		satelliteIds[satelliteCount] = entityId;
+		satelliteX[satelliteCount] = x;
+		satelliteY[satelliteCount] = y;
+		satelliteCount++;
+	}
+
+	/**
+	 * Crée une copie détachée (tableaux recopiés à la taille utile), non modifiée par les ticks suivants.
+	 * 
+	 * @return Une nouvelle instance indépendante
+	 */
+	public FleetMoveEvent copy() {
+		FleetMoveEvent copy = new FleetMoveEvent(getSource());
+		copy.tick = tick;
+		copy.stampFrom(this);
+		copy.baliseCount = baliseCount;
+		copy.baliseIds = Arrays.copyOf(baliseIds, baliseCount);
+		copy.baliseX = Arrays.copyOf(baliseX, baliseCount);
+		copy.baliseY = Arrays.copyOf(baliseY, baliseCount);
+		copy.satelliteCount = satelliteCount;
+		copy.satelliteIds = Arrays.copyOf(satelliteIds, satelliteCount);
+		copy.satelliteX = Arrays.copyOf(satelliteX, satelliteCount);
+		copy.satelliteY = Arrays.copyOf(satelliteY, satelliteCount);
+		return copy;
+	}
+
+	/**
+	 * L'instance est réutilisée par sa source : une livraison différée reçoit une copie.
+	 */
+	@Override
+	public FleetMoveEvent detach() {
+		return copy();
+	}
+
+	/** @return Numéro du tick de simulation (toujours renseigné, même sans horodatage) */
+	@Override
+	public long getTick() {
+		return tick;
+	}
+
+	/** @return Nombre de balises ayant bougé pendant ce tick */
+	public int getBaliseCount() {
+		return baliseCount;
+	}
+
+	/** @return Identifiants (Balise.getEntityId()) des balises ayant bougé */
+	public int[] getBaliseIds() {
+		return baliseIds;
+	}
+
+	public int[] getBaliseX() {
+		return baliseX;
+	}
+
+	public int[] getBaliseY() {
+		return baliseY;
+	}
+
+	/** @return Nombre de satellites ayant bougé pendant ce tick */
+	public int getSatelliteCount() {
+		return satelliteCount;
+	}
+
+	/** @return Identifiants (Satellite.getEntityId()) des satellites ayant bougé */
+	public int[] getSatelliteIds() {
+		return satelliteIds;
+	}
+
+	public int[] getSatelliteX() {
+		return satelliteX;
+	}
+
+	public int[] getSatelliteY() {
+		return satelliteY;
+	}
+
+	@Override
+	public String toString() {
+		return "FleetMoveEvent [tick: " + tick + ", balises: " + baliseCount + ", satellites: " + satelliteCount + "]";
+	}
+
+	/**
+	 * Transmet l'événement au listener en appelant onFleetMove().
+	 * 
+	 * @param target Le FleetMoveListener à notifier
+	 */
+	@Override
+	public void sentTo(Object target) {
+		if (target instanceof FleetMoveListener) {
+			((FleetMoveListener) target).onFleetMove(this);
+		}
+	}
+}
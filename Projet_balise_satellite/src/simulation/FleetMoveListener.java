@@ -0,0 +1,19 @@
+package simulation;
+
+/**
+ * Interface pour recevoir en un seul appel les mouvements de toute la flotte pendant un tick.
+ * 
+ * Destinée aux consommateurs qui traitent la flotte en bloc (rendu global, statistiques,
+ * export) et pour lesquels un BaliseMoveEvent par entité serait trop coûteux.
+ * 
+ * @see FleetMoveEvent
+ * @see Fleet#publishMoves()
+ */
+public interface FleetMoveListener {
+	/**
+	 * Appelé une fois par tick avec toutes les entités qui ont bougé.
+	 * 
+	 * @param event Événement contenant les identifiants et positions (tableaux primitifs)
+	 */
+	void onFleetMove(FleetMoveEvent event);
+}
@@ -0,0 +1,111 @@
+package simulation;
+
+import java.util.Arrays;
+
+import satellite.Satellite;
+
+/**
+ * Trajectoire d'un satellite en fonction du tick, calculée d'après Satellite.move(speed) :
+ * quelques positions d'approche (position initiale hors de l'écran), puis un tour complet répété
+ * indéfiniment.
+ *
+ * Sur un tour, X varie dans un seul sens : le prochain passage au-dessus d'un intervalle se trouve
+ * par recherche dichotomique.
+ */
+final class Orbit {
+	private final long base;
+	/** Positions aux ticks base, base + 1, ... avant le premier tour */
+	private final int[] prefix;
+	/** Positions d'un tour, répétées ensuite */
+	private final int[] cycle;
+	/** Sens de variation de X (1, -1, ou 0 pour un satellite immobile) */
+	private final int sense;
+
+	/**
+	 * @param satellite Le satellite, à sa position du tick base
+	 * @param speed Son déplacement par tick (SimulationEngine.addSatellite())
+	 * @param base Tick de la position actuelle
+	 */
+	Orbit(Satellite satellite, int speed, long base) {
+		this.base = base;
+		int step = satellite.getDirection() * speed;
+		int width = satellite.getScreenWidth();
+		this.sense = Integer.signum(step);
+		if (step == 0) {
+			prefix = new int[0];
+			cycle = new int[] { satellite.getX() };
+			return;
+		}
+		int[] positions = new int[16];
+		int count = 0;
+		// Indice de la première position après un retour en 0 (ou en width) : le tour commence au second
+		int afterZero = -1, afterWidth = -1;
+		int x = satellite.getX();
+		while (true) {
+			if (count == positions.length) positions = Arrays.copyOf(positions, count * 2);
+			positions[count++] = x;
+			// Même calcul que Satellite.move()
+			x += step;
+			boolean wrapped = x > width || x < 0;
+			if (x > width) {
+				x = 0;
+			} else if (x < 0) {
+				x = width;
+			}
+			if (wrapped) {
+				int seen = (x == 0) ? afterZero : afterWidth;
+				if (seen >= 0) {
+					prefix = Arrays.copyOf(positions, seen);
+					cycle = Arrays.copyOfRange(positions, seen, count);
+					return;
+				}
+				if (x == 0) {
+					afterZero = count;
+				} else {
+					afterWidth = count;
+				}
+			}
+		}
+	}
+
+	/** @return X du satellite au tick donné (au moins base) */
+	int x(long tick) {
+		long k = tick - base;
+		if (k < prefix.length) return prefix[(int) k];
+		return cycle[(int) ((k - prefix.length) % cycle.length)];
+	}
+
+	/**
+	 * @return Premier tick, à partir de from, où X est dans [lo, hi], ou Long.MAX_VALUE si jamais
+	 */
+	long nextPass(long from, int lo, int hi) {
+		long k = from - base;
+		for (; k < prefix.length; k++) {
+			if (prefix[(int) k] >= lo && prefix[(int) k] <= hi) return base + k;
+		}
+		int phase = (int) ((k - prefix.length) % cycle.length);
+		long cycleStart = base + k - phase;
+		int i = firstIn(cycle, phase, lo, hi);
+		if (i >= 0) return cycleStart + i;
+		i = firstIn(cycle, 0, lo, hi);
+		return (i >= 0) ? cycleStart + cycle.length + i : Long.MAX_VALUE;
+	}
+
+	/** @return Premier indice à partir de from dont la valeur est dans [lo, hi] (tableau monotone), ou -1 */
+	private int firstIn(int[] positions, int from, int lo, int hi) {
+		int low = from, high = positions.length;
+		// Premier indice entré dans l'intervalle dans le sens de variation
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			boolean before = (sense >= 0) ? positions[mid] < lo : positions[mid] > hi;
+			if (before) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		if (low == positions.length) return -1;
+		int x = positions[low];
+		return (x >= lo && x <= hi) ? low : -1;
+	}
+}
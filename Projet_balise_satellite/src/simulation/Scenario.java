@@ -0,0 +1,212 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import announcer.Announcer;
+import balise.Balise;
+import method.LinearMethod;
+import method.MovingMethod;
+import method.SinusoidalMethod;
+import method.StaticMethod;
+import method.VerticalMethod;
+import satellite.Satellite;
+
+/**
+ * Description textuelle d'une simulation : balises, satellites et stratégies de mouvement.
+ *
+ * Une définition par ligne ('#' : commentaire) :
+ *
+ *   seed 42                                   graine des caractéristiques et positions aléatoires
+ *   ticks 1000000                             durée de la simulation
+ *   satellite X Y DIRECTION VITESSE [xN]
+ *   balise X Y DIRECTION linear PAS [xN]
+ *   balise X Y DIRECTION static [xN]
+ *   balise X Y DIRECTION sinusoidal PAS AMPLITUDE FREQUENCE [xN]
+ *   balise X Y DIRECTION vertical PAS PROFONDEUR_MIN PROFONDEUR_MAX [xN]
+ *
+ * xN crée N entités identiques ; X ou Y valant '?' sont tirés au hasard (largeur de l'écran,
+ * profondeur de collecte ou altitude d'orbite). Avec la même graine, build() crée toujours la même simulation
+ * (caractéristiques des balises comprises, voir Balise(..., Random)).
+ *
+ * Exemple : 10 000 balises linéaires à des positions aléatoires, 20 satellites
+ *   seed 7
+ *   balise ? ? 1 linear 2 x10000
+ *   satellite ? 80 1 2 x20
+ */
+public class Scenario {
+	/** Bornes des positions aléatoires (voir MainStrategy : océan de 300 à 600) */
+	private static final int SCREEN_WIDTH = 800;
+	private static final int COLLECT_MIN_Y = 420;
+	private static final int COLLECT_MAX_Y = 570;
+	private static final int ORBIT_MIN_Y = 20;
+	private static final int ORBIT_MAX_Y = 200;
+
+	/** Scénario de MainStrategy, chaque balise répétée 250 fois à des positions aléatoires */
+	private static final String[] DEFAULT = {
+		"seed 1",
+		"ticks 100000",
+		"satellite 100 50 1 3",
+		"satellite 400 100 -1 2",
+		"satellite 650 150 1 2",
+		"balise ? 500 1 linear 2 x250",
+		"balise ? 520 0 static x250",
+		"balise ? 480 1 sinusoidal 2 40 2 x250",
+		"balise ? 500 1 vertical 2 450 550 x250",
+	};
+
+	private final List<String[]> definitions = new ArrayList<>();
+	private long seed;
+	private long ticks = 100_000;
+
+	/**
+	 * @param lines Définitions, une par ligne
+	 * @throws IllegalArgumentException Si une ligne est invalide (avec son numéro)
+	 */
+	public Scenario(List<String> lines) {
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i);
+			int comment = line.indexOf('#');
+			if (comment >= 0) line = line.substring(0, comment);
+			line = line.trim();
+			if (line.isEmpty()) continue;
+			try {
+				parse(line.split("\\s+"));
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("line " + (i + 1) + ": " + lines.get(i) + " (" + e.getMessage() + ")", e);
+			}
+		}
+	}
+
+	/**
+	 * @param file Fichier de définitions (UTF-8)
+	 */
+	public static Scenario read(Path file) throws IOException {
+		return new Scenario(Files.readAllLines(file, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return Le scénario de MainStrategy, à l'échelle de 1000 balises
+	 */
+	public static Scenario defaultScenario() {
+		return new Scenario(Arrays.asList(DEFAULT));
+	}
+
+	private void parse(String[] words) {
+		switch (words[0]) {
+		case "seed":
+			seed = Long.parseLong(words[1]);
+			break;
+		case "ticks":
+			ticks = Long.parseLong(words[1]);
+			break;
+		case "satellite":
+			if (words.length < 5) throw new IllegalArgumentException("expected: satellite X Y DIRECTION VITESSE [xN]");
+			count(words, 5);
+			definitions.add(words);
+			break;
+		case "balise":
+			if (words.length < 5) throw new IllegalArgumentException("expected: balise X Y DIRECTION METHODE ...");
+			count(words, methodArity(words[4]) + 5);
+			definitions.add(words);
+			break;
+		default:
+			throw new IllegalArgumentException("unknown definition: " + words[0]);
+		}
+	}
+
+	private static int methodArity(String method) {
+		switch (method) {
+		case "linear":
+			return 1;
+		case "static":
+			return 0;
+		case "sinusoidal":
+		case "vertical":
+			return 3;
+		default:
+			throw new IllegalArgumentException("unknown moving method: " + method);
+		}
+	}
+
+	/** @return Nombre d'entités de la définition (suffixe xN, 1 par défaut) */
+	private static int count(String[] words, int countIndex) {
+		if (words.length <= countIndex) return 1;
+		if (words.length > countIndex + 1 || !words[countIndex].startsWith("x")) {
+			throw new IllegalArgumentException("unexpected: " + words[countIndex]);
+		}
+		return Integer.parseInt(words[countIndex].substring(1));
+	}
+
+	/**
+	 * Crée les entités du scénario dans un nouveau moteur.
+	 *
+	 * @param announcer Bus des entités et du moteur (ex: Announcer dédié, sans abonné)
+	 * @return Le moteur, prêt pour getTicks() ticks
+	 */
+	public SimulationEngine build(Announcer announcer) {
+		Random random = new Random(seed);
+		SimulationEngine engine = new SimulationEngine(announcer);
+		int satellites = 0, balises = 0;
+		for (String[] words : definitions) {
+			boolean satellite = words[0].equals("satellite");
+			int n = satellite ? count(words, 5) : count(words, methodArity(words[4]) + 5);
+			for (int i = 0; i < n; i++) {
+				int x = coordinate(words[1], random, 0, SCREEN_WIDTH);
+				int y = satellite ? coordinate(words[2], random, ORBIT_MIN_Y, ORBIT_MAX_Y)
+						: coordinate(words[2], random, COLLECT_MIN_Y, COLLECT_MAX_Y);
+				int direction = Integer.parseInt(words[3]);
+				if (satellite) {
+					Satellite s = new Satellite(x, y, direction, "Satellite_" + satellites++, announcer);
+					s.setScreenWidth(SCREEN_WIDTH);
+					engine.addSatellite(s, Integer.parseInt(words[4]));
+				} else {
+					Balise b = new Balise(x, y, direction, "Balise_" + balises++, announcer, random);
+					b.setMovingMethod(movingMethod(words, x, y));
+					engine.addBalise(b);
+				}
+			}
+		}
+		return engine;
+	}
+
+	private static int coordinate(String word, Random random, int min, int max) {
+		return word.equals("?") ? min + random.nextInt(max - min) : Integer.parseInt(word);
+	}
+
+	private static MovingMethod movingMethod(String[] words, int x, int y) {
+		switch (words[4]) {
+		case "linear":
+			return new LinearMethod(Integer.parseInt(words[5]));
+		case "static":
+			return new StaticMethod(x, y);
+		case "sinusoidal":
+			return new SinusoidalMethod(Integer.parseInt(words[5]), Integer.parseInt(words[6]), Integer.parseInt(words[7]));
+		default:
+			return new VerticalMethod(Integer.parseInt(words[5]), Integer.parseInt(words[6]), Integer.parseInt(words[7]));
+		}
+	}
+
+	/** @return Graine des tirages aléatoires */
+	public long getSeed() {
+		return seed;
+	}
+
+	/** @return Durée prévue de la simulation, en ticks */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @param ticks Nouvelle durée (ex: fixée en ligne de commande)
+	 */
+	public void setTicks(long ticks) {
+		this.ticks = ticks;
+	}
+}
@@ -0,0 +1,54 @@
+package simulation;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import announcer.Announcer;
+import balise.Balise;
+
+public class ScenarioTest {
+
+	@Test
+	public void testSameSeedSameSimulation() {
+		Balise.setConsoleTraces(false);
+		try {
+			Scenario scenario = new Scenario(Arrays.asList(
+					"# petit scénario",
+					"seed 3",
+					"ticks 2000",
+					"satellite ? 80 1 2 x2",
+					"balise ? ? 1 linear 2 x20   # aléatoires",
+					"balise 400 520 0 static"));
+			assertEquals(3, scenario.getSeed());
+			assertEquals(2000, scenario.getTicks());
+
+			long[] delivered = new long[2];
+			String[] reports = new String[2];
+			for (int run = 0; run < 2; run++) {
+				Announcer announcer = new Announcer();
+				SimulationEngine engine = scenario.build(announcer);
+				assertEquals(21, engine.getBalises().size());
+				assertEquals(2, engine.getSatellites().size());
+				SimulationStats stats = new SimulationStats(engine, announcer);
+				engine.step((int) scenario.getTicks());
+				assertEquals(engine.getSynchronisationCount(), stats.getSynchronisationCount());
+				delivered[run] = stats.getDeliveredData();
+				reports[run] = stats.report();
+				stats.close();
+			}
+			assertTrue(delivered[0] > 0);
+			assertEquals(reports[0], reports[1]);
+
+			try {
+				new Scenario(Arrays.asList("seed 1", "balise 1 2 3 spiral"));
+				fail("unknown moving method");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().startsWith("line 2"));
+			}
+		} finally {
+			Balise.setConsoleTraces(true);
+		}
+	}
+}
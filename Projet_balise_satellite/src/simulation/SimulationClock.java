@@ -0,0 +1,223 @@
+package simulation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Horloge de la simulation à pas fixe : chaque tick du moteur représente toujours la même durée
+ * simulée (getStepNanos()), quelle que soit la durée réelle de son calcul ou de l'affichage.
+ *
+ * Le temps réel écoulé, multiplié par la vitesse (setSpeed()), alimente un accumulateur ; l'horloge
+ * exécute un tick par pas accumulé. Le temps de calcul est donc décompté du temps d'attente, et un
+ * réveil tardif est rattrapé au tick suivant : pas de dérive, contrairement à Thread.sleep(30) après
+ * chaque tick.
+ *
+ * Si la simulation prend du retard (tick plus long que son pas), la politique LagPolicy choisit entre
+ * rattraper les ticks en retard (CATCH_UP) et les abandonner (SKIP).
+ *
+ * L'horloge ne dessine rien : l'affichage suit son propre rythme (ex: javax.swing.Timer à 60 images/s).
+ *
+ * Exemple :
+ * SimulationClock clock = new SimulationClock(engine, 30, TimeUnit.MILLISECONDS, LagPolicy.SKIP);
+ * clock.setSpeed(4);  // 4 fois plus vite
+ * clock.start();
+ */
+public class SimulationClock implements AutoCloseable {
+
+	/**
+	 * Comportement quand la simulation a pris du retard sur l'horloge.
+	 */
+	public enum LagPolicy {
+		/** Exécuter tous les ticks en retard : le temps simulé reste exact, l'affichage saute des étapes */
+		CATCH_UP,
+		/** Abandonner les ticks en retard au-delà de getMaxCatchUpSteps() : la simulation ralentit */
+		SKIP
+	}
+
+	/** Vitesse minimale (setSpeed()) */
+	public static final double MIN_SPEED = 0.1;
+	/** Vitesse sans limite : les ticks s'enchaînent sans attente */
+	public static final double UNBOUNDED = Double.POSITIVE_INFINITY;
+
+	/** Ticks exécutés au plus entre deux vérifications de stop() (retard rattrapé ou vitesse illimitée) */
+	private static final int BATCH_STEPS = 64;
+
+	private final SimulationEngine engine;
+	private final long stepNanos;
+	private final LagPolicy policy;
+	private final int maxCatchUpSteps;
+	private final LongSupplier nanoTime;
+
+	private volatile double speed = 1;
+	private volatile boolean running;
+	private Thread thread;
+
+	/** Temps simulé dû et pas encore exécuté, en nanosecondes */
+	private double accumulator;
+	private long lastNanos;
+	private long skippedSteps;
+
+	/**
+	 * Horloge dont la politique SKIP abandonne les ticks au-delà de 5 ticks de retard ;
+	 * CATCH_UP les rattrape tous (voir LagPolicy).
+	 *
+	 * @param engine Le moteur à cadencer
+	 * @param step Durée simulée d'un tick (ex: 30 ms, le rythme historique de MainStrategy)
+	 * @param unit Unité de step
+	 * @param policy Comportement en cas de retard
+	 */
+	public SimulationClock(SimulationEngine engine, long step, TimeUnit unit, LagPolicy policy) {
+		this(engine, step, unit, policy, 5, System::nanoTime);
+	}
+
+	/**
+	 * @param engine Le moteur à cadencer
+	 * @param step Durée simulée d'un tick
+	 * @param unit Unité de step
+	 * @param policy Comportement en cas de retard
+	 * @param maxCatchUpSteps Retard conservé au plus par SKIP, en ticks (les suivants sont abandonnés) ;
+	 *        ignoré par CATCH_UP, qui rattrape tout le retard par lots de BATCH_STEPS ticks
+	 * @param nanoTime Source du temps réel (System::nanoTime, ou horloge simulée pour les tests)
+	 */
+	public SimulationClock(SimulationEngine engine, long step, TimeUnit unit, LagPolicy policy, int maxCatchUpSteps,
+			LongSupplier nanoTime) {
+		if (step <= 0) throw new IllegalArgumentException("step must be positive: " + step);
+		if (maxCatchUpSteps < 1) throw new IllegalArgumentException("maxCatchUpSteps must be >= 1: " + maxCatchUpSteps);
+		this.engine = engine;
+		this.stepNanos = unit.toNanos(step);
+		this.policy = policy;
+		this.maxCatchUpSteps = maxCatchUpSteps;
+		this.nanoTime = nanoTime;
+		this.lastNanos = nanoTime.getAsLong();
+	}
+
+	/**
+	 * Change la vitesse de la simulation, effective dès le prochain réveil de l'horloge.
+	 *
+	 * @param speed Multiplicateur du temps réel (1 : temps réel, 0.1 au minimum, UNBOUNDED : au plus vite)
+	 */
+	public void setSpeed(double speed) {
+		if (!(speed >= MIN_SPEED)) throw new IllegalArgumentException("speed must be >= " + MIN_SPEED + ": " + speed);
+		this.speed = speed;
+		LockSupport.unpark(thread);
+	}
+
+	/** @return Multiplicateur du temps réel (UNBOUNDED : sans limite) */
+	public double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Démarre l'horloge dans un thread démon "simulation-clock".
+	 */
+	public synchronized void start() {
+		if (running) return;
+		running = true;
+		thread = new Thread(this::run, "simulation-clock");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Arrête l'horloge après le tick en cours et attend la fin de son thread.
+	 */
+	public void stop() throws InterruptedException {
+		Thread t;
+		synchronized (this) {
+			running = false;
+			t = thread;
+		}
+		if (t != null && t != Thread.currentThread()) {
+			LockSupport.unpark(t);
+			t.join();
+		}
+	}
+
+	/**
+	 * Arrête l'horloge (voir stop()). Si le thread appelant est interrompu pendant l'attente,
+	 * son indicateur d'interruption est rétabli.
+	 */
+	@Override
+	public void close() {
+		try {
+			stop();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** @return true si l'horloge tourne */
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void run() {
+		synchronized (this) {
+			lastNanos = nanoTime.getAsLong();
+			accumulator = 0;
+		}
+		while (running) {
+			long wait = advance(nanoTime.getAsLong());
+			if (wait > 0) LockSupport.parkNanos(wait);
+		}
+	}
+
+	/**
+	 * Exécute les ticks dus à l'instant now.
+	 *
+	 * @param now Temps réel courant (même origine que la source de l'horloge)
+	 * @return Attente avant le prochain tick dû, en nanosecondes réelles (0 : ticks encore en retard)
+	 */
+	synchronized long advance(long now) {
+		double currentSpeed = speed;
+		long elapsed = now - lastNanos;
+		lastNanos = now;
+
+		if (currentSpeed == UNBOUNDED) {
+			accumulator = 0;
+			engine.step(BATCH_STEPS);
+			return 0;
+		}
+
+		accumulator += elapsed * currentSpeed;
+		long due = (long) (accumulator / stepNanos);
+		if (due > maxCatchUpSteps && policy == LagPolicy.SKIP) {
+			skippedSteps += due - maxCatchUpSteps;
+			accumulator -= (due - maxCatchUpSteps) * (double) stepNanos;
+			due = maxCatchUpSteps;
+		}
+		int steps = (int) Math.min(due, BATCH_STEPS);
+		for (int i = 0; i < steps; i++) {
+			engine.step();
+		}
+		accumulator -= steps * (double) stepNanos;
+		if (accumulator >= stepNanos) return 0;
+		return (long) Math.ceil((stepNanos - accumulator) / currentSpeed);
+	}
+
+	/** @return Durée simulée d'un tick, en nanosecondes */
+	public long getStepNanos() {
+		return stepNanos;
+	}
+
+	/** @return Retard conservé au plus par la politique SKIP, en ticks */
+	public int getMaxCatchUpSteps() {
+		return maxCatchUpSteps;
+	}
+
+	/** @return Ticks abandonnés par la politique SKIP */
+	public synchronized long getSkippedSteps() {
+		return skippedSteps;
+	}
+
+	/** @return Retard courant sur l'horloge, en ticks (0 : à l'heure) */
+	public synchronized long getLagSteps() {
+		return (long) (accumulator / stepNanos);
+	}
+
+	/** @return Le moteur cadencé */
+	public SimulationEngine getEngine() {
+		return engine;
+	}
+}
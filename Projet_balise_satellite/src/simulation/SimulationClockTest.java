@@ -0,0 +1,70 @@
+package simulation;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import announcer.Announcer;
+import simulation.SimulationClock.LagPolicy;
+
+public class SimulationClockTest {
+
+	@Test
+	public void testFixedStepSpeedAndLag() throws InterruptedException {
+		long[] now = { 0 };
+		SimulationEngine engine = new SimulationEngine(new Announcer());
+		SimulationClock clock = new SimulationClock(engine, 10, TimeUnit.MILLISECONDS, LagPolicy.CATCH_UP, 5,
+				() -> now[0]);
+		long ms = TimeUnit.MILLISECONDS.toNanos(1);
+
+		// Pas fixe : 25 ms réelles -> 2 ticks, les 5 ms restantes comptent pour le suivant (pas de dérive)
+		now[0] = 25 * ms;
+		assertEquals(5 * ms, clock.advance(now[0]));
+		assertEquals(2, engine.getTick());
+		now[0] = 30 * ms;
+		clock.advance(now[0]);
+		assertEquals(3, engine.getTick());
+
+		// x4 : 10 ms réelles -> 4 ticks ; x0.5 : 20 ms réelles par tick
+		clock.setSpeed(4);
+		now[0] = 40 * ms;
+		clock.advance(now[0]);
+		assertEquals(7, engine.getTick());
+		clock.setSpeed(0.5);
+		now[0] = 50 * ms;
+		assertEquals(10 * ms, clock.advance(now[0]));
+		assertEquals(7, engine.getTick());
+		try {
+			clock.setSpeed(0.05);
+			fail("speed below MIN_SPEED");
+		} catch (IllegalArgumentException e) {
+			// attendu
+		}
+
+		// Rattrapage : 100 ms de retard -> les 10 ticks sont exécutés
+		clock.setSpeed(1);
+		now[0] = 150 * ms;
+		clock.advance(now[0]);
+		assertEquals(17, engine.getTick());
+		assertEquals(0, clock.getSkippedSteps());
+
+		// Abandon : seuls 5 ticks sur 10 sont exécutés
+		SimulationEngine skipping = new SimulationEngine(new Announcer());
+		SimulationClock skip = new SimulationClock(skipping, 10, TimeUnit.MILLISECONDS, LagPolicy.SKIP, 5,
+				() -> now[0]);
+		skip.advance(now[0] + 100 * ms);
+		assertEquals(5, skipping.getTick());
+		assertEquals(5, skip.getSkippedSteps());
+		assertEquals(0, skip.getLagSteps());
+
+		// Horloge réelle, vitesse illimitée
+		SimulationEngine fast = new SimulationEngine(new Announcer());
+		try (SimulationClock real = new SimulationClock(fast, 30, TimeUnit.MILLISECONDS, LagPolicy.CATCH_UP)) {
+			real.setSpeed(SimulationClock.UNBOUNDED);
+			real.start();
+			Thread.sleep(50);
+		}
+		assertTrue(fast.getTick() > 100);
+	}
+}
@@ -0,0 +1,369 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+import announcer.Announcer;
+import balise.Balise;
+import balise.BaliseState;
+import satellite.Satellite;
+
+/**
+ * Moteur de la simulation, sans interface graphique (aucune dépendance AWT ou Swing) :
+ * on peut le piloter depuis une fenêtre (MainStrategy), un test ou un banc d'essai.
+ *
+ * Un tick (step()) enchaîne toujours les mêmes phases :
+ * 1. déplacement de chaque balise (Balise.move() : collecte, remontée, transfert, descente)
+ * 2. déplacement de chaque satellite, de sa vitesse propre
+ * 3. synchronisation : chaque balise en attente à la surface (REMONTEE) se synchronise
+ *    avec le premier satellite disponible aligné au-dessus d'elle
+ * 4. publication du FleetMoveEvent du tick (Fleet.publishMoves())
+ * 5. actions de fin de tick (addTickListener() : ex: frames.endTick(), journal.commit())
+ *
+ * Le moteur n'attend jamais : le rythme (Thread.sleep(), horloge) appartient à l'appelant.
+ * fastForward() avance de nombreux ticks d'un coup, en ne traitant que les changements d'état.
+ *
+ * Mode parallèle (setForkJoinPool()) : les balises sont déplacées par paquets sur un ForkJoinPool,
+ * dans un tick transactionnel de l'Announcer (Announcer.beginTick() / endTick()) ; les satellites
+ * sont ensuite déplacés puis réservés sur le thread appelant, dans l'ordre des balises.
+ * Les résultats ne dépendent pas du nombre de threads, ni l'ordre de livraison des événements :
+ * les phases se suivent comme en mode séquentiel (balises, satellites, synchronisations, flotte).
+ * À l'intérieur de la phase 1, les événements des balises sont livrés par getEntityId() croissant,
+ * c'est-à-dire dans l'ordre de création des balises : c'est l'ordre du mode séquentiel quand
+ * les balises sont ajoutées dans l'ordre où elles ont été créées (Scenario, MainStrategy), sinon
+ * seul l'ordre entre balises diffère. Les stratégies de mouvement ne doivent pas être partagées
+ * entre balises.
+ *
+ * Exemple :
+ * SimulationEngine engine = new SimulationEngine();
+ * engine.addBalise(balise);
+ * engine.addSatellite(satellite, 2);
+ * engine.runUntil(e -> e.getSynchronisationCount() >= 10, 1_000_000);
+ */
+public class SimulationEngine {
+	/** Balises par tâche du mode parallèle */
+	private static final int CHUNK = 2048;
+
+	private final Fleet fleet;
+	/** Bus des entités et du moteur (sans doublon), ouverts en mode transactionnel en mode parallèle */
+	private final List<Announcer> announcers = new ArrayList<>();
+	/** Vitesse de chaque satellite, indexée comme fleet.getSatellites() */
+	private int[] satelliteSpeeds = new int[0];
+	private final List<Runnable> tickListeners = new ArrayList<>();
+
+	private long synchronisations;
+	private long elapsedNanos;
+
+	private ForkJoinPool pool;
+	/** Balises candidates à la synchronisation, par paquet (mode parallèle) */
+	private int[][] chunkCandidates = new int[0][];
+	private int[] chunkCandidateCounts = new int[0];
+	/** Positions des satellites du tick, lues par les tâches (mode parallèle) */
+	private int[] satelliteX = new int[0];
+
+	/**
+	 * Moteur publiant ses FleetMoveEvent sur le bus partagé (Announcer.shared()).
+	 */
+	public SimulationEngine() {
+		this(Announcer.shared());
+	}
+
+	/**
+	 * @param announcer Bus des FleetMoveEvent (les entités émettent sur leur propre bus)
+	 */
+	public SimulationEngine(Announcer announcer) {
+		this.fleet = new Fleet(announcer);
+		this.announcers.add(announcer);
+	}
+
+	/**
+	 * Choisit le mode d'exécution des ticks.
+	 *
+	 * @param pool Pool des tâches de déplacement (ex: new ForkJoinPool(8)), ou null pour le mode séquentiel
+	 */
+	public void setForkJoinPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/** @return Pool du mode parallèle, ou null en mode séquentiel */
+	public ForkJoinPool getForkJoinPool() {
+		return pool;
+	}
+
+	/**
+	 * Ajoute une balise, déplacée et synchronisée à chaque tick à partir du suivant.
+	 */
+	public void addBalise(Balise balise) {
+		fleet.addBalise(balise);
+		addAnnouncer(balise.getAnnouncer());
+	}
+
+	/**
+	 * Ajoute un satellite.
+	 *
+	 * @param satellite Le satellite
+	 * @param speed Déplacement par tick, en pixels (Satellite.move(speed))
+	 */
+	public void addSatellite(Satellite satellite, int speed) {
+		fleet.addSatellite(satellite);
+		addAnnouncer(satellite.getAnnouncer());
+		int n = fleet.getSatellites().size();
+		satelliteSpeeds = Arrays.copyOf(satelliteSpeeds, n);
+		satelliteSpeeds[n - 1] = speed;
+	}
+
+	private void addAnnouncer(Announcer announcer) {
+		for (Announcer a : announcers) {
+			if (a == announcer) return;
+		}
+		announcers.add(announcer);
+	}
+
+	/**
+	 * Ajoute une action exécutée à la fin de chaque tick, dans l'ordre d'ajout.
+	 *
+	 * @param listener L'action (ex: frames::endTick, journal::commit)
+	 */
+	public void addTickListener(Runnable listener) {
+		tickListeners.add(listener);
+	}
+
+	/**
+	 * Exécute un tick complet.
+	 */
+	public void step() {
+		long start = System.nanoTime();
+		List<Balise> balises = fleet.getBalises();
+		List<Satellite> satellites = fleet.getSatellites();
+
+		if (pool != null) {
+			stepParallel(balises, satellites);
+		} else {
+			for (int i = 0, n = balises.size(); i < n; i++) {
+				balises.get(i).move();
+			}
+			for (int i = 0, n = satellites.size(); i < n; i++) {
+				satellites.get(i).move(satelliteSpeeds[i]);
+			}
+			synchronise(balises, satellites);
+		}
+		fleet.publishMoves();
+		for (int i = 0, n = tickListeners.size(); i < n; i++) {
+			tickListeners.get(i).run();
+		}
+		elapsedNanos += System.nanoTime() - start;
+	}
+
+	/**
+	 * Phase de synchronisation : une balise ne se synchronise qu'avec un seul satellite à la fois.
+	 */
+	private void synchronise(List<Balise> balises, List<Satellite> satellites) {
+		for (int i = 0, n = balises.size(); i < n; i++) {
+			Balise balise = balises.get(i);
+			if (balise.getState() != BaliseState.REMONTEE) continue;
+			for (int j = 0, m = satellites.size(); j < m; j++) {
+				if (balise.trySynchronize(satellites.get(j))) {
+					synchronisations++;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Avance de plusieurs ticks en mode événementiel : seules les balises qui changent d'état sont
+	 * mises à jour, au tick exact de leur changement (voir FastForward).
+	 *
+	 * L'état final (positions, mémoires, données reçues, synchronisations) est celui de step(ticks).
+	 * Seuls les événements de mouvement des ticks sautés (BaliseMoveEvent, SatelliteMoveEvent,
+	 * FleetMoveEvent) ne sont pas émis, et les actions de fin de tick ne sont exécutées qu'une fois,
+	 * à la fin du saut.
+	 *
+	 * @param ticks Nombre de ticks
+	 */
+	public void fastForward(long ticks) {
+		if (ticks <= 0) return;
+		long start = System.nanoTime();
+		new FastForward(this).run(getTick() + ticks);
+		for (int i = 0, n = tickListeners.size(); i < n; i++) {
+			tickListeners.get(i).run();
+		}
+		elapsedNanos += System.nanoTime() - start;
+	}
+
+	/**
+	 * Phases 1 à 3 en mode parallèle. Seule la phase 1 est parallèle, dans un tick transactionnel :
+	 * chaque tâche déplace un paquet de balises et relève celles qui attendent à la surface sous
+	 * la position qu'aura un satellite à ce tick (Satellite.nextX()), libre ou non (la disponibilité
+	 * change pendant la phase). Après endTick(), les satellites sont déplacés puis réservés sur ce
+	 * thread, dans l'ordre des balises, comme en mode séquentiel : leurs événements sont livrés
+	 * immédiatement, après ceux des balises.
+	 */
+	private void stepParallel(List<Balise> balises, List<Satellite> satellites) {
+		int ns = satellites.size();
+		if (satelliteX.length != ns) satelliteX = new int[ns];
+		for (int j = 0; j < ns; j++) {
+			satelliteX[j] = satellites.get(j).nextX(satelliteSpeeds[j]);
+		}
+
+		int chunks = (balises.size() + CHUNK - 1) / CHUNK;
+		if (chunkCandidates.length < chunks) {
+			int previous = chunkCandidates.length;
+			chunkCandidates = Arrays.copyOf(chunkCandidates, chunks);
+			chunkCandidateCounts = Arrays.copyOf(chunkCandidateCounts, chunks);
+			for (int c = previous; c < chunks; c++) {
+				chunkCandidates[c] = new int[CHUNK];
+			}
+		}
+		long tick = fleet.getTick();
+		for (Announcer a : announcers) {
+			a.beginTick(tick);
+		}
+		try {
+			if (chunks > 0) pool.invoke(new MoveTask(balises, 0, chunks));
+		} finally {
+			for (Announcer a : announcers) {
+				a.endTick();
+			}
+		}
+
+		for (int j = 0; j < ns; j++) {
+			satellites.get(j).move(satelliteSpeeds[j]);
+		}
+		for (int c = 0; c < chunks; c++) {
+			int[] candidates = chunkCandidates[c];
+			for (int k = 0, n = chunkCandidateCounts[c]; k < n; k++) {
+				Balise balise = balises.get(candidates[k]);
+				for (int j = 0; j < ns; j++) {
+					if (balise.trySynchronize(satellites.get(j))) {
+						synchronisations++;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Déplacement d'une plage de paquets de balises, coupée en deux jusqu'à un seul paquet.
+	 */
+	private final class MoveTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<Balise> balises;
+		private final int fromChunk, toChunk;
+
+		MoveTask(List<Balise> balises, int fromChunk, int toChunk) {
+			this.balises = balises;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (toChunk - fromChunk > 1) {
+				int middle = (fromChunk + toChunk) >>> 1;
+				invokeAll(new MoveTask(balises, fromChunk, middle), new MoveTask(balises, middle, toChunk));
+				return;
+			}
+			int[] candidates = chunkCandidates[fromChunk];
+			int count = 0;
+			for (int i = fromChunk * CHUNK, end = Math.min(i + CHUNK, balises.size()); i < end; i++) {
+				Balise balise = balises.get(i);
+				balise.move();
+				if (balise.getState() == BaliseState.REMONTEE && balise.getY() == Balise.MIN_Y
+						&& underSatellite(balise.getX())) {
+					candidates[count++] = i;
+				}
+			}
+			chunkCandidateCounts[fromChunk] = count;
+		}
+
+		private boolean underSatellite(int x) {
+			for (int sx : satelliteX) {
+				if (Math.abs(sx - x) <= Balise.SYNC_TOLERANCE) return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Exécute plusieurs ticks.
+	 *
+	 * @param ticks Nombre de ticks
+	 */
+	public void step(int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			step();
+		}
+	}
+
+	/**
+	 * Exécute des ticks jusqu'à ce que la condition soit vraie (testée avant chaque tick).
+	 *
+	 * @param condition Condition d'arrêt
+	 * @return Nombre de ticks exécutés
+	 */
+	public long runUntil(Predicate<? super SimulationEngine> condition) {
+		return runUntil(condition, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Exécute des ticks jusqu'à ce que la condition soit vraie, ou au plus maxTicks ticks.
+	 *
+	 * @param condition Condition d'arrêt (testée avant chaque tick)
+	 * @param maxTicks Nombre maximal de ticks
+	 * @return Nombre de ticks exécutés
+	 */
+	public long runUntil(Predicate<? super SimulationEngine> condition, long maxTicks) {
+		long ticks = 0;
+		while (ticks < maxTicks && !condition.test(this)) {
+			step();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	/** @return Déplacement par tick du satellite d'indice index */
+	int getSatelliteSpeed(int index) {
+		return satelliteSpeeds[index];
+	}
+
+	void countSynchronisation() {
+		synchronisations++;
+	}
+
+	/** @return Nombre de ticks exécutés */
+	public long getTick() {
+		return fleet.getTick();
+	}
+
+	/** @return Nombre de synchronisations démarrées */
+	public long getSynchronisationCount() {
+		return synchronisations;
+	}
+
+	/** @return Temps passé dans step(), en nanosecondes (actions de fin de tick comprises) */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/** @return La flotte simulée (balises, satellites, FleetMoveEvent) */
+	public Fleet getFleet() {
+		return fleet;
+	}
+
+	/** @return Les balises (non modifiable) */
+	public List<Balise> getBalises() {
+		return fleet.getBalises();
+	}
+
+	/** @return Les satellites (non modifiable) */
+	public List<Satellite> getSatellites() {
+		return fleet.getSatellites();
+	}
+}
@@ -0,0 +1,188 @@
+package simulation;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import announcer.AbstractEvent;
+import announcer.Announcer;
+import balise.Balise;
+import balise.BaliseState;
+import balise.SynchronisationStartEvent;
+import method.StaticMethod;
+import satellite.Satellite;
+
+public class SimulationEngineTest {
+
+	@Test
+	public void testCycleWithoutWindow() {
+		Announcer announcer = new Announcer();
+		SimulationEngine engine = new SimulationEngine(announcer);
+		// Balise juste sous la surface, satellite immobile au-dessus : un cycle complet en quelques ticks
+		Balise balise = new Balise(100, 300, 0, "Balise_engine", announcer);
+		balise.setMovingMethod(new StaticMethod(100, 300));
+		balise.setMaxMemory(6);
+		Satellite satellite = new Satellite(100, 50, 1, "Satellite_engine", announcer);
+		engine.addBalise(balise);
+		engine.addSatellite(satellite, 0);
+		int[] ends = new int[1];
+		engine.addTickListener(() -> ends[0]++);
+
+		engine.step();
+		assertEquals(1, engine.getTick());
+		assertEquals(1, ends[0]);
+
+		long ticks = engine.runUntil(e -> e.getSynchronisationCount() == 1, 1000);
+		assertTrue(ticks > 0 && ticks < 1000);
+		assertEquals(BaliseState.SYNCHRONISATION, balise.getState());
+		assertFalse(satellite.isDisponible());
+
+		engine.runUntil(e -> balise.getState() == BaliseState.COLLECTE, 1000);
+		assertTrue(satellite.isDisponible());
+		assertTrue(satellite.getDataReceived() >= 6);
+
+		long before = engine.getTick();
+		engine.step(5);
+		assertEquals(before + 5, engine.getTick());
+		assertEquals(engine.getTick(), ends[0]);
+		assertTrue(engine.getElapsedNanos() > 0);
+		// Condition déjà vraie : aucun tick
+		assertEquals(0, engine.runUntil(e -> true));
+	}
+
+	@Test
+	public void testFleetMoveEventContainsOnlyMovedEntities() {
+		Announcer announcer = new Announcer();
+		Fleet fleet = new Fleet(announcer);
+		Balise b1 = new Balise(100, 300, 0, "Balise_fleet1", announcer);
+		Balise b2 = new Balise(200, 400, 0, "Balise_fleet2", announcer);
+		Satellite s1 = new Satellite(50, 80, 1, "Satellite_fleet1", announcer);
+		fleet.addBalise(b1);
+		fleet.addBalise(b2);
+		fleet.addSatellite(s1);
+		List<FleetMoveEvent> received = new ArrayList<>();
+		fleet.registerFleetMoveEvent((FleetMoveListener) received::add);
+
+		// Première publication : toutes les entités
+		fleet.publishMoves();
+		FleetMoveEvent event = received.get(0);
+		assertEquals(0, event.getTick());
+		assertEquals(2, event.getBaliseCount());
+		assertEquals(b1.getEntityId(), event.getBaliseIds()[0]);
+		assertEquals(b2.getEntityId(), event.getBaliseIds()[1]);
+		assertEquals(400, event.getBaliseY()[1]);
+		assertEquals(1, event.getSatelliteCount());
+		assertEquals(50, event.getSatelliteX()[0]);
+		FleetMoveEvent first = event.copy();
+
+		// Seule b2 a bougé ; la balise ajoutée entre deux ticks est incluse
+		b2.setLocation(210, 390);
+		Balise b3 = new Balise(300, 500, 0, "Balise_fleet3", announcer);
+		fleet.addBalise(b3);
+		fleet.publishMoves();
+		assertEquals(2, received.size());
+		assertSame(event, received.get(1)); // instance réutilisée, contenu remis à zéro
+		assertEquals(1, event.getTick());
+		assertEquals(2, event.getBaliseCount());
+		assertEquals(b2.getEntityId(), event.getBaliseIds()[0]);
+		assertEquals(210, event.getBaliseX()[0]);
+		assertEquals(390, event.getBaliseY()[0]);
+		assertEquals(b3.getEntityId(), event.getBaliseIds()[1]);
+		assertEquals(0, event.getSatelliteCount());
+
+		// Aucun mouvement : événement vide, la copie du premier tick n'a pas changé
+		fleet.publishMoves();
+		assertEquals(2, event.getTick());
+		assertEquals(0, event.getBaliseCount());
+		assertEquals(0, event.getSatelliteCount());
+		assertEquals(0, first.getTick());
+		assertEquals(2, first.getBaliseCount());
+		assertEquals(200, first.getBaliseX()[1]);
+		assertEquals(3, fleet.getTick());
+	}
+
+	@Test
+	public void testParallelTickIsDeterministic() {
+		Balise.setConsoleTraces(false);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			// Plusieurs paquets de balises, satellites nombreux : synchronisations concurrentes à chaque tick
+			Scenario scenario = new Scenario(Arrays.asList(
+					"seed 4",
+					"satellite ? 80 1 3 x6",
+					"satellite ? 120 -1 2 x6",
+					"balise ? ? 1 linear 2 x3000",
+					"balise ? 520 0 static x2000",
+					"balise ? 480 1 sinusoidal 2 40 2 x1000",
+					"balise ? ? 1 vertical 2 450 550 x1000"));
+			List<String> reference = null;
+			for (ForkJoinPool mode : new ForkJoinPool[] { null, new ForkJoinPool(1), pool }) {
+				Announcer announcer = new Announcer();
+				SimulationEngine engine = scenario.build(announcer);
+				engine.setForkJoinPool(mode);
+				List<String> trace = new ArrayList<>();
+				announcer.subscribe(SynchronisationStartEvent.class, e -> trace.add(engine.getTick() + " "
+						+ e.getBalise().getId() + " " + e.getSatellite().getId()));
+				engine.step(1500);
+				for (Balise b : engine.getBalises()) {
+					trace.add(b.toString());
+				}
+				for (Satellite s : engine.getSatellites()) {
+					trace.add(s.getId() + " " + s.getX() + " " + s.getDataReceived());
+				}
+				if (reference == null) {
+					reference = trace;
+					assertTrue(engine.getSynchronisationCount() > 50);
+				} else {
+					assertEquals(reference, trace);
+				}
+				if (mode != null && mode != pool) mode.shutdown();
+			}
+		} finally {
+			pool.shutdown();
+			Balise.setConsoleTraces(true);
+		}
+	}
+
+	@Test
+	public void testParallelTickKeepsSequentialDeliveryOrder() {
+		Balise.setConsoleTraces(false);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Scenario scenario = new Scenario(Arrays.asList(
+					"seed 7",
+					"satellite ? 80 1 3 x4",
+					"balise ? ? 1 linear 2 x1500",
+					"balise ? 520 0 static x1000",
+					"balise ? ? 1 vertical 2 450 550 x1000"));
+			long[] reference = null;
+			for (ForkJoinPool mode : new ForkJoinPool[] { null, pool }) {
+				Announcer announcer = new Announcer();
+				SimulationEngine engine = scenario.build(announcer);
+				engine.setForkJoinPool(mode);
+				long[] trace = new long[2]; // nombre d'événements, empreinte de la séquence
+				announcer.subscribe(AbstractEvent.class, e -> {
+					Object source = e.getSource();
+					String name = (source instanceof Balise) ? ((Balise) source).getId()
+							: (source instanceof Satellite) ? ((Satellite) source).getId() : "";
+					trace[0]++;
+					trace[1] = 31 * trace[1] + e.getClass().getName().hashCode() * 17 + name.hashCode();
+				});
+				engine.step(300);
+				if (reference == null) {
+					reference = trace;
+				} else {
+					assertEquals(reference[0], trace[0]);
+					assertEquals(reference[1], trace[1]); // balises, satellites, synchronisations : même ordre
+				}
+			}
+		} finally {
+			pool.shutdown();
+			Balise.setConsoleTraces(true);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import announcer.Announcer;
+import announcer.Subscription;
+import balise.Balise;
+import balise.BaliseState;
+import balise.SynchronisationEndEvent;
+import balise.SynchronisationStartEvent;
+import satellite.Satellite;
+
+/**
+ * Bilan d'une simulation : synchronisations (par satellite, par balise, durée des transferts)
+ * et données collectées / livrées.
+ *
+ * S'abonne aux SynchronisationStartEvent et SynchronisationEndEvent du bus des entités ;
+ * les durées sont comptées en ticks du moteur.
+ *
+ * Exemple :
+ * SimulationStats stats = new SimulationStats(engine, announcer);
+ * engine.step(100_000);
+ * System.out.println(stats.report());
+ */
+public class SimulationStats implements AutoCloseable {
+	private final SimulationEngine engine;
+	private final Subscription starts;
+	private final Subscription ends;
+
+	private final Map<Satellite, long[]> perSatellite = new HashMap<>();
+	private final Map<Balise, int[]> perBalise = new HashMap<>();
+	/** Tick de début du transfert en cours de chaque balise */
+	private final Map<Balise, Long> transferStart = new HashMap<>();
+	private long synchronisations;
+	private long transfers;
+	private long transferTicks;
+	private long longestTransfer;
+
+	/**
+	 * @param engine Le moteur observé (balises, satellites, tick courant)
+	 * @param announcer Le bus sur lequel les balises émettent
+	 */
+	public SimulationStats(SimulationEngine engine, Announcer announcer) {
+		this.engine = engine;
+		this.starts = announcer.subscribe(SynchronisationStartEvent.class, this::onStart);
+		this.ends = announcer.subscribe(SynchronisationEndEvent.class, this::onEnd);
+	}
+
+	private synchronized void onStart(SynchronisationStartEvent e) {
+		synchronisations++;
+		perSatellite.computeIfAbsent(e.getSatellite(), s -> new long[1])[0]++;
+		perBalise.computeIfAbsent(e.getBalise(), b -> new int[1])[0]++;
+		transferStart.put(e.getBalise(), engine.getTick());
+	}
+
+	private synchronized void onEnd(SynchronisationEndEvent e) {
+		Long start = transferStart.remove(e.getBalise());
+		if (start == null) return;
+		long duration = engine.getTick() - start + 1;
+		transfers++;
+		transferTicks += duration;
+		longestTransfer = Math.max(longestTransfer, duration);
+	}
+
+	/** @return Nombre de synchronisations démarrées */
+	public synchronized long getSynchronisationCount() {
+		return synchronisations;
+	}
+
+	/** @return Nombre de synchronisations démarrées avec ce satellite */
+	public synchronized long getSynchronisationCount(Satellite satellite) {
+		long[] count = perSatellite.get(satellite);
+		return (count != null) ? count[0] : 0;
+	}
+
+	/** @return Nombre de synchronisations démarrées par cette balise */
+	public synchronized int getSynchronisationCount(Balise balise) {
+		int[] count = perBalise.get(balise);
+		return (count != null) ? count[0] : 0;
+	}
+
+	/** @return Données livrées aux satellites */
+	public long getDeliveredData() {
+		long delivered = 0;
+		for (Satellite s : engine.getSatellites()) {
+			delivered += s.getDataReceived();
+		}
+		return delivered;
+	}
+
+	/** @return Données encore en mémoire des balises */
+	public long getHeldData() {
+		long held = 0;
+		for (Balise b : engine.getBalises()) {
+			held += b.getMemory();
+		}
+		return held;
+	}
+
+	/** @return Données collectées depuis le début (livrées + encore en mémoire) */
+	public long getCollectedData() {
+		return getDeliveredData() + getHeldData();
+	}
+
+	/**
+	 * @return Rapport lisible : données, synchronisations par satellite et par balise, transferts, états
+	 */
+	public synchronized String report() {
+		List<Balise> balises = engine.getBalises();
+		List<Satellite> satellites = engine.getSatellites();
+		long collected = getCollectedData(), delivered = getDeliveredData();
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Données : %,d collectées, %,d livrées (%.1f %%), %,d en mémoire des balises%n",
+				collected, delivered, collected == 0 ? 0.0 : 100.0 * delivered / collected, collected - delivered));
+
+		sb.append(String.format("Synchronisations : %,d%n", synchronisations));
+		sb.append("  par satellite :");
+		for (Satellite s : satellites) {
+			sb.append(String.format(" %s=%,d", s.getId(), getSynchronisationCount(s)));
+		}
+		sb.append('\n');
+		if (!balises.isEmpty()) {
+			int[] counts = new int[balises.size()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = getSynchronisationCount(balises.get(i));
+			}
+			Arrays.sort(counts);
+			long never = Arrays.stream(counts).filter(c -> c == 0).count();
+			sb.append(String.format("  par balise : min %d, médiane %d, p90 %d, max %d (%,d balises jamais synchronisées)%n",
+					counts[0], counts[counts.length / 2], counts[counts.length * 9 / 10], counts[counts.length - 1], never));
+		}
+		if (transfers > 0) {
+			sb.append(String.format("  durée des transferts : moyenne %.1f ticks, max %d ticks%n",
+					transferTicks / (double) transfers, longestTransfer));
+		}
+
+		Map<BaliseState, Integer> states = new EnumMap<>(BaliseState.class);
+		for (Balise b : balises) {
+			states.merge(b.getState(), 1, Integer::sum);
+		}
+		sb.append("États finaux des balises : ").append(states).append('\n');
+		return sb.toString();
+	}
+
+	/**
+	 * Désabonne le bilan du bus.
+	 */
+	@Override
+	public void close() {
+		starts.close();
+		ends.close();
+	}
+}
@@ -0,0 +1,209 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Échéancier hiérarchique (timing wheel) d'identifiants entiers : au plus une échéance par identifiant.
+ *
+ * Quatre niveaux de 256 cases : le niveau 0 range les échéances du même bloc de 256 ticks que le tick
+ * courant, une case par tick ; le niveau 1 celles du même bloc de 65 536 ticks, une case par bloc de
+ * 256 ticks, etc. Au-delà de 2^32 ticks, les échéances attendent dans une liste de débordement.
+ * Programmer ou annuler une échéance coûte O(1) ; passer à la prochaine échéance redescend ses cases
+ * d'un niveau à la fois, sans parcourir les ticks vides (bitmaps d'occupation des cases).
+ *
+ * Exemple :
+ * TimingWheel wheel = new TimingWheel(balises.size(), 0);
+ * wheel.schedule(3, 1200);
+ * for (long t = wheel.nextTick(end); t != TimingWheel.NONE; t = wheel.nextTick(end)) {
+ *     for (int id = wheel.poll(); id >= 0; id = wheel.poll()) { ... }
+ * }
+ */
+final class TimingWheel {
+	/** Retourné par nextTick() quand aucune échéance n'est due avant la limite */
+	static final long NONE = Long.MIN_VALUE;
+
+	private static final int BITS = 8;
+	private static final int SLOTS = 1 << BITS;
+	private static final int LEVELS = 4;
+	private static final int OVERFLOW = LEVELS * SLOTS;
+	private static final int UNSCHEDULED = -1;
+
+	/** Premier identifiant de chaque case (et de la liste de débordement), -1 si vide */
+	private final int[] heads = new int[OVERFLOW + 1];
+	private final long[] occupied = new long[LEVELS * SLOTS / 64];
+	/** Listes doublement chaînées des identifiants d'une même case */
+	private final int[] next, prev;
+	private final int[] slotOf;
+	private final long[] ticks;
+
+	private long now;
+	private int size;
+
+	/**
+	 * @param capacity Identifiants acceptés : 0 à capacity - 1
+	 * @param now Tick courant (aucune échéance antérieure)
+	 */
+	TimingWheel(int capacity, long now) {
+		this.next = new int[capacity];
+		this.prev = new int[capacity];
+		this.slotOf = new int[capacity];
+		this.ticks = new long[capacity];
+		this.now = now;
+		Arrays.fill(heads, -1);
+		Arrays.fill(slotOf, UNSCHEDULED);
+	}
+
+	/**
+	 * Programme (ou reprogramme) l'échéance d'un identifiant.
+	 *
+	 * @param id L'identifiant
+	 * @param tick Échéance, au plus tôt le tick courant
+	 */
+	void schedule(int id, long tick) {
+		if (tick < now) throw new IllegalArgumentException("tick " + tick + " is before current tick " + now);
+		cancel(id);
+		ticks[id] = tick;
+		link(id, slotFor(tick));
+		size++;
+	}
+
+	/**
+	 * Annule l'échéance d'un identifiant (sans effet s'il n'en a pas).
+	 */
+	void cancel(int id) {
+		if (slotOf[id] == UNSCHEDULED) return;
+		unlink(id);
+		size--;
+	}
+
+	/** @return Échéance de l'identifiant, ou NONE */
+	long scheduledTick(int id) {
+		return (slotOf[id] == UNSCHEDULED) ? NONE : ticks[id];
+	}
+
+	/** @return Nombre d'échéances programmées */
+	int size() {
+		return size;
+	}
+
+	/** @return Tick courant */
+	long now() {
+		return now;
+	}
+
+	/**
+	 * Avance jusqu'à la prochaine échéance, sans dépasser limit.
+	 *
+	 * @param limit Tick maximal (au moins le tick courant)
+	 * @return Le nouveau tick courant, dont les échéances sont lues par poll(), ou NONE si aucune
+	 *         échéance n'arrive avant limit (le tick courant devient alors limit)
+	 */
+	long nextTick(long limit) {
+		while (true) {
+			int slot = firstOccupied(0, (int) (now & (SLOTS - 1)));
+			if (slot >= 0) {
+				long tick = (now & ~(long) (SLOTS - 1)) | slot;
+				return moveTo(tick, limit) ? tick : NONE;
+			}
+			int level = 1;
+			while (level < LEVELS && (slot = firstOccupied(level, 0)) < 0) {
+				level++;
+			}
+			if (level < LEVELS) {
+				// Début du bloc de la case : on y avance puis on redistribue la case sur les niveaux inférieurs
+				int shift = BITS * level;
+				long blockStart = (now & ~((1L << (shift + BITS)) - 1)) | ((long) slot << shift);
+				if (!moveTo(blockStart, limit)) return NONE;
+				cascade(level * SLOTS + slot);
+			} else if (heads[OVERFLOW] >= 0) {
+				long earliest = Long.MAX_VALUE;
+				for (int id = heads[OVERFLOW]; id >= 0; id = next[id]) {
+					earliest = Math.min(earliest, ticks[id]);
+				}
+				if (!moveTo(earliest, limit)) return NONE;
+				cascade(OVERFLOW);
+			} else {
+				moveTo(limit, limit);
+				return NONE;
+			}
+		}
+	}
+
+	/**
+	 * Retire une échéance du tick courant (après nextTick()).
+	 *
+	 * @return L'identifiant, ou -1 s'il n'y en a plus pour ce tick
+	 */
+	int poll() {
+		int id = heads[(int) (now & (SLOTS - 1))];
+		if (id >= 0) {
+			unlink(id);
+			size--;
+		}
+		return id;
+	}
+
+	private boolean moveTo(long tick, long limit) {
+		if (tick > limit) {
+			now = Math.max(now, limit);
+			return false;
+		}
+		now = tick;
+		return true;
+	}
+
+	private void cascade(int slot) {
+		int id = heads[slot];
+		while (id >= 0) {
+			int following = next[id];
+			unlink(id);
+			link(id, slotFor(ticks[id]));
+			id = following;
+		}
+	}
+
+	/** Case d'une échéance : le niveau le plus bas dont le bloc contient aussi le tick courant */
+	private int slotFor(long tick) {
+		long diff = tick ^ now;
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = BITS * level;
+			if ((diff >>> (shift + BITS)) == 0) {
+				return level * SLOTS + (int) ((tick >>> shift) & (SLOTS - 1));
+			}
+		}
+		return OVERFLOW;
+	}
+
+	/** @return Première case occupée du niveau à partir de from, ou -1 */
+	private int firstOccupied(int level, int from) {
+		int base = level * SLOTS / 64;
+		for (int word = from >>> 6; word < SLOTS / 64; word++) {
+			long bits = occupied[base + word];
+			if (word == from >>> 6) bits &= -1L << (from & 63);
+			if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+		}
+		return -1;
+	}
+
+	private void link(int id, int slot) {
+		int head = heads[slot];
+		next[id] = head;
+		prev[id] = -1;
+		if (head >= 0) prev[head] = id;
+		heads[slot] = id;
+		slotOf[id] = slot;
+		if (slot < OVERFLOW) occupied[slot >>> 6] |= 1L << (slot & 63);
+	}
+
+	private void unlink(int id) {
+		int slot = slotOf[id];
+		if (prev[id] >= 0) {
+			next[prev[id]] = next[id];
+		} else {
+			heads[slot] = next[id];
+			if (heads[slot] < 0 && slot < OVERFLOW) occupied[slot >>> 6] &= ~(1L << (slot & 63));
+		}
+		if (next[id] >= 0) prev[next[id]] = prev[id];
+		slotOf[id] = UNSCHEDULED;
+	}
+}